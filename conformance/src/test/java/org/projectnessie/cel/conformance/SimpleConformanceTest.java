@@ -32,6 +32,7 @@ import static org.projectnessie.cel.EnvOption.declarations;
 import static org.projectnessie.cel.EnvOption.macros;
 import static org.projectnessie.cel.EnvOption.types;
 import static org.projectnessie.cel.Library.StdLib;
+import static org.projectnessie.cel.ProgramOption.primitiveArithmetic;
 import static org.projectnessie.cel.common.types.BoolT.True;
 import static org.projectnessie.cel.common.types.BytesT.bytesOf;
 import static org.projectnessie.cel.common.types.DoubleT.doubleOf;
@@ -97,12 +98,14 @@ import org.projectnessie.cel.Env.AstIssuesTuple;
 import org.projectnessie.cel.EnvOption;
 import org.projectnessie.cel.Program;
 import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.ProgramOption;
 import org.projectnessie.cel.common.CELError;
 import org.projectnessie.cel.common.types.Err;
 import org.projectnessie.cel.common.types.IteratorT;
 import org.projectnessie.cel.common.types.NullT;
 import org.projectnessie.cel.common.types.TypeT;
 import org.projectnessie.cel.common.types.Types;
+import org.projectnessie.cel.common.types.UnknownT;
 import org.projectnessie.cel.common.types.ref.TypeAdapter;
 import org.projectnessie.cel.common.types.ref.Val;
 import org.projectnessie.cel.common.types.traits.Lister;
@@ -333,6 +336,10 @@ class SimpleConformanceTest {
       match(testPath, test, ConformanceEvaluator.evalParsed(test, parsedExpr));
       if (checkedExpr != null) {
         match(testPath, test, ConformanceEvaluator.evalChecked(test, checkedExpr));
+        match(
+            testPath,
+            test,
+            ConformanceEvaluator.evalChecked(test, checkedExpr, primitiveArithmetic()));
       }
     }
   }
@@ -390,14 +397,15 @@ class SimpleConformanceTest {
       return eval(test, parsedExprToAst(parsedExpr));
     }
 
-    private static ExprValue evalChecked(SimpleTest test, CheckedExpr checkedExpr) {
-      return eval(test, checkedExprToAst(checkedExpr));
+    private static ExprValue evalChecked(
+        SimpleTest test, CheckedExpr checkedExpr, ProgramOption... programOptions) {
+      return eval(test, checkedExprToAst(checkedExpr), programOptions);
     }
 
-    private static ExprValue eval(SimpleTest test, Ast ast) {
+    private static ExprValue eval(SimpleTest test, Ast ast, ProgramOption... programOptions) {
       Env env = newEnv(conformanceEnvOptions(test).toArray(new EnvOption[0]));
 
-      Program program = env.program(ast);
+      Program program = env.program(ast, programOptions);
       Map<String, Object> args = new HashMap<>();
       test.getBindingsMap()
           .forEach(
@@ -672,9 +680,11 @@ class SimpleConformanceTest {
 
   private static ExprValue refValueToExprValue(Val res) {
     if (isUnknown(res)) {
-      return ExprValue.newBuilder()
-          .setUnknown(UnknownSet.newBuilder().addExprs(res.intValue()))
-          .build();
+      UnknownSet.Builder unknowns = UnknownSet.newBuilder();
+      for (long id : ((UnknownT) res).ids()) {
+        unknowns.addExprs(id);
+      }
+      return ExprValue.newBuilder().setUnknown(unknowns).build();
     }
     return ExprValue.newBuilder().setValue(refValueToValue(res)).build();
   }
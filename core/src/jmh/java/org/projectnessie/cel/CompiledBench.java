@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel;
+
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.ProgramOption.primitiveArithmetic;
+import static org.projectnessie.cel.Util.mapOf;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.checker.Decls;
+
+/**
+ * Compares the evaluation of interpreted programs with and without primitive arithmetic, see {@link
+ * ProgramOption#primitiveArithmetic()}.
+ */
+@Warmup(iterations = 1, time = 1500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 300, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompiledBench {
+
+  @State(Scope.Benchmark)
+  public static class Prg {
+
+    @Param({
+      "a * b + a / b - a % b == 32 && a - b > 0 && b <= a",
+      "(x * 2.0 + y) / 3.0 > x - y || x * y < 0.5",
+      "a + b * 2 > 20 && s.startsWith('a')"
+    })
+    public String expression;
+
+    @Param({"false", "true"})
+    public boolean primitiveArithmetic;
+
+    private Program prg;
+    private Map<Object, Object> vars;
+
+    @Setup
+    public void init() {
+      Env e =
+          newEnv(
+              declarations(
+                  Decls.newVar("a", Decls.Int),
+                  Decls.newVar("b", Decls.Int),
+                  Decls.newVar("x", Decls.Double),
+                  Decls.newVar("y", Decls.Double),
+                  Decls.newVar("s", Decls.String)));
+      AstIssuesTuple astIss = e.compile(expression);
+      if (astIss.hasIssues()) {
+        throw new IllegalArgumentException(astIss.getIssues().toString());
+      }
+      vars = mapOf("a", 10L, "b", 3L, "x", 2.5d, "y", 0.5d, "s", "abc");
+
+      prg =
+          primitiveArithmetic
+              ? e.program(astIss.getAst(), primitiveArithmetic())
+              : e.program(astIss.getAst());
+    }
+  }
+
+  @Benchmark
+  public void eval(Prg prg) {
+    prg.prg.eval(prg.vars);
+  }
+}
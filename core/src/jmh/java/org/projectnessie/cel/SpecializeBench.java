@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel;
+
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.ProgramOption.globals;
+import static org.projectnessie.cel.Util.mapOf;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.checker.Decls;
+
+/**
+ * Compares the evaluation of a generic program, which gets the tenant configuration as globals,
+ * with the program specialized for the tenant, see {@link Env#specialize(Ast, Map,
+ * ProgramOption...)}.
+ */
+@Warmup(iterations = 1, time = 1500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 300, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpecializeBench {
+
+  @State(Scope.Benchmark)
+  public static class Prg {
+
+    @Param({
+      "tenant.tier == 'premium' ? request.size < tenant.limits.premium"
+          + " : request.size < tenant.limits.basic",
+      "tenant.features.exists(f, f == 'uploads') && request.size < tenant.limits[tenant.tier]"
+          + " && request.region in tenant.regions"
+    })
+    public String expression;
+
+    @Param({"false", "true"})
+    public boolean specialize;
+
+    private Program prg;
+    private Map<Object, Object> vars;
+
+    @Setup
+    public void init() {
+      Env e =
+          newEnv(
+              declarations(
+                  Decls.newVar("tenant", Decls.newMapType(Decls.String, Decls.Dyn)),
+                  Decls.newVar("request", Decls.newMapType(Decls.String, Decls.Dyn))));
+      AstIssuesTuple astIss = e.compile(expression);
+      if (astIss.hasIssues()) {
+        throw new IllegalArgumentException(astIss.getIssues().toString());
+      }
+      Map<String, Object> tenant =
+          mapOf(
+              "tenant",
+              mapOf(
+                  "tier",
+                  "premium",
+                  "limits",
+                  mapOf("basic", 100L, "premium", 1000L),
+                  "features",
+                  Arrays.asList("reports", "exports", "uploads"),
+                  "regions",
+                  Arrays.asList("eu-central", "eu-west", "us-east")));
+      vars = mapOf("request", mapOf("size", 500L, "region", "eu-west"));
+
+      prg =
+          specialize
+              ? e.specialize(astIss.getAst(), tenant)
+              : e.program(astIss.getAst(), globals(tenant));
+    }
+  }
+
+  @Benchmark
+  public void eval(Prg prg) {
+    prg.prg.eval(prg.vars);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.extension.NetworkLib.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.checker.Decls;
+
+@Warmup(iterations = 1, time = 1500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 300, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NetworkLibBench {
+
+  @State(Scope.Benchmark)
+  public static class NetworkState {
+    @Param({"containsIPv4", "containsIPv6", "masked", "canonical", "cidrSet", "cidrListScan"})
+    public String expression;
+
+    Program program;
+    Map<String, Object> vars;
+
+    @Setup
+    public void init() {
+      switch (expression) {
+        case "containsIPv4":
+          program = program("cidr('10.0.0.0/8').containsIP(addr)");
+          vars = Map.of("addr", "10.20.30.40");
+          return;
+        case "containsIPv6":
+          program = program("cidr('2001:db8::/32').containsIP(addr)");
+          vars = Map.of("addr", "2001:db8:1234:5678::1");
+          return;
+        case "masked":
+          program = program("cidr(net).masked()");
+          vars = Map.of("net", "2001:db8:1234:5678::1/48");
+          return;
+        case "canonical":
+          program = program("ip.isCanonical(addr)");
+          vars = Map.of("addr", "2001:db8::68");
+          return;
+        case "cidrSet":
+          program = program("blocked.containsIP(addr)");
+          vars = Map.of("blocked", NetworkLib.newCidrSet(blockList()), "addr", "10.20.30.40");
+          return;
+        case "cidrListScan":
+          program = program("blockedList.exists(c, cidr(c).containsIP(addr))");
+          vars = Map.of("blockedList", blockList(), "addr", "10.20.30.40");
+          return;
+        default:
+          throw new IllegalArgumentException("Unknown network benchmark expression: " + expression);
+      }
+    }
+  }
+
+  @Benchmark
+  public void eval(NetworkState state, Blackhole blackhole) {
+    blackhole.consume(state.program.eval(state.vars));
+  }
+
+  private static Program program(String expression) {
+    Env env =
+        newEnv(
+            network(),
+            declarations(
+                Decls.newVar("addr", Decls.String),
+                Decls.newVar("net", Decls.String),
+                Decls.newVar("blocked", Decls.newObjectType("net.CIDRSet")),
+                Decls.newVar("blockedList", Decls.newListType(Decls.String))));
+    AstIssuesTuple ast = env.compile(expression);
+    if (ast.hasIssues()) {
+      throw ast.getIssues().err();
+    }
+    return env.program(ast.getAst());
+  }
+
+  /** BlockList returns 10000 /24 networks, none of which contains the benchmarked address. */
+  private static List<String> blockList() {
+    List<String> cidrs = new ArrayList<>(10_000);
+    for (int i = 0; i < 10_000; i++) {
+      cidrs.add("172." + (16 + i / 256) + "." + (i % 256) + ".0/24");
+    }
+    return cidrs;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.extension.StringsLib.strings;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.checker.Decls;
+
+@Warmup(iterations = 1, time = 1500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 300, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringsLibBench {
+
+  @State(Scope.Benchmark)
+  public static class StringsState {
+    @Param({
+      "line.charAt(16)",
+      "line.indexOf('level=')",
+      "line.indexOf('=', 16)",
+      "line.substring(6, 20)",
+      "line.size()"
+    })
+    public String expression;
+
+    /** Whether the log line ends with a character outside the basic multilingual plane. */
+    @Param({"false", "true"})
+    public boolean supplementary;
+
+    @Param({"4096", "65536"})
+    public int length;
+
+    Program program;
+    Map<String, Object> vars;
+
+    @Setup
+    public void init() {
+      Env env = newEnv(strings(), declarations(Decls.newVar("line", Decls.String)));
+      AstIssuesTuple ast = env.compile(expression);
+      if (ast.hasIssues()) {
+        throw ast.getIssues().err();
+      }
+      program = env.program(ast.getAst());
+      vars = Map.of("line", logLine(length, supplementary));
+    }
+  }
+
+  /**
+   * Each evaluation reads {@code line} from the activation, so every call gets a fresh StringT and
+   * any per-value index has to be rebuilt.
+   */
+  @Benchmark
+  public void eval(StringsState state, Blackhole blackhole) {
+    blackhole.consume(state.program.eval(state.vars));
+  }
+
+  private static String logLine(int length, boolean supplementary) {
+    StringBuilder sb = new StringBuilder(length + 2);
+    sb.append("ts=42 level=info msg=");
+    while (sb.length() < length) {
+      sb.append("lorem ipsum dolor sit amet ");
+    }
+    sb.setLength(length);
+    if (supplementary) {
+      sb.append("\uD83D\uDE05");
+    }
+    return sb.toString();
+  }
+}
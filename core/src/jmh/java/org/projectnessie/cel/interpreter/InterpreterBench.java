@@ -47,6 +47,8 @@ public class InterpreterBench {
 
     @Param({
       "and_false_2nd",
+      "and_chain_100",
+      "or_chain_1000",
       "call_no_args",
       "call_one_arg",
       "call_two_arg",
@@ -57,6 +59,11 @@ public class InterpreterBench {
       "call_ns_func_unchecked_in_pkg",
       "timestamp_eq_timestamp",
       "timestamp_le_timestamp",
+      "typed_int_arithmetic",
+      "untyped_int_arithmetic",
+      "typed_double_compare",
+      "typed_string_compare",
+      "untyped_string_compare",
       "macro_has_pb3_field",
       "nested_proto_field_with_index",
       "parse_nest_message_literal",
@@ -21,11 +21,18 @@ import static org.projectnessie.cel.interpreter.Activation.newPartialActivation;
 import static org.projectnessie.cel.interpreter.AttributeFactory.newAttributeFactory;
 import static org.projectnessie.cel.interpreter.AttributePattern.newAttributePattern;
 import static org.projectnessie.cel.interpreter.AttributePattern.newPartialAttributeFactory;
+import static org.projectnessie.cel.interpreter.CostTracker.newCostTracker;
 import static org.projectnessie.cel.interpreter.Dispatcher.newDispatcher;
 import static org.projectnessie.cel.interpreter.EvalState.newEvalState;
+import static org.projectnessie.cel.interpreter.InterpretableDecorator.decDisableShortcircuits;
+import static org.projectnessie.cel.interpreter.Interpreter.costTracking;
 import static org.projectnessie.cel.interpreter.Interpreter.exhaustiveEval;
+import static org.projectnessie.cel.interpreter.Interpreter.memoize;
 import static org.projectnessie.cel.interpreter.Interpreter.newInterpreter;
 import static org.projectnessie.cel.interpreter.Interpreter.optimize;
+import static org.projectnessie.cel.interpreter.Interpreter.primitiveArithmetic;
+import static org.projectnessie.cel.interpreter.Interpreter.profile;
+import static org.projectnessie.cel.interpreter.Interpreter.reorderLogical;
 import static org.projectnessie.cel.interpreter.Interpreter.trackState;
 import static org.projectnessie.cel.parser.Unparser.unparse;
 
@@ -41,11 +48,15 @@ import java.util.Map;
 import org.projectnessie.cel.interpreter.Activation;
 import org.projectnessie.cel.interpreter.Activation.PartialActivation;
 import org.projectnessie.cel.interpreter.AttributePattern;
+import org.projectnessie.cel.interpreter.CostTracker;
 import org.projectnessie.cel.interpreter.Coster;
 import org.projectnessie.cel.interpreter.Coster.Cost;
 import org.projectnessie.cel.interpreter.Dispatcher;
+import org.projectnessie.cel.interpreter.EvalState;
 import org.projectnessie.cel.interpreter.InterpretableDecorator;
 import org.projectnessie.cel.interpreter.Interpreter;
+import org.projectnessie.cel.jfr.CelEvent;
+import org.projectnessie.cel.jfr.ProgramEvent;
 
 public final class CEL {
 
@@ -56,6 +67,23 @@ public final class CEL {
    * <p>If the program cannot be configured the prog will be nil, with a non-nil error response.
    */
   public static Program newProgram(Env e, Ast ast, ProgramOption... opts) {
+    ProgramEvent event = new ProgramEvent();
+    event.begin();
+    Program prg = null;
+    try {
+      prg = createProgram(e, ast, event, opts);
+      return prg;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.setExpression(ast);
+        event.setOutcome(prg != null ? CelEvent.OutcomeOk : CelEvent.OutcomeFailure);
+        event.commit();
+      }
+    }
+  }
+
+  private static Program createProgram(Env e, Ast ast, ProgramEvent event, ProgramOption... opts) {
     // Build the dispatcher, interpreter, and default program value.
     Dispatcher disp = newDispatcher();
 
@@ -75,6 +103,15 @@ public final class CEL {
       }
     }
 
+    if (event.isEnabled()) {
+      event.setEvalOptions(p.evalOpts.toString());
+    }
+
+    // The expression attributes of the eval events are computed once and shared by all the
+    // programs generated by a factory.
+    p.expressionHash = CelEvent.expressionHash(ast);
+    p.expressionSize = CelEvent.expressionSize(ast);
+
     // Set the attribute factory after the options have been set.
     if (p.evalOpts.contains(EvalOption.OptPartialEval)) {
       p.attrFactory =
@@ -99,6 +136,40 @@ public final class CEL {
 
     Prog pp = p;
 
+    // Memoization returns the values of previous evaluations, which would not be observed by the
+    // state or cost tracking.
+    if (p.memo != null
+        && (p.evalOpts.contains(EvalOption.OptTrackCost)
+            || p.evalOpts.contains(EvalOption.OptExhaustiveEval)
+            || p.evalOpts.contains(EvalOption.OptTrackState))) {
+      throw new IllegalArgumentException(
+          "evaluation sessions do not support state tracking, exhaustive evaluation or cost"
+              + " tracking");
+    }
+
+    // Cost tracking requires a fresh CostTracker for each Eval() call; the tracker has to wrap the
+    // exhaustive variants of the nodes and must itself be observed by the state tracking.
+    if (p.evalOpts.contains(EvalOption.OptTrackCost)) {
+      ProgFactory factory =
+          state -> {
+            List<InterpretableDecorator> decs = new ArrayList<>(decorators);
+            if (pp.evalOpts.contains(EvalOption.OptExhaustiveEval)) {
+              decs.add(decDisableShortcircuits());
+            }
+            CostTracker tracker = newCostTracker(pp.costEstimator, pp.costLimit);
+            decs.add(costTracking(tracker));
+            if (pp.evalOpts.contains(EvalOption.OptExhaustiveEval)
+                || pp.evalOpts.contains(EvalOption.OptTrackState)) {
+              decs.add(trackState(state));
+            }
+            Prog clone = new Prog(e, pp.evalOpts, pp.defaultVars, disp, interp, state, tracker);
+            clone.expressionHash = pp.expressionHash;
+            clone.expressionSize = pp.expressionSize;
+            return initInterpretable(clone, ast, withProfiler(pp, ast, decs));
+          };
+      return initProgGen(factory, stateSize(ast));
+    }
+
     // Enable exhaustive eval over state tracking since it offers a superset of features.
     if (p.evalOpts.contains(EvalOption.OptExhaustiveEval)) {
       // State tracking requires that each Eval() call operate on an isolated EvalState
@@ -108,9 +179,11 @@ public final class CEL {
             List<InterpretableDecorator> decs = new ArrayList<>(decorators);
             decs.add(exhaustiveEval(state));
             Prog clone = new Prog(e, pp.evalOpts, pp.defaultVars, disp, interp, state);
-            return initInterpretable(clone, ast, decs);
+            clone.expressionHash = pp.expressionHash;
+            clone.expressionSize = pp.expressionSize;
+            return initInterpretable(clone, ast, withProfiler(pp, ast, decs));
           };
-      return initProgGen(factory);
+      return initProgGen(factory, stateSize(ast));
     } else if (p.evalOpts.contains(EvalOption.OptTrackState)) {
       // Enable state tracking last since it too requires the factory approach but is less
       // featured than the ExhaustiveEval decorator.
@@ -119,21 +192,67 @@ public final class CEL {
             List<InterpretableDecorator> decs = new ArrayList<>(decorators);
             decs.add(trackState(state));
             Prog clone = new Prog(e, pp.evalOpts, pp.defaultVars, disp, interp, state);
-            return initInterpretable(clone, ast, decs);
+            clone.expressionHash = pp.expressionHash;
+            clone.expressionSize = pp.expressionSize;
+            return initInterpretable(clone, ast, withProfiler(pp, ast, decs));
           };
-      return initProgGen(factory);
+      return initProgGen(factory, stateSize(ast));
+    }
+    // Compile the primitive arithmetic before reordering the logical operators. Only logical
+    // operators over two compiled comparisons are compiled, all others remain for reorderLogical.
+    // Profiled programs are not compiled, as the compiled nodes hide the nodes they replace from
+    // the profiler.
+    if (p.primitiveArithmetic && p.profiler == null) {
+      decorators.add(primitiveArithmetic());
     }
-    return initInterpretable(p, ast, decorators);
+    if (p.reorderLogical) {
+      decorators.add(reorderLogical(p.adaptiveLogical));
+    }
+    if (p.memo != null) {
+      decorators.add(memoize(p.memo));
+      initInterpretable(p, ast, withProfiler(p, ast, decorators));
+      p.interpretable = p.memo.root(p.interpretable);
+      return p;
+    }
+    return initInterpretable(p, ast, withProfiler(p, ast, decorators));
+  }
+
+  /**
+   * withProfiler appends the profiling decorator, if configured, which must be the last decorator
+   * to account the nodes produced by all other decorators.
+   */
+  private static List<InterpretableDecorator> withProfiler(
+      Prog p, Ast ast, List<InterpretableDecorator> decorators) {
+    if (p.profiler != null) {
+      decorators.add(profile(p.profiler, ast.getSourceInfo()));
+    }
+    return decorators;
   }
 
   /**
    * initProgGen tests the factory object by calling it once and returns a factory-based Program if
    * the test is successful.
    */
-  private static Program initProgGen(ProgFactory factory) {
+  private static Program initProgGen(ProgFactory factory, int stateSize) {
     // Test the factory to make sure that configuration errors are spotted at config
-    factory.apply(newEvalState());
-    return new ProgGen(factory);
+    factory.apply(newEvalState(stateSize));
+    return new ProgGen(factory, stateSize);
+  }
+
+  /**
+   * stateSize returns the size of the EvalState for the Ast, which is the largest expression id
+   * recorded in the source info plus one. The EvalState grows on demand, if the Ast contains larger
+   * ids.
+   */
+  private static int stateSize(Ast ast) {
+    if (ast.getSourceInfo() == null || ast.getSourceInfo().getPositionsCount() == 0) {
+      return EvalState.DefaultStateSize;
+    }
+    long maxID = 0L;
+    for (long id : ast.getSourceInfo().getPositionsMap().keySet()) {
+      maxID = Math.max(maxID, id);
+    }
+    return (int) Math.min(maxID + 1L, Integer.MAX_VALUE);
   }
 
   /**
@@ -22,8 +22,14 @@ import static org.projectnessie.cel.CEL.newProgram;
 import static org.projectnessie.cel.CEL.parsedExprToAst;
 import static org.projectnessie.cel.CEL.partialVars;
 import static org.projectnessie.cel.EnvOption.EnvFeature.FeatureDisableDynamicAggregateLiterals;
+import static org.projectnessie.cel.EnvOption.EnvFeature.FeatureOptionalSyntax;
+import static org.projectnessie.cel.EvalOption.OptExhaustiveEval;
+import static org.projectnessie.cel.EvalOption.OptPartialEval;
+import static org.projectnessie.cel.EvalOption.OptTrackState;
 import static org.projectnessie.cel.Issues.newIssues;
 import static org.projectnessie.cel.Library.StdLib;
+import static org.projectnessie.cel.ProgramOption.evalOptions;
+import static org.projectnessie.cel.ProgramOption.globals;
 import static org.projectnessie.cel.common.Location.NoLocation;
 import static org.projectnessie.cel.common.Source.newTextSource;
 import static org.projectnessie.cel.common.containers.Container.defaultContainer;
@@ -31,7 +37,7 @@ import static org.projectnessie.cel.common.types.pb.ProtoTypeRegistry.newRegistr
 import static org.projectnessie.cel.interpreter.Activation.emptyActivation;
 import static org.projectnessie.cel.interpreter.AstPruner.pruneAst;
 import static org.projectnessie.cel.interpreter.AttributePattern.newAttributePattern;
-import static org.projectnessie.cel.parser.Parser.parseWithMacros;
+import static org.projectnessie.cel.interpreter.EvalMemo.newEvalMemo;
 
 import com.google.api.expr.v1alpha1.CheckedExpr;
 import com.google.api.expr.v1alpha1.Decl;
@@ -39,15 +45,20 @@ import com.google.api.expr.v1alpha1.Decl.DeclKindCase;
 import com.google.api.expr.v1alpha1.Expr;
 import com.google.api.expr.v1alpha1.ParsedExpr;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.projectnessie.cel.EnvOption.EnvFeature;
 import org.projectnessie.cel.checker.Checker;
 import org.projectnessie.cel.checker.Checker.CheckResult;
 import org.projectnessie.cel.checker.CheckerEnv;
+import org.projectnessie.cel.checker.CostChecker;
+import org.projectnessie.cel.checker.CostEstimator;
+import org.projectnessie.cel.checker.CostEstimator.CostEstimate;
 import org.projectnessie.cel.common.Errors;
 import org.projectnessie.cel.common.Source;
 import org.projectnessie.cel.common.containers.Container;
@@ -56,7 +67,13 @@ import org.projectnessie.cel.common.types.ref.TypeProvider;
 import org.projectnessie.cel.common.types.ref.TypeRegistry;
 import org.projectnessie.cel.interpreter.Activation.PartialActivation;
 import org.projectnessie.cel.interpreter.AttributePattern;
+import org.projectnessie.cel.interpreter.EvalMemo;
+import org.projectnessie.cel.jfr.CelEvent;
+import org.projectnessie.cel.jfr.CheckEvent;
+import org.projectnessie.cel.jfr.ParseEvent;
 import org.projectnessie.cel.parser.Macro;
+import org.projectnessie.cel.parser.Options;
+import org.projectnessie.cel.parser.Parser;
 import org.projectnessie.cel.parser.Parser.ParseResult;
 
 /**
@@ -177,6 +194,19 @@ public final class Env {
    * the mere presence of an Ast does not imply that it is valid for use.
    */
   public AstIssuesTuple check(Ast ast) {
+    CheckEvent event = new CheckEvent();
+    event.begin();
+    AstIssuesTuple result = checkAst(ast);
+    event.end();
+    if (event.shouldCommit()) {
+      event.setExpression(ast);
+      event.setOutcome(result.hasIssues() ? CelEvent.OutcomeIssues : CelEvent.OutcomeOk);
+      event.commit();
+    }
+    return result;
+  }
+
+  private AstIssuesTuple checkAst(Ast ast) {
     // Note, errors aren't currently possible on the Ast to ParsedExpr conversion.
     ParsedExpr pe = astToParsedExpr(ast);
 
@@ -255,6 +285,22 @@ public final class Env {
     return new AstIssuesTuple(aiCheck.ast, iss);
   }
 
+  /**
+   * EstimateCost estimates the cost interval of a type-checked Ast without evaluating it.
+   *
+   * <p>The size of input values is taken from the given {@link CostEstimator}, for example
+   * created via {@link CostEstimator#sizeHints(java.util.Map)}. Values without a size hint are
+   * assumed to be of unbounded size, so expressions that iterate over them have an unbounded
+   * maximum cost. The estimate can be used to reject expensive expressions before a Program is
+   * created for them.
+   */
+  public CostEstimate estimateCost(Ast ast, CostEstimator estimator) {
+    if (!ast.isChecked()) {
+      throw new IllegalArgumentException("cost estimation requires a checked ast");
+    }
+    return CostChecker.cost(ast.getExpr(), ast.refMap, ast.typeMap, estimator);
+  }
+
   /**
    * Extend the current environment with additional options to produce a new Env.
    *
@@ -340,14 +386,32 @@ public final class Env {
    * the mere presence of an Ast does not imply that it is valid for use.
    */
   public AstIssuesTuple parseSource(Source src) {
-    ParseResult res = parseWithMacros(src, macros);
+    ParseEvent event = new ParseEvent();
+    event.begin();
+    ParseResult res =
+        Parser.parse(
+            Options.builder()
+                .macros(macros)
+                .enableOptionalSyntax(hasFeature(FeatureOptionalSyntax))
+                .build(),
+            src);
+    AstIssuesTuple result;
     if (res.hasErrors()) {
-      return new AstIssuesTuple(null, newIssues(res.getErrors()));
+      result = new AstIssuesTuple(null, newIssues(res.getErrors()));
+    } else {
+      // Manually create the Ast to ensure that the text source information is propagated on
+      // subsequent calls to Check.
+      result =
+          new AstIssuesTuple(
+              new Ast(res.getExpr(), res.getSourceInfo(), src), Issues.noIssues(src));
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.setExpression(src);
+      event.setOutcome(res.hasErrors() ? CelEvent.OutcomeIssues : CelEvent.OutcomeOk);
+      event.commit();
     }
-    // Manually create the Ast to ensure that the text source information is propagated on
-    // subsequent calls to Check.
-    return new AstIssuesTuple(
-        new Ast(res.getExpr(), res.getSourceInfo(), src), Issues.noIssues(src));
+    return result;
   }
 
   /** Program generates an evaluable instance of the Ast within the environment (Env). */
@@ -440,6 +504,67 @@ public final class Env {
     return checkedIss.ast;
   }
 
+  /**
+   * SpecializeAst partially evaluates the Ast with the given variable bindings and returns the
+   * residual Ast, in which all subexpressions that only depend on the bound variables are folded
+   * into literals. All other variables declared in the Env are treated as unknown.
+   *
+   * <p>The given ProgramOption values are used for the partial evaluation, for example to provide
+   * function implementations, and must not contain global variables.
+   *
+   * <p>See {@link #residualAst(Ast, EvalDetails)}.
+   */
+  public Ast specializeAst(Ast ast, Map<String, ?> bindings, ProgramOption... opts) {
+    List<AttributePattern> unknownPatterns = new ArrayList<>();
+    for (Decl d : declarations) {
+      if (d.getDeclKindCase() == DeclKindCase.IDENT && !bindings.containsKey(d.getName())) {
+        unknownPatterns.add(newAttributePattern(d.getName()));
+      }
+    }
+    PartialActivation vars =
+        partialVars(bindings, unknownPatterns.toArray(new AttributePattern[0]));
+
+    ProgramOption[] partialOpts = Arrays.copyOf(opts, opts.length + 1);
+    partialOpts[opts.length] = evalOptions(OptTrackState, OptExhaustiveEval, OptPartialEval);
+    EvalDetails details = program(ast, partialOpts).eval(vars).getEvalDetails();
+    return residualAst(ast, details);
+  }
+
+  /**
+   * Specialize returns a Program for the residual Ast of the given Ast and variable bindings, see
+   * {@link #specializeAst(Ast, Map, ProgramOption...)}.
+   *
+   * <p>The returned Program only evaluates the subexpressions, which depend on variables that are
+   * not bound, and can be cached for the given bindings. The bindings are also available to the
+   * returned Program as globals for the subexpressions, which could not be folded into literals.
+   */
+  public Program specialize(Ast ast, Map<String, ?> bindings, ProgramOption... opts) {
+    Ast residual = specializeAst(ast, bindings, opts);
+    ProgramOption[] residualOpts = new ProgramOption[opts.length + 1];
+    residualOpts[0] = globals(bindings);
+    System.arraycopy(opts, 0, residualOpts, 1, opts.length);
+    return program(residual, residualOpts);
+  }
+
+  /**
+   * Session returns an EvalSession for the given Ast, which memoizes the values of subexpressions
+   * across evaluations and only evaluates those subexpressions again, which read variables that
+   * have changed since the previous evaluation.
+   *
+   * <p>The ProgramOption values must not enable state tracking, exhaustive evaluation or cost
+   * tracking.
+   */
+  public EvalSession session(Ast ast, ProgramOption... opts) {
+    EvalMemo memo = newEvalMemo();
+    ProgramOption[] sessionOpts = Arrays.copyOf(opts, opts.length + 1);
+    sessionOpts[opts.length] =
+        p -> {
+          p.memo = memo;
+          return p;
+        };
+    return new EvalSession(program(ast, sessionOpts), memo);
+  }
+
   /** configure applies a series of EnvOptions to the current environment. */
   Env configure(List<EnvOption> opts) {
     // Customized the environment using the provided EnvOption values. If an error is
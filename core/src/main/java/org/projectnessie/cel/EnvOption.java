@@ -43,7 +43,13 @@ public interface EnvOption {
      * conversion of well-known dynamic types, or with unchecked expressions. Affects checking.
      * Provides a subset of standard behavior.
      */
-    FeatureDisableDynamicAggregateLiterals
+    FeatureDisableDynamicAggregateLiterals,
+
+    /**
+     * Enable the optional field selection {@code a.?b} and optional index {@code a[?b]} syntax.
+     * Enabled by {@link org.projectnessie.cel.extension.OptionalLib}. Affects parsing.
+     */
+    FeatureOptionalSyntax
   }
 
   /**
@@ -20,9 +20,15 @@ import org.projectnessie.cel.interpreter.EvalState;
 /** EvalDetails holds additional information observed during the Eval() call. */
 public final class EvalDetails {
   private final EvalState state;
+  private final Long actualCost;
 
   public EvalDetails(EvalState state) {
+    this(state, null);
+  }
+
+  public EvalDetails(EvalState state, Long actualCost) {
     this.state = state;
+    this.actualCost = actualCost;
   }
 
   /**
@@ -32,4 +38,12 @@ public final class EvalDetails {
   public EvalState getState() {
     return state;
   }
+
+  /**
+   * ActualCost returns the tracked cost of the evaluation, non-null if the OptTrackCost is
+   * specified within EvalOptions or a cost limit has been set.
+   */
+  public Long getActualCost() {
+    return actualCost;
+  }
 }
@@ -42,7 +42,16 @@ public enum EvalOption {
    * <p>By itself, OptPartialEval does not change evaluation behavior unless the input to the
    * Program Eval is an PartialVars.
    */
-  OptPartialEval(8);
+  OptPartialEval(8),
+
+  /**
+   * OptTrackCost enables the runtime cost calculation while evaluating an expression. The actual
+   * cost is returned in the EvalDetails of the Result.
+   *
+   * <p>Cost tracking is implied by {@link ProgramOption#costLimit(long)} and {@link
+   * ProgramOption#costTracking}.
+   */
+  OptTrackCost(16);
 
   private final int mask;
 
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel;
+
+import java.util.Set;
+import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.interpreter.EvalMemo;
+
+/**
+ * EvalSession evaluates a Program repeatedly against inputs, of which only some variables change
+ * between evaluations, see {@link Env#session(Ast, ProgramOption...)}.
+ *
+ * <p>The session memoizes the values of the subexpressions together with the variables they have
+ * read. {@link #eval(Object, Set)} only evaluates the subexpressions again, which have read one of
+ * the changed variables, and reuses the memoized values of all other subexpressions.
+ *
+ * <p>Memoization assumes that all functions are deterministic. An EvalSession is not thread-safe.
+ */
+public final class EvalSession {
+  private final Program program;
+  private final EvalMemo memo;
+
+  EvalSession(Program program, EvalMemo memo) {
+    this.program = program;
+    this.memo = memo;
+  }
+
+  /** Eval evaluates the whole expression against the given variables. */
+  public EvalResult eval(Object vars) {
+    memo.reset();
+    return program.eval(vars);
+  }
+
+  /**
+   * Eval evaluates the expression against the given variables, of which only the variables with
+   * the given names have changed since the previous evaluation of this session.
+   */
+  public EvalResult eval(Object vars, Set<String> changed) {
+    memo.changed(changed);
+    return program.eval(vars);
+  }
+
+  /** Reset clears all memoized values. */
+  public void reset() {
+    memo.reset();
+  }
+
+  /** Memoized returns the number of subexpressions with memoized values. */
+  public int memoized() {
+    return memo.size();
+  }
+
+  /** Program returns the memoizing Program of this session. */
+  public Program program() {
+    return program;
+  }
+
+  @Override
+  public String toString() {
+    return "EvalSession{" + "program=" + program + ", memo=" + memo + '}';
+  }
+}
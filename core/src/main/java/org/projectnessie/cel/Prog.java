@@ -17,24 +17,35 @@ package org.projectnessie.cel;
 
 import static org.projectnessie.cel.CEL.estimateCost;
 import static org.projectnessie.cel.Program.newEvalResult;
+import static org.projectnessie.cel.common.types.Err.isError;
+import static org.projectnessie.cel.common.types.UnknownT.isUnknown;
 import static org.projectnessie.cel.interpreter.Activation.newActivation;
 import static org.projectnessie.cel.interpreter.Activation.newHierarchicalActivation;
+import static org.projectnessie.cel.interpreter.CancellationScope.interruptedErr;
+import static org.projectnessie.cel.interpreter.CostTracker.costLimitExceededErr;
 import static org.projectnessie.cel.interpreter.EvalState.newEvalState;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import org.projectnessie.cel.common.types.BoolT;
 import org.projectnessie.cel.common.types.Err.ErrException;
 import org.projectnessie.cel.common.types.ref.Val;
 import org.projectnessie.cel.interpreter.Activation;
 import org.projectnessie.cel.interpreter.AttributeFactory;
+import org.projectnessie.cel.interpreter.CancellationScope;
+import org.projectnessie.cel.interpreter.CostTracker;
+import org.projectnessie.cel.interpreter.CostTracker.ActualCostEstimator;
 import org.projectnessie.cel.interpreter.Coster;
 import org.projectnessie.cel.interpreter.Dispatcher;
+import org.projectnessie.cel.interpreter.EvalMemo;
+import org.projectnessie.cel.interpreter.EvalProfiler;
 import org.projectnessie.cel.interpreter.EvalState;
 import org.projectnessie.cel.interpreter.Interpretable;
 import org.projectnessie.cel.interpreter.InterpretableDecorator;
 import org.projectnessie.cel.interpreter.Interpreter;
+import org.projectnessie.cel.jfr.EvalEvent;
 
 /** prog is the internal implementation of the Program interface. */
 final class Prog implements Program, Coster {
@@ -49,11 +60,22 @@ final class Prog implements Program, Coster {
   Interpretable interpretable;
   AttributeFactory attrFactory;
   final EvalState state;
+  ActualCostEstimator costEstimator;
+  long costLimit = Long.MAX_VALUE;
+  final CostTracker costTracker;
+  EvalProfiler profiler;
+  boolean primitiveArithmetic;
+  boolean reorderLogical;
+  boolean adaptiveLogical;
+  EvalMemo memo;
+  int expressionHash;
+  int expressionSize;
 
   Prog(Env e, Dispatcher dispatcher) {
     this.e = e;
     this.dispatcher = dispatcher;
     this.state = newEvalState();
+    this.costTracker = null;
   }
 
   Prog(
@@ -63,20 +85,62 @@ final class Prog implements Program, Coster {
       Dispatcher dispatcher,
       Interpreter interpreter,
       EvalState state) {
+    this(e, evalOpts, defaultVars, dispatcher, interpreter, state, null);
+  }
+
+  Prog(
+      Env e,
+      Set<EvalOption> evalOpts,
+      Activation defaultVars,
+      Dispatcher dispatcher,
+      Interpreter interpreter,
+      EvalState state,
+      CostTracker costTracker) {
     this.e = e;
     this.evalOpts.addAll(evalOpts);
     this.defaultVars = defaultVars;
     this.dispatcher = dispatcher;
     this.interpreter = interpreter;
     this.state = state;
+    this.costTracker = costTracker;
   }
 
   /** Eval implements the Program interface method. */
   @Override
   public EvalResult eval(Object input) {
-    Val v;
+    Val v = evaluate(input);
 
-    EvalDetails evalDetails = new EvalDetails(state);
+    EvalDetails evalDetails;
+    if (costTracker != null) {
+      evalDetails = new EvalDetails(state, costTracker.actualCost());
+    } else {
+      evalDetails = new EvalDetails(state);
+    }
+
+    // The output of an internal Eval may have a value (`v`) that is a types.Err. This step
+    // translates the CEL value to a Go error response. This interface does not quite match the
+    // RPC signature which allows for multiple errors to be returned, but should be sufficient.
+    // NOTE: Unlike the Go implementation, errors are handled differently in the Java
+    // implementation.
+    //    if (isError(v)) {
+    //      throw new EvalException(v);
+    //    }
+
+    return newEvalResult(v, evalDetails);
+  }
+
+  /** Test implements the Program interface method. */
+  @Override
+  public boolean test(Object input, boolean orElse) {
+    Val v = evaluate(input);
+    return v instanceof BoolT ? v.booleanValue() : orElse;
+  }
+
+  private Val evaluate(Object input) {
+    EvalEvent event = new EvalEvent();
+    event.begin();
+
+    Val v;
 
     try {
       // Build a hierarchical activation if there are default vars set.
@@ -93,16 +157,30 @@ final class Prog implements Program, Coster {
       throw new RuntimeException(String.format("internal error: %s", e.getMessage()), e);
     }
 
-    // The output of an internal Eval may have a value (`v`) that is a types.Err. This step
-    // translates the CEL value to a Go error response. This interface does not quite match the
-    // RPC signature which allows for multiple errors to be returned, but should be sufficient.
-    // NOTE: Unlike the Go implementation, errors are handled differently in the Java
-    // implementation.
-    //    if (isError(v)) {
-    //      throw new EvalException(v);
-    //    }
+    // The error raised when exceeding the cost limit may have been absorbed by a logical operator
+    // or by an attribute resolution, the evaluation result is invalid nonetheless.
+    if (costTracker != null && costTracker.limitExceeded()) {
+      v = costLimitExceededErr();
+    }
 
-    return newEvalResult(v, evalDetails);
+    // Likewise for the error raised by the cancellation check, the outcome recorded below has to
+    // match the result returned by eval(Object, Cancellation).
+    CancellationScope cancellation = CancellationScope.current();
+    if (cancellation != null && cancellation.interrupted()) {
+      v = interruptedErr();
+    }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.setExpression(expressionHash, expressionSize);
+      event.setEvalOptions(evalOpts.toString());
+      event.setOutcome(
+          isError(v)
+              ? EvalEvent.OutcomeError
+              : isUnknown(v) ? EvalEvent.OutcomeUnknown : EvalEvent.OutcomeValue);
+      event.commit();
+    }
+    return v;
   }
 
   // Cost implements the Coster interface method.
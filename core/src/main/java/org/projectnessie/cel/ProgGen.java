@@ -24,9 +24,11 @@ import org.projectnessie.cel.interpreter.EvalState;
 
 final class ProgGen implements Program, Coster {
   private final ProgFactory factory;
+  private final int stateSize;
 
-  ProgGen(ProgFactory factory) {
+  ProgGen(ProgFactory factory, int stateSize) {
     this.factory = factory;
+    this.stateSize = stateSize;
   }
 
   /** Eval implements the Program interface method. */
@@ -35,7 +37,7 @@ final class ProgGen implements Program, Coster {
     // The factory based Eval() differs from the standard evaluation model in that it generates a
     // new EvalState instance for each call to ensure that unique evaluations yield unique stateful
     // results.
-    EvalState state = newEvalState();
+    EvalState state = newEvalState(stateSize);
 
     // Generate a new instance of the interpretable using the factory configured during the call to
     // newProgram(). It is incredibly unlikely that the factory call will generate an error given
@@ -46,6 +48,14 @@ final class ProgGen implements Program, Coster {
     return p.eval(input);
   }
 
+  /** Test implements the Program interface method. */
+  @Override
+  public boolean test(Object input, boolean orElse) {
+    EvalState state = newEvalState(stateSize);
+    Program p = factory.apply(state);
+    return p.test(input, orElse);
+  }
+
   /** Cost implements the Coster interface method. */
   @Override
   public Cost cost() {
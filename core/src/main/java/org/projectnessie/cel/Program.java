@@ -15,7 +15,12 @@
  */
 package org.projectnessie.cel;
 
+import static org.projectnessie.cel.interpreter.CancellationScope.interruptedErr;
+
+import org.projectnessie.cel.common.types.BoolT;
 import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.interpreter.Cancellation;
+import org.projectnessie.cel.interpreter.CancellationScope;
 
 /** Program is an evaluable view of an Ast. */
 public interface Program {
@@ -44,6 +49,48 @@ public interface Program {
    */
   EvalResult eval(Object vars);
 
+  /**
+   * Eval returns the result of an evaluation of the Ast and environment against the input vars,
+   * like {@link #eval(Object)}, but stops the evaluation with an error once the given cancellation
+   * reports that the evaluation has been cancelled, for example because a deadline has passed.
+   *
+   * <p>Cancellation is cooperative: comprehension loops and long-running extension functions check
+   * the cancellation periodically. A {@code null} cancellation evaluates without checks.
+   */
+  default EvalResult eval(Object vars, Cancellation cancellation) {
+    if (cancellation == null) {
+      return eval(vars);
+    }
+
+    CancellationScope scope = CancellationScope.enter(cancellation);
+    EvalResult result;
+    try {
+      result = eval(vars);
+    } finally {
+      scope.exit();
+    }
+
+    // The error raised by the cancellation check may have been converted or absorbed, for example
+    // by a function guard or a logical operator.
+    if (scope.interrupted()) {
+      return newEvalResult(interruptedErr(), result.getEvalDetails());
+    }
+    return result;
+  }
+
+  /**
+   * Test evaluates a predicate, a program with the result type {@code bool}, against the input vars
+   * and returns the boolean result. If the evaluation does not result in a bool value, for example
+   * because it results in an error or an unknown, the given {@code orElse} value is returned.
+   *
+   * <p>Unlike {@link #eval(Object)}, this method does not produce an {@link EvalResult} and {@link
+   * EvalDetails}. Use {@link #eval(Object)} to inspect the error or unknown, if needed.
+   */
+  default boolean test(Object vars, boolean orElse) {
+    Val val = eval(vars).getVal();
+    return val instanceof BoolT ? val.booleanValue() : orElse;
+  }
+
   final class EvalResult {
     private final Val val;
     private final EvalDetails evalDetails;
@@ -18,6 +18,8 @@ package org.projectnessie.cel;
 import static org.projectnessie.cel.interpreter.Activation.newActivation;
 
 import java.util.Collections;
+import org.projectnessie.cel.interpreter.CostTracker.ActualCostEstimator;
+import org.projectnessie.cel.interpreter.EvalProfiler;
 import org.projectnessie.cel.interpreter.InterpretableDecorator;
 import org.projectnessie.cel.interpreter.functions.Overload;
 
@@ -66,4 +68,89 @@ public interface ProgramOption {
       return p;
     };
   }
+
+  /**
+   * CostTracking enables the runtime cost calculation of each Eval() call. The optional estimator
+   * overrides the default cost of function calls, which is 1 plus the size of string, bytes and
+   * list results multiplied by a traversal factor.
+   *
+   * <p>The actual cost is available via {@link EvalDetails#getActualCost()}.
+   */
+  static ProgramOption costTracking(ActualCostEstimator costEstimator) {
+    return p -> {
+      p.costEstimator = costEstimator;
+      p.evalOpts.add(EvalOption.OptTrackCost);
+      return p;
+    };
+  }
+
+  /**
+   * CostLimit enables cost tracking and sets the maximum cost of a single Eval() call. The
+   * evaluation is aborted with an error as soon as the actual cost exceeds the limit.
+   */
+  static ProgramOption costLimit(long costLimit) {
+    if (costLimit < 0L) {
+      throw new IllegalArgumentException("cost limit must not be negative");
+    }
+    return p -> {
+      p.costLimit = costLimit;
+      p.evalOpts.add(EvalOption.OptTrackCost);
+      return p;
+    };
+  }
+
+  /**
+   * PrimitiveArithmetic evaluates the arithmetic and comparison operators over operands of checked
+   * int and double types on primitive values instead of boxing each intermediate result. Logical
+   * and / or operators are only covered if both operands are such comparisons, all other
+   * expressions, such as function calls or operators over strings, timestamps or uints, are
+   * evaluated as without this option. Values the primitive code cannot handle, such as unknowns,
+   * errors or values of an unexpected type, are passed to the regular implementation of the
+   * operators, so the results are the same as without this option.
+   *
+   * <p>The option has no effect on parsed-only ASTs and is ignored if the evaluation state or the
+   * cost is tracked, or a profiler is configured, because these need to observe every expression
+   * node.
+   */
+  static ProgramOption primitiveArithmetic() {
+    return p -> {
+      p.primitiveArithmetic = true;
+      return p;
+    };
+  }
+
+  /**
+   * ReorderLogical evaluates the cheaper operand of each logical and / or first, according to the
+   * cost estimates of the operands. Since the logical operators are commutative, the results are
+   * the same as without this option.
+   *
+   * <p>If adaptive, the program also observes how often each operand short-circuits the operation
+   * and periodically revises the order, so that cheap and selective operands are evaluated first.
+   *
+   * <p>The option is ignored if the evaluation state or the cost is tracked, because these observe
+   * the evaluation in the planned order.
+   */
+  static ProgramOption reorderLogical(boolean adaptive) {
+    return p -> {
+      p.reorderLogical = true;
+      p.adaptiveLogical = adaptive;
+      return p;
+    };
+  }
+
+  /**
+   * Profiler records the number of evaluations, the time and, optionally, the allocations of each
+   * expression node into the given EvalProfiler. A profiler may be shared by many programs and
+   * concurrent Eval() calls.
+   *
+   * <p>Use {@link EvalProfiler#report(org.projectnessie.cel.common.Source,
+   * com.google.api.expr.v1alpha1.SourceInfo, int)} with the source and source info of the Ast to
+   * render the hot spots of the expression.
+   */
+  static ProgramOption profiler(EvalProfiler profiler) {
+    return p -> {
+      p.profiler = profiler;
+      return p;
+    };
+  }
 }
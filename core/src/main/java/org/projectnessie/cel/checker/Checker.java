@@ -56,6 +56,7 @@ import org.projectnessie.cel.checker.Types.Kind;
 import org.projectnessie.cel.common.Location;
 import org.projectnessie.cel.common.Source;
 import org.projectnessie.cel.common.containers.Container;
+import org.projectnessie.cel.common.operators.Operator;
 import org.projectnessie.cel.common.types.Err.ErrException;
 import org.projectnessie.cel.common.types.ref.FieldType;
 import org.projectnessie.cel.parser.Parser.ParseResult;
@@ -268,6 +269,25 @@ public final class Checker {
     check(sel.getOperandBuilder());
 
     Type targetType = getType(sel.getOperandBuilder());
+    // Selections on optional values propagate the optionality to the result.
+    boolean optional = Decls.isOptionalType(targetType);
+    if (optional) {
+      targetType = targetType.getAbstractType().getParameterTypes(0);
+    }
+    Type resultType = selectFieldType(location(e), targetType, sel.getField());
+    if (sel.getTestOnly()) {
+      resultType = Decls.Bool;
+    } else if (optional) {
+      resultType = Decls.newOptionalType(resultType);
+    }
+    setType(e, resultType);
+  }
+
+  /**
+   * SelectFieldType returns the type of the field {@code field} selected from a value of type
+   * {@code targetType}, recording an error if the type does not support field selection.
+   */
+  private Type selectFieldType(Location loc, Type targetType, String field) {
     // Assume error type by default as most types do not support field selection.
     Type resultType = Decls.Error;
     switch (kindOf(targetType)) {
@@ -279,8 +299,7 @@ public final class Checker {
       case kindObject:
         // Objects yield their field type declaration as the selection result type, but only if
         // the field is defined.
-        FieldType fieldType =
-            lookupFieldType(location(e), targetType.getMessageType(), sel.getField());
+        FieldType fieldType = lookupFieldType(loc, targetType.getMessageType(), field);
         if (fieldType != null) {
           resultType = fieldType.type;
         }
@@ -299,14 +318,11 @@ public final class Checker {
         if (isDynOrError(targetType)) {
           resultType = Decls.Dyn;
         } else {
-          errors.typeDoesNotSupportFieldSelection(location(e), targetType);
+          errors.typeDoesNotSupportFieldSelection(loc, targetType);
         }
         break;
     }
-    if (sel.getTestOnly()) {
-      resultType = Decls.Bool;
-    }
-    setType(e, resultType);
+    return resultType;
   }
 
   private boolean isQualifiedLocalVariableSelection(Expr.Builder e) {
@@ -332,6 +348,13 @@ public final class Checker {
       check(arg);
     }
 
+    if (fnName.equals(Operator.OptSelect.id)
+        && call.getTarget() == Expr.getDefaultInstance()
+        && args.size() == 2) {
+      checkOptSelect(e, args.get(0), args.get(1));
+      return;
+    }
+
     // Regular static call with simple name.
     if (call.getTarget() == Expr.getDefaultInstance()) {
       // Check for the existence of the function.
@@ -381,6 +404,26 @@ public final class Checker {
     errors.undeclaredReference(location(e), env.container.name(), fnName);
   }
 
+  /**
+   * CheckOptSelect checks the optional field selection {@code operand.?field}, which yields an
+   * optional of the type of the selected field.
+   */
+  private void checkOptSelect(Expr.Builder e, Expr.Builder operand, Expr.Builder field) {
+    if (field.getExprKindCase() != Expr.ExprKindCase.CONST_EXPR
+        || field.getConstExpr().getConstantKindCase() != ConstantKindCase.STRING_VALUE) {
+      errors.optionalSelectRequiresFieldName(location(field));
+      setType(e, Decls.Error);
+      return;
+    }
+    Type targetType = getType(operand);
+    if (Decls.isOptionalType(targetType)) {
+      targetType = targetType.getAbstractType().getParameterTypes(0);
+    }
+    Type resultType =
+        selectFieldType(location(e), targetType, field.getConstExpr().getStringValue());
+    setType(e, Decls.newOptionalType(resultType));
+  }
+
   void resolveOverloadOrError(
       Location loc, Expr.Builder e, Decl fn, Expr.Builder target, List<Expr.Builder> args) {
     // Attempt to resolve the overload.
@@ -0,0 +1,457 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.checker;
+
+import static org.projectnessie.cel.checker.CostEstimator.costOf;
+import static org.projectnessie.cel.checker.CostEstimator.sizeOf;
+
+import com.google.api.expr.v1alpha1.Constant;
+import com.google.api.expr.v1alpha1.Expr;
+import com.google.api.expr.v1alpha1.Expr.Call;
+import com.google.api.expr.v1alpha1.Expr.Comprehension;
+import com.google.api.expr.v1alpha1.Expr.CreateStruct;
+import com.google.api.expr.v1alpha1.Expr.CreateStruct.Entry;
+import com.google.api.expr.v1alpha1.Expr.Select;
+import com.google.api.expr.v1alpha1.Reference;
+import com.google.api.expr.v1alpha1.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.projectnessie.cel.checker.CostEstimator.AstNode;
+import org.projectnessie.cel.checker.CostEstimator.CostEstimate;
+import org.projectnessie.cel.checker.CostEstimator.SizeEstimate;
+import org.projectnessie.cel.common.operators.Operator;
+import org.projectnessie.cel.common.types.Overloads;
+
+/**
+ * CostChecker computes the worst-case cost interval of a checked expression without evaluating it.
+ *
+ * <p>The cost model matches the heuristics of the runtime {@code Coster}: constants are free,
+ * identifiers, field selections and function calls cost 1, and comprehensions multiply the cost of
+ * their loop condition and step by the size of the iteration range. String and bytes operations
+ * additionally pay for traversing their operands. The size of input values is taken from the {@link
+ * CostEstimator}, unbounded sizes result in an unbounded maximum cost.
+ */
+public final class CostChecker {
+  /** Traversal cost per character for string and bytes operations. */
+  static final double StringTraversalCostFactor = 0.1d;
+  /** Cost per character of matching a regular expression. */
+  static final double RegexStringLengthCostFactor = 0.25d;
+
+  static final CostEstimate ListCreateBaseCost = costOf(10, 10);
+  static final CostEstimate MapCreateBaseCost = costOf(30, 30);
+  static final CostEstimate StructCreateBaseCost = costOf(40, 40);
+
+  private final CostEstimator estimator;
+  private final Map<Long, Reference> refMap;
+  private final Map<Long, Type> typeMap;
+  private final Map<Long, List<String>> paths = new HashMap<>();
+  private final Map<Long, SizeEstimate> computedSizes = new HashMap<>();
+  private final Deque<Map<String, List<String>>> iterVarPaths = new ArrayDeque<>();
+
+  private CostChecker(
+      CostEstimator estimator, Map<Long, Reference> refMap, Map<Long, Type> typeMap) {
+    this.estimator = estimator;
+    this.refMap = refMap;
+    this.typeMap = typeMap;
+  }
+
+  /**
+   * Cost returns the estimated cost interval of the given checked expression, using the given
+   * estimator to determine the size of input values and the cost of custom functions.
+   */
+  public static CostEstimate cost(
+      Expr expr, Map<Long, Reference> refMap, Map<Long, Type> typeMap, CostEstimator estimator) {
+    return new CostChecker(estimator, refMap, typeMap).cost(expr);
+  }
+
+  CostEstimate cost(Expr e) {
+    switch (e.getExprKindCase()) {
+      case CONST_EXPR:
+        return CostEstimate.None;
+      case IDENT_EXPR:
+        return costIdent(e);
+      case SELECT_EXPR:
+        return costSelect(e);
+      case CALL_EXPR:
+        return costCall(e);
+      case LIST_EXPR:
+        return costCreateList(e);
+      case STRUCT_EXPR:
+        return costCreateStruct(e);
+      case COMPREHENSION_EXPR:
+        return costComprehension(e);
+      default:
+        return CostEstimate.None;
+    }
+  }
+
+  private CostEstimate costIdent(Expr e) {
+    String name = e.getIdentExpr().getName();
+    List<String> iterPath = lookupIterVar(name);
+    if (iterPath != null) {
+      paths.put(e.getId(), iterPath);
+    } else {
+      Reference ref = refMap.get(e.getId());
+      if (ref != null && ref.hasValue()) {
+        // Enum and other constant references are free.
+        return CostEstimate.None;
+      }
+      paths.put(e.getId(), splitName(ref != null ? ref.getName() : name));
+    }
+    return CostEstimate.OneOne;
+  }
+
+  private CostEstimate costSelect(Expr e) {
+    Reference ref = refMap.get(e.getId());
+    if (ref != null) {
+      // The select expression was resolved to a namespaced identifier or constant.
+      if (ref.hasValue()) {
+        return CostEstimate.None;
+      }
+      paths.put(e.getId(), splitName(ref.getName()));
+      return CostEstimate.OneOne;
+    }
+    Select sel = e.getSelectExpr();
+    CostEstimate sum = cost(sel.getOperand());
+    List<String> operandPath = paths.get(sel.getOperand().getId());
+    if (operandPath != null && !sel.getTestOnly()) {
+      paths.put(e.getId(), append(operandPath, sel.getField()));
+    }
+    return sum.add(CostEstimate.OneOne);
+  }
+
+  private CostEstimate costCall(Expr e) {
+    Call call = e.getCallExpr();
+    List<Expr> argExprs = call.getArgsList();
+    List<CostEstimate> argCosts = new ArrayList<>(argExprs.size());
+    CostEstimate targetCost = CostEstimate.None;
+    if (call.hasTarget()) {
+      targetCost = cost(call.getTarget());
+    }
+    for (Expr arg : argExprs) {
+      argCosts.add(cost(arg));
+    }
+
+    String function = call.getFunction();
+    if (function.equals(Operator.LogicalAnd.id) || function.equals(Operator.LogicalOr.id)) {
+      // The right-hand side is skipped in the best case.
+      CostEstimate lhs = argCosts.get(0);
+      CostEstimate rhs = argCosts.get(1);
+      return costOf(lhs.min, CostEstimator.addSaturating(lhs.max, rhs.max));
+    }
+    if (function.equals(Operator.Conditional.id)) {
+      CostEstimate cond = argCosts.get(0);
+      return cond.add(argCosts.get(1).union(argCosts.get(2)));
+    }
+    if (function.equals(Operator.Index.id)) {
+      List<String> operandPath = paths.get(argExprs.get(0).getId());
+      if (operandPath != null) {
+        paths.put(e.getId(), append(operandPath, elementPathOf(argExprs.get(0))));
+      }
+    }
+
+    CostEstimate sum = targetCost;
+    for (CostEstimate c : argCosts) {
+      sum = sum.add(c);
+    }
+
+    String overloadId = "";
+    Reference ref = refMap.get(e.getId());
+    if (ref != null && ref.getOverloadIdCount() == 1) {
+      overloadId = ref.getOverloadId(0);
+    }
+
+    List<AstNode> args = new ArrayList<>(argExprs.size());
+    for (Expr arg : argExprs) {
+      args.add(newAstNode(arg));
+    }
+    AstNode target = call.hasTarget() ? newAstNode(call.getTarget()) : null;
+    CostEstimate callCost = estimator.estimateCallCost(function, overloadId, target, args);
+    if (callCost != null) {
+      return sum.add(callCost);
+    }
+    return sum.add(functionCost(e, function, overloadId, target, args));
+  }
+
+  private CostEstimate functionCost(
+      Expr e, String function, String overloadId, AstNode target, List<AstNode> args) {
+    switch (overloadId) {
+      case Overloads.ContainsString:
+      case Overloads.StartsWithString:
+      case Overloads.EndsWithString:
+        // O(n) traversal of the receiver string.
+        return sizeOfNode(target).multiplyByCostFactor(StringTraversalCostFactor).add(oneOne());
+      case Overloads.MatchesString:
+      case Overloads.Matches:
+        {
+          AstNode str = target != null ? target : args.get(0);
+          AstNode regex = target != null ? args.get(0) : args.get(1);
+          CostEstimate strCost =
+              sizeOfNode(str)
+                  .add(sizeOf(1, 1))
+                  .multiplyByCostFactor(RegexStringLengthCostFactor);
+          SizeEstimate regexSize = sizeOfNode(regex);
+          CostEstimate regexCost = regexSize.multiplyByCostFactor(RegexStringLengthCostFactor);
+          return costOf(
+              CostEstimator.multiplySaturating(strCost.min, regexCost.min),
+              CostEstimator.multiplySaturating(strCost.max, regexCost.max));
+        }
+      case Overloads.AddString:
+      case Overloads.AddBytes:
+      case Overloads.AddList:
+        {
+          // Concatenation copies both operands.
+          SizeEstimate size = sizeOfNode(args.get(0)).add(sizeOfNode(args.get(1)));
+          computedSizes.put(e.getId(), size);
+          return size.multiplyByCostFactor(StringTraversalCostFactor).add(oneOne());
+        }
+      case Overloads.InList:
+        // O(n) scan over the list.
+        return sizeOfNode(args.get(1)).multiplyByCostFactor(1d).add(oneOne());
+      case Overloads.Equals:
+      case Overloads.NotEquals:
+        return equalityCost(args.get(0), args.get(1));
+      default:
+        if (function.equals(Operator.Equals.id) || function.equals(Operator.NotEquals.id)) {
+          return equalityCost(args.get(0), args.get(1));
+        }
+        return oneOne();
+    }
+  }
+
+  private CostEstimate equalityCost(AstNode lhs, AstNode rhs) {
+    Type t = lhs.type();
+    if (t != null && (isStringOrBytes(t) || kindOf(t) == Types.Kind.kindList)) {
+      SizeEstimate l = sizeOfNode(lhs);
+      SizeEstimate r = sizeOfNode(rhs);
+      SizeEstimate smaller = sizeOf(Math.min(l.min, r.min), Math.min(l.max, r.max));
+      return smaller.multiplyByCostFactor(StringTraversalCostFactor).add(oneOne());
+    }
+    return oneOne();
+  }
+
+  private CostEstimate costCreateList(Expr e) {
+    CostEstimate sum = ListCreateBaseCost;
+    for (Expr elem : e.getListExpr().getElementsList()) {
+      sum = sum.add(cost(elem));
+    }
+    return sum;
+  }
+
+  private CostEstimate costCreateStruct(Expr e) {
+    CreateStruct str = e.getStructExpr();
+    CostEstimate sum = str.getMessageName().isEmpty() ? MapCreateBaseCost : StructCreateBaseCost;
+    for (Entry entry : str.getEntriesList()) {
+      if (entry.hasMapKey()) {
+        sum = sum.add(cost(entry.getMapKey()));
+      }
+      sum = sum.add(cost(entry.getValue()));
+    }
+    return sum;
+  }
+
+  private CostEstimate costComprehension(Expr e) {
+    Comprehension comp = e.getComprehensionExpr();
+    CostEstimate rangeCost = cost(comp.getIterRange());
+    CostEstimate accuCost = cost(comp.getAccuInit());
+    SizeEstimate rangeSize = sizeOfNode(newAstNode(comp.getIterRange()));
+
+    Map<String, List<String>> scope = new HashMap<>();
+    List<String> rangePath = paths.get(comp.getIterRange().getId());
+    if (rangePath != null) {
+      Type rangeType = typeMap.get(comp.getIterRange().getId());
+      boolean isMap = rangeType != null && kindOf(rangeType) == Types.Kind.kindMap;
+      if (comp.getIterVar2().isEmpty()) {
+        scope.put(comp.getIterVar(), append(rangePath, isMap ? "@keys" : "@items"));
+      } else if (isMap) {
+        scope.put(comp.getIterVar(), append(rangePath, "@keys"));
+        scope.put(comp.getIterVar2(), append(rangePath, "@values"));
+      } else {
+        scope.put(comp.getIterVar2(), append(rangePath, "@items"));
+      }
+    }
+    iterVarPaths.push(scope);
+    CostEstimate condCost;
+    CostEstimate stepCost;
+    try {
+      condCost = cost(comp.getLoopCondition());
+      stepCost = cost(comp.getLoopStep());
+    } finally {
+      iterVarPaths.pop();
+    }
+    CostEstimate resultCost = cost(comp.getResult());
+
+    // Comprehensions which build up a list or map, like map() and filter(), produce at most as many
+    // elements as there are in the iteration range.
+    Expr accuInit = comp.getAccuInit();
+    if ((accuInit.getExprKindCase() == Expr.ExprKindCase.LIST_EXPR
+            && accuInit.getListExpr().getElementsCount() == 0)
+        || (accuInit.getExprKindCase() == Expr.ExprKindCase.STRUCT_EXPR
+            && accuInit.getStructExpr().getEntriesCount() == 0)) {
+      computedSizes.put(e.getId(), sizeOf(0, rangeSize.max));
+    }
+
+    // The minimum cost incurs when the loop terminates after its first iteration, or never
+    // iterates at all.
+    CostEstimate loopCost = condCost.add(stepCost).multiply(rangeSize);
+    CostEstimate fixed = rangeCost.add(accuCost).add(resultCost);
+    long loopMin = Math.min(loopCost.min, condCost.min);
+    return costOf(
+        CostEstimator.addSaturating(fixed.min, loopMin),
+        CostEstimator.addSaturating(fixed.max, loopCost.max));
+  }
+
+  private SizeEstimate sizeOfNode(AstNode node) {
+    if (node == null) {
+      return SizeEstimate.Unknown;
+    }
+    SizeEstimate computed = node.computedSize();
+    if (computed != null) {
+      return computed;
+    }
+    SizeEstimate estimated = estimator.estimateSize(node);
+    if (estimated != null) {
+      return estimated;
+    }
+    return SizeEstimate.Unknown;
+  }
+
+  private AstNode newAstNode(Expr e) {
+    List<String> path = paths.getOrDefault(e.getId(), Collections.emptyList());
+    return new Node(e, typeMap.get(e.getId()), path, computedSize(e));
+  }
+
+  private SizeEstimate computedSize(Expr e) {
+    SizeEstimate size = computedSizes.get(e.getId());
+    if (size != null) {
+      return size;
+    }
+    switch (e.getExprKindCase()) {
+      case CONST_EXPR:
+        Constant c = e.getConstExpr();
+        switch (c.getConstantKindCase()) {
+          case STRING_VALUE:
+            String s = c.getStringValue();
+            long len = s.codePointCount(0, s.length());
+            return sizeOf(len, len);
+          case BYTES_VALUE:
+            long bytes = c.getBytesValue().size();
+            return sizeOf(bytes, bytes);
+          default:
+            return null;
+        }
+      case LIST_EXPR:
+        long elems = e.getListExpr().getElementsCount();
+        return sizeOf(elems, elems);
+      case STRUCT_EXPR:
+        if (!e.getStructExpr().getMessageName().isEmpty()) {
+          return null;
+        }
+        long entries = e.getStructExpr().getEntriesCount();
+        return sizeOf(entries, entries);
+      default:
+        return null;
+    }
+  }
+
+  private String elementPathOf(Expr operand) {
+    Type t = typeMap.get(operand.getId());
+    return t != null && kindOf(t) == Types.Kind.kindMap ? "@values" : "@items";
+  }
+
+  private List<String> lookupIterVar(String name) {
+    for (Map<String, List<String>> scope : iterVarPaths) {
+      List<String> path = scope.get(name);
+      if (path != null) {
+        return path;
+      }
+    }
+    return null;
+  }
+
+  private static CostEstimate oneOne() {
+    return CostEstimate.OneOne;
+  }
+
+  private static Types.Kind kindOf(Type t) {
+    return Types.kindOf(t);
+  }
+
+  private static boolean isStringOrBytes(Type t) {
+    return t.getTypeKindCase() == Type.TypeKindCase.PRIMITIVE
+        && (t.getPrimitive() == Type.PrimitiveType.STRING
+            || t.getPrimitive() == Type.PrimitiveType.BYTES);
+  }
+
+  private static List<String> splitName(String name) {
+    if (name.startsWith(".")) {
+      name = name.substring(1);
+    }
+    return Arrays.asList(name.split("\\."));
+  }
+
+  private static List<String> append(List<String> path, String element) {
+    List<String> r = new ArrayList<>(path.size() + 1);
+    r.addAll(path);
+    r.add(element);
+    return r;
+  }
+
+  private static final class Node implements AstNode {
+    private final Expr expr;
+    private final Type type;
+    private final List<String> path;
+    private final SizeEstimate computedSize;
+
+    Node(Expr expr, Type type, List<String> path, SizeEstimate computedSize) {
+      this.expr = expr;
+      this.type = type;
+      this.path = path;
+      this.computedSize = computedSize;
+    }
+
+    @Override
+    public List<String> path() {
+      return path;
+    }
+
+    @Override
+    public Type type() {
+      return type;
+    }
+
+    @Override
+    public Expr expr() {
+      return expr;
+    }
+
+    @Override
+    public SizeEstimate computedSize() {
+      return computedSize;
+    }
+
+    @Override
+    public String toString() {
+      return "AstNode{" + "id=" + expr.getId() + ", path=" + path + '}';
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.checker;
+
+import com.google.api.expr.v1alpha1.Expr;
+import com.google.api.expr.v1alpha1.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * CostEstimator supplies information about the size of input values and the cost of custom
+ * functions to the static cost estimation performed by {@link CostChecker}.
+ *
+ * <p>Both methods may return {@code null} to fall back to the default estimation, which assumes
+ * that the size of an input value is unbounded and that a function call costs 1.
+ */
+public interface CostEstimator {
+
+  /**
+   * EstimateSize returns the size estimate of the given variable or field, or {@code null} if the
+   * size is unknown.
+   */
+  default SizeEstimate estimateSize(AstNode element) {
+    return null;
+  }
+
+  /**
+   * EstimateCallCost returns the cost of a function call, excluding the cost of its arguments, or
+   * {@code null} to use the default cost of the function.
+   */
+  default CostEstimate estimateCallCost(
+      String function, String overloadId, AstNode target, List<AstNode> args) {
+    return null;
+  }
+
+  /** NoHints is a CostEstimator which does not know anything about the size of input values. */
+  CostEstimator NoHints = new CostEstimator() {};
+
+  /**
+   * SizeHints returns a CostEstimator which returns the given maximum sizes for the variables and
+   * fields identified by their dotted path, for example {@code request.items}.
+   *
+   * <p>Elements of a list are addressed with the {@code @items} path element, keys and values of a
+   * map with {@code @keys} and {@code @values}, for example {@code request.items.@items.tags}.
+   */
+  static CostEstimator sizeHints(Map<String, Long> maxSizes) {
+    Map<String, SizeEstimate> hints = new HashMap<>(maxSizes.size() * 4 / 3 + 1);
+    maxSizes.forEach((path, max) -> hints.put(path, sizeOf(0, max)));
+    return new CostEstimator() {
+      @Override
+      public SizeEstimate estimateSize(AstNode element) {
+        return hints.get(String.join(".", element.path()));
+      }
+    };
+  }
+
+  static SizeEstimate sizeOf(long min, long max) {
+    return new SizeEstimate(min, max);
+  }
+
+  static CostEstimate costOf(long min, long max) {
+    return new CostEstimate(min, max);
+  }
+
+  /**
+   * AstNode represents an expression node of a checked expression together with its type, its
+   * attribute path and its computed size, if any.
+   */
+  interface AstNode {
+    /**
+     * Path returns the attribute path of the node, for example {@code [request, items]}, or an
+     * empty list if the node is not a variable or field selection.
+     */
+    List<String> path();
+
+    /** Type returns the checked type of the node. */
+    Type type();
+
+    /** Expr returns the expression of the node. */
+    Expr expr();
+
+    /**
+     * ComputedSize returns the size of the node if it can be derived from the expression itself,
+     * for example the size of a list literal, or {@code null} otherwise.
+     */
+    SizeEstimate computedSize();
+  }
+
+  /** SizeEstimate represents an estimated size interval of a string, bytes, list or map value. */
+  final class SizeEstimate {
+    public static final SizeEstimate Unknown = sizeOf(0, Long.MAX_VALUE);
+
+    public final long min;
+    public final long max;
+
+    private SizeEstimate(long min, long max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    public SizeEstimate add(SizeEstimate s) {
+      return sizeOf(addSaturating(min, s.min), addSaturating(max, s.max));
+    }
+
+    public SizeEstimate union(SizeEstimate s) {
+      return sizeOf(Math.min(min, s.min), Math.max(max, s.max));
+    }
+
+    /** MultiplyByCostFactor returns the traversal cost of a value of this size. */
+    public CostEstimate multiplyByCostFactor(double costFactor) {
+      return costOf(multiplyByFactor(min, costFactor), multiplyByFactor(max, costFactor));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SizeEstimate that = (SizeEstimate) o;
+      return min == that.min && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(min, max);
+    }
+
+    @Override
+    public String toString() {
+      return "SizeEstimate{" + "min=" + min + ", max=" + max + '}';
+    }
+  }
+
+  /**
+   * CostEstimate represents an estimated cost interval. A maximum of {@link Long#MAX_VALUE} means
+   * that the cost is unbounded.
+   */
+  final class CostEstimate {
+    public static final CostEstimate None = costOf(0, 0);
+    public static final CostEstimate OneOne = costOf(1, 1);
+    public static final CostEstimate Unknown = costOf(0, Long.MAX_VALUE);
+
+    public final long min;
+    public final long max;
+
+    private CostEstimate(long min, long max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    public CostEstimate add(CostEstimate c) {
+      return costOf(addSaturating(min, c.min), addSaturating(max, c.max));
+    }
+
+    public CostEstimate multiply(SizeEstimate s) {
+      return costOf(multiplySaturating(min, s.min), multiplySaturating(max, s.max));
+    }
+
+    public CostEstimate union(CostEstimate c) {
+      return costOf(Math.min(min, c.min), Math.max(max, c.max));
+    }
+
+    /** IsUnbounded returns whether the maximum cost could not be determined. */
+    public boolean isUnbounded() {
+      return max == Long.MAX_VALUE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CostEstimate that = (CostEstimate) o;
+      return min == that.min && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(min, max);
+    }
+
+    @Override
+    public String toString() {
+      return "CostEstimate{" + "min=" + min + ", max=" + max + '}';
+    }
+  }
+
+  static long addSaturating(long a, long b) {
+    long r = a + b;
+    if (((a ^ r) & (b ^ r)) < 0) {
+      return Long.MAX_VALUE;
+    }
+    return r;
+  }
+
+  static long multiplySaturating(long a, long b) {
+    long hi = Math.multiplyHigh(a, b);
+    long lo = a * b;
+    if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0)) {
+      return lo;
+    }
+    return Long.MAX_VALUE;
+  }
+
+  static long multiplyByFactor(long size, double costFactor) {
+    if (size == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    double cost = Math.ceil(size * costFactor);
+    return cost >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) cost;
+  }
+}
@@ -33,6 +33,7 @@ import com.google.api.expr.v1alpha1.Type.WellKnownType;
 import com.google.protobuf.Empty;
 import com.google.protobuf.NullValue;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public final class Decls {
@@ -58,6 +59,9 @@ public final class Decls {
   public static final Type Duration = newWellKnownType(WellKnownType.DURATION);
   public static final Type Timestamp = newWellKnownType(WellKnownType.TIMESTAMP);
 
+  /** Name of the abstract type of optional values. */
+  public static final String OptionalTypeName = "optional_type";
+
   /**
    * NewAbstractType creates an abstract type declaration which references a proto message name and
    * may also include type parameters.
@@ -141,6 +145,21 @@ public final class Decls {
         .build();
   }
 
+  /** NewOptionalType creates an abstract {@code optional_type} wrapping the given type. */
+  public static Type newOptionalType(Type wrapped) {
+    return newAbstractType(OptionalTypeName, Collections.singletonList(wrapped));
+  }
+
+  /**
+   * IsOptionalType returns whether the type is an {@code optional_type} created via {@link
+   * #newOptionalType(Type)}.
+   */
+  public static boolean isOptionalType(Type t) {
+    return t.getTypeKindCase() == Type.TypeKindCase.ABSTRACT_TYPE
+        && t.getAbstractType().getName().equals(OptionalTypeName)
+        && t.getAbstractType().getParameterTypesCount() == 1;
+  }
+
   /** NewObjectType creates an object type for a qualified type name. */
   public static Type newObjectType(String typeName) {
     return Type.newBuilder().setMessageType(typeName).build();
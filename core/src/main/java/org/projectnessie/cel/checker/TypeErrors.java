@@ -42,6 +42,10 @@ public final class TypeErrors extends Errors {
     reportError(l, "type '%s' does not support field selection", formatCheckedType(t));
   }
 
+  void optionalSelectRequiresFieldName(Location l) {
+    reportError(l, "optional field selection requires a string literal field name");
+  }
+
   void undefinedField(Location l, String field) {
     reportError(l, "undefined field '%s'", field);
   }
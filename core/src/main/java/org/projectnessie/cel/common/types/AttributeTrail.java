@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.common.types;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * AttributeTrail is the path of an attribute, whose value is unknown, consisting of a fully
+ * qualified variable name and the values of its qualifiers, for example {@code
+ * request.auth.claims['email']}.
+ *
+ * <p>Qualifier values are {@link String}, {@link Long}, {@link org.projectnessie.cel.common.ULong},
+ * {@link Boolean} or {@link Double} values.
+ */
+public final class AttributeTrail {
+  private final String variable;
+  private final List<Object> qualifiers;
+
+  private AttributeTrail(String variable, List<Object> qualifiers) {
+    this.variable = Objects.requireNonNull(variable);
+    this.qualifiers = List.copyOf(qualifiers);
+  }
+
+  public static AttributeTrail newAttributeTrail(String variable, List<Object> qualifiers) {
+    return new AttributeTrail(variable, qualifiers);
+  }
+
+  public static AttributeTrail newAttributeTrail(String variable, Object... qualifiers) {
+    return new AttributeTrail(variable, List.of(qualifiers));
+  }
+
+  /** Variable returns the fully qualified variable name of the attribute. */
+  public String variable() {
+    return variable;
+  }
+
+  /** Qualifiers returns the qualifier values applied to the variable. */
+  public List<Object> qualifiers() {
+    return qualifiers;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AttributeTrail that = (AttributeTrail) o;
+    return variable.equals(that.variable) && qualifiers.equals(that.qualifiers);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(variable, qualifiers);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(variable);
+    for (Object q : qualifiers) {
+      if (q instanceof String) {
+        sb.append("['").append(q).append("']");
+      } else {
+        sb.append('[').append(q).append(']');
+      }
+    }
+    return sb.toString();
+  }
+}
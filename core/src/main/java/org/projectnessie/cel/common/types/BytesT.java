@@ -27,10 +27,10 @@ import com.google.api.expr.v1alpha1.Constant;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.BytesValue;
+import com.google.protobuf.UnsafeByteOperations;
 import com.google.protobuf.Value;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.Base64;
 import org.projectnessie.cel.common.debug.Debug;
 import org.projectnessie.cel.common.types.ref.BaseVal;
@@ -43,28 +43,42 @@ import org.projectnessie.cel.common.types.traits.Sizer;
 import org.projectnessie.cel.common.types.traits.Trait;
 import org.projectnessie.cel.parser.Unescape;
 
-/** Bytes type that implements ref.Val and supports add, compare, and size operations. */
+/**
+ * Bytes type that implements ref.Val and supports add, compare, and size operations.
+ *
+ * <p>The bytes are held in a read-only {@link ByteBuffer} slice, which allows wrapping {@link
+ * ByteString}s and buffers without copying them. Size, equality and the conversion to string
+ * operate on the buffer directly.
+ */
 public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
   /** BytesType singleton. */
   public static final Type BytesType =
       TypeT.newTypeValue(TypeEnum.Bytes, Trait.AdderType, Trait.ComparerType, Trait.SizerType);
 
   public static BytesT bytesOf(byte[] b) {
-    return new BytesT(b, true);
+    return new BytesT(ByteBuffer.wrap(b.clone()));
   }
 
   public static Val bytesOf(ByteString value) {
-    return new BytesT(value.toByteArray(), false);
+    return new BytesT(value.asReadOnlyByteBuffer());
   }
 
   public static BytesT bytesOf(String s) {
-    return new BytesT(s.getBytes(StandardCharsets.UTF_8), false);
+    return new BytesT(ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8)));
   }
 
-  private final byte[] b;
+  /**
+   * BytesOf returns a bytes value for the remaining content of the given buffer without copying it.
+   * The content must not be modified afterwards.
+   */
+  public static BytesT bytesOf(ByteBuffer buffer) {
+    return new BytesT(buffer);
+  }
 
-  private BytesT(byte[] b, boolean copy) {
-    this.b = copy ? Arrays.copyOf(b, b.length) : b;
+  private final ByteBuffer b;
+
+  private BytesT(ByteBuffer b) {
+    this.b = b.slice().asReadOnlyBuffer();
   }
 
   /** Add implements traits.Adder interface method by concatenating byte sequences. */
@@ -73,10 +87,11 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
     if (!(other instanceof BytesT)) {
       return noSuchOverload(this, "add", other);
     }
-    byte[] o = ((BytesT) other).b;
-    byte[] n = Arrays.copyOf(b, b.length + o.length);
-    System.arraycopy(o, 0, n, b.length, o.length);
-    return new BytesT(n, false);
+    ByteBuffer o = ((BytesT) other).b;
+    byte[] n = new byte[b.remaining() + o.remaining()];
+    b.get(0, n, 0, b.remaining());
+    o.get(0, n, b.remaining(), o.remaining());
+    return new BytesT(ByteBuffer.wrap(n));
   }
 
   /** Compare implments traits.Comparer interface method by lexicographic ordering. */
@@ -85,18 +100,13 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
     if (!(other instanceof BytesT)) {
       return noSuchOverload(this, "compare", other);
     }
-    byte[] o = ((BytesT) other).b;
+    ByteBuffer o = ((BytesT) other).b;
     // unsigned !!!
-    int l = b.length;
-    int ol = o.length;
-    int cl = Math.min(l, ol);
-    for (int i = 0; i < cl; i++) {
-      byte b1 = b[i];
-      byte b2 = o[i];
-      int cmpUns = Byte.toUnsignedInt(b1) - Byte.toUnsignedInt(b2);
-      if (cmpUns != 0) {
-        return intOfCompare(cmpUns);
-      }
+    int l = b.remaining();
+    int ol = o.remaining();
+    int i = b.mismatch(o);
+    if (i >= 0 && i < l && i < ol) {
+      return intOfCompare(Byte.toUnsignedInt(b.get(i)) - Byte.toUnsignedInt(o.get(i)));
     }
     return intOfCompare(l - ol);
   }
@@ -106,26 +116,26 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
   @Override
   public <T> T convertToNative(Class<T> typeDesc) {
     if (typeDesc == ByteString.class || typeDesc == Object.class) {
-      return (T) ByteString.copyFrom(this.b);
+      return (T) byteString();
     }
     if (typeDesc == byte[].class) {
-      return (T) Arrays.copyOf(b, b.length);
+      return (T) toByteArray();
     }
     if (typeDesc == String.class) {
       try {
-        return (T) Unescape.toUtf8(ByteBuffer.wrap(b));
+        return (T) Unescape.toUtf8(b.duplicate());
       } catch (Exception e) {
         throw new RuntimeException("invalid UTF-8 in bytes, cannot convert to string");
       }
     }
     if (typeDesc == Any.class) {
-      return (T) Any.pack(BytesValue.of(ByteString.copyFrom(this.b)));
+      return (T) Any.pack(BytesValue.of(byteString()));
     }
     if (typeDesc == BytesValue.class) {
-      return (T) BytesValue.of(ByteString.copyFrom(this.b));
+      return (T) BytesValue.of(byteString());
     }
     if (typeDesc == ByteBuffer.class) {
-      return (T) ByteBuffer.wrap(Arrays.copyOf(this.b, this.b.length)).asReadOnlyBuffer();
+      return (T) b.duplicate();
     }
     if (typeDesc == Val.class || typeDesc == BytesT.class) {
       return (T) this;
@@ -133,9 +143,15 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
     if (typeDesc == Value.class) {
       // CEL follows the proto3 to JSON conversion by encoding bytes to a string via base64.
       // The encoding below matches the golang 'encoding/json' behavior during marshaling,
-      // which uses base64.StdEncoding.
+      // which uses base64.StdEncoding. The bytes are encoded from a duplicate of the buffer, so
+      // they are not copied to an array first.
+      ByteBuffer encoded = Base64.getEncoder().encode(b.duplicate());
       return (T)
-          Value.newBuilder().setStringValue(Base64.getEncoder().encodeToString(this.b)).build();
+          Value.newBuilder()
+              .setStringValue(
+                  new String(
+                      encoded.array(), 0, encoded.remaining(), StandardCharsets.ISO_8859_1))
+              .build();
     }
     throw new RuntimeException(
         String.format(
@@ -148,7 +164,7 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
     switch (typeValue.typeEnum()) {
       case String:
         try {
-          return stringOf(Unescape.toUtf8(ByteBuffer.wrap(b)));
+          return stringOf(Unescape.toUtf8(b.duplicate()));
         } catch (Exception e) {
           return newErr(e, "invalid UTF-8 in bytes, cannot convert to string");
         }
@@ -165,7 +181,7 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
   public Val equal(Val other) {
     switch (other.type().typeEnum()) {
       case Bytes:
-        return boolOf(Arrays.equals(b, ((BytesT) other).b));
+        return boolOf(b.equals(((BytesT) other).b));
       case Null:
       case Bool:
       case Double:
@@ -185,7 +201,7 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
   /** Size implements the traits.Sizer interface method. */
   @Override
   public Val size() {
-    return IntT.intOf(b.length);
+    return IntT.intOf(b.remaining());
   }
 
   /** Type implements the ref.Val interface method. */
@@ -197,13 +213,27 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
   /** Value implements the ref.Val interface method. */
   @Override
   public Object value() {
-    return Arrays.copyOf(b, b.length);
+    return toByteArray();
+  }
+
+  private byte[] toByteArray() {
+    byte[] a = new byte[b.remaining()];
+    b.get(0, a);
+    return a;
+  }
+
+  /**
+   * ByteString returns a ByteString sharing the content of this value. This is safe, because the
+   * content of a bytes value is never modified.
+   */
+  private ByteString byteString() {
+    return UnsafeByteOperations.unsafeWrap(b.duplicate());
   }
 
   @Override
   public String toString() {
     return "bytes{"
-        + Debug.formatLiteral(Constant.newBuilder().setBytesValue(ByteString.copyFrom(b)).build())
+        + Debug.formatLiteral(Constant.newBuilder().setBytesValue(byteString()).build())
         + "}";
   }
 
@@ -216,13 +246,11 @@ public final class BytesT extends BaseVal implements Adder, Comparer, Sizer {
       return false;
     }
     BytesT bytesT = (BytesT) o;
-    return Arrays.equals(b, bytesT.b);
+    return b.equals(bytesT.b);
   }
 
   @Override
   public int hashCode() {
-    int result = 0;
-    result = 31 * result + Arrays.hashCode(b);
-    return result;
+    return b.hashCode();
   }
 }
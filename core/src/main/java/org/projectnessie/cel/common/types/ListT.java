@@ -84,6 +84,24 @@ public abstract class ListT extends BaseVal implements Lister {
     return new ValListT(adapter, value);
   }
 
+  /**
+   * PrimitiveArray returns the {@code int[]}, {@code long[]} or {@code double[]} backing a list of
+   * primitive values, or {@code null} for any other list. Unlike {@link #value()}, it never
+   * materializes the list. The returned array is shared with the list and must not be modified.
+   */
+  public static Object primitiveArray(Val list) {
+    if (list instanceof LongArrayListT) {
+      return ((LongArrayListT) list).array;
+    }
+    if (list instanceof IntArrayListT) {
+      return ((IntArrayListT) list).array;
+    }
+    if (list instanceof DoubleArrayListT) {
+      return ((DoubleArrayListT) list).array;
+    }
+    return null;
+  }
+
   @Override
   public Type type() {
     return ListType;
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.common.types;
+
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.common.types.Err.newTypeConversionError;
+import static org.projectnessie.cel.common.types.StringT.stringOf;
+
+import java.util.Objects;
+import java.util.Optional;
+import org.projectnessie.cel.common.types.ref.BaseVal;
+import org.projectnessie.cel.common.types.ref.Type;
+import org.projectnessie.cel.common.types.ref.TypeEnum;
+import org.projectnessie.cel.common.types.ref.Val;
+
+/**
+ * Optional value implementation, either {@link #OptionalNone} or a value created via {@link
+ * #optionalOf(Val)}.
+ */
+public final class OptionalT extends BaseVal {
+
+  /** OptionalType singleton. */
+  public static final Type OptionalType = TypeT.newObjectTypeValue("optional_type");
+
+  /** OptionalNone is the singleton of the empty optional value. */
+  public static final OptionalT OptionalNone = new OptionalT(null);
+
+  private final Val value;
+
+  private OptionalT(Val value) {
+    this.value = value;
+  }
+
+  /** OptionalOf returns an optional value, which contains the given value. */
+  public static OptionalT optionalOf(Val value) {
+    return new OptionalT(Objects.requireNonNull(value));
+  }
+
+  /** HasValue returns whether the optional contains a value. */
+  public boolean hasValue() {
+    return value != null;
+  }
+
+  /** GetValue returns the value of the optional or {@code null}, if the optional is empty. */
+  public Val getValue() {
+    return value;
+  }
+
+  /** ConvertToNative implements ref.Val.ConvertToNative. */
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T convertToNative(Class<T> typeDesc) {
+    if (typeDesc == Val.class || typeDesc == OptionalT.class || typeDesc == Object.class) {
+      return (T) this;
+    }
+    if (typeDesc == Optional.class) {
+      return (T) Optional.ofNullable(value);
+    }
+    throw new RuntimeException(
+        String.format(
+            "native type conversion error from '%s' to '%s'", OptionalType, typeDesc.getName()));
+  }
+
+  /** ConvertToType implements ref.Val.ConvertToType. */
+  @Override
+  public Val convertToType(Type typeValue) {
+    if (typeValue.typeEnum() == TypeEnum.Type) {
+      return OptionalType;
+    }
+    if (typeValue.typeEnum() == TypeEnum.String) {
+      return stringOf(toString());
+    }
+    if (typeValue == OptionalType) {
+      return this;
+    }
+    return newTypeConversionError(OptionalType, typeValue);
+  }
+
+  /** Equal implements ref.Val.Equal. */
+  @Override
+  public Val equal(Val other) {
+    if (!(other instanceof OptionalT)) {
+      return False;
+    }
+    Val o = ((OptionalT) other).value;
+    if (value == null || o == null) {
+      return value == o ? True : False;
+    }
+    return value.equal(o);
+  }
+
+  /** Type implements ref.Val.Type. */
+  @Override
+  public Type type() {
+    return OptionalType;
+  }
+
+  /** Value implements ref.Val.Value. */
+  @Override
+  public Object value() {
+    return value != null ? value.value() : null;
+  }
+
+  @Override
+  public String toString() {
+    return value != null ? "optional.of(" + value + ")" : "optional.none()";
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(value);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof OptionalT)) {
+      return false;
+    }
+    return Objects.equals(value, ((OptionalT) obj).value);
+  }
+}
@@ -92,6 +92,12 @@ public final class Overloads {
   public static final String IndexMessage =
       "index_message"; // TODO: introduce concept of types.Message
 
+  // Optional selection and index overloads
+  public static final String OptionalSelect = "select_optional_field";
+  public static final String OptionalSelectField = "optional_select_field";
+  public static final String OptionalIndex = "optindex_optional_value";
+  public static final String OptionalIndexValue = "optional_index_value";
+
   // In operators
   public static final String DeprecatedIn = "in";
   public static final String InList = "in_list";
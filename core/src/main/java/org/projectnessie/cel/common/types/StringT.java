@@ -32,7 +32,9 @@ import static org.projectnessie.cel.common.types.UintT.uintOf;
 import com.google.protobuf.Any;
 import com.google.protobuf.StringValue;
 import com.google.protobuf.Value;
+import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiFunction;
@@ -48,7 +50,20 @@ import org.projectnessie.cel.common.types.traits.Receiver;
 import org.projectnessie.cel.common.types.traits.Sizer;
 import org.projectnessie.cel.common.types.traits.Trait;
 
-/** String type implementation which supports addition, comparison, matching, and size functions. */
+/**
+ * String type implementation which supports addition, comparison, matching, and size functions.
+ *
+ * <p>CEL indexes strings by code points, while Java strings are indexed by UTF-16 chars. Once
+ * StringT has counted its code points, it knows whether its content consists only of characters
+ * from the basic multilingual plane, in which case both indexes are the same. Otherwise it builds a
+ * sampled index of the char offsets of every {@value #OFFSET_SAMPLE_SIZE}th code point, so that
+ * converting between code point and char indexes does not require a scan from the start of the
+ * string. Before that, conversions only scan the prefix of the string up to the requested index.
+ *
+ * <p>Attribute reads wrap the same Java string in a new StringT on every evaluation, so the index of
+ * strings with at least {@value #INDEX_CACHE_MIN_LENGTH} chars is also kept in a small cache keyed
+ * by the identity of the string, and reused by every StringT of that string.
+ */
 public final class StringT extends BaseVal implements Adder, Comparer, Matcher, Receiver, Sizer {
 
   /** StringType singleton. */
@@ -74,12 +89,155 @@ public final class StringT extends BaseVal implements Adder, Comparer, Matcher,
     return new StringT(s);
   }
 
+  static final int OFFSET_SAMPLE_SIZE = 64;
+  private static final int OFFSET_SAMPLE_SHIFT = 6;
+
+  static final int INDEX_CACHE_MIN_LENGTH = 256;
+  private static final int INDEX_CACHE_SIZE = 64;
+
+  /** Index of long strings, keyed by {@link System#identityHashCode(Object)} of the string. */
+  private static final Index[] indexCache = new Index[INDEX_CACHE_SIZE];
+
+  /** Index holds the code point count and sampled char offsets of a string, see {@link StringT}. */
+  private static final class Index {
+    private final WeakReference<String> string;
+    private final int codePoints;
+    private final int[] offsets;
+
+    private Index(String string, int codePoints, int[] offsets) {
+      this.string = new WeakReference<>(string);
+      this.codePoints = codePoints;
+      this.offsets = offsets;
+    }
+  }
+
   private final String s;
 
+  /** Number of code points in {@link #s}, -1 if not yet computed. */
+  private int codePoints = -1;
+
+  /** Char offsets of every {@value #OFFSET_SAMPLE_SIZE}th code point, only used for non-BMP. */
+  private volatile int[] offsets;
+
   private StringT(String s) {
     this.s = s;
   }
 
+  /** CodePointCount returns the number of Unicode code points in this string. */
+  public int codePointCount() {
+    int n = codePoints;
+    if (n < 0) {
+      int len = s.length();
+      if (len >= INDEX_CACHE_MIN_LENGTH) {
+        Index index = indexCache[indexSlot(s)];
+        if (index != null && index.string.get() == s) {
+          offsets = index.offsets;
+          codePoints = index.codePoints;
+          return index.codePoints;
+        }
+      }
+      n = len;
+      for (int i = 0; i < s.length(); i++) {
+        if (Character.isSurrogate(s.charAt(i))) {
+          n = s.codePointCount(0, s.length());
+          break;
+        }
+      }
+      codePoints = n;
+      if (len >= INDEX_CACHE_MIN_LENGTH) {
+        indexCache[indexSlot(s)] = new Index(s, n, n == len ? null : offsets());
+      }
+    }
+    return n;
+  }
+
+  private static int indexSlot(String s) {
+    return System.identityHashCode(s) & (INDEX_CACHE_SIZE - 1);
+  }
+
+  /**
+   * CharIndex returns the char index of the code point at the given index, or -1 if the index is
+   * not in the range {@code [0, codePointCount()]}.
+   *
+   * <p>Indexes below {@value #INDEX_CACHE_MIN_LENGTH} only scan the prefix up to the requested
+   * code point, unless the code points have been counted before. Larger indexes use the index of
+   * the string, which is shared through the cache by all StringT of the same string.
+   */
+  public int charIndex(int codePointIndex) {
+    int len = s.length();
+    if (codePointIndex < 0 || codePointIndex > len) {
+      return -1;
+    }
+    int n = codePoints;
+    if (n < 0 && codePointIndex >= INDEX_CACHE_MIN_LENGTH) {
+      n = codePointCount();
+    }
+    if (n == len) {
+      return codePointIndex;
+    }
+    if (n >= 0) {
+      if (codePointIndex > n) {
+        return -1;
+      }
+      int[] o = offsets();
+      return s.offsetByCodePoints(
+          o[codePointIndex >>> OFFSET_SAMPLE_SHIFT], codePointIndex & (OFFSET_SAMPLE_SIZE - 1));
+    }
+    int i = 0;
+    for (int k = 0; k < codePointIndex; k++) {
+      if (i == len) {
+        return -1;
+      }
+      if (Character.isHighSurrogate(s.charAt(i++))
+          && i < len
+          && Character.isLowSurrogate(s.charAt(i))) {
+        i++;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * CodePointIndex returns the code point index of the given char index, which must be in the range
+   * {@code [0, length()]}. Like {@link #charIndex(int)}, it only counts the code points of the
+   * prefix up to small char indexes unless they have been counted before.
+   */
+  public int codePointIndex(int charIndex) {
+    int n = codePoints;
+    if (n < 0 && charIndex >= INDEX_CACHE_MIN_LENGTH) {
+      n = codePointCount();
+    }
+    if (n == s.length()) {
+      return charIndex;
+    }
+    if (n < 0) {
+      return s.codePointCount(0, charIndex);
+    }
+    int[] o = offsets();
+    int k = Arrays.binarySearch(o, charIndex);
+    if (k < 0) {
+      k = -k - 2;
+    }
+    return (k << OFFSET_SAMPLE_SHIFT) + s.codePointCount(o[k], charIndex);
+  }
+
+  private int[] offsets() {
+    int[] o = offsets;
+    if (o == null) {
+      o = new int[(codePointCount() >>> OFFSET_SAMPLE_SHIFT) + 1];
+      int offset = 0;
+      for (int k = 0; ; k++) {
+        o[k] = offset;
+        if (k + 1 == o.length) {
+          break;
+        }
+        offset = s.offsetByCodePoints(offset, OFFSET_SAMPLE_SIZE);
+      }
+      offsets = o;
+    }
+    return o;
+  }
+
   /** Add implements traits.Adder.Add. */
   @Override
   public Val add(Val other) {
@@ -226,7 +384,7 @@ public final class StringT extends BaseVal implements Adder, Comparer, Matcher,
   /** Size implements traits.Sizer.Size. */
   @Override
   public Val size() {
-    return intOf(s.codePointCount(0, s.length()));
+    return intOf(codePointCount());
   }
 
   /** Type implements ref.Val.Type. */
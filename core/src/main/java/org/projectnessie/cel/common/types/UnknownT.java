@@ -17,7 +17,8 @@ package org.projectnessie.cel.common.types;
 
 import static org.projectnessie.cel.common.types.Types.boolOf;
 
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.List;
 import org.projectnessie.cel.common.types.ref.BaseVal;
 import org.projectnessie.cel.common.types.ref.Type;
 import org.projectnessie.cel.common.types.ref.TypeEnum;
@@ -26,19 +27,130 @@ import org.projectnessie.cel.common.types.ref.Val;
 /**
  * Unknown type implementation which collects expression ids which caused the current value to
  * become unknown.
+ *
+ * <p>Unknown values are sets of expression ids and, for unknown attributes, the trails of the
+ * attributes, see {@link AttributeTrail}. Unknown values merge, when the result of an expression
+ * depends on more than one unknown value, for example both operands of a logical operator. The
+ * first id of the left-most unknown value stays the primary id, which is returned by {@link
+ * #intValue()} and {@link #value()}.
  */
 public final class UnknownT extends BaseVal {
   /** UnknownType singleton. */
   public static final Type UnknownType = TypeT.newTypeValue(TypeEnum.Unknown);
 
+  private static final AttributeTrail[] NoTrails = new AttributeTrail[0];
+
   public static UnknownT unknownOf(long value) {
-    return new UnknownT(value);
+    return new UnknownT(value, new long[] {value}, NoTrails);
+  }
+
+  public static UnknownT unknownOf(long value, AttributeTrail trail) {
+    return new UnknownT(value, new long[] {value}, new AttributeTrail[] {trail});
+  }
+
+  /**
+   * MergeUnknowns returns the union of both values if both are unknown, otherwise the left-hand
+   * side value.
+   */
+  public static Val mergeUnknowns(Val lhs, Val rhs) {
+    if (isUnknown(lhs) && isUnknown(rhs)) {
+      return ((UnknownT) lhs).merge((UnknownT) rhs);
+    }
+    return lhs;
   }
 
   private final long value;
+  /** Sorted, distinct expression ids. */
+  private final long[] ids;
+  /** Distinct attribute trails. */
+  private final AttributeTrail[] trails;
 
-  private UnknownT(long value) {
+  private UnknownT(long value, long[] ids, AttributeTrail[] trails) {
     this.value = value;
+    this.ids = ids;
+    this.trails = trails;
+  }
+
+  /**
+   * Merge returns an unknown value containing the expression ids and attribute trails of this and
+   * the other value. Returns this instance, if it already contains everything of the other value.
+   */
+  public UnknownT merge(UnknownT other) {
+    if (other == this) {
+      return this;
+    }
+    long[] mergedIds = mergeIds(ids, other.ids);
+    AttributeTrail[] mergedTrails = mergeTrails(trails, other.trails);
+    if (mergedIds == ids && mergedTrails == trails) {
+      return this;
+    }
+    return new UnknownT(value, mergedIds, mergedTrails);
+  }
+
+  private static long[] mergeIds(long[] a, long[] b) {
+    long[] r = new long[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < a.length && j < b.length) {
+      long x = a[i];
+      long y = b[j];
+      if (x < y) {
+        r[n++] = x;
+        i++;
+      } else if (y < x) {
+        r[n++] = y;
+        j++;
+      } else {
+        r[n++] = x;
+        i++;
+        j++;
+      }
+    }
+    if (j == b.length && n == i) {
+      // All ids of b are contained in a.
+      return a;
+    }
+    while (i < a.length) {
+      r[n++] = a[i++];
+    }
+    while (j < b.length) {
+      r[n++] = b[j++];
+    }
+    return n == r.length ? r : Arrays.copyOf(r, n);
+  }
+
+  private static AttributeTrail[] mergeTrails(AttributeTrail[] a, AttributeTrail[] b) {
+    AttributeTrail[] r = a;
+    int n = a.length;
+    outer:
+    for (AttributeTrail t : b) {
+      for (int i = 0; i < n; i++) {
+        if (r[i].equals(t)) {
+          continue outer;
+        }
+      }
+      if (r == a) {
+        r = Arrays.copyOf(a, a.length + b.length);
+      }
+      r[n++] = t;
+    }
+    return r == a || n == r.length ? r : Arrays.copyOf(r, n);
+  }
+
+  /** Ids returns the sorted, distinct ids of the expressions, whose values are unknown. */
+  public long[] ids() {
+    return ids.clone();
+  }
+
+  /** ContainsId returns whether the given expression id is part of this unknown value. */
+  public boolean containsId(long id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /** AttributeTrails returns the trails of the unknown attributes. */
+  public List<AttributeTrail> attributeTrails() {
+    return List.of(trails);
   }
 
   /** ConvertToNative implements ref.Val.ConvertToNative. */
@@ -96,12 +208,21 @@ public final class UnknownT extends BaseVal {
       return false;
     }
     UnknownT unknownT = (UnknownT) o;
-    return value == unknownT.value;
+    return Arrays.equals(ids, unknownT.ids);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), value);
+    return Arrays.hashCode(ids);
+  }
+
+  @Override
+  public String toString() {
+    if (ids.length == 1 && trails.length == 0) {
+      return super.toString();
+    }
+    return String.format(
+        "%s{%s, trails=%s}", UnknownType.typeName(), Arrays.toString(ids), Arrays.toString(trails));
   }
 
   /**
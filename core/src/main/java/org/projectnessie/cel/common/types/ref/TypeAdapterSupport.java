@@ -44,6 +44,7 @@ import com.google.protobuf.Struct;
 import com.google.protobuf.Timestamp;
 import com.google.protobuf.UInt32Value;
 import com.google.protobuf.UInt64Value;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
@@ -136,6 +137,9 @@ public final class TypeAdapterSupport {
     if (value instanceof ByteString) {
       return bytesOf((ByteString) value);
     }
+    if (value instanceof ByteBuffer) {
+      return bytesOf((ByteBuffer) value);
+    }
 
     if (value instanceof Instant) {
       return timestampOf(((Instant) value).atZone(ZoneIdZ));
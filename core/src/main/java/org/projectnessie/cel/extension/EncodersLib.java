@@ -21,6 +21,8 @@ import static org.projectnessie.cel.common.types.Err.newErr;
 import static org.projectnessie.cel.common.types.Err.noSuchOverload;
 import static org.projectnessie.cel.common.types.StringT.stringOf;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
 import org.projectnessie.cel.EnvOption;
@@ -73,8 +75,11 @@ public final class EncodersLib implements Library {
     if (!(value instanceof BytesT)) {
       return noSuchOverload(value, BASE64_ENCODE, BASE64_ENCODE_OVERLOAD, new Val[] {value});
     }
-    byte[] bytes = value.convertToNative(byte[].class);
-    return stringOf(Base64.getEncoder().encodeToString(bytes));
+    // Encode from the read-only buffer of the value instead of a copy of its bytes, base64 output
+    // is ASCII and can be decoded as ISO-8859-1 without another pass.
+    ByteBuffer encoded = Base64.getEncoder().encode(value.convertToNative(ByteBuffer.class));
+    return stringOf(
+        new String(encoded.array(), 0, encoded.remaining(), StandardCharsets.ISO_8859_1));
   }
 
   private static Val base64Decode(Val value) {
@@ -83,7 +88,8 @@ public final class EncodersLib implements Library {
     }
     String text = value.convertToNative(String.class);
     try {
-      return bytesOf(Base64.getDecoder().decode(text));
+      // The decoded array is owned by the result, wrap it instead of copying it again.
+      return bytesOf(ByteBuffer.wrap(Base64.getDecoder().decode(text)));
     } catch (IllegalArgumentException e) {
       return newErr(e, "invalid base64 string");
     }
@@ -42,6 +42,16 @@ public final class Guards {
     };
   }
 
+  public static BinaryOp callInStrTIntOutStr(BiFunction<StringT, Integer, String> func) {
+    return (lhs, rhs) -> {
+      try {
+        return StringT.stringOf(func.apply((StringT) lhs, getIntValue((IntT) rhs)));
+      } catch (RuntimeException e) {
+        return Err.newErr(e, "%s", e.getMessage());
+      }
+    };
+  }
+
   public static FunctionOp callInStrIntIntOutStr(
       TriFunction<String, Integer, Integer, String> func) {
     return values -> {
@@ -57,6 +67,21 @@ public final class Guards {
     };
   }
 
+  public static FunctionOp callInStrTIntIntOutStr(
+      TriFunction<StringT, Integer, Integer, String> func) {
+    return values -> {
+      try {
+        return StringT.stringOf(
+            func.apply(
+                (StringT) values[0],
+                (getIntValue((IntT) values[1])),
+                (getIntValue((IntT) values[2]))));
+      } catch (RuntimeException e) {
+        return Err.newErr(e, "%s", e.getMessage());
+      }
+    };
+  }
+
   public static BinaryOp callInStrStrOutInt(BiFunction<String, String, Integer> func) {
     return (lhs, rhs) -> {
       try {
@@ -67,6 +92,16 @@ public final class Guards {
     };
   }
 
+  public static BinaryOp callInStrTStrOutInt(BiFunction<StringT, String, Integer> func) {
+    return (lhs, rhs) -> {
+      try {
+        return IntT.intOf(func.apply((StringT) lhs, ((String) rhs.value())));
+      } catch (RuntimeException e) {
+        return Err.newErr(e, "%s", e.getMessage());
+      }
+    };
+  }
+
   public static FunctionOp callInStrStrIntOutInt(
       TriFunction<String, String, Integer, Integer> func) {
     return values -> {
@@ -82,6 +117,21 @@ public final class Guards {
     };
   }
 
+  public static FunctionOp callInStrTStrIntOutInt(
+      TriFunction<StringT, String, Integer, Integer> func) {
+    return values -> {
+      try {
+        return IntT.intOf(
+            func.apply(
+                (StringT) values[0],
+                ((String) values[1].value()),
+                (getIntValue((IntT) values[2]))));
+      } catch (RuntimeException e) {
+        return Err.newErr(e, "%s", e.getMessage());
+      }
+    };
+  }
+
   public static BinaryOp callInStrStrOutStrArr(BiFunction<String, String, String[]> func) {
     return (lhs, rhs) -> {
       try {
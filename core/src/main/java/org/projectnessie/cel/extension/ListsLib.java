@@ -0,0 +1,570 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.projectnessie.cel.common.types.Err.newErr;
+import static org.projectnessie.cel.common.types.Err.noSuchOverload;
+import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.ListT.newDoubleArrayList;
+import static org.projectnessie.cel.common.types.ListT.newIntArrayList;
+import static org.projectnessie.cel.common.types.ListT.newLongArrayList;
+import static org.projectnessie.cel.common.types.ListT.newValArrayList;
+import static org.projectnessie.cel.common.types.ListT.primitiveArray;
+import static org.projectnessie.cel.common.types.Util.isUnknownOrError;
+import static org.projectnessie.cel.parser.Macro.AccumulatorName;
+
+import com.google.api.expr.v1alpha1.Expr;
+import com.google.api.expr.v1alpha1.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.projectnessie.cel.EnvOption;
+import org.projectnessie.cel.Library;
+import org.projectnessie.cel.ProgramOption;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.ErrorWithLocation;
+import org.projectnessie.cel.common.operators.Operator;
+import org.projectnessie.cel.common.types.DoubleT;
+import org.projectnessie.cel.common.types.IntT;
+import org.projectnessie.cel.common.types.pb.DefaultTypeAdapter;
+import org.projectnessie.cel.common.types.ref.TypeAdapter;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.common.types.traits.Comparer;
+import org.projectnessie.cel.common.types.traits.Lister;
+import org.projectnessie.cel.interpreter.functions.Overload;
+import org.projectnessie.cel.parser.ExprHelper;
+import org.projectnessie.cel.parser.Macro;
+
+/**
+ * ListsLib provides CEL helper functions for lists.
+ *
+ * <ul>
+ *   <li>{@code lists.range(n)} returns the list {@code [0, 1, ..., n-1]}.
+ *   <li>{@code list.slice(start, end)} returns the elements from {@code start} (inclusive) to
+ *       {@code end} (exclusive).
+ *   <li>{@code list.flatten()} and {@code list.flatten(depth)} flatten nested lists.
+ *   <li>{@code list.distinct()} removes duplicate elements using CEL equality, keeping the first
+ *       occurrence.
+ *   <li>{@code list.sort()} sorts comparable elements in ascending order.
+ *   <li>{@code list.sortBy(e, keyExpr)} sorts the elements by the key computed for each element.
+ *   <li>{@code list.reverse()} reverses the order of the elements.
+ * </ul>
+ *
+ * <p>The functions are implemented natively with at most O(n log n) complexity. Lists backed by
+ * primitive {@code int}, {@code long} or {@code double} arrays are processed on copies of the
+ * arrays without creating intermediate values.
+ */
+public final class ListsLib implements Library {
+  private static final String RANGE = "lists.range";
+  private static final String SLICE = "slice";
+  private static final String FLATTEN = "flatten";
+  private static final String DISTINCT = "distinct";
+  private static final String SORT = "sort";
+  private static final String SORT_BY = "sortBy";
+  private static final String SORT_BY_ASSOCIATED_KEYS = "lists.@sortByAssociatedKeys";
+  private static final String REVERSE = "reverse";
+
+  private static final String RANGE_OVERLOAD = "lists_range";
+  private static final String SLICE_OVERLOAD = "list_slice";
+  private static final String FLATTEN_OVERLOAD = "list_flatten";
+  private static final String FLATTEN_INT_OVERLOAD = "list_flatten_int";
+  private static final String DISTINCT_OVERLOAD = "list_distinct";
+  private static final String SORT_OVERLOAD = "list_sort";
+  private static final String SORT_BY_ASSOCIATED_KEYS_OVERLOAD = "list_sortByAssociatedKeys";
+  private static final String REVERSE_OVERLOAD = "list_reverse";
+
+  private static final String SORT_BY_INPUT = "@__sortBy_input__";
+  private static final String TYPE_PARAM_T = "T";
+  private static final String TYPE_PARAM_K = "K";
+
+  private static final TypeAdapter ADAPTER = DefaultTypeAdapter.Instance;
+
+  private ListsLib() {}
+
+  public static EnvOption lists() {
+    return Library.Lib(new ListsLib());
+  }
+
+  @Override
+  public List<EnvOption> getCompileOptions() {
+    Type typeParamT = Decls.newTypeParamType(TYPE_PARAM_T);
+    Type typeParamK = Decls.newTypeParamType(TYPE_PARAM_K);
+    Type listT = Decls.newListType(typeParamT);
+    Type listDyn = Decls.newListType(Decls.Dyn);
+    List<String> typeParams = singletonList(TYPE_PARAM_T);
+
+    return List.of(
+        EnvOption.macros(Macro.newReceiverMacro(SORT_BY, 2, ListsLib::makeSortBy)),
+        EnvOption.declarations(
+            Decls.newFunction(
+                RANGE,
+                Decls.newOverload(
+                    RANGE_OVERLOAD, singletonList(Decls.Int), Decls.newListType(Decls.Int))),
+            Decls.newFunction(
+                SLICE,
+                Decls.newParameterizedInstanceOverload(
+                    SLICE_OVERLOAD, asList(listT, Decls.Int, Decls.Int), listT, typeParams)),
+            Decls.newFunction(
+                FLATTEN,
+                Decls.newParameterizedInstanceOverload(
+                    FLATTEN_OVERLOAD,
+                    singletonList(Decls.newListType(listT)),
+                    listT,
+                    typeParams),
+                Decls.newInstanceOverload(
+                    FLATTEN_INT_OVERLOAD, asList(listDyn, Decls.Int), listDyn)),
+            Decls.newFunction(
+                DISTINCT,
+                Decls.newParameterizedInstanceOverload(
+                    DISTINCT_OVERLOAD, singletonList(listT), listT, typeParams)),
+            Decls.newFunction(
+                SORT,
+                Decls.newParameterizedInstanceOverload(
+                    SORT_OVERLOAD, singletonList(listT), listT, typeParams)),
+            Decls.newFunction(
+                SORT_BY_ASSOCIATED_KEYS,
+                Decls.newParameterizedOverload(
+                    SORT_BY_ASSOCIATED_KEYS_OVERLOAD,
+                    asList(listT, Decls.newListType(typeParamK)),
+                    listT,
+                    asList(TYPE_PARAM_T, TYPE_PARAM_K))),
+            Decls.newFunction(
+                REVERSE,
+                Decls.newParameterizedInstanceOverload(
+                    REVERSE_OVERLOAD, singletonList(listT), listT, typeParams))));
+  }
+
+  @Override
+  public List<ProgramOption> getProgramOptions() {
+    return List.of(
+        ProgramOption.functions(
+            Overload.unary(RANGE, ListsLib::range),
+            Overload.unary(RANGE_OVERLOAD, ListsLib::range),
+            Overload.function(SLICE, ListsLib::slice),
+            Overload.function(SLICE_OVERLOAD, ListsLib::slice),
+            Overload.overload(FLATTEN, null, ListsLib::flatten, ListsLib::flatten, null),
+            Overload.unary(FLATTEN_OVERLOAD, ListsLib::flatten),
+            Overload.binary(FLATTEN_INT_OVERLOAD, ListsLib::flatten),
+            Overload.unary(DISTINCT, ListsLib::distinct),
+            Overload.unary(DISTINCT_OVERLOAD, ListsLib::distinct),
+            Overload.unary(SORT, ListsLib::sort),
+            Overload.unary(SORT_OVERLOAD, ListsLib::sort),
+            Overload.binary(SORT_BY_ASSOCIATED_KEYS, ListsLib::sortByAssociatedKeys),
+            Overload.binary(SORT_BY_ASSOCIATED_KEYS_OVERLOAD, ListsLib::sortByAssociatedKeys),
+            Overload.unary(REVERSE, ListsLib::reverse),
+            Overload.unary(REVERSE_OVERLOAD, ListsLib::reverse)));
+  }
+
+  /**
+   * makeSortBy expands {@code list.sortBy(e, keyExpr)} to a single-iteration comprehension, which
+   * binds the list to a hidden variable, and sorts it by the keys computed via {@code map}:
+   *
+   * <pre>{@code
+   * lists.@sortByAssociatedKeys(@__sortBy_input__, @__sortBy_input__.map(e, keyExpr))
+   * }</pre>
+   */
+  static Expr makeSortBy(ExprHelper eh, Expr target, List<Expr> args) {
+    Expr var = args.get(0);
+    if (var.getExprKindCase() != Expr.ExprKindCase.IDENT_EXPR) {
+      throw new ErrorWithLocation(
+          eh.offsetLocation(var.getId()), "sortBy(var, ...) variable name must be a simple name");
+    }
+    Expr accuExpr = eh.ident(AccumulatorName);
+    Expr keys =
+        eh.fold(
+            var.getIdentExpr().getName(),
+            eh.ident(SORT_BY_INPUT),
+            AccumulatorName,
+            eh.newList(),
+            eh.literalBool(true),
+            eh.globalCall(Operator.Add.id, accuExpr, eh.newList(args.get(1))),
+            accuExpr);
+    Expr sorted = eh.globalCall(SORT_BY_ASSOCIATED_KEYS, eh.ident(SORT_BY_INPUT), keys);
+    return eh.fold(
+        SORT_BY_INPUT,
+        eh.newList(target),
+        AccumulatorName,
+        eh.newList(),
+        eh.literalBool(true),
+        sorted,
+        eh.ident(AccumulatorName));
+  }
+
+  private static Val range(Val n) {
+    if (!(n instanceof IntT)) {
+      return noSuchOverload(n, RANGE, null);
+    }
+    long count = n.intValue();
+    if (count > Integer.MAX_VALUE) {
+      return newErr("lists.range(%d) exceeds the maximum list size", count);
+    }
+    long[] result = new long[(int) Math.max(count, 0L)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = i;
+    }
+    return newLongArrayList(ADAPTER, result);
+  }
+
+  private static Val slice(Val... args) {
+    if (args.length != 3) {
+      return newErr("no such overload");
+    }
+    if (!(args[0] instanceof Lister list)
+        || !(args[1] instanceof IntT)
+        || !(args[2] instanceof IntT)) {
+      return noSuchOverload(args[0], SLICE, SLICE_OVERLOAD, args);
+    }
+    long start = args[1].intValue();
+    long end = args[2].intValue();
+    int size = size(list);
+    if (start < 0 || end < 0) {
+      return newErr("cannot slice(%d, %d), negative indexes not supported", start, end);
+    }
+    if (start > end) {
+      return newErr(
+          "cannot slice(%d, %d), start index must be less than or equal to end index",
+          start,
+          end);
+    }
+    if (end > size) {
+      return newErr("cannot slice(%d, %d), list is length %d", start, end, size);
+    }
+    int s = (int) start;
+    int e = (int) end;
+    Object array = primitiveArray(list);
+    if (array instanceof long[] a) {
+      return newLongArrayList(ADAPTER, Arrays.copyOfRange(a, s, e));
+    }
+    if (array instanceof int[] a) {
+      return newIntArrayList(ADAPTER, Arrays.copyOfRange(a, s, e));
+    }
+    if (array instanceof double[] a) {
+      return newDoubleArrayList(ADAPTER, Arrays.copyOfRange(a, s, e));
+    }
+    Val[] result = new Val[e - s];
+    for (int i = s; i < e; i++) {
+      result[i - s] = list.get(intOf(i));
+    }
+    return newValArrayList(ADAPTER, result);
+  }
+
+  private static Val flatten(Val list) {
+    return flatten(list, intOf(1));
+  }
+
+  private static Val flatten(Val list, Val depth) {
+    if (!(list instanceof Lister l) || !(depth instanceof IntT)) {
+      return noSuchOverload(list, FLATTEN, depth);
+    }
+    long d = depth.intValue();
+    if (d < 0L) {
+      return newErr("level must be non-negative");
+    }
+    Object array = primitiveArray(l);
+    if (d == 0L || array instanceof long[] || array instanceof int[] || array instanceof double[]) {
+      // Lists of primitives cannot contain nested lists.
+      return list;
+    }
+    List<Val> result = new ArrayList<>(size(l));
+    flattenInto(l, d, result);
+    return newValArrayList(ADAPTER, result.toArray(new Val[0]));
+  }
+
+  private static void flattenInto(Lister list, long depth, List<Val> result) {
+    int size = size(list);
+    for (int i = 0; i < size; i++) {
+      Val elem = list.get(intOf(i));
+      if (depth > 0L && elem instanceof Lister nested) {
+        flattenInto(nested, depth - 1L, result);
+      } else {
+        result.add(elem);
+      }
+    }
+  }
+
+  private static Val distinct(Val list) {
+    if (!(list instanceof Lister l)) {
+      return noSuchOverload(list, DISTINCT, null);
+    }
+    Object array = primitiveArray(l);
+    if (array instanceof long[] a) {
+      return newLongArrayList(ADAPTER, distinct(a));
+    }
+    if (array instanceof int[] a) {
+      long[] longs = new long[a.length];
+      for (int i = 0; i < a.length; i++) {
+        longs[i] = a[i];
+      }
+      return newLongArrayList(ADAPTER, distinct(longs));
+    }
+    if (array instanceof double[] a) {
+      return newDoubleArrayList(ADAPTER, distinct(a));
+    }
+    int size = size(l);
+    // Val.hashCode() is consistent with CEL equality, including heterogeneous numeric values.
+    Set<Val> seen = new HashSet<>(size * 4 / 3 + 1);
+    List<Val> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      Val elem = l.get(intOf(i));
+      if (isUnknownOrError(elem)) {
+        return elem;
+      }
+      if (seen.add(elem)) {
+        result.add(elem);
+      }
+    }
+    return newValArrayList(ADAPTER, result.toArray(new Val[0]));
+  }
+
+  /**
+   * Returns the distinct values in the order of their first occurrence. The membership test uses a
+   * binary search on the sorted unique values, which keeps the work in O(n log n) on primitives.
+   */
+  private static long[] distinct(long[] values) {
+    long[] unique = values.clone();
+    Arrays.sort(unique);
+    int u = 0;
+    for (int i = 0; i < unique.length; i++) {
+      if (i == 0 || unique[i] != unique[u - 1]) {
+        unique[u++] = unique[i];
+      }
+    }
+    boolean[] seen = new boolean[u];
+    long[] result = new long[values.length];
+    int n = 0;
+    for (long v : values) {
+      int idx = Arrays.binarySearch(unique, 0, u, v);
+      if (!seen[idx]) {
+        seen[idx] = true;
+        result[n++] = v;
+      }
+    }
+    return n == result.length ? result : Arrays.copyOf(result, n);
+  }
+
+  private static double[] distinct(double[] values) {
+    double[] unique = new double[values.length];
+    int u = 0;
+    for (double v : values) {
+      if (!Double.isNaN(v)) {
+        // Normalize -0.0 to 0.0, both are equal in CEL.
+        unique[u++] = v + 0.0d;
+      }
+    }
+    Arrays.sort(unique, 0, u);
+    int w = 0;
+    for (int i = 0; i < u; i++) {
+      if (i == 0 || unique[i] != unique[w - 1]) {
+        unique[w++] = unique[i];
+      }
+    }
+    boolean[] seen = new boolean[w];
+    double[] result = new double[values.length];
+    int n = 0;
+    for (double v : values) {
+      if (Double.isNaN(v)) {
+        // NaN is not equal to any value, including itself.
+        result[n++] = v;
+        continue;
+      }
+      int idx = Arrays.binarySearch(unique, 0, w, v + 0.0d);
+      if (!seen[idx]) {
+        seen[idx] = true;
+        result[n++] = v;
+      }
+    }
+    return n == result.length ? result : Arrays.copyOf(result, n);
+  }
+
+  private static Val sort(Val list) {
+    if (!(list instanceof Lister l)) {
+      return noSuchOverload(list, SORT, null);
+    }
+    Object array = primitiveArray(l);
+    if (array instanceof long[] a) {
+      long[] sorted = a.clone();
+      Arrays.sort(sorted);
+      return newLongArrayList(ADAPTER, sorted);
+    }
+    if (array instanceof int[] a) {
+      int[] sorted = a.clone();
+      Arrays.sort(sorted);
+      return newIntArrayList(ADAPTER, sorted);
+    }
+    if (array instanceof double[] a) {
+      double[] sorted = a.clone();
+      Arrays.sort(sorted);
+      return newDoubleArrayList(ADAPTER, sorted);
+    }
+
+    Val[] elems = toArray(l);
+    Val invalid = checkComparable(elems, SORT);
+    if (invalid != null) {
+      return invalid;
+    }
+    if (allOfType(elems, IntT.class)) {
+      long[] sorted = new long[elems.length];
+      for (int i = 0; i < elems.length; i++) {
+        sorted[i] = elems[i].intValue();
+      }
+      Arrays.sort(sorted);
+      return newLongArrayList(ADAPTER, sorted);
+    }
+    if (allOfType(elems, DoubleT.class)) {
+      double[] sorted = new double[elems.length];
+      for (int i = 0; i < elems.length; i++) {
+        sorted[i] = elems[i].doubleValue();
+      }
+      Arrays.sort(sorted);
+      return newDoubleArrayList(ADAPTER, sorted);
+    }
+    try {
+      Arrays.sort(elems, ListsLib::compare);
+    } catch (ComparisonException e) {
+      return e.error;
+    }
+    return newValArrayList(ADAPTER, elems);
+  }
+
+  private static Val sortByAssociatedKeys(Val list, Val keyList) {
+    if (!(list instanceof Lister l) || !(keyList instanceof Lister k)) {
+      return noSuchOverload(list, SORT_BY_ASSOCIATED_KEYS, keyList);
+    }
+    Val[] elems = toArray(l);
+    Val[] keys = toArray(k);
+    if (elems.length != keys.length) {
+      return newErr(
+          "@sortByAssociatedKeys() expected a list of the same size as the associated keys list,"
+              + " but got %d and %d elements respectively",
+          elems.length,
+          keys.length);
+    }
+    Val invalid = checkComparable(keys, SORT_BY);
+    if (invalid != null) {
+      return invalid;
+    }
+    Integer[] order = new Integer[elems.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    if (allOfType(keys, IntT.class)) {
+      long[] longKeys = new long[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        longKeys[i] = keys[i].intValue();
+      }
+      Arrays.sort(order, (a, b) -> Long.compare(longKeys[a], longKeys[b]));
+    } else {
+      try {
+        Arrays.sort(order, (a, b) -> compare(keys[a], keys[b]));
+      } catch (ComparisonException e) {
+        return e.error;
+      }
+    }
+    Val[] result = new Val[elems.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = elems[order[i]];
+    }
+    return newValArrayList(ADAPTER, result);
+  }
+
+  private static Val reverse(Val list) {
+    if (!(list instanceof Lister l)) {
+      return noSuchOverload(list, REVERSE, null);
+    }
+    Object array = primitiveArray(l);
+    if (array instanceof long[] a) {
+      long[] result = new long[a.length];
+      for (int i = 0; i < a.length; i++) {
+        result[i] = a[a.length - 1 - i];
+      }
+      return newLongArrayList(ADAPTER, result);
+    }
+    if (array instanceof int[] a) {
+      int[] result = new int[a.length];
+      for (int i = 0; i < a.length; i++) {
+        result[i] = a[a.length - 1 - i];
+      }
+      return newIntArrayList(ADAPTER, result);
+    }
+    if (array instanceof double[] a) {
+      double[] result = new double[a.length];
+      for (int i = 0; i < a.length; i++) {
+        result[i] = a[a.length - 1 - i];
+      }
+      return newDoubleArrayList(ADAPTER, result);
+    }
+    int size = size(l);
+    Val[] result = new Val[size];
+    for (int i = 0; i < size; i++) {
+      result[size - 1 - i] = l.get(intOf(i));
+    }
+    return newValArrayList(ADAPTER, result);
+  }
+
+  private static int size(Lister list) {
+    return (int) list.size().intValue();
+  }
+
+  private static Val[] toArray(Lister list) {
+    Val[] result = new Val[size(list)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = list.get(intOf(i));
+    }
+    return result;
+  }
+
+  private static Val checkComparable(Val[] elems, String function) {
+    for (Val elem : elems) {
+      if (isUnknownOrError(elem)) {
+        return elem;
+      }
+      if (!(elem instanceof Comparer)) {
+        return noSuchOverload(elem, function, null);
+      }
+    }
+    return null;
+  }
+
+  private static boolean allOfType(Val[] elems, Class<? extends Val> type) {
+    for (Val elem : elems) {
+      if (elem.getClass() != type) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int compare(Val left, Val right) {
+    Val cmp = ((Comparer) left).compare(right);
+    if (!(cmp instanceof IntT)) {
+      throw new ComparisonException(cmp);
+    }
+    return Long.signum(cmp.intValue());
+  }
+
+  private static final class ComparisonException extends RuntimeException {
+    private final Val error;
+
+    ComparisonException(Val error) {
+      super(error.toString(), null, false, false);
+      this.error = error;
+    }
+  }
+}
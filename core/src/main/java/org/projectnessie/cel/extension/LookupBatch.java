@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.projectnessie.cel.common.types.UnknownT.unknownOf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.extension.LookupLib.Lookup;
+
+/**
+ * LookupBatch evaluates a program against many inputs and resolves the keys of the {@link
+ * LookupLib} functions called by these evaluations with one bulk call per lookup function.
+ *
+ * <p>The inputs are evaluated in rounds. While a round is evaluated, a lookup of a key that has not
+ * been resolved yet records the key and returns an unknown value, which lets the evaluation
+ * complete without waiting for the host. After each round the recorded keys are resolved in bulk
+ * and the evaluations that missed a key are evaluated again. Keys that depend on the result of
+ * another lookup are therefore resolved in one of the following rounds. After {@value #MaxRounds}
+ * rounds, remaining keys are resolved one at a time.
+ *
+ * <p>All resolved values are cached for the lifetime of the batch, so a batch evaluating a single
+ * input caches lookups per evaluation. A LookupBatch is not thread-safe.
+ */
+public final class LookupBatch {
+  /** Maximum number of rounds that defer lookups to a bulk load. */
+  static final int MaxRounds = 8;
+
+  /** Value returned by lookups of keys, which are resolved at the end of the current round. */
+  private static final Val Pending = unknownOf(Long.MIN_VALUE);
+
+  private static final ThreadLocal<LookupBatch> current = new ThreadLocal<>();
+
+  private final Map<Lookup, Map<Object, Val>> resolved = new HashMap<>();
+  private final Map<Lookup, Set<Object>> pending = new LinkedHashMap<>();
+  private boolean deferring;
+  private boolean missed;
+  private int bulkLoads;
+
+  private LookupBatch() {}
+
+  public static LookupBatch newLookupBatch() {
+    return new LookupBatch();
+  }
+
+  /** Current returns the batch bound to the current thread, or {@code null} if there is none. */
+  static LookupBatch current() {
+    return current.get();
+  }
+
+  /** Eval evaluates the program against the given input using the values of this batch. */
+  public EvalResult eval(Program program, Object vars) {
+    return evalAll(program, List.of(vars)).get(0);
+  }
+
+  /**
+   * EvalAll evaluates the program against each of the given inputs and returns the results in the
+   * same order. See {@link Program#eval(Object)} for the supported kinds of input.
+   */
+  public List<EvalResult> evalAll(Program program, List<?> vars) {
+    EvalResult[] results = new EvalResult[vars.size()];
+    int[] todo = new int[vars.size()];
+    Arrays.setAll(todo, i -> i);
+
+    LookupBatch previous = current.get();
+    current.set(this);
+    try {
+      for (int round = 0; todo.length > 0; round++) {
+        deferring = round < MaxRounds;
+        int retries = 0;
+        for (int i : todo) {
+          missed = false;
+          results[i] = program.eval(vars.get(i));
+          if (missed) {
+            todo[retries++] = i;
+          }
+        }
+        todo = Arrays.copyOf(todo, retries);
+        loadPending();
+      }
+    } finally {
+      if (previous != null) {
+        current.set(previous);
+      } else {
+        current.remove();
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /** BulkLoads returns the number of bulk loads performed by this batch so far. */
+  public int bulkLoads() {
+    return bulkLoads;
+  }
+
+  Val resolve(Lookup lookup, Object key) {
+    Map<Object, Val> values = resolved.computeIfAbsent(lookup, l -> new HashMap<>());
+    Val v = values.get(key);
+    if (v != null) {
+      return v;
+    }
+    v = lookup.cached(key);
+    if (v == null) {
+      if (deferring) {
+        pending.computeIfAbsent(lookup, l -> new LinkedHashSet<>()).add(key);
+        missed = true;
+        return Pending;
+      }
+      v = lookup.load(Set.of(key)).get(key);
+    }
+    values.put(key, v);
+    return v;
+  }
+
+  private void loadPending() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<Lookup, Set<Object>>> loads = new ArrayList<>(pending.entrySet());
+    pending.clear();
+    for (Map.Entry<Lookup, Set<Object>> load : loads) {
+      bulkLoads++;
+      resolved.get(load.getKey()).putAll(load.getKey().load(load.getValue()));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "LookupBatch{" + "resolved=" + resolved.size() + ", bulkLoads=" + bulkLoads + '}';
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.projectnessie.cel.common.types.ref.Val;
+
+/**
+ * LookupCache keeps loaded lookup values for a fixed time-to-live. It is safe for concurrent use.
+ *
+ * <p>Expired entries are dropped when they are read. Once the cache is full, expired entries are
+ * removed and, if that is not sufficient, arbitrary entries are evicted.
+ */
+final class LookupCache {
+  private final long ttlNanos;
+  private final int maximumSize;
+  private final LongSupplier nanoClock;
+  private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+  LookupCache(long ttlNanos, int maximumSize, LongSupplier nanoClock) {
+    if (ttlNanos <= 0L) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("maximum size must be positive");
+    }
+    this.ttlNanos = ttlNanos;
+    this.maximumSize = maximumSize;
+    this.nanoClock = nanoClock;
+  }
+
+  Val get(Object key) {
+    Entry e = entries.get(key);
+    if (e == null) {
+      return null;
+    }
+    if (nanoClock.getAsLong() - e.expiresAt >= 0L) {
+      entries.remove(key, e);
+      return null;
+    }
+    return e.value;
+  }
+
+  void put(Object key, Val value) {
+    long now = nanoClock.getAsLong();
+    if (entries.size() >= maximumSize) {
+      evict(now);
+    }
+    entries.put(key, new Entry(value, now + ttlNanos));
+  }
+
+  private void evict(long now) {
+    entries.values().removeIf(e -> now - e.expiresAt >= 0L);
+    Iterator<Entry> iter = entries.values().iterator();
+    while (entries.size() >= maximumSize && iter.hasNext()) {
+      iter.next();
+      iter.remove();
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static final class Entry {
+    private final Val value;
+    private final long expiresAt;
+
+    private Entry(Val value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
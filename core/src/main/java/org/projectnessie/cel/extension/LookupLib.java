@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.projectnessie.cel.common.types.Err.isError;
+import static org.projectnessie.cel.common.types.Err.newErr;
+
+import com.google.api.expr.v1alpha1.Decl;
+import com.google.api.expr.v1alpha1.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import org.projectnessie.cel.EnvOption;
+import org.projectnessie.cel.Library;
+import org.projectnessie.cel.ProgramOption;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.pb.DefaultTypeAdapter;
+import org.projectnessie.cel.common.types.ref.TypeAdapter;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.interpreter.functions.Overload;
+
+/**
+ * LookupLib provides CEL functions backed by host-side lookups, for example to resolve the groups
+ * of a user or the location of an IP address from an enrichment store.
+ *
+ * <p>Each {@link Lookup} declares a global function taking a single key and is backed by a {@link
+ * BulkLoader}, which resolves many keys with a single call. Keys are passed to the loader as their
+ * native Java value, see {@link Val#value()}, and the loaded values are converted to CEL values via
+ * the default type adapter.
+ *
+ * <p>Evaluations run through a {@link LookupBatch} collect the keys of all evaluations of the batch
+ * and resolve them with one call per lookup function. Resolved values are cached for the lifetime
+ * of the batch. Outside of a batch each call resolves its key on its own. A lookup may additionally
+ * keep the loaded values in a cache with a time-to-live, see {@link Lookup#withCache(Duration,
+ * int)}, which is shared by all evaluations.
+ */
+public final class LookupLib implements Library {
+  private static final TypeAdapter ADAPTER = DefaultTypeAdapter.Instance;
+
+  private final List<Lookup> lookups;
+
+  private LookupLib(List<Lookup> lookups) {
+    this.lookups = lookups;
+  }
+
+  public static EnvOption lookups(Lookup... lookups) {
+    return Library.Lib(new LookupLib(List.of(lookups)));
+  }
+
+  @Override
+  public List<EnvOption> getCompileOptions() {
+    List<Decl> declarations = new ArrayList<>(lookups.size());
+    for (Lookup lookup : lookups) {
+      declarations.add(
+          Decls.newFunction(
+              lookup.function,
+              Decls.newOverload(lookup.overloadId, List.of(lookup.keyType), lookup.resultType)));
+    }
+    return List.of(EnvOption.declarations(declarations));
+  }
+
+  @Override
+  public List<ProgramOption> getProgramOptions() {
+    List<Overload> overloads = new ArrayList<>(lookups.size() * 2);
+    for (Lookup lookup : lookups) {
+      overloads.add(Overload.unary(lookup.function, lookup::resolve));
+      overloads.add(Overload.unary(lookup.overloadId, lookup::resolve));
+    }
+    return List.of(ProgramOption.functions(overloads.toArray(Overload[]::new)));
+  }
+
+  /** BulkLoader resolves the values of a set of keys with a single call to the host. */
+  @FunctionalInterface
+  public interface BulkLoader {
+    /**
+     * LoadAll returns the values of the given keys. Keys without a value may be omitted from the
+     * returned map, calls resolving such a key return an error.
+     */
+    Map<?, ?> loadAll(Set<Object> keys);
+  }
+
+  /** Lookup describes a lookup function and the loader resolving its keys. */
+  public static final class Lookup {
+    private final String function;
+    private final String overloadId;
+    private final Type keyType;
+    private final Type resultType;
+    private final BulkLoader loader;
+    private final LookupCache cache;
+
+    private Lookup(
+        String function, Type keyType, Type resultType, BulkLoader loader, LookupCache cache) {
+      this.function = function;
+      this.overloadId = function.replace('.', '_') + "_lookup";
+      this.keyType = keyType;
+      this.resultType = resultType;
+      this.loader = loader;
+      this.cache = cache;
+    }
+
+    /**
+     * NewLookup creates a lookup function with the given name, which resolves keys of the given
+     * type to values of the given result type via the loader.
+     */
+    public static Lookup newLookup(
+        String function, Type keyType, Type resultType, BulkLoader loader) {
+      return new Lookup(function, keyType, resultType, loader, null);
+    }
+
+    /**
+     * WithCache returns a copy of this lookup, which keeps up to {@code maximumSize} loaded values
+     * for the given time-to-live. The cache is shared by all programs and evaluations using the
+     * returned lookup. Errors are not cached.
+     */
+    public Lookup withCache(Duration ttl, int maximumSize) {
+      return withCache(ttl, maximumSize, System::nanoTime);
+    }
+
+    Lookup withCache(Duration ttl, int maximumSize, LongSupplier nanoClock) {
+      return new Lookup(
+          function,
+          keyType,
+          resultType,
+          loader,
+          new LookupCache(ttl.toNanos(), maximumSize, nanoClock));
+    }
+
+    public String function() {
+      return function;
+    }
+
+    private Val resolve(Val key) {
+      LookupBatch batch = LookupBatch.current();
+      if (batch != null) {
+        return batch.resolve(this, key.value());
+      }
+      Object k = key.value();
+      Val v = cached(k);
+      return v != null ? v : load(Set.of(k)).get(k);
+    }
+
+    /** Cached returns the value of the key from the cache of this lookup, if there is one. */
+    Val cached(Object key) {
+      return cache != null ? cache.get(key) : null;
+    }
+
+    /** Load resolves the given keys via the loader and returns a value or error for each key. */
+    Map<Object, Val> load(Set<Object> keys) {
+      Map<Object, Val> values = new HashMap<>(keys.size() * 2);
+      Map<?, ?> loaded;
+      try {
+        loaded = loader.loadAll(keys);
+      } catch (RuntimeException e) {
+        Val err = newErr(e, "lookup '%s' failed: %s", function, e.getMessage());
+        for (Object key : keys) {
+          values.put(key, err);
+        }
+        return values;
+      }
+      for (Object key : keys) {
+        Object value = loaded != null ? loaded.get(key) : null;
+        Val v =
+            value != null
+                ? ADAPTER.nativeToValue(value)
+                : newErr("lookup '%s' has no value for key '%s'", function, key);
+        if (cache != null && !isError(v)) {
+          cache.put(key, v);
+        }
+        values.put(key, v);
+      }
+      return values;
+    }
+
+    @Override
+    public String toString() {
+      return "Lookup{" + "function='" + function + '\'' + '}';
+    }
+  }
+}
@@ -19,8 +19,10 @@ import static org.projectnessie.cel.common.types.BoolT.False;
 import static org.projectnessie.cel.common.types.BoolT.True;
 import static org.projectnessie.cel.common.types.DoubleT.doubleOf;
 import static org.projectnessie.cel.common.types.Err.errIntOverflow;
+import static org.projectnessie.cel.common.types.Err.errUintOverflow;
 import static org.projectnessie.cel.common.types.Err.newErr;
 import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.ListT.primitiveArray;
 import static org.projectnessie.cel.common.types.UintT.uintOf;
 
 import com.google.api.expr.v1alpha1.Decl;
@@ -33,6 +35,8 @@ import org.projectnessie.cel.ProgramOption;
 import org.projectnessie.cel.checker.Decls;
 import org.projectnessie.cel.common.types.DoubleT;
 import org.projectnessie.cel.common.types.IntT;
+import org.projectnessie.cel.common.types.Overflow;
+import org.projectnessie.cel.common.types.Overflow.OverflowException;
 import org.projectnessie.cel.common.types.UintT;
 import org.projectnessie.cel.common.types.ref.Val;
 import org.projectnessie.cel.common.types.traits.Lister;
@@ -42,6 +46,8 @@ import org.projectnessie.cel.interpreter.functions.Overload;
 public final class MathLib implements Library {
   private static final String GREATEST = "math.greatest";
   private static final String LEAST = "math.least";
+  private static final String SUM = "math.sum";
+  private static final String AVG = "math.avg";
   private static final String CEIL = "math.ceil";
   private static final String FLOOR = "math.floor";
   private static final String ROUND = "math.round";
@@ -69,6 +75,8 @@ public final class MathLib implements Library {
     List<Decl> declarations = new ArrayList<>();
     declarations.add(minMaxDeclaration(GREATEST));
     declarations.add(minMaxDeclaration(LEAST));
+    declarations.add(listDeclaration(SUM, Decls.Dyn));
+    declarations.add(listDeclaration(AVG, Decls.Double));
     declarations.add(unaryDeclaration(CEIL, Decls.Double));
     declarations.add(unaryDeclaration(FLOOR, Decls.Double));
     declarations.add(unaryDeclaration(ROUND, Decls.Double));
@@ -95,6 +103,10 @@ public final class MathLib implements Library {
     overloads.add(Overload.overload(LEAST, null, MathLib::least, MathLib::least, MathLib::least));
     addArityOverloads(overloads, GREATEST, MathLib::greatest);
     addArityOverloads(overloads, LEAST, MathLib::least);
+    overloads.add(Overload.unary(SUM, MathLib::sum));
+    overloads.add(Overload.unary(overloadId(SUM, "list"), MathLib::sum));
+    overloads.add(Overload.unary(AVG, MathLib::avg));
+    overloads.add(Overload.unary(overloadId(AVG, "list"), MathLib::avg));
     overloads.add(Overload.unary(CEIL, MathLib::ceil));
     overloads.add(Overload.unary(overloadId(CEIL, 1), MathLib::ceil));
     overloads.add(Overload.unary(FLOOR, MathLib::floor));
@@ -143,6 +155,13 @@ public final class MathLib implements Library {
     return Decls.newFunction(function, overloads);
   }
 
+  private static Decl listDeclaration(String function, Type result) {
+    return Decls.newFunction(
+        function,
+        Decls.newOverload(
+            overloadId(function, "list"), List.of(Decls.newListType(Decls.Dyn)), result));
+  }
+
   private static Decl unaryDeclaration(String function, Type result) {
     return Decls.newFunction(
         function, Decls.newOverload(overloadId(function, 1), List.of(Decls.Dyn), result));
@@ -193,17 +212,19 @@ public final class MathLib implements Library {
   }
 
   private static Val minMax(Val[] values, boolean greatest) {
-    List<Val> candidates = candidates(values);
-    if (candidates.isEmpty()) {
+    if (values.length == 1 && values[0] instanceof Lister list) {
+      return minMax(list, greatest);
+    }
+    if (values.length == 0) {
       return newErr("empty argument list");
     }
 
-    Val result = candidates.get(0);
+    Val result = values[0];
     if (!isNumber(result)) {
       return noSuchOverload();
     }
-    for (int i = 1; i < candidates.size(); i++) {
-      Val candidate = candidates.get(i);
+    for (int i = 1; i < values.length; i++) {
+      Val candidate = values[i];
       if (!isNumber(candidate)) {
         return noSuchOverload();
       }
@@ -215,16 +236,196 @@ public final class MathLib implements Library {
     return result;
   }
 
-  private static List<Val> candidates(Val[] values) {
-    if (values.length == 1 && values[0] instanceof Lister list) {
-      int size = (int) list.size().intValue();
-      List<Val> elements = new ArrayList<>(size);
-      for (int i = 0; i < size; i++) {
-        elements.add(list.get(intOf(i)));
+  private static Val minMax(Lister list, boolean greatest) {
+    int size = (int) list.size().intValue();
+    if (size == 0) {
+      return newErr("empty argument list");
+    }
+
+    // Lists backed by primitive arrays are scanned without boxing each element.
+    Object array = primitiveArray(list);
+    if (array instanceof long[] a) {
+      long result = a[0];
+      for (int i = 1; i < a.length; i++) {
+        long v = a[i];
+        if (greatest ? v > result : v < result) {
+          result = v;
+        }
+      }
+      return intOf(result);
+    }
+    if (array instanceof int[] a) {
+      int result = a[0];
+      for (int i = 1; i < a.length; i++) {
+        int v = a[i];
+        if (greatest ? v > result : v < result) {
+          result = v;
+        }
+      }
+      return intOf(result);
+    }
+    if (array instanceof double[] a) {
+      double result = a[0];
+      for (int i = 1; i < a.length; i++) {
+        double v = a[i];
+        int cmp = Double.compare(v, result);
+        if (greatest ? cmp > 0 : cmp < 0) {
+          result = v;
+        }
+      }
+      return doubleOf(result);
+    }
+
+    Val result = list.get(intOf(0));
+    if (!isNumber(result)) {
+      return noSuchOverload();
+    }
+    for (int i = 1; i < size; i++) {
+      Val candidate = list.get(intOf(i));
+      if (!isNumber(candidate)) {
+        return noSuchOverload();
+      }
+      int cmp = compareNumbers(candidate, result);
+      if ((greatest && cmp > 0) || (!greatest && cmp < 0)) {
+        result = candidate;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sum returns the sum of a list of numbers. All elements must be of the same numeric type, which
+   * is also the type of the result. The sum of an empty list is the int zero.
+   */
+  private static Val sum(Val value) {
+    if (!(value instanceof Lister list)) {
+      return noSuchOverload();
+    }
+    Object array = primitiveArray(list);
+    try {
+      if (array instanceof long[] a) {
+        long sum = 0L;
+        for (long v : a) {
+          sum = Overflow.addInt64Checked(sum, v);
+        }
+        return intOf(sum);
+      }
+      if (array instanceof int[] a) {
+        // The sum of at most 2^31 ints cannot overflow a long.
+        long sum = 0L;
+        for (int v : a) {
+          sum += v;
+        }
+        return intOf(sum);
+      }
+    } catch (OverflowException e) {
+      return errIntOverflow;
+    }
+    if (array instanceof double[] a) {
+      double sum = 0d;
+      for (double v : a) {
+        sum += v;
+      }
+      return doubleOf(sum);
+    }
+
+    int size = (int) list.size().intValue();
+    if (size == 0) {
+      return intOf(0);
+    }
+    Val first = list.get(intOf(0));
+    if (first instanceof DoubleT) {
+      double sum = first.doubleValue();
+      for (int i = 1; i < size; i++) {
+        Val v = list.get(intOf(i));
+        if (!(v instanceof DoubleT)) {
+          return noSuchOverload();
+        }
+        sum += v.doubleValue();
+      }
+      return doubleOf(sum);
+    }
+    if (first instanceof IntT) {
+      long sum = first.intValue();
+      try {
+        for (int i = 1; i < size; i++) {
+          Val v = list.get(intOf(i));
+          if (!(v instanceof IntT)) {
+            return noSuchOverload();
+          }
+          sum = Overflow.addInt64Checked(sum, v.intValue());
+        }
+      } catch (OverflowException e) {
+        return errIntOverflow;
+      }
+      return intOf(sum);
+    }
+    if (first instanceof UintT) {
+      long sum = first.intValue();
+      try {
+        for (int i = 1; i < size; i++) {
+          Val v = list.get(intOf(i));
+          if (!(v instanceof UintT)) {
+            return noSuchOverload();
+          }
+          sum = Overflow.addUint64Checked(sum, v.intValue());
+        }
+      } catch (OverflowException e) {
+        return errUintOverflow;
+      }
+      return uintOf(sum);
+    }
+    return noSuchOverload();
+  }
+
+  /**
+   * Avg returns the arithmetic mean of a non-empty list of numbers as a double. All elements must
+   * be of the same numeric type.
+   */
+  private static Val avg(Val value) {
+    if (!(value instanceof Lister list)) {
+      return noSuchOverload();
+    }
+    int size = (int) list.size().intValue();
+    if (size == 0) {
+      return newErr("empty argument list");
+    }
+
+    Object array = primitiveArray(list);
+    double sum = 0d;
+    if (array instanceof long[] a) {
+      for (long v : a) {
+        sum += v;
+      }
+      return doubleOf(sum / size);
+    }
+    if (array instanceof int[] a) {
+      long s = 0L;
+      for (int v : a) {
+        s += v;
+      }
+      return doubleOf((double) s / size);
+    }
+    if (array instanceof double[] a) {
+      for (double v : a) {
+        sum += v;
+      }
+      return doubleOf(sum / size);
+    }
+
+    Val first = list.get(intOf(0));
+    if (!isNumber(first)) {
+      return noSuchOverload();
+    }
+    Class<?> type = first.getClass();
+    for (int i = 0; i < size; i++) {
+      Val v = i == 0 ? first : list.get(intOf(i));
+      if (v.getClass() != type) {
+        return noSuchOverload();
       }
-      return elements;
+      sum += asDouble(v);
     }
-    return List.of(values);
+    return doubleOf(sum / size);
   }
 
   private static int compareNumbers(Val left, Val right) {
@@ -26,22 +26,31 @@ import static org.projectnessie.cel.common.types.StringT.StringType;
 import static org.projectnessie.cel.common.types.StringT.stringOf;
 import static org.projectnessie.cel.common.types.TypeT.newObjectTypeValue;
 import static org.projectnessie.cel.common.types.Types.boolOf;
+import static org.projectnessie.cel.common.types.Util.isUnknownOrError;
+import static org.projectnessie.cel.interpreter.Activation.emptyActivation;
+import static org.projectnessie.cel.interpreter.Interpretable.newConstValue;
 
 import com.google.api.expr.v1alpha1.Type;
-import java.math.BigInteger;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.projectnessie.cel.EnvOption;
 import org.projectnessie.cel.Library;
 import org.projectnessie.cel.ProgramOption;
 import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.IteratorT;
 import org.projectnessie.cel.common.types.ref.BaseVal;
 import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.common.types.traits.Lister;
 import org.projectnessie.cel.common.types.traits.Receiver;
 import org.projectnessie.cel.common.types.traits.Trait;
+import org.projectnessie.cel.interpreter.Interpretable;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableCall;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
 import org.projectnessie.cel.interpreter.functions.Overload;
 
 /** NetworkLib provides CEL helper functions from the standard network extension library. */
@@ -50,16 +59,43 @@ public final class NetworkLib implements Library {
   private static final String CIDR = "cidr";
   private static final String IS_IP = "isIP";
   private static final String IP_IS_CANONICAL = "ip.isCanonical";
+  private static final String CIDR_SET = "cidrSet";
   private static final String NET_IP = "net.IP";
   private static final String NET_CIDR = "net.CIDR";
+  private static final String NET_CIDR_SET = "net.CIDRSet";
 
   private static final Type IP_TYPE = Decls.newObjectType(NET_IP);
   private static final Type CIDR_TYPE = Decls.newObjectType(NET_CIDR);
+  private static final Type CIDR_SET_TYPE = Decls.newObjectType(NET_CIDR_SET);
 
   private static final org.projectnessie.cel.common.types.ref.Type IP_TYPE_VALUE =
       newObjectTypeValue(NET_IP, Trait.ReceiverType);
   private static final org.projectnessie.cel.common.types.ref.Type CIDR_TYPE_VALUE =
       newObjectTypeValue(NET_CIDR, Trait.ReceiverType);
+  private static final org.projectnessie.cel.common.types.ref.Type CIDR_SET_TYPE_VALUE =
+      newObjectTypeValue(NET_CIDR_SET, Trait.ReceiverType);
+
+  /** Overloads which are evaluated at plan time when called with constant arguments. */
+  private static final Set<String> FOLDABLE_OVERLOADS =
+      Set.of(
+          "ip_string",
+          "cidr_string",
+          "is_ip_string",
+          "ip_is_canonical_string",
+          "string_ip",
+          "string_cidr",
+          "cidr_contains_ip",
+          "cidr_contains_ip_string",
+          "cidr_contains_cidr",
+          "cidr_contains_cidr_string",
+          "cidr_ip",
+          "cidr_masked",
+          "cidr_set_list_string",
+          "cidr_set_list_cidr",
+          "cidr_set_contains_ip",
+          "cidr_set_contains_ip_string",
+          "cidr_set_lookup_ip",
+          "cidr_set_lookup_ip_string");
 
   private NetworkLib() {}
 
@@ -70,14 +106,25 @@ public final class NetworkLib implements Library {
   @Override
   public List<EnvOption> getCompileOptions() {
     return List.of(
-        EnvOption.types(IP_TYPE_VALUE, CIDR_TYPE_VALUE),
+        EnvOption.types(IP_TYPE_VALUE, CIDR_TYPE_VALUE, CIDR_SET_TYPE_VALUE),
         EnvOption.declarations(
             Decls.newVar(NET_IP, Decls.newTypeType(IP_TYPE)),
             Decls.newVar(NET_CIDR, Decls.newTypeType(CIDR_TYPE)),
+            Decls.newVar(NET_CIDR_SET, Decls.newTypeType(CIDR_SET_TYPE)),
             Decls.newFunction(
                 IP, Decls.newOverload("ip_string", singletonList(Decls.String), IP_TYPE)),
             Decls.newFunction(
                 CIDR, Decls.newOverload("cidr_string", singletonList(Decls.String), CIDR_TYPE)),
+            Decls.newFunction(
+                CIDR_SET,
+                Decls.newOverload(
+                    "cidr_set_list_string",
+                    singletonList(Decls.newListType(Decls.String)),
+                    CIDR_SET_TYPE),
+                Decls.newOverload(
+                    "cidr_set_list_cidr",
+                    singletonList(Decls.newListType(CIDR_TYPE)),
+                    CIDR_SET_TYPE)),
             Decls.newFunction(
                 IS_IP, Decls.newOverload("is_ip_string", singletonList(Decls.String), Decls.Bool)),
             Decls.newFunction(
@@ -114,7 +161,19 @@ public final class NetworkLib implements Library {
                 Decls.newInstanceOverload(
                     "cidr_contains_ip", List.of(CIDR_TYPE, IP_TYPE), Decls.Bool),
                 Decls.newInstanceOverload(
-                    "cidr_contains_ip_string", List.of(CIDR_TYPE, Decls.String), Decls.Bool)),
+                    "cidr_contains_ip_string", List.of(CIDR_TYPE, Decls.String), Decls.Bool),
+                Decls.newInstanceOverload(
+                    "cidr_set_contains_ip", List.of(CIDR_SET_TYPE, IP_TYPE), Decls.Bool),
+                Decls.newInstanceOverload(
+                    "cidr_set_contains_ip_string",
+                    List.of(CIDR_SET_TYPE, Decls.String),
+                    Decls.Bool)),
+            Decls.newFunction(
+                "lookup",
+                Decls.newInstanceOverload(
+                    "cidr_set_lookup_ip", List.of(CIDR_SET_TYPE, IP_TYPE), CIDR_TYPE),
+                Decls.newInstanceOverload(
+                    "cidr_set_lookup_ip_string", List.of(CIDR_SET_TYPE, Decls.String), CIDR_TYPE)),
             Decls.newFunction(
                 "containsCIDR",
                 Decls.newInstanceOverload(
@@ -140,6 +199,9 @@ public final class NetworkLib implements Library {
             Overload.unary("ip_string", NetworkLib::ip),
             Overload.unary(CIDR, NetworkLib::cidr),
             Overload.unary("cidr_string", NetworkLib::cidr),
+            Overload.unary(CIDR_SET, NetworkLib::cidrSet),
+            Overload.unary("cidr_set_list_string", NetworkLib::cidrSet),
+            Overload.unary("cidr_set_list_cidr", NetworkLib::cidrSet),
             Overload.unary(IS_IP, NetworkLib::isIp),
             Overload.unary("is_ip_string", NetworkLib::isIp),
             Overload.unary(IP_IS_CANONICAL, NetworkLib::ipIsCanonical),
@@ -147,7 +209,34 @@ public final class NetworkLib implements Library {
             Overload.unary("string_ip", value -> value.convertToType(StringType)),
             Overload.unary("string_cidr", value -> value.convertToType(StringType)),
             Overload.unary("cidr_ip", value -> ((CidrT) value).receive("ip", "cidr_ip"))),
-        ProgramOption.globals(Map.of(NET_IP, IP_TYPE_VALUE, NET_CIDR, CIDR_TYPE_VALUE)));
+        ProgramOption.customDecorator(NetworkLib::foldConstants),
+        ProgramOption.globals(
+            Map.of(
+                NET_IP,
+                IP_TYPE_VALUE,
+                NET_CIDR,
+                CIDR_TYPE_VALUE,
+                NET_CIDR_SET,
+                CIDR_SET_TYPE_VALUE)));
+  }
+
+  /**
+   * NewCidrSet creates a {@code net.CIDRSet} value from the given CIDR strings, for example to bind
+   * a large block list as a global variable of type {@code net.CIDRSet}. The returned value is
+   * immutable and can be shared across evaluations and threads.
+   *
+   * @throws IllegalArgumentException if one of the strings is not a valid CIDR
+   */
+  public static Val newCidrSet(Iterable<String> cidrs) {
+    CidrSetT.Builder builder = new CidrSetT.Builder();
+    for (String text : cidrs) {
+      Val parsed = parseCidr(text);
+      if (!(parsed instanceof CidrT cidr)) {
+        throw new IllegalArgumentException(parsed.toString());
+      }
+      builder.add(cidr);
+    }
+    return builder.build();
   }
 
   private static Val ip(Val value) {
@@ -167,6 +256,28 @@ public final class NetworkLib implements Library {
     return parseCidr(value.value().toString());
   }
 
+  private static Val cidrSet(Val value) {
+    if (!(value instanceof Lister list)) {
+      return noSuchOverload(null, CIDR_SET, value);
+    }
+    CidrSetT.Builder builder = new CidrSetT.Builder();
+    IteratorT iterator = list.iterator();
+    while (iterator.hasNext() == True) {
+      Val elem = iterator.next();
+      Val parsed = elem;
+      if (isString(elem)) {
+        parsed = parseCidr(elem.value().toString());
+      } else if (!(elem instanceof CidrT)) {
+        return noSuchOverload(null, CIDR_SET, elem);
+      }
+      if (!(parsed instanceof CidrT cidr)) {
+        return parsed;
+      }
+      builder.add(cidr);
+    }
+    return builder.build();
+  }
+
   private static Val isIp(Val value) {
     if (!isString(value)) {
       return noSuchOverload(null, IS_IP, value);
@@ -182,57 +293,188 @@ public final class NetworkLib implements Library {
     if (!(parsed instanceof IpT ip)) {
       return parsed;
     }
-    return boolOf(value.value().toString().equals(ip.canonical));
+    return boolOf(value.value().toString().equals(ip.canonical()));
   }
 
   private static boolean isString(Val value) {
     return value.type().typeEnum() == org.projectnessie.cel.common.types.ref.TypeEnum.String;
   }
 
+  /**
+   * foldConstants evaluates calls of the network overloads whose arguments are all constants when
+   * the program is planned, so that literals like {@code cidr('10.0.0.0/8')} are parsed only once
+   * and not on every evaluation. Only calls resolved to one of the {@link #FOLDABLE_OVERLOADS} by
+   * the type-checker are folded. Calls that result in an error are not folded, the error is
+   * reported when the program is evaluated.
+   *
+   * <p>A list literal is only a constant once it has been folded by {@code OptOptimize}, so without
+   * that option {@code cidrSet(['10.0.0.0/8'])} builds the set on every evaluation. Large sets are
+   * better bound as a global created via {@link #newCidrSet(Iterable)}.
+   */
+  private static Interpretable foldConstants(Interpretable i) {
+    if (!(i instanceof InterpretableCall call)) {
+      return i;
+    }
+    if (!FOLDABLE_OVERLOADS.contains(call.overloadID())) {
+      return i;
+    }
+    for (Interpretable arg : call.args()) {
+      if (!(arg instanceof InterpretableConst)) {
+        return i;
+      }
+    }
+    Val val = call.eval(emptyActivation());
+    if (isUnknownOrError(val)) {
+      return i;
+    }
+    return newConstValue(call.id(), val);
+  }
+
   private static Val parseIp(String text) {
-    if (text.contains("%")) {
+    if (text.indexOf('%') >= 0) {
       return newErr("IP Address with zone value is not allowed");
     }
-    if (text.indexOf(':') >= 0 && text.indexOf('.') >= 0) {
+    boolean colon = text.indexOf(':') >= 0;
+    if (colon && text.indexOf('.') >= 0) {
       return newErr("IPv4-mapped IPv6 address is not allowed");
     }
-    try {
-      if (text.indexOf(':') >= 0) {
-        InetAddress address = InetAddress.getByName(text);
-        byte[] bytes = address.getAddress();
-        if (bytes.length == 4) {
-          return new IpT(bytes, 4);
+    IpT ip;
+    if (colon) {
+      ip = parseIpv6(text);
+    } else {
+      long address = parseIpv4(text);
+      ip = address >= 0L ? new IpT((int) address) : null;
+    }
+    if (ip == null) {
+      return newErr("IP Address '%s' parse error during conversion from string", text);
+    }
+    return ip;
+  }
+
+  /**
+   * parseIpv4 parses a dotted-decimal IPv4 address without leading zeros and returns it as an
+   * unsigned 32 bit value, or {@code -1} if the text is not a valid IPv4 address.
+   */
+  private static long parseIpv4(String text) {
+    int len = text.length();
+    int address = 0;
+    int i = 0;
+    for (int octet = 0; octet < 4; octet++) {
+      if (octet > 0) {
+        if (i == len || text.charAt(i) != '.') {
+          return -1L;
+        }
+        i++;
+      }
+      int start = i;
+      int value = 0;
+      for (; i < len; i++) {
+        char c = text.charAt(i);
+        if (c < '0' || c > '9') {
+          break;
         }
-        if (bytes.length == 16) {
-          return new IpT(bytes, 6);
+        value = value * 10 + (c - '0');
+        if (value > 255) {
+          return -1L;
         }
-      } else {
-        return new IpT(parseIpv4(text), 4);
       }
-    } catch (IllegalArgumentException | UnknownHostException e) {
-      // fall through
+      if (i == start || (i - start > 1 && text.charAt(start) == '0')) {
+        return -1L;
+      }
+      address = (address << 8) | value;
     }
-    return newErr("IP Address '%s' parse error during conversion from string", text);
+    return i == len ? address & 0xffffffffL : -1L;
   }
 
-  private static byte[] parseIpv4(String text) {
-    String[] parts = text.split("\\.", -1);
-    if (parts.length != 4) {
-      throw new IllegalArgumentException("invalid IPv4 address");
+  /**
+   * parseIpv6 parses an IPv6 address consisting of up to eight groups of hexadecimal digits with at
+   * most one {@code ::} ellipsis, or returns {@code null} if the text is not a valid IPv6 address.
+   */
+  private static IpT parseIpv6(String text) {
+    int len = text.length();
+    // groups before the ellipsis or all groups if there is no ellipsis
+    long hi = 0L;
+    long lo = 0L;
+    // groups after the ellipsis
+    long tailHi = 0L;
+    long tailLo = 0L;
+    int groups = 0;
+    int ellipsis = -1;
+    int i = 0;
+    if (text.startsWith("::")) {
+      ellipsis = 0;
+      i = 2;
     }
-    byte[] bytes = new byte[4];
-    for (int i = 0; i < 4; i++) {
-      String part = parts[i];
-      if (part.isEmpty() || (part.length() > 1 && part.charAt(0) == '0')) {
-        throw new IllegalArgumentException("invalid IPv4 address");
+    while (i < len) {
+      int start = i;
+      int word = 0;
+      for (; i < len && i - start < 4; i++) {
+        int digit = hexDigit(text.charAt(i));
+        if (digit < 0) {
+          break;
+        }
+        word = (word << 4) | digit;
+      }
+      if (i == start || groups == 8) {
+        return null;
       }
-      int value = Integer.parseInt(part);
-      if (value < 0 || value > 255) {
-        throw new IllegalArgumentException("invalid IPv4 address");
+      if (ellipsis < 0) {
+        hi = (hi << 16) | (lo >>> 48);
+        lo = (lo << 16) | word;
+      } else {
+        tailHi = (tailHi << 16) | (tailLo >>> 48);
+        tailLo = (tailLo << 16) | word;
+      }
+      groups++;
+      if (i == len) {
+        break;
+      }
+      if (text.charAt(i) != ':') {
+        return null;
+      }
+      i++;
+      if (i < len && text.charAt(i) == ':') {
+        if (ellipsis >= 0) {
+          return null;
+        }
+        ellipsis = groups;
+        i++;
+      } else if (i == len) {
+        return null;
       }
-      bytes[i] = (byte) value;
     }
-    return bytes;
+    if (ellipsis < 0) {
+      return groups == 8 ? new IpT(hi, lo) : null;
+    }
+    // The ellipsis must represent at least one group of zeros.
+    if (groups == 8) {
+      return null;
+    }
+    int shift = (8 - ellipsis) * 16;
+    if (shift >= 128) {
+      hi = 0L;
+      lo = 0L;
+    } else if (shift >= 64) {
+      hi = lo << (shift - 64);
+      lo = 0L;
+    } else {
+      hi = (hi << shift) | (lo >>> (64 - shift));
+      lo <<= shift;
+    }
+    return new IpT(hi | tailHi, lo | tailLo);
+  }
+
+  private static int hexDigit(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    }
+    return -1;
   }
 
   private static Val parseCidr(String text) {
@@ -241,74 +483,71 @@ public final class NetworkLib implements Library {
       return newErr("network address parse error during conversion from string");
     }
     String ipText = text.substring(0, slash);
-    String prefixText = text.substring(slash + 1);
-    if (ipText.contains("%")) {
+    if (ipText.indexOf('%') >= 0) {
       return newErr("CIDR with zone value is not allowed");
     }
     Val parsedIp = parseIp(ipText);
     if (!(parsedIp instanceof IpT ip)) {
       return parsedIp;
     }
-    try {
-      int prefix = Integer.parseInt(prefixText);
-      int bits = ip.family == 4 ? 32 : 128;
-      if (prefix < 0 || prefix > bits) {
+    int bits = ip.family == 4 ? 32 : 128;
+    int prefix = 0;
+    for (int i = slash + 1; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return newErr("network address parse error during conversion from string");
+      }
+      prefix = prefix * 10 + (c - '0');
+      if (prefix > bits) {
         return newErr("network address parse error during conversion from string");
       }
-      return new CidrT(ip, prefix);
-    } catch (NumberFormatException e) {
-      return newErr("network address parse error during conversion from string");
     }
+    return new CidrT(ip, prefix);
   }
 
-  private static BigInteger unsigned(byte[] bytes) {
-    return new BigInteger(1, bytes);
+  /** ipv4Mask returns the network mask of an IPv4 prefix of the given length. */
+  private static int ipv4Mask(int prefix) {
+    return prefix == 0 ? 0 : -1 << (32 - prefix);
   }
 
-  private static byte[] bytes(BigInteger value, int length) {
-    byte[] source = value.toByteArray();
-    byte[] target = new byte[length];
-    int copy = Math.min(source.length, length);
-    System.arraycopy(source, source.length - copy, target, length - copy, copy);
-    return target;
+  /** ipv6HighMask returns the upper 64 bits of the network mask of an IPv6 prefix. */
+  private static long ipv6HighMask(int prefix) {
+    if (prefix == 0) {
+      return 0L;
+    }
+    return prefix >= 64 ? -1L : -1L << (64 - prefix);
   }
 
-  private static byte[] mask(byte[] address, int prefix) {
-    int bits = address.length * Byte.SIZE;
-    if (prefix == bits) {
-      return address.clone();
-    }
-    BigInteger value = unsigned(address);
-    BigInteger mask = BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
-    mask = mask.xor(BigInteger.ONE.shiftLeft(bits - prefix).subtract(BigInteger.ONE));
-    return bytes(value.and(mask), address.length);
+  /** ipv6LowMask returns the lower 64 bits of the network mask of an IPv6 prefix. */
+  private static long ipv6LowMask(int prefix) {
+    return prefix <= 64 ? 0L : -1L << (128 - prefix);
   }
 
-  private static String canonicalIpv4(byte[] bytes) {
-    return (bytes[0] & 0xff)
+  private static String canonicalIpv4(int address) {
+    return (address >>> 24)
         + "."
-        + (bytes[1] & 0xff)
+        + ((address >>> 16) & 0xff)
         + "."
-        + (bytes[2] & 0xff)
+        + ((address >>> 8) & 0xff)
         + "."
-        + (bytes[3] & 0xff);
+        + (address & 0xff);
   }
 
-  private static String canonicalIpv6(byte[] bytes) {
-    int[] words = new int[8];
-    for (int i = 0; i < words.length; i++) {
-      words[i] = ((bytes[i * 2] & 0xff) << 8) | (bytes[i * 2 + 1] & 0xff);
-    }
+  private static int ipv6Word(long hi, long lo, int index) {
+    long half = index < 4 ? hi : lo;
+    return (int) (half >>> (48 - (index & 3) * 16)) & 0xffff;
+  }
 
+  private static String canonicalIpv6(long hi, long lo) {
     int bestStart = -1;
     int bestLength = 0;
-    for (int i = 0; i < words.length; ) {
-      if (words[i] != 0) {
+    for (int i = 0; i < 8; ) {
+      if (ipv6Word(hi, lo, i) != 0) {
         i++;
         continue;
       }
       int start = i;
-      while (i < words.length && words[i] == 0) {
+      while (i < 8 && ipv6Word(hi, lo, i) == 0) {
         i++;
       }
       int length = i - start;
@@ -318,43 +557,79 @@ public final class NetworkLib implements Library {
       }
     }
 
-    StringBuilder result = new StringBuilder();
-    for (int i = 0; i < words.length; i++) {
+    StringBuilder result = new StringBuilder(39);
+    for (int i = 0; i < 8; i++) {
       if (i == bestStart) {
-        if (!result.isEmpty() && result.charAt(result.length() - 1) != ':') {
-          result.append(':');
-        }
-        result.append(':');
+        result.append("::");
         i += bestLength - 1;
         continue;
       }
       if (!result.isEmpty() && result.charAt(result.length() - 1) != ':') {
         result.append(':');
       }
-      result.append(Integer.toHexString(words[i]));
+      result.append(Integer.toHexString(ipv6Word(hi, lo, i)));
     }
     return result.toString();
   }
 
+  /**
+   * IpT represents an IPv4 address as an {@code int} and an IPv6 address as two {@code long}s, the
+   * canonical string representation is computed lazily.
+   */
   private static final class IpT extends BaseVal implements Receiver {
-    private final byte[] bytes;
     private final int family;
-    private final String canonical;
+    private final int v4;
+    private final long hi;
+    private final long lo;
+    private String canonical;
+
+    private IpT(int v4) {
+      this.family = 4;
+      this.v4 = v4;
+      this.hi = 0L;
+      this.lo = 0L;
+    }
+
+    private IpT(long hi, long lo) {
+      this.family = 6;
+      this.v4 = 0;
+      this.hi = hi;
+      this.lo = lo;
+    }
 
-    private IpT(byte[] bytes, int family) {
-      this.bytes = bytes.clone();
-      this.family = family;
-      this.canonical = family == 4 ? canonicalIpv4(bytes) : canonicalIpv6(bytes);
+    private String canonical() {
+      String c = canonical;
+      if (c == null) {
+        c = family == 4 ? canonicalIpv4(v4) : canonicalIpv6(hi, lo);
+        canonical = c;
+      }
+      return c;
+    }
+
+    private byte[] bytes() {
+      if (family == 4) {
+        return new byte[] {(byte) (v4 >>> 24), (byte) (v4 >>> 16), (byte) (v4 >>> 8), (byte) v4};
+      }
+      byte[] bytes = new byte[16];
+      for (int i = 0; i < 8; i++) {
+        bytes[i] = (byte) (hi >>> (56 - i * 8));
+        bytes[i + 8] = (byte) (lo >>> (56 - i * 8));
+      }
+      return bytes;
+    }
+
+    private boolean sameAddress(IpT other) {
+      return family == other.family && v4 == other.v4 && hi == other.hi && lo == other.lo;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T convertToNative(Class<T> typeDesc) {
       if (typeDesc == String.class || typeDesc == Object.class) {
-        return (T) canonical;
+        return (T) canonical();
       }
       if (typeDesc == byte[].class) {
-        return (T) bytes.clone();
+        return (T) bytes();
       }
       throw new IllegalArgumentException(
           String.format("Unsupported conversion of '%s' to '%s'", NET_IP, typeDesc.getName()));
@@ -363,7 +638,7 @@ public final class NetworkLib implements Library {
     @Override
     public Val convertToType(org.projectnessie.cel.common.types.ref.Type typeVal) {
       if (typeVal == StringType) {
-        return stringOf(canonical);
+        return stringOf(canonical());
       }
       if (typeVal.typeName().equals(org.projectnessie.cel.common.types.TypeT.TypeType.typeName())) {
         return IP_TYPE_VALUE;
@@ -379,7 +654,7 @@ public final class NetworkLib implements Library {
       if (!(other instanceof IpT otherIp)) {
         return False;
       }
-      return boolOf(Arrays.equals(bytes, otherIp.bytes));
+      return boolOf(sameAddress(otherIp));
     }
 
     @Override
@@ -391,34 +666,30 @@ public final class NetworkLib implements Library {
         case "family":
           return intOf(family);
         case "isUnspecified":
-          return boolOf(unsigned(bytes).signum() == 0);
+          return boolOf(isUnspecified());
         case "isLoopback":
-          return boolOf(
-              family == 4 ? (bytes[0] & 0xff) == 127 : unsigned(bytes).equals(BigInteger.ONE));
+          return boolOf(family == 4 ? (v4 >>> 24) == 127 : hi == 0L && lo == 1L);
         case "isGlobalUnicast":
-          return boolOf(!isMulticast() && unsigned(bytes).signum() != 0 && !isBroadcast());
+          return boolOf(!isMulticast() && !isUnspecified() && !isBroadcast());
         case "isLinkLocalMulticast":
-          return boolOf(
-              family == 4
-                  ? canonical.startsWith("224.0.0.")
-                  : (bytes[0] & 0xff) == 0xff && (bytes[1] & 0xff) == 0x02);
+          return boolOf(family == 4 ? (v4 >>> 8) == 0xe00000 : (hi >>> 48) == 0xff02L);
         case "isLinkLocalUnicast":
-          return boolOf(
-              family == 4
-                  ? (bytes[0] & 0xff) == 169 && (bytes[1] & 0xff) == 254
-                  : (bytes[0] & 0xff) == 0xfe && ((bytes[1] & 0xc0) == 0x80));
+          return boolOf(family == 4 ? (v4 >>> 16) == 0xa9fe : (hi >>> 54) == 0x3faL);
         default:
           return noSuchOverload(this, function, overload, args);
       }
     }
 
+    private boolean isUnspecified() {
+      return family == 4 ? v4 == 0 : hi == 0L && lo == 0L;
+    }
+
     private boolean isMulticast() {
-      return family == 4 ? (bytes[0] & 0xf0) == 0xe0 : (bytes[0] & 0xff) == 0xff;
+      return family == 4 ? (v4 >>> 28) == 0xe : (hi >>> 56) == 0xffL;
     }
 
     private boolean isBroadcast() {
-      return family == 4
-          && unsigned(bytes).equals(BigInteger.ONE.shiftLeft(32).subtract(BigInteger.ONE));
+      return family == 4 && v4 == -1;
     }
 
     @Override
@@ -428,26 +699,46 @@ public final class NetworkLib implements Library {
 
     @Override
     public Object value() {
-      return canonical;
+      return canonical();
     }
   }
 
   private static final class CidrT extends BaseVal implements Receiver {
     private final IpT ip;
     private final int prefix;
-    private final String canonical;
+    private String canonical;
 
     private CidrT(IpT ip, int prefix) {
       this.ip = ip;
       this.prefix = prefix;
-      this.canonical = ip.canonical + "/" + prefix;
+    }
+
+    private String canonical() {
+      String c = canonical;
+      if (c == null) {
+        c = ip.canonical() + "/" + prefix;
+        canonical = c;
+      }
+      return c;
+    }
+
+    /** contains returns whether the network prefix of this CIDR matches the given address. */
+    private boolean contains(IpT address) {
+      if (address.family != ip.family) {
+        return false;
+      }
+      if (ip.family == 4) {
+        return ((ip.v4 ^ address.v4) & ipv4Mask(prefix)) == 0;
+      }
+      return ((ip.hi ^ address.hi) & ipv6HighMask(prefix)) == 0L
+          && ((ip.lo ^ address.lo) & ipv6LowMask(prefix)) == 0L;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T convertToNative(Class<T> typeDesc) {
       if (typeDesc == String.class || typeDesc == Object.class) {
-        return (T) canonical;
+        return (T) canonical();
       }
       throw new IllegalArgumentException(
           String.format("Unsupported conversion of '%s' to '%s'", NET_CIDR, typeDesc.getName()));
@@ -456,7 +747,7 @@ public final class NetworkLib implements Library {
     @Override
     public Val convertToType(org.projectnessie.cel.common.types.ref.Type typeVal) {
       if (typeVal == StringType) {
-        return stringOf(canonical);
+        return stringOf(canonical());
       }
       if (typeVal.typeName().equals(org.projectnessie.cel.common.types.TypeT.TypeType.typeName())) {
         return CIDR_TYPE_VALUE;
@@ -472,7 +763,7 @@ public final class NetworkLib implements Library {
       if (!(other instanceof CidrT otherCidr)) {
         return False;
       }
-      return boolOf(prefix == otherCidr.prefix && ip.equal(otherCidr.ip) == True);
+      return boolOf(prefix == otherCidr.prefix && ip.sameAddress(otherCidr.ip));
     }
 
     @Override
@@ -504,10 +795,7 @@ public final class NetworkLib implements Library {
       if (!(candidate instanceof IpT candidateIp)) {
         return candidate != null ? candidate : noSuchOverload(this, "containsIP", "", args);
       }
-      if (candidateIp.family != ip.family) {
-        return False;
-      }
-      return boolOf(Arrays.equals(mask(candidateIp.bytes, prefix), mask(ip.bytes, prefix)));
+      return boolOf(contains(candidateIp));
     }
 
     private Val containsCidr(Val[] args) {
@@ -521,14 +809,17 @@ public final class NetworkLib implements Library {
       if (!(candidate instanceof CidrT candidateCidr)) {
         return candidate != null ? candidate : noSuchOverload(this, "containsCIDR", "", args);
       }
-      if (candidateCidr.ip.family != ip.family || candidateCidr.prefix < prefix) {
-        return False;
-      }
-      return boolOf(Arrays.equals(mask(candidateCidr.ip.bytes, prefix), mask(ip.bytes, prefix)));
+      return boolOf(candidateCidr.prefix >= prefix && contains(candidateCidr.ip));
     }
 
     private CidrT masked() {
-      return new CidrT(new IpT(mask(ip.bytes, prefix), ip.family), prefix);
+      IpT network;
+      if (ip.family == 4) {
+        network = new IpT(ip.v4 & ipv4Mask(prefix));
+      } else {
+        network = new IpT(ip.hi & ipv6HighMask(prefix), ip.lo & ipv6LowMask(prefix));
+      }
+      return network.sameAddress(ip) ? this : new CidrT(network, prefix);
     }
 
     @Override
@@ -538,7 +829,249 @@ public final class NetworkLib implements Library {
 
     @Override
     public Object value() {
-      return canonical;
+      return canonical();
+    }
+  }
+
+  /**
+   * CidrSetT is an immutable set of CIDRs backed by one compressed binary radix trie per address
+   * family, so that {@code containsIP} and {@code lookup} cost O(address bits) independent of the
+   * number of CIDRs in the set.
+   *
+   * <p>IPv4 addresses are stored in the upper 32 bits of the 128 bit key used for IPv6 addresses.
+   * The set holds networks: the host bits of the added CIDRs are cleared, so sets of the same
+   * networks are equal regardless of the order and the host bits of the added CIDRs.
+   */
+  private static final class CidrSetT extends BaseVal implements Receiver {
+    private final Node v4Root;
+    private final Node v6Root;
+    private final List<CidrT> cidrs;
+
+    private CidrSetT(Node v4Root, Node v6Root, List<CidrT> cidrs) {
+      this.v4Root = v4Root;
+      this.v6Root = v6Root;
+      this.cidrs = cidrs;
+    }
+
+    /**
+     * Node is a trie node holding the masked network prefix of length {@code len}. Internal nodes
+     * created by splitting a path have no CIDR.
+     */
+    private static final class Node {
+      private final long hi;
+      private final long lo;
+      private final int len;
+      private CidrT cidr;
+      private Node zero;
+      private Node one;
+
+      private Node(long hi, long lo, int len, CidrT cidr) {
+        this.hi = hi & ipv6HighMask(len);
+        this.lo = lo & ipv6LowMask(len);
+        this.len = len;
+        this.cidr = cidr;
+      }
+
+      private boolean matches(long addrHi, long addrLo) {
+        return ((hi ^ addrHi) & ipv6HighMask(len)) == 0L
+            && ((lo ^ addrLo) & ipv6LowMask(len)) == 0L;
+      }
+    }
+
+    private static final class Builder {
+      private Node v4Root;
+      private Node v6Root;
+
+      /** add inserts the network of the given CIDR, the host bits of its address are cleared. */
+      private void add(CidrT cidr) {
+        CidrT network = cidr.masked();
+        IpT ip = network.ip;
+        if (ip.family == 4) {
+          v4Root = insert(v4Root, (long) ip.v4 << 32, 0L, network.prefix, network);
+        } else {
+          v6Root = insert(v6Root, ip.hi, ip.lo, network.prefix, network);
+        }
+      }
+
+      private CidrSetT build() {
+        List<CidrT> cidrs = new ArrayList<>();
+        collect(v4Root, cidrs);
+        collect(v6Root, cidrs);
+        return new CidrSetT(v4Root, v6Root, List.copyOf(cidrs));
+      }
+
+      /**
+       * collect adds the networks of the trie in pre-order, which sorts them by address and, for
+       * the same address, by prefix length.
+       */
+      private static void collect(Node node, List<CidrT> cidrs) {
+        Deque<Node> nodes = new ArrayDeque<>();
+        if (node != null) {
+          nodes.push(node);
+        }
+        while (!nodes.isEmpty()) {
+          Node n = nodes.pop();
+          if (n.cidr != null) {
+            cidrs.add(n.cidr);
+          }
+          if (n.one != null) {
+            nodes.push(n.one);
+          }
+          if (n.zero != null) {
+            nodes.push(n.zero);
+          }
+        }
+      }
+    }
+
+    private static Node insert(Node node, long hi, long lo, int len, CidrT cidr) {
+      if (node == null) {
+        return new Node(hi, lo, len, cidr);
+      }
+      int common = commonPrefixLength(node.hi, node.lo, hi, lo, Math.min(node.len, len));
+      if (common == node.len) {
+        if (len == node.len) {
+          // the network has been added before
+          if (node.cidr == null) {
+            node.cidr = cidr;
+          }
+        } else if (bit(hi, lo, node.len) == 0) {
+          node.zero = insert(node.zero, hi, lo, len, cidr);
+        } else {
+          node.one = insert(node.one, hi, lo, len, cidr);
+        }
+        return node;
+      }
+      // The new prefix diverges from the node's prefix, or is a prefix of it: split the path.
+      Node split = new Node(hi, lo, common, common == len ? cidr : null);
+      Node other = common == len ? null : new Node(hi, lo, len, cidr);
+      if (bit(node.hi, node.lo, common) == 0) {
+        split.zero = node;
+        split.one = other;
+      } else {
+        split.zero = other;
+        split.one = node;
+      }
+      return split;
+    }
+
+    /** lookup returns the longest CIDR in the trie containing the address, or {@code null}. */
+    private static CidrT lookup(Node node, long hi, long lo, int bits) {
+      CidrT best = null;
+      while (node != null && node.matches(hi, lo)) {
+        if (node.cidr != null) {
+          best = node.cidr;
+        }
+        if (node.len == bits) {
+          break;
+        }
+        node = bit(hi, lo, node.len) == 0 ? node.zero : node.one;
+      }
+      return best;
+    }
+
+    private static int bit(long hi, long lo, int index) {
+      return index < 64 ? (int) (hi >>> (63 - index)) & 1 : (int) (lo >>> (127 - index)) & 1;
+    }
+
+    private static int commonPrefixLength(long aHi, long aLo, long bHi, long bLo, int max) {
+      long diff = aHi ^ bHi;
+      int common =
+          diff != 0L
+              ? Long.numberOfLeadingZeros(diff)
+              : 64 + Long.numberOfLeadingZeros(aLo ^ bLo);
+      return Math.min(common, max);
+    }
+
+    private CidrT lookup(IpT ip) {
+      if (ip.family == 4) {
+        return lookup(v4Root, (long) ip.v4 << 32, 0L, 32);
+      }
+      return lookup(v6Root, ip.hi, ip.lo, 128);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T convertToNative(Class<T> typeDesc) {
+      if (typeDesc == List.class || typeDesc == Object.class) {
+        return (T) cidrs.stream().map(CidrT::canonical).collect(Collectors.toList());
+      }
+      throw new IllegalArgumentException(
+          String.format(
+              "Unsupported conversion of '%s' to '%s'", NET_CIDR_SET, typeDesc.getName()));
+    }
+
+    @Override
+    public Val convertToType(org.projectnessie.cel.common.types.ref.Type typeVal) {
+      if (typeVal.typeName().equals(org.projectnessie.cel.common.types.TypeT.TypeType.typeName())) {
+        return CIDR_SET_TYPE_VALUE;
+      }
+      if (typeVal.typeName().equals(NET_CIDR_SET)) {
+        return this;
+      }
+      return newTypeConversionError(NET_CIDR_SET, typeVal);
+    }
+
+    /**
+     * Equal returns true if both sets contain the same networks, regardless of the order in which
+     * they have been added. The compressed tries of two equal sets have the same shape.
+     */
+    @Override
+    public Val equal(Val other) {
+      if (!(other instanceof CidrSetT otherSet)) {
+        return False;
+      }
+      return boolOf(
+          this == otherSet
+              || (sameTrie(v4Root, otherSet.v4Root) && sameTrie(v6Root, otherSet.v6Root)));
+    }
+
+    private static boolean sameTrie(Node a, Node b) {
+      if (a == null || b == null) {
+        return a == b;
+      }
+      if (a.len != b.len
+          || commonPrefixLength(a.hi, a.lo, b.hi, b.lo, a.len) != a.len
+          || (a.cidr == null ? b.cidr != null : b.cidr == null || a.cidr.equal(b.cidr) != True)) {
+        return false;
+      }
+      return sameTrie(a.zero, b.zero) && sameTrie(a.one, b.one);
+    }
+
+    @Override
+    public Val receive(String function, String overload, Val... args) {
+      if (args.length != 1 || (!function.equals("containsIP") && !function.equals("lookup"))) {
+        return noSuchOverload(this, function, overload, args);
+      }
+      Val candidate =
+          args[0] instanceof IpT
+              ? args[0]
+              : isString(args[0]) ? parseIp(args[0].value().toString()) : null;
+      if (!(candidate instanceof IpT ip)) {
+        return candidate != null ? candidate : noSuchOverload(this, function, overload, args);
+      }
+      CidrT match = lookup(ip);
+      if (function.equals("containsIP")) {
+        return boolOf(match != null);
+      }
+      return match != null ? match : newErr("no CIDR in set contains '%s'", ip.canonical());
+    }
+
+    @Override
+    public org.projectnessie.cel.common.types.ref.Type type() {
+      return CIDR_SET_TYPE_VALUE;
+    }
+
+    /** HashCode is consistent with {@link #equal(Val)}, as the networks are sorted and unique. */
+    @Override
+    public int hashCode() {
+      return cidrs.hashCode();
+    }
+
+    /** Value returns the distinct networks of this set, sorted by address and prefix length. */
+    @Override
+    public Object value() {
+      return cidrs;
     }
   }
 }
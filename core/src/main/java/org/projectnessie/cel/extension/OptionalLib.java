@@ -15,28 +15,65 @@
  */
 package org.projectnessie.cel.extension;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.projectnessie.cel.EnvOption.EnvFeature.FeatureOptionalSyntax;
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.common.types.Err.newErr;
+import static org.projectnessie.cel.common.types.Err.noSuchOverload;
+import static org.projectnessie.cel.common.types.OptionalT.OptionalNone;
+import static org.projectnessie.cel.common.types.OptionalT.optionalOf;
 
+import com.google.api.expr.v1alpha1.Type;
+import com.google.protobuf.Message;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.List;
 import org.projectnessie.cel.EnvOption;
 import org.projectnessie.cel.Library;
 import org.projectnessie.cel.ProgramOption;
 import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.operators.Operator;
+import org.projectnessie.cel.common.types.OptionalT;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.common.types.traits.Sizer;
+import org.projectnessie.cel.interpreter.functions.Overload;
 
 /**
- * OptionalLib provides compile-time declarations for CEL optional helper functions.
+ * OptionalLib provides optional values and the optional field selection and index syntax.
  *
- * <p>The current implementation intentionally exposes type-checking support only. It is sufficient
- * for check-only conformance cases that exercise optional type deduction, but it does not provide
- * runtime optional values or optional-selection semantics.
+ * <p>Optional values are created via {@code optional.of(v)}, {@code optional.ofNonZeroValue(v)} and
+ * {@code optional.none()}, or by the optional selection {@code a.?b} and the optional index {@code
+ * m[?k]}, which yield an empty optional if the field or key is absent. Selections and index
+ * operations on an optional value propagate the optionality, so {@code a.?b.c} is empty if {@code
+ * b} is absent. Optional values provide the member functions {@code hasValue()}, {@code value()},
+ * {@code or(optional)} and {@code orValue(default)}.
+ *
+ * <p>A probe with a default value like {@code m.?a.?b.orValue(1)} resolves the path once and does
+ * not create error values for absent fields or keys.
  */
 public final class OptionalLib implements Library {
-  private static final String OPTIONAL_TYPE = "optional_type";
+  private static final String OPTIONAL_TYPE = Decls.OptionalTypeName;
   private static final String OPTIONAL_NONE = "optional.none";
   private static final String OPTIONAL_OF = "optional.of";
   private static final String OPTIONAL_OF_NON_ZERO_VALUE = "optional.ofNonZeroValue";
+  private static final String HAS_VALUE = "hasValue";
+  private static final String VALUE = "value";
+  private static final String OR = "or";
+  private static final String OR_VALUE = "orValue";
   private static final String TYPE_PARAM_A = "A";
+  private static final String TYPE_PARAM_K = "K";
+  private static final String TYPE_PARAM_V = "V";
+
+  private static final String OPTIONAL_NONE_OVERLOAD = "optional_none";
+  private static final String OPTIONAL_OF_OVERLOAD = "optional_of";
+  private static final String OPTIONAL_OF_NON_ZERO_VALUE_OVERLOAD = "optional_of_non_zero_value";
+  private static final String HAS_VALUE_OVERLOAD = "optional_hasValue";
+  private static final String VALUE_OVERLOAD = "optional_value";
+  private static final String OR_OVERLOAD = "optional_or_optional";
+  private static final String OR_VALUE_OVERLOAD = "optional_orValue_value";
 
   private OptionalLib() {}
 
@@ -47,30 +84,174 @@ public final class OptionalLib implements Library {
   @Override
   public List<EnvOption> getCompileOptions() {
     var typeParamA = Decls.newTypeParamType(TYPE_PARAM_A);
-    var optionalA = Decls.newAbstractType(OPTIONAL_TYPE, singletonList(typeParamA));
+    var typeParamK = Decls.newTypeParamType(TYPE_PARAM_K);
+    var typeParamV = Decls.newTypeParamType(TYPE_PARAM_V);
+    var optionalA = Decls.newOptionalType(typeParamA);
+    var optionalV = Decls.newOptionalType(typeParamV);
+    var listA = Decls.newListType(typeParamA);
+    var mapKV = Decls.newMapType(typeParamK, typeParamV);
     var typeParams = singletonList(TYPE_PARAM_A);
+    var mapTypeParams = asList(TYPE_PARAM_K, TYPE_PARAM_V);
 
     return List.of(
+        EnvOption.features(FeatureOptionalSyntax),
         EnvOption.declarations(
             Decls.newFunction(
                 OPTIONAL_NONE,
                 Decls.newParameterizedOverload(
-                    "optional_none", emptyList(), optionalA, typeParams)),
+                    OPTIONAL_NONE_OVERLOAD, emptyList(), optionalA, typeParams)),
             Decls.newFunction(
                 OPTIONAL_OF,
                 Decls.newParameterizedOverload(
-                    "optional_of", singletonList(typeParamA), optionalA, typeParams)),
+                    OPTIONAL_OF_OVERLOAD, singletonList(typeParamA), optionalA, typeParams)),
             Decls.newFunction(
                 OPTIONAL_OF_NON_ZERO_VALUE,
                 Decls.newParameterizedOverload(
-                    "optional_of_non_zero_value",
+                    OPTIONAL_OF_NON_ZERO_VALUE_OVERLOAD,
                     singletonList(typeParamA),
                     optionalA,
-                    typeParams))));
+                    typeParams)),
+            Decls.newFunction(
+                HAS_VALUE,
+                Decls.newParameterizedInstanceOverload(
+                    HAS_VALUE_OVERLOAD, singletonList(optionalA), Decls.Bool, typeParams)),
+            Decls.newFunction(
+                VALUE,
+                Decls.newParameterizedInstanceOverload(
+                    VALUE_OVERLOAD, singletonList(optionalA), typeParamA, typeParams)),
+            Decls.newFunction(
+                OR,
+                Decls.newParameterizedInstanceOverload(
+                    OR_OVERLOAD, asList(optionalA, optionalA), optionalA, typeParams)),
+            Decls.newFunction(
+                OR_VALUE,
+                Decls.newParameterizedInstanceOverload(
+                    OR_VALUE_OVERLOAD, asList(optionalA, typeParamA), typeParamA, typeParams)),
+            Decls.newFunction(
+                Operator.OptIndex.id,
+                Decls.newParameterizedOverload(
+                    "list_optindex_optional_int",
+                    asList(listA, Decls.Int),
+                    optionalA,
+                    typeParams),
+                Decls.newParameterizedOverload(
+                    "optional_list_optindex_optional_int",
+                    asList(optional(listA), Decls.Int),
+                    optionalA,
+                    typeParams),
+                Decls.newParameterizedOverload(
+                    "map_optindex_optional_value",
+                    asList(mapKV, typeParamK),
+                    optionalV,
+                    mapTypeParams),
+                Decls.newParameterizedOverload(
+                    "optional_map_optindex_optional_value",
+                    asList(optional(mapKV), typeParamK),
+                    optionalV,
+                    mapTypeParams)),
+            Decls.newFunction(
+                Operator.Index.id,
+                Decls.newParameterizedOverload(
+                    "optional_list_index_int",
+                    asList(optional(listA), Decls.Int),
+                    optionalA,
+                    typeParams),
+                Decls.newParameterizedOverload(
+                    "optional_map_index_value",
+                    asList(optional(mapKV), typeParamK),
+                    optionalV,
+                    mapTypeParams))));
   }
 
   @Override
   public List<ProgramOption> getProgramOptions() {
-    return emptyList();
+    return List.of(
+        ProgramOption.functions(
+            Overload.function(OPTIONAL_NONE, args -> OptionalNone),
+            Overload.function(OPTIONAL_NONE_OVERLOAD, args -> OptionalNone),
+            Overload.unary(OPTIONAL_OF, OptionalT::optionalOf),
+            Overload.unary(OPTIONAL_OF_OVERLOAD, OptionalT::optionalOf),
+            Overload.unary(OPTIONAL_OF_NON_ZERO_VALUE, OptionalLib::ofNonZeroValue),
+            Overload.unary(OPTIONAL_OF_NON_ZERO_VALUE_OVERLOAD, OptionalLib::ofNonZeroValue),
+            Overload.unary(HAS_VALUE, OptionalLib::hasValue),
+            Overload.unary(HAS_VALUE_OVERLOAD, OptionalLib::hasValue),
+            Overload.unary(VALUE, OptionalLib::value),
+            Overload.unary(VALUE_OVERLOAD, OptionalLib::value),
+            Overload.binary(OR, OptionalLib::or),
+            Overload.binary(OR_OVERLOAD, OptionalLib::or),
+            Overload.binary(OR_VALUE, OptionalLib::orValue),
+            Overload.binary(OR_VALUE_OVERLOAD, OptionalLib::orValue)));
+  }
+
+  private static Type optional(Type type) {
+    return Decls.newOptionalType(type);
+  }
+
+  private static Val ofNonZeroValue(Val val) {
+    return isZeroValue(val) ? OptionalNone : optionalOf(val);
+  }
+
+  private static Val hasValue(Val val) {
+    if (!(val instanceof OptionalT)) {
+      return noSuchOverload(val, HAS_VALUE, null);
+    }
+    return ((OptionalT) val).hasValue() ? True : False;
+  }
+
+  private static Val value(Val val) {
+    if (!(val instanceof OptionalT)) {
+      return noSuchOverload(val, VALUE, null);
+    }
+    OptionalT opt = (OptionalT) val;
+    if (!opt.hasValue()) {
+      return newErr("optional.none() dereference");
+    }
+    return opt.getValue();
+  }
+
+  private static Val or(Val lhs, Val rhs) {
+    if (!(lhs instanceof OptionalT) || !(rhs instanceof OptionalT)) {
+      return noSuchOverload(lhs, OR, rhs);
+    }
+    return ((OptionalT) lhs).hasValue() ? lhs : rhs;
+  }
+
+  private static Val orValue(Val lhs, Val rhs) {
+    if (!(lhs instanceof OptionalT)) {
+      return noSuchOverload(lhs, OR_VALUE, rhs);
+    }
+    OptionalT opt = (OptionalT) lhs;
+    return opt.hasValue() ? opt.getValue() : rhs;
+  }
+
+  /** IsZeroValue returns whether the value is the zero value of its type. */
+  static boolean isZeroValue(Val val) {
+    switch (val.type().typeEnum()) {
+      case Null:
+        return true;
+      case Bool:
+        return val == False;
+      case Int:
+      case Uint:
+        return val.intValue() == 0L;
+      case Double:
+        return val.doubleValue() == 0d;
+      case String:
+      case Bytes:
+      case List:
+      case Map:
+        return ((Sizer) val).size().intValue() == 0L;
+      case Duration:
+        return ((Duration) val.value()).isZero();
+      case Timestamp:
+        return ((ZonedDateTime) val.value()).toInstant().toEpochMilli() == 0L
+            && ((ZonedDateTime) val.value()).getNano() == 0;
+      case Object:
+        Object msg = val.value();
+        return msg instanceof Message
+            && ((Message) msg).equals(((Message) msg).getDefaultInstanceForType());
+      default:
+        return false;
+    }
   }
 }
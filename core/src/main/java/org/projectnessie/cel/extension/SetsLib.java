@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.common.types.Err.noSuchOverload;
+import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.Util.isUnknownOrError;
+
+import com.google.api.expr.v1alpha1.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.projectnessie.cel.EnvOption;
+import org.projectnessie.cel.Library;
+import org.projectnessie.cel.ProgramOption;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.common.types.traits.Lister;
+import org.projectnessie.cel.interpreter.Activation;
+import org.projectnessie.cel.interpreter.Activation.HierarchicalActivation;
+import org.projectnessie.cel.interpreter.AttributeFactory.NamespacedAttribute;
+import org.projectnessie.cel.interpreter.Coster;
+import org.projectnessie.cel.interpreter.Interpretable;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableAttribute;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableCall;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
+import org.projectnessie.cel.interpreter.functions.Overload;
+
+/**
+ * SetsLib provides CEL helper functions which treat lists as sets.
+ *
+ * <ul>
+ *   <li>{@code sets.contains(list, sublist)} returns whether all elements of {@code sublist} are
+ *       contained in {@code list}.
+ *   <li>{@code sets.intersects(list, other)} returns whether the lists have at least one element
+ *       in common.
+ *   <li>{@code sets.equivalent(list, other)} returns whether both lists contain the same set of
+ *       elements.
+ * </ul>
+ *
+ * <p>Elements are compared using CEL equality, so {@code sets.contains([1], [1.0, 1u])} is {@code
+ * true}. The functions build a transient hash set over the smaller list. If one of the lists is a
+ * constant, its hash set is built once when the program is planned. If one of the lists is a
+ * global variable, see {@link ProgramOption#globals(Object)}, the hash set is cached and reused as
+ * long as the global is not shadowed by a variable provided to the evaluation. Lists bound as
+ * globals must therefore not be modified while the program is in use.
+ */
+public final class SetsLib implements Library {
+  private static final String CONTAINS = "sets.contains";
+  private static final String INTERSECTS = "sets.intersects";
+  private static final String EQUIVALENT = "sets.equivalent";
+
+  private static final String CONTAINS_OVERLOAD = "list_sets_contains_list";
+  private static final String INTERSECTS_OVERLOAD = "list_sets_intersects_list";
+  private static final String EQUIVALENT_OVERLOAD = "list_sets_equivalent_list";
+
+  private static final String TYPE_PARAM_T = "T";
+
+  private SetsLib() {}
+
+  public static EnvOption sets() {
+    return Library.Lib(new SetsLib());
+  }
+
+  @Override
+  public List<EnvOption> getCompileOptions() {
+    Type listT = Decls.newListType(Decls.newTypeParamType(TYPE_PARAM_T));
+    List<Type> args = asList(listT, listT);
+    List<String> typeParams = singletonList(TYPE_PARAM_T);
+    return List.of(
+        EnvOption.declarations(
+            Decls.newFunction(
+                CONTAINS,
+                Decls.newParameterizedOverload(CONTAINS_OVERLOAD, args, Decls.Bool, typeParams)),
+            Decls.newFunction(
+                INTERSECTS,
+                Decls.newParameterizedOverload(
+                    INTERSECTS_OVERLOAD, args, Decls.Bool, typeParams)),
+            Decls.newFunction(
+                EQUIVALENT,
+                Decls.newParameterizedOverload(
+                    EQUIVALENT_OVERLOAD, args, Decls.Bool, typeParams))));
+  }
+
+  @Override
+  public List<ProgramOption> getProgramOptions() {
+    return List.of(
+        ProgramOption.functions(
+            Overload.binary(CONTAINS, (lhs, rhs) -> apply(SetOp.CONTAINS, lhs, rhs)),
+            Overload.binary(CONTAINS_OVERLOAD, (lhs, rhs) -> apply(SetOp.CONTAINS, lhs, rhs)),
+            Overload.binary(INTERSECTS, (lhs, rhs) -> apply(SetOp.INTERSECTS, lhs, rhs)),
+            Overload.binary(INTERSECTS_OVERLOAD, (lhs, rhs) -> apply(SetOp.INTERSECTS, lhs, rhs)),
+            Overload.binary(EQUIVALENT, (lhs, rhs) -> apply(SetOp.EQUIVALENT, lhs, rhs)),
+            Overload.binary(
+                EQUIVALENT_OVERLOAD, (lhs, rhs) -> apply(SetOp.EQUIVALENT, lhs, rhs))),
+        ProgramOption.customDecorator(SetsLib::precompileSets));
+  }
+
+  /**
+   * precompileSets replaces calls of the set functions by an {@link EvalSetOp}, which builds the
+   * hash set of a constant argument once and caches the hash set of a global argument.
+   */
+  private static Interpretable precompileSets(Interpretable i) {
+    if (!(i instanceof InterpretableCall call) || call.args().length != 2) {
+      return i;
+    }
+    SetOp op = SetOp.forFunction(call.function());
+    if (op == null) {
+      return i;
+    }
+    return new EvalSetOp(call, op);
+  }
+
+  enum SetOp {
+    CONTAINS(SetsLib.CONTAINS),
+    INTERSECTS(SetsLib.INTERSECTS),
+    EQUIVALENT(SetsLib.EQUIVALENT);
+
+    private final String function;
+
+    SetOp(String function) {
+      this.function = function;
+    }
+
+    static SetOp forFunction(String function) {
+      for (SetOp op : values()) {
+        if (op.function.equals(function)) {
+          return op;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static Val apply(SetOp op, Val lhs, Val rhs) {
+    if (!(lhs instanceof Lister l) || !(rhs instanceof Lister r)) {
+      return noSuchOverload(lhs, op.function, rhs);
+    }
+    boolean indexLhs = size(l) <= size(r);
+    ElementIndex index = ElementIndex.of(indexLhs ? l : r);
+    if (index.error != null) {
+      return index.error;
+    }
+    return apply(op, index, indexLhs, indexLhs ? r : l);
+  }
+
+  /**
+   * Applies the set operation using the index of one list and iterating over the other list.
+   *
+   * @param indexed the distinct elements of the indexed list
+   * @param indexedIsLhs whether the indexed list is the first argument of the set function
+   * @param other the list that is iterated over
+   */
+  static Val apply(SetOp op, ElementIndex indexed, boolean indexedIsLhs, Lister other) {
+    // Whether all elements of the other list have to be contained in the indexed list.
+    boolean requireOtherInIndexed =
+        op == SetOp.EQUIVALENT || (op == SetOp.CONTAINS && indexedIsLhs);
+    // Whether all elements of the indexed list have to be contained in the other list.
+    boolean requireIndexedInOther =
+        op == SetOp.EQUIVALENT || (op == SetOp.CONTAINS && !indexedIsLhs);
+
+    int distinct = indexed.size();
+    if (requireIndexedInOther && !requireOtherInIndexed && distinct == 0) {
+      return True;
+    }
+    boolean[] found = requireIndexedInOther ? new boolean[distinct] : null;
+    int foundCount = 0;
+    int size = size(other);
+    for (int i = 0; i < size; i++) {
+      Val elem = other.get(intOf(i));
+      if (isUnknownOrError(elem)) {
+        return elem;
+      }
+      int id = indexed.idOf(elem);
+      if (id < 0) {
+        if (requireOtherInIndexed) {
+          return False;
+        }
+        continue;
+      }
+      if (op == SetOp.INTERSECTS) {
+        return True;
+      }
+      if (found != null && !found[id]) {
+        found[id] = true;
+        foundCount++;
+        if (foundCount == distinct && !requireOtherInIndexed) {
+          return True;
+        }
+      }
+    }
+    if (op == SetOp.INTERSECTS) {
+      return False;
+    }
+    return found == null || foundCount == distinct ? True : False;
+  }
+
+  private static int size(Lister list) {
+    return (int) list.size().intValue();
+  }
+
+  /**
+   * ElementIndex maps the distinct elements of a list to consecutive numbers. The hash set relies
+   * on {@link Val#hashCode()} and {@link Val#equals(Object)} being consistent with CEL equality,
+   * which includes heterogeneous numeric values.
+   */
+  static final class ElementIndex {
+    private final Map<Val, Integer> ids;
+    private final Val error;
+
+    private ElementIndex(Map<Val, Integer> ids, Val error) {
+      this.ids = ids;
+      this.error = error;
+    }
+
+    static ElementIndex of(Lister list) {
+      int size = SetsLib.size(list);
+      Map<Val, Integer> ids = new HashMap<>(size * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        Val elem = list.get(intOf(i));
+        if (isUnknownOrError(elem)) {
+          return new ElementIndex(ids, elem);
+        }
+        ids.putIfAbsent(elem, ids.size());
+      }
+      return new ElementIndex(ids, null);
+    }
+
+    int size() {
+      return ids.size();
+    }
+
+    int idOf(Val elem) {
+      Integer id = ids.get(elem);
+      return id != null ? id : -1;
+    }
+  }
+
+  /**
+   * CachedIndex holds the index of the list that a global variable resolved to, the global value is
+   * compared by identity.
+   */
+  private static final class CachedIndex {
+    private final Object global;
+    private final ElementIndex index;
+
+    CachedIndex(Object global, ElementIndex index) {
+      this.global = global;
+      this.index = index;
+    }
+  }
+
+  private static final class EvalSetOp implements InterpretableCall, Coster {
+    private final InterpretableCall call;
+    private final SetOp op;
+    private final Interpretable lhs;
+    private final Interpretable rhs;
+    private final ElementIndex lhsConst;
+    private final ElementIndex rhsConst;
+    private final String lhsVariable;
+    private final String rhsVariable;
+    private volatile CachedIndex lhsCache;
+    private volatile CachedIndex rhsCache;
+
+    private EvalSetOp(InterpretableCall call, SetOp op) {
+      this.call = call;
+      this.op = op;
+      Interpretable[] args = call.args();
+      this.lhs = args[0];
+      this.rhs = args[1];
+      this.lhsConst = constIndex(lhs);
+      this.rhsConst = constIndex(rhs);
+      this.lhsVariable = variableName(lhs);
+      this.rhsVariable = variableName(rhs);
+    }
+
+    private static ElementIndex constIndex(Interpretable arg) {
+      if (arg instanceof InterpretableConst c && c.value() instanceof Lister list) {
+        ElementIndex index = ElementIndex.of(list);
+        return index.error == null ? index : null;
+      }
+      return null;
+    }
+
+    /** variableName returns the name of the variable the argument refers to, or {@code null}. */
+    private static String variableName(Interpretable arg) {
+      if (arg instanceof InterpretableAttribute attr
+          && attr.attr() instanceof NamespacedAttribute ns
+          && ns.qualifiers().isEmpty()
+          && ns.candidateVariableNames().length == 1) {
+        return ns.candidateVariableNames()[0];
+      }
+      return null;
+    }
+
+    /**
+     * global returns the value of the given variable if it has been provided by the globals of the
+     * program, see {@code ProgramOption.globals}, or {@code null}. The globals are the parent of
+     * the outermost hierarchical activation, and the variable must not be shadowed by a variable
+     * provided to the evaluation.
+     */
+    private static Object global(Activation ctx, String name) {
+      if (name == null) {
+        return null;
+      }
+      Activation globals = null;
+      for (Activation a = ctx; a != null; a = a.parent()) {
+        if (a instanceof HierarchicalActivation) {
+          globals = a.parent();
+        }
+      }
+      if (globals == null) {
+        return null;
+      }
+      Object global = globals.resolveName(name).value();
+      return global != null && ctx.resolveName(name).value() == global ? global : null;
+    }
+
+    private static ElementIndex cachedIndex(CachedIndex cached, Object global) {
+      return cached != null && cached.global == global ? cached.index : null;
+    }
+
+    /** ID implements the Interpretable interface method. */
+    @Override
+    public long id() {
+      return call.id();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(Activation ctx) {
+      Val lhsVal = lhs.eval(ctx);
+      if (isUnknownOrError(lhsVal)) {
+        return lhsVal;
+      }
+      Val rhsVal = rhs.eval(ctx);
+      if (isUnknownOrError(rhsVal)) {
+        return rhsVal;
+      }
+      if (!(lhsVal instanceof Lister l) || !(rhsVal instanceof Lister r)) {
+        return noSuchOverload(lhsVal, call.function(), rhsVal);
+      }
+
+      if (lhsConst != null) {
+        return apply(op, lhsConst, true, r);
+      }
+      if (rhsConst != null) {
+        return apply(op, rhsConst, false, l);
+      }
+
+      // Prefer indexing a global, its index is reused by subsequent evaluations. Lists provided to
+      // the evaluation may be mutated by the caller between evaluations, so they are not cached.
+      Object lhsGlobal = global(ctx, lhsVariable);
+      Object rhsGlobal = lhsGlobal == null ? global(ctx, rhsVariable) : null;
+      if (lhsGlobal != null || rhsGlobal != null) {
+        boolean indexLhs = lhsGlobal != null;
+        ElementIndex index =
+            indexLhs ? cachedIndex(lhsCache, lhsGlobal) : cachedIndex(rhsCache, rhsGlobal);
+        if (index == null) {
+          index = ElementIndex.of(indexLhs ? l : r);
+          if (index.error != null) {
+            return index.error;
+          }
+          if (indexLhs) {
+            lhsCache = new CachedIndex(lhsGlobal, index);
+          } else {
+            rhsCache = new CachedIndex(rhsGlobal, index);
+          }
+        }
+        return apply(op, index, indexLhs, indexLhs ? r : l);
+      }
+
+      boolean indexLhs = size(l) <= size(r);
+      ElementIndex index = ElementIndex.of(indexLhs ? l : r);
+      if (index.error != null) {
+        return index.error;
+      }
+      return apply(op, index, indexLhs, indexLhs ? r : l);
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return Cost.OneOne.add(Cost.estimateCost(lhs)).add(Cost.estimateCost(rhs));
+    }
+
+    /** Function implements the InterpretableCall interface method. */
+    @Override
+    public String function() {
+      return call.function();
+    }
+
+    /** OverloadID implements the InterpretableCall interface method. */
+    @Override
+    public String overloadID() {
+      return call.overloadID();
+    }
+
+    /** Args implements the InterpretableCall interface method. */
+    @Override
+    public Interpretable[] args() {
+      return call.args();
+    }
+  }
+}
@@ -18,10 +18,10 @@ package org.projectnessie.cel.extension;
 import static java.math.RoundingMode.HALF_EVEN;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.Util.isUnknownOrError;
 
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.regex.Pattern;
 import org.projectnessie.cel.EnvOption;
 import org.projectnessie.cel.Library;
 import org.projectnessie.cel.ProgramOption;
@@ -31,6 +31,12 @@ import org.projectnessie.cel.common.types.StringT;
 import org.projectnessie.cel.common.types.ref.Val;
 import org.projectnessie.cel.common.types.traits.Indexer;
 import org.projectnessie.cel.common.types.traits.Sizer;
+import org.projectnessie.cel.interpreter.Activation;
+import org.projectnessie.cel.interpreter.CancellationScope;
+import org.projectnessie.cel.interpreter.Coster;
+import org.projectnessie.cel.interpreter.Interpretable;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableCall;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
 import org.projectnessie.cel.interpreter.functions.Overload;
 
 /**
@@ -382,15 +388,15 @@ public class StringsLib implements Library {
   public List<ProgramOption> getProgramOptions() {
     ProgramOption functions =
         ProgramOption.functions(
-            Overload.binary(CHAR_AT, Guards.callInStrIntOutStr(StringsLib::charAt)),
+            Overload.binary(CHAR_AT, Guards.callInStrTIntOutStr(StringsLib::charAt)),
             Overload.overload(
                 INDEX_OF,
                 null,
                 null,
-                Guards.callInStrStrOutInt(StringsLib::indexOf),
+                Guards.callInStrTStrOutInt(StringsLib::indexOf),
                 values ->
                     values.length == 3
-                        ? Guards.callInStrStrIntOutInt(StringsLib::indexOfOffset).invoke(values)
+                        ? Guards.callInStrTStrIntOutInt(StringsLib::indexOfOffset).invoke(values)
                         : Err.maybeNoSuchOverloadErr(null)),
             Overload.overload(
                 JOIN,
@@ -402,10 +408,11 @@ public class StringsLib implements Library {
                 LAST_INDEX_OF,
                 null,
                 null,
-                Guards.callInStrStrOutInt(StringsLib::lastIndexOf),
+                Guards.callInStrTStrOutInt(StringsLib::lastIndexOf),
                 values ->
                     values.length == 3
-                        ? Guards.callInStrStrIntOutInt(StringsLib::lastIndexOfOffset).invoke(values)
+                        ? Guards.callInStrTStrIntOutInt(StringsLib::lastIndexOfOffset)
+                            .invoke(values)
                         : Err.maybeNoSuchOverloadErr(null)),
             Overload.unary(LOWER_ASCII, Guards.callInStrOutStr(StringsLib::lowerASCII)),
             Overload.overload(
@@ -436,16 +443,58 @@ public class StringsLib implements Library {
                 SUBSTR,
                 null,
                 null,
-                Guards.callInStrIntOutStr(StringsLib::substr),
+                Guards.callInStrTIntOutStr(StringsLib::substr),
                 values ->
                     values.length == 3
-                        ? Guards.callInStrIntIntOutStr(StringsLib::substrRange).invoke(values)
+                        ? Guards.callInStrTIntIntOutStr(StringsLib::substrRange).invoke(values)
                         : Err.maybeNoSuchOverloadErr(null)),
             Overload.unary(TRIM_SPACE, Guards.callInStrOutStr(StringsLib::trimSpace)),
             Overload.unary(UPPER_ASCII, Guards.callInStrOutStr(StringsLib::upperASCII)),
             Overload.binary(FORMAT, StringsLib::format),
             Overload.unary(QUOTE, Guards.callInStrOutStr(StringsLib::quote)));
-    return List.of(functions);
+    return List.of(functions, ProgramOption.customDecorator(StringsLib::precompileFormat));
+  }
+
+  /**
+   * precompileFormat replaces calls of {@code format} with a constant pattern by an {@link
+   * EvalFormat} using a pre-tokenized {@link FormatTemplate}, so that the pattern is parsed and
+   * validated only once when the program is planned. Calls with an invalid pattern are left as they
+   * are to report the error on evaluation.
+   */
+  private static Interpretable precompileFormat(Interpretable i) {
+    if (!(i instanceof InterpretableCall call) || !call.function().equals(FORMAT)) {
+      return i;
+    }
+    Interpretable[] args = call.args();
+    if (args.length != 2
+        || !(args[0] instanceof InterpretableConst pattern)
+        || !(pattern.value() instanceof StringT)) {
+      return i;
+    }
+    FormatTemplate template = FormatTemplate.compile((String) pattern.value().value());
+    if (!template.isValid()) {
+      return i;
+    }
+    return new EvalFormat(call, args[1], template);
+  }
+
+  /**
+   * CharAt returns the code point at the given code point index. The {@link StringT} only scans the
+   * string up to that index, out of range indexes fail like they do for plain strings.
+   */
+  static String charAt(StringT str, int index) {
+    String s = (String) str.value();
+    int i = str.charIndex(index);
+    if (i < 0) {
+      if (index < 0 || index > s.length()) {
+        return charAt(s, index);
+      }
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    if (i == s.length()) {
+      return "";
+    }
+    return s.substring(i, s.offsetByCodePoints(i, 1));
   }
 
   static String charAt(String str, int index) {
@@ -455,6 +504,16 @@ public class StringsLib implements Library {
     return String.valueOf(str.charAt(index));
   }
 
+  static int indexOf(StringT str, String substr) {
+    int found = ((String) str.value()).indexOf(substr);
+    return found < 0 ? found : str.codePointIndex(found);
+  }
+
+  static int indexOfOffset(StringT str, String substr, int offset) {
+    int found = ((String) str.value()).indexOf(substr, checkedCharIndex(str, offset));
+    return found < 0 ? found : str.codePointIndex(found);
+  }
+
   static int indexOf(String str, String substr) {
     return str.indexOf(substr);
   }
@@ -467,13 +526,38 @@ public class StringsLib implements Library {
   }
 
   static String join(String[] strs) {
+    return joinSepartor(strs, "");
+  }
+
+  static String joinSepartor(String[] strs, String seperator) {
+    CancellationScope cancellation = CancellationScope.current();
     StringBuilder stringBuilder = new StringBuilder();
-    Arrays.stream(strs).forEach(stringBuilder::append);
+    for (int i = 0; i < strs.length; i++) {
+      checkCancelled(cancellation, i);
+      if (i > 0) {
+        stringBuilder.append(seperator);
+      }
+      stringBuilder.append(strs[i]);
+    }
     return stringBuilder.toString();
   }
 
-  static String joinSepartor(String[] strs, String seperator) {
-    return String.join(seperator, strs);
+  static int lastIndexOf(StringT str, String substr) {
+    int found = ((String) str.value()).lastIndexOf(substr);
+    return found < 0 ? found : str.codePointIndex(found);
+  }
+
+  static int lastIndexOfOffset(StringT str, String substr, int offset) {
+    int found = ((String) str.value()).lastIndexOf(substr, checkedCharIndex(str, offset));
+    return found < 0 ? found : str.codePointIndex(found);
+  }
+
+  private static int checkedCharIndex(StringT str, int index) {
+    int i = str.charIndex(index);
+    if (i < 0) {
+      throw new IndexOutOfBoundsException("String index out of range: " + index);
+    }
+    return i;
   }
 
   static int lastIndexOf(String str, String substr) {
@@ -488,8 +572,11 @@ public class StringsLib implements Library {
   }
 
   static String lowerASCII(String str) {
+    CancellationScope cancellation = CancellationScope.current();
     StringBuilder stringBuilder = new StringBuilder();
-    for (char c : str.toCharArray()) {
+    for (int i = 0; i < str.length(); i++) {
+      checkCancelled(cancellation, i);
+      char c = str.charAt(i);
       if (c >= 'A' && c <= 'Z') {
         stringBuilder.append(Character.toLowerCase(c));
       } else {
@@ -500,7 +587,29 @@ public class StringsLib implements Library {
   }
 
   static String replace(String str, String old, String replacement) {
-    return str.replace(old, replacement);
+    CancellationScope cancellation = CancellationScope.current();
+    StringBuilder stringBuilder = new StringBuilder();
+    if (old.isEmpty()) {
+      for (int i = 0; i < str.length(); i++) {
+        checkCancelled(cancellation, i);
+        stringBuilder.append(replacement).append(str.charAt(i));
+      }
+      return stringBuilder.append(replacement).toString();
+    }
+    int index = 0;
+    for (int count = 0; ; count++) {
+      checkCancelled(cancellation, count);
+      int found = str.indexOf(old, index);
+      if (found < 0) {
+        break;
+      }
+      stringBuilder.append(str, index, found).append(replacement);
+      index = found + old.length();
+    }
+    if (index == 0) {
+      return str;
+    }
+    return stringBuilder.append(str, index, str.length()).toString();
   }
 
   static String reverse(String str) {
@@ -508,9 +617,11 @@ public class StringsLib implements Library {
   }
 
   static String quote(String str) {
+    CancellationScope cancellation = CancellationScope.current();
     StringBuilder quoted = new StringBuilder(str.length() + 2);
     quoted.append('"');
-    for (int offset = 0; offset < str.length(); ) {
+    for (int offset = 0, i = 0; offset < str.length(); i++) {
+      checkCancelled(cancellation, i);
       int codePoint = str.codePointAt(offset);
       offset += Character.charCount(codePoint);
       switch (codePoint) {
@@ -565,13 +676,15 @@ public class StringsLib implements Library {
       return str;
     }
     if (n < 0) {
-      return str.replace(old, replacement);
+      return replace(str, old, replacement);
     }
+    CancellationScope cancellation = CancellationScope.current();
     StringBuilder stringBuilder = new StringBuilder();
     int index = 0;
     int count = 0;
 
     for (; count < n && index < str.length(); count++) {
+      checkCancelled(cancellation, count);
       if (old.length() == 0) {
         stringBuilder.append(replacement).append(str, index, index + 1);
         index++;
@@ -595,8 +708,35 @@ public class StringsLib implements Library {
     return stringBuilder.toString();
   }
 
+  /**
+   * Split slices str into all substrings separated by separator, trailing empty substrings are
+   * removed. The separator is searched literally, which avoids compiling a regular expression on
+   * each call.
+   */
   static String[] split(String str, String separator) {
-    return str.split(Pattern.quote(separator));
+    CancellationScope cancellation = CancellationScope.current();
+    checkCancelled(cancellation, 0);
+    if (separator.isEmpty()) {
+      return str.isEmpty() ? new String[] {str} : explode(str, -1);
+    }
+    int found = str.indexOf(separator);
+    if (found < 0) {
+      return new String[] {str};
+    }
+    List<String> list = new ArrayList<>();
+    int index = 0;
+    for (int count = 1; found >= 0; count++) {
+      checkCancelled(cancellation, count);
+      list.add(str.substring(index, found));
+      index = found + separator.length();
+      found = str.indexOf(separator, index);
+    }
+    list.add(str.substring(index));
+    int size = list.size();
+    while (size > 0 && list.get(size - 1).isEmpty()) {
+      size--;
+    }
+    return list.subList(0, size).toArray(new String[0]);
   }
 
   /**
@@ -627,10 +767,12 @@ public class StringsLib implements Library {
       return explode(s, n);
     }
 
+    CancellationScope cancellation = CancellationScope.current();
     int index = 0;
     int count = 0;
     List<String> list = new ArrayList<>();
     for (; index < s.length() && count < n - 1; count++) {
+      checkCancelled(cancellation, count);
       int found = s.indexOf(sep, index);
       if (found < 0) {
         break;
@@ -653,20 +795,44 @@ public class StringsLib implements Library {
    * strings.explode()</a>
    */
   private static String[] explode(String s, int n) {
-    if (n < 0 || n > s.length()) {
-      n = s.length();
+    int count = s.codePointCount(0, s.length());
+    if (n < 0 || n > count) {
+      n = count;
     }
 
+    CancellationScope cancellation = CancellationScope.current();
     String[] arr = new String[n];
+    int offset = 0;
     for (int i = 0; i < n - 1; i++) {
-      arr[i] = s.substring(i, i + 1);
+      checkCancelled(cancellation, i);
+      int next = s.offsetByCodePoints(offset, 1);
+      arr[i] = s.substring(offset, next);
+      offset = next;
     }
     if (n > 0) {
-      arr[n - 1] = s.substring(n - 1);
+      arr[n - 1] = s.substring(offset);
     }
     return arr;
   }
 
+  static String substr(StringT str, int start) {
+    String s = (String) str.value();
+    if (start < 0 || start > s.length()) {
+      return substr(s, start);
+    }
+    return s.substring(checkedCharIndex(str, start));
+  }
+
+  static String substrRange(StringT str, int start, int end) {
+    int startIndex = checkedCharIndex(str, start);
+    int endIndex = checkedCharIndex(str, end);
+    if (start > end) {
+      throw new IndexOutOfBoundsException(
+          String.format("invalid substring range. start: %d, end: %d", start, end));
+    }
+    return ((String) str.value()).substring(startIndex, endIndex);
+  }
+
   static String substr(String str, int start) {
     return str.substring(start);
   }
@@ -722,8 +888,11 @@ public class StringsLib implements Library {
   }
 
   static String upperASCII(String str) {
+    CancellationScope cancellation = CancellationScope.current();
     StringBuilder stringBuilder = new StringBuilder();
-    for (char c : str.toCharArray()) {
+    for (int i = 0; i < str.length(); i++) {
+      checkCancelled(cancellation, i);
+      char c = str.charAt(i);
       if (c >= 'a' && c <= 'z') {
         stringBuilder.append(Character.toUpperCase(c));
       } else {
@@ -746,46 +915,185 @@ public class StringsLib implements Library {
   }
 
   private static String formatPattern(String pattern, Sizer argsSizer, Indexer argsIndexer) {
-    int argCount = Math.toIntExact(argsSizer.size().intValue());
-    int argIndex = 0;
-    StringBuilder out = new StringBuilder(pattern.length());
-    for (int i = 0; i < pattern.length(); i++) {
-      char ch = pattern.charAt(i);
-      if (ch != '%') {
-        out.append(ch);
-        continue;
-      }
-      if (++i >= pattern.length()) {
-        throw new FormatException("could not parse formatting clause: missing formatting clause");
-      }
-      ch = pattern.charAt(i);
-      if (ch == '%') {
-        out.append('%');
-        continue;
+    return FormatTemplate.compile(pattern).apply(argsSizer, argsIndexer);
+  }
+
+  /**
+   * FormatTemplate is a pre-tokenized format pattern consisting of the literal segments surrounding
+   * the formatting clauses.
+   *
+   * <p>A malformed pattern is tokenized up to the malformed clause and the parse error is raised
+   * when the template is applied, after the preceding clauses have been formatted. This reports the
+   * same error as a pattern which is parsed while it is formatted.
+   */
+  private static final class FormatTemplate {
+    /** literals has one more element than clauses, the segments before and after each clause. */
+    private final String[] literals;
+
+    private final char[] clauses;
+    private final int[] precisions;
+    private final int literalLength;
+    private final String error;
+
+    private FormatTemplate(String[] literals, char[] clauses, int[] precisions, String error) {
+      this.literals = literals;
+      this.clauses = clauses;
+      this.precisions = precisions;
+      this.error = error;
+      int length = 0;
+      for (String literal : literals) {
+        length += literal.length();
       }
-      int precision = -1;
-      if (ch == '.') {
-        int precisionStart = ++i;
-        while (i < pattern.length() && Character.isDigit(pattern.charAt(i))) {
-          i++;
+      this.literalLength = length;
+    }
+
+    /** compile tokenizes the pattern, see {@link #isValid()} whether the pattern is well-formed. */
+    static FormatTemplate compile(String pattern) {
+      CancellationScope cancellation = CancellationScope.current();
+      List<String> literals = new ArrayList<>();
+      StringBuilder clauses = new StringBuilder();
+      List<Integer> precisions = new ArrayList<>();
+      StringBuilder literal = new StringBuilder();
+      String error = null;
+      for (int i = 0; i < pattern.length(); i++) {
+        checkCancelled(cancellation, i);
+        char ch = pattern.charAt(i);
+        if (ch != '%') {
+          literal.append(ch);
+          continue;
         }
-        if (precisionStart == i || i >= pattern.length()) {
-          throw new FormatException("could not parse formatting clause: malformed precision");
+        if (++i >= pattern.length()) {
+          error = "could not parse formatting clause: missing formatting clause";
+          break;
         }
-        precision = Integer.parseInt(pattern.substring(precisionStart, i));
         ch = pattern.charAt(i);
+        if (ch == '%') {
+          literal.append('%');
+          continue;
+        }
+        int precision = -1;
+        if (ch == '.') {
+          int precisionStart = ++i;
+          while (i < pattern.length() && Character.isDigit(pattern.charAt(i))) {
+            i++;
+          }
+          if (precisionStart == i || i >= pattern.length()) {
+            error = "could not parse formatting clause: malformed precision";
+            break;
+          }
+          try {
+            precision = Integer.parseInt(pattern.substring(precisionStart, i));
+          } catch (NumberFormatException e) {
+            error = "could not parse formatting clause: malformed precision";
+            break;
+          }
+          ch = pattern.charAt(i);
+        }
+        if ("sdboxXfe".indexOf(ch) < 0) {
+          error =
+              String.format(
+                  Locale.ROOT,
+                  "could not parse formatting clause: unrecognized formatting clause \"%s\"",
+                  ch);
+          break;
+        }
+        literals.add(literal.toString());
+        literal.setLength(0);
+        clauses.append(ch);
+        precisions.add(precision);
       }
-      if ("sdboxXfe".indexOf(ch) < 0) {
-        throw new FormatException(
-            "could not parse formatting clause: unrecognized formatting clause \"%s\"", ch);
+      literals.add(literal.toString());
+      int[] precisionArray = new int[precisions.size()];
+      for (int i = 0; i < precisionArray.length; i++) {
+        precisionArray[i] = precisions.get(i);
+      }
+      return new FormatTemplate(
+          literals.toArray(new String[0]), clauses.toString().toCharArray(), precisionArray, error);
+    }
+
+    /** isValid returns whether the pattern is well-formed. */
+    boolean isValid() {
+      return error == null;
+    }
+
+    String apply(Sizer argsSizer, Indexer argsIndexer) {
+      int argCount = Math.toIntExact(argsSizer.size().intValue());
+      CancellationScope cancellation = CancellationScope.current();
+      StringBuilder out = new StringBuilder(literalLength + clauses.length * 8);
+      out.append(literals[0]);
+      for (int i = 0; i < clauses.length; i++) {
+        checkCancelled(cancellation, i);
+        if (i >= argCount) {
+          throw new FormatException("index %d out of range", i);
+        }
+        out.append(formatValue(clauses[i], precisions[i], argsIndexer.get(intOf(i))));
+        out.append(literals[i + 1]);
+      }
+      if (error != null) {
+        throw new FormatException("%s", error);
+      }
+      return out.toString();
+    }
+  }
+
+  /** EvalFormat evaluates a {@code format} call with a constant, pre-tokenized pattern. */
+  private static final class EvalFormat implements InterpretableCall, Coster {
+    private final InterpretableCall call;
+    private final Interpretable args;
+    private final FormatTemplate template;
+
+    private EvalFormat(InterpretableCall call, Interpretable args, FormatTemplate template) {
+      this.call = call;
+      this.args = args;
+      this.template = template;
+    }
+
+    /** ID implements the Interpretable interface method. */
+    @Override
+    public long id() {
+      return call.id();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(Activation ctx) {
+      Val argsVal = args.eval(ctx);
+      if (isUnknownOrError(argsVal)) {
+        return argsVal;
+      }
+      if (!(argsVal instanceof Sizer) || !(argsVal instanceof Indexer)) {
+        return Err.maybeNoSuchOverloadErr(null);
       }
-      if (argIndex >= argCount) {
-        throw new FormatException("index %d out of range", argIndex);
+      try {
+        return StringT.stringOf(template.apply((Sizer) argsVal, (Indexer) argsVal));
+      } catch (FormatException e) {
+        return Err.newErr("%s", e.getMessage());
       }
-      Val arg = argsIndexer.get(intOf(argIndex++));
-      out.append(formatValue(ch, precision, arg));
     }
-    return out.toString();
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return Cost.OneOne.add(Cost.estimateCost(args));
+    }
+
+    /** Function implements the InterpretableCall interface method. */
+    @Override
+    public String function() {
+      return call.function();
+    }
+
+    /** OverloadID implements the InterpretableCall interface method. */
+    @Override
+    public String overloadID() {
+      return call.overloadID();
+    }
+
+    /** Args implements the InterpretableCall interface method. */
+    @Override
+    public Interpretable[] args() {
+      return call.args();
+    }
   }
 
   private static String formatValue(char clause, int precision, Val arg) {
@@ -837,7 +1145,8 @@ public class StringsLib implements Library {
         return renderMap(value);
       default:
         throw new FormatException(
-            "error during formatting: string clause can only be used on strings, bools, bytes, ints, doubles, maps, lists, types, durations, and timestamps, was given %s",
+            "error during formatting: string clause can only be used on strings, bools, bytes,"
+                + " ints, doubles, maps, lists, types, durations, and timestamps, was given %s",
             value.type().typeName());
     }
   }
@@ -871,7 +1180,8 @@ public class StringsLib implements Library {
         return value.booleanValue() ? "1" : "0";
       default:
         throw new FormatException(
-            "error during formatting: only integers and bools can be formatted as binary, was given %s",
+            "error during formatting: only integers and bools can be formatted as binary, was"
+                + " given %s",
             value.type().typeName());
     }
   }
@@ -906,7 +1216,8 @@ public class StringsLib implements Library {
         break;
       default:
         throw new FormatException(
-            "error during formatting: only integers, byte buffers, and strings can be formatted as hex, was given %s",
+            "error during formatting: only integers, byte buffers, and strings can be formatted"
+                + " as hex, was given %s",
             value.type().typeName());
     }
     return upperCase ? hex.toUpperCase(Locale.ROOT) : hex;
@@ -986,6 +1297,16 @@ public class StringsLib implements Library {
     return Double.toString(value);
   }
 
+  /**
+   * checkCancelled checks the cancellation of the current evaluation every {@link
+   * CancellationScope#CheckInterval} iterations of a loop, if there is a cancellation at all.
+   */
+  private static void checkCancelled(CancellationScope cancellation, int iteration) {
+    if (cancellation != null && (iteration & CancellationScope.CheckIntervalMask) == 0) {
+      cancellation.check();
+    }
+  }
+
   private static String bytesToHex(byte[] bytes) {
     char[] hex = new char[bytes.length * 2];
     char[] digits = "0123456789abcdef".toCharArray();
@@ -232,6 +232,7 @@ public interface Activation {
   final class PartActivation implements PartialActivation {
     private final Activation delegate;
     private final AttributePattern[] unknowns;
+    private AttributePatternTrie unknownTrie;
 
     PartActivation(Activation delegate, AttributePattern[] unknowns) {
       this.delegate = delegate;
@@ -254,6 +255,15 @@ public interface Activation {
       return unknowns;
     }
 
+    /** UnknownAttributeTrie returns the lazily built trie of the unknown patterns. */
+    AttributePatternTrie unknownAttributeTrie() {
+      AttributePatternTrie trie = unknownTrie;
+      if (trie == null) {
+        unknownTrie = trie = AttributePatternTrie.newAttributePatternTrie(unknowns);
+      }
+      return trie;
+    }
+
     @Override
     public String toString() {
       return "PartActivation{"
@@ -15,6 +15,7 @@
  */
 package org.projectnessie.cel.interpreter;
 
+import static org.projectnessie.cel.common.types.AttributeTrail.newAttributeTrail;
 import static org.projectnessie.cel.common.types.UnknownT.isUnknown;
 import static org.projectnessie.cel.common.types.UnknownT.unknownOf;
 import static org.projectnessie.cel.interpreter.AttributeFactory.newAttributeFactory;
@@ -23,8 +24,6 @@ import com.google.api.expr.v1alpha1.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
-import org.agrona.collections.IntHashSet;
-import org.agrona.collections.IntHashSet.IntIterator;
 import org.projectnessie.cel.common.ULong;
 import org.projectnessie.cel.common.containers.Container;
 import org.projectnessie.cel.common.types.ref.TypeAdapter;
@@ -120,6 +119,10 @@ public final class AttributePattern {
     return this.variable.equals(variable);
   }
 
+  String variable() {
+    return variable;
+  }
+
   /**
    * QualifierPatterns returns the set of AttributeQualifierPattern values on the AttributePattern.
    */
@@ -156,6 +159,14 @@ public final class AttributePattern {
       return new AttributeQualifierPattern(false, value);
     }
 
+    boolean isWildcard() {
+      return wildcard;
+    }
+
+    Object value() {
+      return value;
+    }
+
     /**
      * Matches returns true if the qualifier pattern is a wildcard, or the Qualifier implements the
      * qualifierValueEquator interface and its IsValueEqualTo returns true for the qualifier
@@ -286,23 +297,15 @@ public final class AttributePattern {
      */
     Object matchesUnknownPatterns(
         PartialActivation vars, long attrID, String[] variableNames, List<Qualifier> qualifiers) {
-      AttributePattern[] patterns = vars.unknownAttributePatterns();
-      IntHashSet candidateIndices = new IntHashSet();
-      for (String variable : variableNames) {
-        for (int i = 0; i < patterns.length; i++) {
-          AttributePattern pat = patterns[i];
-          if (pat.variableMatches(variable)) {
-            candidateIndices.add(i);
-          }
-        }
-      }
+      AttributePatternTrie trie = AttributePatternTrie.unknownAttributeTrie(vars);
       // Determine whether to return early if there are no candidate unknown patterns.
-      if (candidateIndices.isEmpty()) {
+      String variable = trie.matchingVariable(variableNames);
+      if (variable == null) {
         return null;
       }
       // Determine whether to return early if there are no qualifiers.
       if (qualifiers.isEmpty()) {
-        return unknownOf(attrID);
+        return unknownOf(attrID, newAttributeTrail(variable));
       }
       // Resolve the attribute qualifiers into a static set. This prevents more dynamic
       // Attribute resolutions than necessary when there are multiple unknown patterns
@@ -322,32 +325,7 @@ public final class AttributePattern {
         newQuals[i] = qual;
       }
       // Determine whether any of the unknown patterns match.
-      for (IntIterator patIter = candidateIndices.iterator(); patIter.hasNext(); ) {
-        int patIdx = patIter.nextValue();
-        AttributePattern pat = patterns[patIdx];
-        boolean isUnk = true;
-        long matchExprID = attrID;
-        List<AttributeQualifierPattern> qualPats = pat.qualifierPatterns();
-        for (int i = 0; i < newQuals.length; i++) {
-          Qualifier qual = newQuals[i];
-          if (i >= qualPats.size()) {
-            break;
-          }
-          matchExprID = qual.id();
-          AttributeQualifierPattern qualPat = qualPats.get(i);
-          // Note, the AttributeQualifierPattern relies on the input Qualifier not being an
-          // Attribute, since there is no way to resolve the Attribute with the information
-          // provided to the Matches call.
-          if (!qualPat.matches(qual)) {
-            isUnk = false;
-            break;
-          }
-        }
-        if (isUnk) {
-          return unknownOf(matchExprID);
-        }
-      }
-      return null;
+      return trie.match(attrID, variableNames, newQuals);
     }
   }
 
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.projectnessie.cel.common.types.AttributeTrail.newAttributeTrail;
+import static org.projectnessie.cel.common.types.UnknownT.unknownOf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.projectnessie.cel.common.ULong;
+import org.projectnessie.cel.common.types.AttributeTrail;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.interpreter.Activation.PartActivation;
+import org.projectnessie.cel.interpreter.Activation.PartialActivation;
+import org.projectnessie.cel.interpreter.AttributeFactory.BoolQualifier;
+import org.projectnessie.cel.interpreter.AttributeFactory.ConstantQualifier;
+import org.projectnessie.cel.interpreter.AttributeFactory.FieldQualifier;
+import org.projectnessie.cel.interpreter.AttributeFactory.IntQualifier;
+import org.projectnessie.cel.interpreter.AttributeFactory.Qualifier;
+import org.projectnessie.cel.interpreter.AttributeFactory.StringQualifier;
+import org.projectnessie.cel.interpreter.AttributeFactory.UintQualifier;
+import org.projectnessie.cel.interpreter.AttributePattern.AttributeQualifierPattern;
+import org.projectnessie.cel.interpreter.AttributePattern.QualifierValueEquator;
+
+/**
+ * AttributePatternTrie indexes the unknown AttributePattern values of a PartialActivation by
+ * variable name and qualifier values.
+ *
+ * <p>Each pattern is a path from the node of its variable, one edge per qualifier pattern, where
+ * wildcard qualifier patterns use a separate wildcard edge. Matching an attribute follows the
+ * value edge and the wildcard edge for each of its qualifiers, so the cost depends on the length
+ * of the attribute and not on the number of patterns.
+ *
+ * <p>If several patterns match an attribute, the first of them in the order of the patterns given
+ * to the PartialActivation determines the id of the unknown result.
+ */
+final class AttributePatternTrie {
+  private final Map<String, Node> variables = new HashMap<>();
+
+  private AttributePatternTrie(AttributePattern[] patterns) {
+    for (int i = 0; i < patterns.length; i++) {
+      AttributePattern pat = patterns[i];
+      Node node = variables.computeIfAbsent(pat.variable(), v -> new Node());
+      node.subtree = Math.min(node.subtree, i);
+      for (AttributeQualifierPattern qualPat : pat.qualifierPatterns()) {
+        node = node.child(qualPat);
+        node.subtree = Math.min(node.subtree, i);
+      }
+      node.terminal = Math.min(node.terminal, i);
+    }
+  }
+
+  static AttributePatternTrie newAttributePatternTrie(AttributePattern[] patterns) {
+    return new AttributePatternTrie(patterns);
+  }
+
+  /**
+   * UnknownAttributeTrie returns the trie of the unknown patterns of the given activation, which is
+   * cached by the default PartialActivation implementation.
+   */
+  static AttributePatternTrie unknownAttributeTrie(PartialActivation vars) {
+    if (vars instanceof PartActivation) {
+      return ((PartActivation) vars).unknownAttributeTrie();
+    }
+    return newAttributePatternTrie(vars.unknownAttributePatterns());
+  }
+
+  /**
+   * MatchingVariable returns the first of the given variable names, which any pattern refers to, or
+   * {@code null}.
+   */
+  String matchingVariable(String... variableNames) {
+    for (String variable : variableNames) {
+      if (variables.containsKey(variable)) {
+        return variable;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Match returns the unknown value for the attribute with the given variable names and qualifiers
+   * or {@code null}, if no pattern matches the attribute. The unknown value carries the trail of
+   * the attribute up to the last matched qualifier.
+   *
+   * <p>The qualifiers must have been resolved, i.e. none of them must be an Attribute.
+   */
+  Val match(long attrID, String[] variableNames, Qualifier[] qualifiers) {
+    Match m = new Match(attrID, qualifiers);
+    for (String variable : variableNames) {
+      Node node = variables.get(variable);
+      if (node != null) {
+        m.variable = variable;
+        m.walk(node, 0);
+      }
+    }
+    if (m.best == Integer.MAX_VALUE) {
+      return null;
+    }
+    return unknownOf(m.bestID, attributeTrail(m.bestVariable, qualifiers, m.bestDepth));
+  }
+
+  /**
+   * AttributeTrail returns the trail of the given variable qualified by the first {@code depth}
+   * qualifiers. The trail ends before the first qualifier, which is not a constant.
+   */
+  static AttributeTrail attributeTrail(String variable, Qualifier[] qualifiers, int depth) {
+    List<Object> values = new ArrayList<>(depth);
+    for (int i = 0; i < depth && qualifiers[i] instanceof ConstantQualifier; i++) {
+      values.add(((ConstantQualifier) qualifiers[i]).value().value());
+    }
+    return newAttributeTrail(variable, values);
+  }
+
+  /**
+   * QualifierKey returns the pattern value, which equals the given qualifier according to its
+   * QualifierValueEquator implementation, or {@code null} if the qualifier is not a plain value.
+   */
+  private static Object qualifierKey(Qualifier q) {
+    if (q instanceof StringQualifier) {
+      return ((StringQualifier) q).value;
+    }
+    if (q instanceof FieldQualifier) {
+      return ((FieldQualifier) q).name;
+    }
+    if (q instanceof IntQualifier) {
+      return ((IntQualifier) q).value;
+    }
+    if (q instanceof UintQualifier) {
+      return ULong.valueOf(((UintQualifier) q).value);
+    }
+    if (q instanceof BoolQualifier) {
+      return ((BoolQualifier) q).value;
+    }
+    return null;
+  }
+
+  private static final class Match {
+    private final long attrID;
+    private final Qualifier[] qualifiers;
+    private String variable;
+    private int best = Integer.MAX_VALUE;
+    private long bestID;
+    private String bestVariable;
+    private int bestDepth;
+
+    Match(long attrID, Qualifier[] qualifiers) {
+      this.attrID = attrID;
+      this.qualifiers = qualifiers;
+    }
+
+    void walk(Node node, int depth) {
+      // A pattern ending at this node matches, as does any longer pattern once all qualifiers of
+      // the attribute have been matched. The unknown refers to the last matched qualifier.
+      int index = depth == qualifiers.length ? node.subtree : node.terminal;
+      if (index < best) {
+        best = index;
+        bestID = depth == 0 ? attrID : qualifiers[depth - 1].id();
+        bestVariable = variable;
+        bestDepth = depth;
+      }
+      if (depth == qualifiers.length) {
+        return;
+      }
+      Qualifier q = qualifiers[depth];
+      if (node.wildcard != null && node.wildcard.subtree < best) {
+        walk(node.wildcard, depth + 1);
+      }
+      if (node.values == null) {
+        return;
+      }
+      Object key = qualifierKey(q);
+      if (key != null) {
+        Node child = node.values.get(key);
+        if (child != null && child.subtree < best) {
+          walk(child, depth + 1);
+        }
+      } else if (q instanceof QualifierValueEquator) {
+        QualifierValueEquator qve = (QualifierValueEquator) q;
+        for (Map.Entry<Object, Node> e : node.values.entrySet()) {
+          Node child = e.getValue();
+          if (child.subtree < best && qve.qualifierValueEquals(e.getKey())) {
+            walk(child, depth + 1);
+          }
+        }
+      }
+    }
+  }
+
+  private static final class Node {
+    /** Index of the first pattern ending at this node. */
+    int terminal = Integer.MAX_VALUE;
+    /** Index of the first pattern passing through or ending at this node. */
+    int subtree = Integer.MAX_VALUE;
+
+    Map<Object, Node> values;
+    Node wildcard;
+
+    Node child(AttributeQualifierPattern qualPat) {
+      if (qualPat.isWildcard()) {
+        if (wildcard == null) {
+          wildcard = new Node();
+        }
+        return wildcard;
+      }
+      if (values == null) {
+        values = new HashMap<>();
+      }
+      return values.computeIfAbsent(qualPat.value(), v -> new Node());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AttributePatternTrie{" + "variables=" + List.copyOf(variables.keySet()) + '}';
+  }
+}
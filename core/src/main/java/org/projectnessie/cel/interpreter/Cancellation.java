@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import java.time.Duration;
+
+/**
+ * Cancellation is a cooperative cancellation token which can be passed to {@code
+ * Program.eval(Object, Cancellation)}.
+ *
+ * <p>Comprehension loops and long-running extension functions periodically poll the token and stop
+ * the evaluation with an error once it reports that the evaluation has been cancelled.
+ * Implementations must be cheap and thread-safe, since the token is polled from the evaluating
+ * thread while it may be cancelled from another one.
+ */
+@FunctionalInterface
+public interface Cancellation {
+
+  /** IsCancelled returns whether the evaluation should be stopped. */
+  boolean isCancelled();
+
+  /** Deadline returns a Cancellation which is cancelled once the given timeout has elapsed. */
+  static Cancellation deadline(Duration timeout) {
+    return deadlineNanos(System.nanoTime() + timeout.toNanos());
+  }
+
+  /**
+   * DeadlineNanos returns a Cancellation which is cancelled once {@link System#nanoTime()} has
+   * reached the given value.
+   */
+  static Cancellation deadlineNanos(long deadlineNanos) {
+    return () -> System.nanoTime() - deadlineNanos >= 0L;
+  }
+}
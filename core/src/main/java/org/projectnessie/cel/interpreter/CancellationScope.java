@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.projectnessie.cel.common.types.Err.newErr;
+
+import org.projectnessie.cel.common.types.Err.ErrException;
+import org.projectnessie.cel.common.types.ref.Val;
+
+/**
+ * CancellationScope binds a {@link Cancellation} to the thread evaluating a program.
+ *
+ * <p>Functions do not have access to the evaluation context, hence the scope is bound to the
+ * current thread for the duration of the evaluation. Loops obtain the scope once via {@link
+ * #current()} and, if it is non-null, call {@link #check()} every {@link #CheckInterval}
+ * iterations, so an evaluation without cancellation only pays for a single thread-local lookup per
+ * loop.
+ */
+public final class CancellationScope {
+  static final String Interrupted = "operation interrupted";
+
+  /** Number of loop iterations between two checks of the cancellation token, a power of two. */
+  public static final int CheckInterval = 64;
+
+  /**
+   * Mask to be applied to a loop index to check the cancellation every {@link #CheckInterval}
+   * iterations.
+   */
+  public static final int CheckIntervalMask = CheckInterval - 1;
+
+  private static final ThreadLocal<CancellationScope> current = new ThreadLocal<>();
+
+  private final Cancellation cancellation;
+  private final CancellationScope previous;
+  private boolean interrupted;
+
+  private CancellationScope(Cancellation cancellation, CancellationScope previous) {
+    this.cancellation = cancellation;
+    this.previous = previous;
+  }
+
+  /**
+   * Enter binds the given cancellation to the current thread. The returned scope must be closed
+   * via {@link #exit()} once the evaluation has completed.
+   */
+  public static CancellationScope enter(Cancellation cancellation) {
+    CancellationScope scope = new CancellationScope(cancellation, current.get());
+    current.set(scope);
+    return scope;
+  }
+
+  /** Exit restores the scope that was bound to the current thread before this scope was entered. */
+  public void exit() {
+    if (previous != null) {
+      current.set(previous);
+    } else {
+      current.remove();
+    }
+  }
+
+  /** Current returns the scope bound to the current thread, or {@code null} if there is none. */
+  public static CancellationScope current() {
+    return current.get();
+  }
+
+  /**
+   * Check aborts the evaluation by throwing an {@link ErrException}, if the evaluation has been
+   * cancelled.
+   */
+  public void check() {
+    if (interrupted || cancellation.isCancelled()) {
+      interrupted = true;
+      throw new ErrException(Interrupted);
+    }
+  }
+
+  /**
+   * Interrupted returns whether the evaluation has been aborted by a {@link #check()} within this
+   * scope.
+   */
+  public boolean interrupted() {
+    return interrupted;
+  }
+
+  /** InterruptedErr returns the error value of an evaluation that has been cancelled. */
+  public static Val interruptedErr() {
+    return newErr(Interrupted);
+  }
+
+  @Override
+  public String toString() {
+    return "CancellationScope{" + "interrupted=" + interrupted + '}';
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.projectnessie.cel.common.types.Err.newErr;
+
+import org.projectnessie.cel.common.types.Err.ErrException;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.common.types.traits.Sizer;
+import org.projectnessie.cel.interpreter.Interpretable.EvalList;
+import org.projectnessie.cel.interpreter.Interpretable.EvalMap;
+import org.projectnessie.cel.interpreter.Interpretable.EvalObj;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableCall;
+
+/**
+ * CostTracker accumulates the actual cost of a single evaluation and enforces an optional cost
+ * limit.
+ *
+ * <p>Each evaluated expression node adds a cost that depends on the kind of the node: attribute
+ * resolutions, logical operators and function calls cost 1, list, map and object construction cost
+ * 10, 30 and 40, constants and comprehension bookkeeping are free. Function calls that produce a
+ * string, bytes or list value additionally pay for the size of the result, which bounds the growth
+ * of values in comprehensions. The call cost can be overridden per overload via an {@link
+ * ActualCostEstimator}.
+ *
+ * <p>A CostTracker is not thread-safe and must only be used for a single evaluation.
+ */
+public final class CostTracker {
+  static final String CostLimitExceeded = "operation cancelled: actual cost limit exceeded";
+
+  /** Traversal cost per element for values produced by function calls. */
+  static final double ResultSizeCostFactor = 0.1d;
+
+  static final long ListCreateBaseCost = 10L;
+  static final long MapCreateBaseCost = 30L;
+  static final long StructCreateBaseCost = 40L;
+
+  private final ActualCostEstimator estimator;
+  private final long limit;
+  private long cost;
+
+  private CostTracker(ActualCostEstimator estimator, long limit) {
+    this.estimator = estimator;
+    this.limit = limit;
+  }
+
+  /**
+   * NewCostTracker creates a CostTracker using the optional estimator for function call costs. A
+   * limit of {@link Long#MAX_VALUE} disables the cost limit.
+   */
+  public static CostTracker newCostTracker(ActualCostEstimator estimator, long limit) {
+    return new CostTracker(estimator, limit);
+  }
+
+  /** ActualCostEstimator provides the runtime cost of function calls. */
+  @FunctionalInterface
+  public interface ActualCostEstimator {
+    /**
+     * CallCost returns the cost of a call of the given function overload that produced the given
+     * result, or {@code null} to use the default cost.
+     */
+    Long callCost(String function, String overloadId, Val result);
+  }
+
+  /** ActualCost returns the cost accumulated so far. */
+  public long actualCost() {
+    return cost;
+  }
+
+  /** Limit returns the cost limit, {@link Long#MAX_VALUE} if there is no limit. */
+  public long limit() {
+    return limit;
+  }
+
+  /** LimitExceeded returns whether the accumulated cost exceeds the configured limit. */
+  public boolean limitExceeded() {
+    return cost > limit;
+  }
+
+  /** CostLimitExceededErr returns the error value of an evaluation that exceeded the cost limit. */
+  public static Val costLimitExceededErr() {
+    return newErr(CostLimitExceeded);
+  }
+
+  /**
+   * Add adds the given cost and aborts the evaluation by throwing an {@link ErrException}, if the
+   * cost limit has been exceeded.
+   */
+  void add(long c) {
+    long r = cost + c;
+    cost = r < cost ? Long.MAX_VALUE : r;
+    if (cost > limit) {
+      throw new ErrException(CostLimitExceeded);
+    }
+  }
+
+  /** CallCost returns the cost of the call that produced the given result. */
+  long callCost(InterpretableCall call, Val result) {
+    if (estimator != null) {
+      Long c = estimator.callCost(call.function(), call.overloadID(), result);
+      if (c != null) {
+        return c;
+      }
+    }
+    return 1L + resultSizeCost(result);
+  }
+
+  static long resultSizeCost(Val result) {
+    long size;
+    switch (result.type().typeEnum()) {
+      case String:
+        size = ((String) result.value()).length();
+        break;
+      case Bytes:
+      case List:
+        size = ((Sizer) result).size().intValue();
+        break;
+      default:
+        return 0L;
+    }
+    return (long) Math.ceil(size * ResultSizeCostFactor);
+  }
+
+  /**
+   * NodeCost returns the static cost of evaluating the given node, excluding its children. The cost
+   * of attributes and function calls is charged separately.
+   */
+  static long nodeCost(Interpretable i) {
+    if (i instanceof EvalList) {
+      return ListCreateBaseCost;
+    }
+    if (i instanceof EvalMap) {
+      return MapCreateBaseCost;
+    }
+    if (i instanceof EvalObj) {
+      return StructCreateBaseCost;
+    }
+    if (i instanceof Interpretable.EvalFold
+        || i instanceof Interpretable.EvalListFold
+        || i instanceof Interpretable.EvalMapFold
+        || i instanceof Interpretable.EvalExhaustiveFold
+        || i instanceof Interpretable.EvalExhaustiveListFold
+        || i instanceof Interpretable.EvalExhaustiveMapFold) {
+      return 0L;
+    }
+    return 1L;
+  }
+
+  @Override
+  public String toString() {
+    return "CostTracker{" + "cost=" + cost + ", limit=" + limit + '}';
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.projectnessie.cel.common.types.Util.isUnknownOrError;
+import static org.projectnessie.cel.interpreter.EvalState.newEvalState;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.interpreter.Activation.PartialActivation;
+import org.projectnessie.cel.interpreter.Interpretable.EvalMemoRoot;
+
+/**
+ * EvalMemo memoizes the values of expression nodes across evaluations together with the activation
+ * names each node has read, see {@link Interpreter#memoize(EvalMemo)}.
+ *
+ * <p>Before each evaluation the host reports the names of the activation, whose values have
+ * changed since the previous evaluation. A node is only evaluated again, if it has not been
+ * evaluated before or if one of the names it has read during its last evaluation has changed since
+ * then. Otherwise the memoized value is returned.
+ *
+ * <p>Memoization assumes that all functions are deterministic. Errors and unknowns are not
+ * memoized. Neither are nodes evaluated within comprehensions, which depend on the iteration
+ * variables, nor evaluations against a PartialActivation. An EvalMemo is not thread-safe.
+ */
+public final class EvalMemo {
+  private final EvalState values = newEvalState();
+  private final Long2ObjectHashMap<Reads> reads = new Long2ObjectHashMap<>();
+  private final Map<String, Long> changedAt = new HashMap<>();
+  private long generation;
+  private Activation activation;
+  private Set<String> frame;
+
+  private EvalMemo() {}
+
+  public static EvalMemo newEvalMemo() {
+    return new EvalMemo();
+  }
+
+  /**
+   * Changed starts the next evaluation, before which the values of the given activation names
+   * have changed.
+   */
+  public void changed(Set<String> names) {
+    generation++;
+    for (String name : names) {
+      changedAt.put(name, generation);
+    }
+  }
+
+  /** Reset clears all memoized values, so that the next evaluation evaluates all nodes. */
+  public void reset() {
+    generation++;
+    values.reset();
+    reads.clear();
+    changedAt.clear();
+  }
+
+  /** Size returns the number of memoized values. */
+  public int size() {
+    return reads.size();
+  }
+
+  /**
+   * Root wraps the root Interpretable of a program, which has been planned with the {@link
+   * Interpreter#memoize(EvalMemo)} decorator.
+   */
+  public Interpretable root(Interpretable i) {
+    return new EvalMemoRoot(i, this);
+  }
+
+  Val evalRoot(Interpretable i, Activation ctx) {
+    if (ctx instanceof PartialActivation) {
+      return i.eval(ctx);
+    }
+    Activation previous = activation;
+    activation = new RecordingActivation(ctx);
+    try {
+      return i.eval(activation);
+    } finally {
+      activation = previous;
+      frame = null;
+    }
+  }
+
+  Val eval(Interpretable i, Activation ctx) {
+    if (ctx != activation) {
+      // Not evaluated against the root activation, for example within a comprehension.
+      return i.eval(ctx);
+    }
+    long id = i.id();
+    Reads r = reads.get(id);
+    if (r != null && r.valid()) {
+      if (frame != null) {
+        frame.addAll(r.names);
+      }
+      return values.value(id);
+    }
+
+    Set<String> parent = frame;
+    Set<String> names = new HashSet<>();
+    frame = names;
+    Val v;
+    try {
+      v = i.eval(ctx);
+    } finally {
+      frame = parent;
+    }
+    if (parent != null) {
+      parent.addAll(names);
+    }
+    // Errors and unknowns may be transient, for example caused by a cancellation or a pending
+    // lookup, and are evaluated again.
+    if (!isUnknownOrError(v)) {
+      values.setValue(id, v);
+      reads.put(id, new Reads(names, generation));
+    }
+    return v;
+  }
+
+  private void read(String name) {
+    if (frame != null) {
+      frame.add(name);
+    }
+  }
+
+  private final class Reads {
+    private final Set<String> names;
+    private final long generation;
+
+    Reads(Set<String> names, long generation) {
+      this.names = names;
+      this.generation = generation;
+    }
+
+    boolean valid() {
+      for (String name : names) {
+        Long changed = changedAt.get(name);
+        if (changed != null && changed > generation) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** RecordingActivation records the names resolved by the memoized nodes. */
+  private final class RecordingActivation implements Activation {
+    private final Activation delegate;
+
+    RecordingActivation(Activation delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public ResolvedValue resolveName(String name) {
+      read(name);
+      return delegate.resolveName(name);
+    }
+
+    @Override
+    public Activation parent() {
+      return delegate.parent();
+    }
+
+    @Override
+    public String toString() {
+      return "RecordingActivation{" + "delegate=" + delegate + '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "EvalMemo{" + "size=" + reads.size() + ", generation=" + generation + '}';
+  }
+}
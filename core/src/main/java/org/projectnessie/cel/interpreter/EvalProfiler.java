@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import com.google.api.expr.v1alpha1.SourceInfo;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.projectnessie.cel.common.Location;
+import org.projectnessie.cel.common.Source;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableAttribute;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableCall;
+
+/**
+ * EvalProfiler collects per-expression statistics of the evaluations of one or more programs: the
+ * number of evaluations, the cumulative time and, optionally, the number of bytes allocated by the
+ * evaluating thread.
+ *
+ * <p>The profiler is populated by the {@link InterpretableDecorator#decProfile(EvalProfiler,
+ * SourceInfo)} decorator. Statistics are recorded per expression id using striped counters, so a
+ * single profiler can be shared by concurrent evaluations with little contention. Expression ids
+ * are only unique within an Ast, hence the statistics are kept per source info of the profiled Ast.
+ * Both the total time of a node, which includes the time of its children, and its self time are
+ * recorded, the self time is what identifies the hot spots of an expression.
+ */
+public final class EvalProfiler {
+  private final Map<NodeKey, NodeProfile> nodes = new ConcurrentHashMap<>();
+  private final ThreadLocal<Frame> frames = ThreadLocal.withInitial(Frame::new);
+  private final com.sun.management.ThreadMXBean allocations;
+
+  private EvalProfiler(com.sun.management.ThreadMXBean allocations) {
+    this.allocations = allocations;
+  }
+
+  /** NewEvalProfiler creates a profiler which records evaluation counts and times. */
+  public static EvalProfiler newEvalProfiler() {
+    return new EvalProfiler(null);
+  }
+
+  /**
+   * NewEvalProfiler creates a profiler which records evaluation counts, times and, if supported by
+   * the JVM and requested, the number of bytes allocated during the evaluation of each expression.
+   */
+  public static EvalProfiler newEvalProfiler(boolean trackAllocations) {
+    return new EvalProfiler(trackAllocations ? allocationsBean() : null);
+  }
+
+  private static com.sun.management.ThreadMXBean allocationsBean() {
+    try {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) bean;
+        if (b.isThreadAllocatedMemorySupported() && b.isThreadAllocatedMemoryEnabled()) {
+          return b;
+        }
+      }
+    } catch (LinkageError | UnsupportedOperationException e) {
+      // allocation tracking is not available on this JVM
+    }
+    return null;
+  }
+
+  /** TracksAllocations returns whether allocated bytes are recorded. */
+  public boolean tracksAllocations() {
+    return allocations != null;
+  }
+
+  /** Profiles returns a snapshot of the statistics of all profiled expressions. */
+  public List<NodeProfile> profiles() {
+    return new ArrayList<>(nodes.values());
+  }
+
+  /**
+   * HotSpots returns a snapshot of the statistics of the profiled expressions with the highest self
+   * time, in descending order.
+   */
+  public List<NodeProfile> hotSpots(int limit) {
+    List<NodeProfile> all = profiles();
+    all.sort(Comparator.comparingLong(NodeProfile::selfNanos).reversed());
+    return all.size() > limit ? all.subList(0, limit) : all;
+  }
+
+  /**
+   * Profile returns the statistics of the given expression id of the Ast with the given source
+   * info, or {@code null}.
+   */
+  public NodeProfile profile(SourceInfo info, long id) {
+    return nodes.get(new NodeKey(info, id));
+  }
+
+  /** Reset discards all recorded statistics. */
+  public void reset() {
+    nodes.clear();
+  }
+
+  /**
+   * Report renders the hot spots of the Ast with the given source info, one line per expression,
+   * with the location and the line of source the expression has been parsed from.
+   *
+   * <p>The source and source info are available from the {@code Ast} of the program.
+   */
+  public String report(Source source, SourceInfo info, int limit) {
+    List<NodeProfile> hotSpots = new ArrayList<>();
+    for (Map.Entry<NodeKey, NodeProfile> e : nodes.entrySet()) {
+      if (e.getKey().info == info) {
+        hotSpots.add(e.getValue());
+      }
+    }
+    hotSpots.sort(Comparator.comparingLong(NodeProfile::selfNanos).reversed());
+    StringBuilder sb = new StringBuilder();
+    sb.append(
+        String.format(
+            Locale.ROOT,
+            "%-8s %-24s %12s %14s %14s %14s%n",
+            "id",
+            "node",
+            "count",
+            "self-ns",
+            "total-ns",
+            "alloc-bytes"));
+    for (NodeProfile p : hotSpots.size() > limit ? hotSpots.subList(0, limit) : hotSpots) {
+      sb.append(
+          String.format(
+              Locale.ROOT,
+              "%-8d %-24s %12d %14d %14d %14s",
+              p.id(),
+              p.description(),
+              p.count(),
+              p.selfNanos(),
+              p.totalNanos(),
+              allocations != null ? Long.toString(p.selfAllocatedBytes()) : "-"));
+      Integer offset = info != null ? info.getPositionsMap().get(p.id()) : null;
+      if (source != null && offset != null) {
+        Location loc = source.offsetLocation(offset);
+        sb.append(
+            String.format(
+                Locale.ROOT, "  <%s:%d:%d>", source.description(), loc.line(), loc.column() + 1));
+        String snippet = source.snippet(loc.line());
+        if (snippet != null) {
+          sb.append(System.lineSeparator()).append("    | ").append(snippet);
+          sb.append(System.lineSeparator()).append("    | ");
+          for (int c = 0; c < loc.column() && c < snippet.length(); c++) {
+            sb.append(snippet.charAt(c) == '\t' ? '\t' : ' ');
+          }
+          sb.append('^');
+        }
+      }
+      sb.append(System.lineSeparator());
+    }
+    return sb.toString();
+  }
+
+  NodeProfile node(SourceInfo info, Interpretable i) {
+    return nodes.computeIfAbsent(
+        new NodeKey(info, i.id()), key -> new NodeProfile(key.id, describe(i)));
+  }
+
+  static String describe(Interpretable i) {
+    if (i instanceof InterpretableCall) {
+      return ((InterpretableCall) i).function();
+    }
+    if (i instanceof InterpretableAttribute) {
+      return "attribute";
+    }
+    String name = i.getClass().getSimpleName();
+    return name.startsWith("Eval") ? name.substring(4) : name;
+  }
+
+  /**
+   * Eval evaluates the given Interpretable and records the time and allocations of the evaluation
+   * for the given node. The time and allocations of nested profiled nodes are subtracted from the
+   * self time and self allocations of the node.
+   */
+  Val eval(NodeProfile node, Interpretable i, Activation ctx) {
+    Frame frame = frames.get();
+    long parentChildNanos = frame.childNanos;
+    long parentChildAlloc = frame.childAlloc;
+    frame.childNanos = 0L;
+    frame.childAlloc = 0L;
+    long startAlloc = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return i.eval(ctx);
+    } finally {
+      long nanos = System.nanoTime() - start;
+      long alloc = allocatedBytes() - startAlloc;
+      node.record(nanos, nanos - frame.childNanos, alloc, alloc - frame.childAlloc);
+      frame.childNanos = parentChildNanos + nanos;
+      frame.childAlloc = parentChildAlloc + alloc;
+    }
+  }
+
+  private long allocatedBytes() {
+    return allocations != null ? allocations.getCurrentThreadAllocatedBytes() : 0L;
+  }
+
+  /**
+   * NodeKey identifies an expression by its id and the source info of its Ast. Source infos are
+   * compared by identity, as equal source infos do not imply equal expressions.
+   */
+  static final class NodeKey {
+    final SourceInfo info;
+    final long id;
+
+    NodeKey(SourceInfo info, long id) {
+      this.info = info;
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof NodeKey)) {
+        return false;
+      }
+      NodeKey other = (NodeKey) o;
+      return info == other.info && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(info) + Long.hashCode(id);
+    }
+  }
+
+  /** Frame tracks the time and allocations of the children of the currently evaluated node. */
+  static final class Frame {
+    long childNanos;
+    long childAlloc;
+  }
+
+  /** NodeProfile holds the statistics of a single expression node. */
+  public static final class NodeProfile {
+    private final long id;
+    private final String description;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder selfNanos = new LongAdder();
+    private final LongAdder totalAllocatedBytes = new LongAdder();
+    private final LongAdder selfAllocatedBytes = new LongAdder();
+
+    NodeProfile(long id, String description) {
+      this.id = id;
+      this.description = description;
+    }
+
+    void record(long nanos, long self, long alloc, long selfAlloc) {
+      count.increment();
+      totalNanos.add(nanos);
+      selfNanos.add(self);
+      totalAllocatedBytes.add(alloc);
+      selfAllocatedBytes.add(selfAlloc);
+    }
+
+    /** Id returns the expression id. */
+    public long id() {
+      return id;
+    }
+
+    /** Description returns the function name or the kind of the expression node. */
+    public String description() {
+      return description;
+    }
+
+    /** Count returns the number of evaluations. */
+    public long count() {
+      return count.sum();
+    }
+
+    /** TotalNanos returns the cumulative time, including the time of the children. */
+    public long totalNanos() {
+      return totalNanos.sum();
+    }
+
+    /** SelfNanos returns the cumulative time, excluding the time of the children. */
+    public long selfNanos() {
+      return selfNanos.sum();
+    }
+
+    /** TotalAllocatedBytes returns the bytes allocated, including the children. */
+    public long totalAllocatedBytes() {
+      return totalAllocatedBytes.sum();
+    }
+
+    /** SelfAllocatedBytes returns the bytes allocated, excluding the children. */
+    public long selfAllocatedBytes() {
+      return selfAllocatedBytes.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "NodeProfile{"
+          + "id="
+          + id
+          + ", description='"
+          + description
+          + '\''
+          + ", count="
+          + count()
+          + ", totalNanos="
+          + totalNanos()
+          + ", selfNanos="
+          + selfNanos()
+          + '}';
+    }
+  }
+}
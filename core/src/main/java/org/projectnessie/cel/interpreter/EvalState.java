@@ -15,6 +15,7 @@
  */
 package org.projectnessie.cel.interpreter;
 
+import java.util.Arrays;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.projectnessie.cel.common.types.ref.Val;
 
@@ -40,35 +41,112 @@ public interface EvalState {
    * expression.
    */
   static EvalState newEvalState() {
-    return new EvalStateImpl();
+    return new EvalStateImpl(DefaultStateSize);
   }
 
-  /** evalState permits the mutation of evaluation state for a given expression id. */
+  /**
+   * NewEvalState returns an EvalState instance presized for the expression ids lower than the
+   * given size, usually the largest expression id of the Ast plus one.
+   */
+  static EvalState newEvalState(int size) {
+    return new EvalStateImpl(size);
+  }
+
+  /** DefaultStateSize is the initial capacity of an EvalState created without a size hint. */
+  int DefaultStateSize = 16;
+
+  /**
+   * evalState permits the mutation of evaluation state for a given expression id.
+   *
+   * <p>Expression ids assigned by the parser are dense small integers, so the values are stored in
+   * an array indexed by the expression id. Each slot carries the generation, in which it was last
+   * written, so that reset only needs to advance the current generation. Ids which are negative or
+   * too large to be used as an index are kept in a separate map.
+   */
   final class EvalStateImpl implements EvalState {
-    private final Long2ObjectHashMap<Val> values = new Long2ObjectHashMap<>();
+    /** MaxDenseID is the largest expression id stored in the array. */
+    static final int MaxDenseID = 1 << 20;
+
+    private Val[] values;
+    private int[] generations;
+    private int generation = 1;
+    private Long2ObjectHashMap<Val> sparse;
+
+    EvalStateImpl(int size) {
+      size = Math.max(1, Math.min(size, MaxDenseID + 1));
+      this.values = new Val[size];
+      this.generations = new int[size];
+    }
 
     /** IDs implements the EvalState interface method. */
     @Override
     public long[] ids() {
-      return values.keySet().stream().mapToLong(l -> l).toArray();
+      int count = 0;
+      for (int g : generations) {
+        if (g == generation) {
+          count++;
+        }
+      }
+      int sparseCount = sparse != null ? sparse.size() : 0;
+      long[] ids = new long[count + sparseCount];
+      int n = 0;
+      for (int id = 0; id < generations.length; id++) {
+        if (generations[id] == generation) {
+          ids[n++] = id;
+        }
+      }
+      if (sparseCount > 0) {
+        Long2ObjectHashMap<Val>.KeyIterator iter = sparse.keySet().iterator();
+        while (iter.hasNext()) {
+          ids[n++] = iter.nextLong();
+        }
+      }
+      return ids;
     }
 
     /** Value is an implementation of the EvalState interface method. */
     @Override
     public Val value(long id) {
-      return values.get(id);
+      if (id >= 0 && id < values.length) {
+        int i = (int) id;
+        return generations[i] == generation ? values[i] : null;
+      }
+      return sparse != null ? sparse.get(id) : null;
     }
 
     /** SetValue is an implementation of the EvalState interface method. */
     @Override
     public void setValue(long id, Val v) {
-      values.put(id, v);
+      if (id < 0 || id > MaxDenseID) {
+        if (sparse == null) {
+          sparse = new Long2ObjectHashMap<>();
+        }
+        sparse.put(id, v);
+        return;
+      }
+      int i = (int) id;
+      if (i >= values.length) {
+        int size = (int) Math.min(Math.max(i + 1L, values.length * 2L), MaxDenseID + 1L);
+        values = Arrays.copyOf(values, size);
+        generations = Arrays.copyOf(generations, size);
+      }
+      values[i] = v;
+      generations[i] = generation;
     }
 
     /** Reset implements the EvalState interface method. */
     @Override
     public void reset() {
-      values.clear();
+      generation++;
+      if (generation == 0) {
+        // The generation counter wrapped around, slots of old generations might look current.
+        Arrays.fill(generations, 0);
+        Arrays.fill(values, null);
+        generation = 1;
+      }
+      if (sparse != null) {
+        sparse.clear();
+      }
     }
   }
 }
@@ -15,6 +15,7 @@
  */
 package org.projectnessie.cel.interpreter;
 
+import static org.projectnessie.cel.common.types.AttributeTrail.newAttributeTrail;
 import static org.projectnessie.cel.common.types.BoolT.False;
 import static org.projectnessie.cel.common.types.BoolT.True;
 import static org.projectnessie.cel.common.types.Err.isError;
@@ -23,7 +24,11 @@ import static org.projectnessie.cel.common.types.Err.noSuchAttributeException;
 import static org.projectnessie.cel.common.types.Err.noSuchOverload;
 import static org.projectnessie.cel.common.types.Err.valOrErr;
 import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.OptionalT.OptionalNone;
+import static org.projectnessie.cel.common.types.OptionalT.optionalOf;
+import static org.projectnessie.cel.common.types.Types.boolOf;
 import static org.projectnessie.cel.common.types.UnknownT.isUnknown;
+import static org.projectnessie.cel.common.types.UnknownT.mergeUnknowns;
 import static org.projectnessie.cel.common.types.UnknownT.unknownOf;
 import static org.projectnessie.cel.common.types.Util.isUnknownOrError;
 import static org.projectnessie.cel.interpreter.Activation.emptyActivation;
@@ -31,6 +36,7 @@ import static org.projectnessie.cel.interpreter.Coster.Cost.OneOne;
 import static org.projectnessie.cel.interpreter.Coster.Cost.estimateCost;
 import static org.projectnessie.cel.interpreter.Coster.costOf;
 
+import com.google.api.expr.v1alpha1.SourceInfo;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -39,19 +45,25 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.projectnessie.cel.common.operators.Operator;
+import org.projectnessie.cel.common.types.DoubleT;
 import org.projectnessie.cel.common.types.Err;
+import org.projectnessie.cel.common.types.IntT;
 import org.projectnessie.cel.common.types.IterableT;
 import org.projectnessie.cel.common.types.IteratorT;
 import org.projectnessie.cel.common.types.ListT;
 import org.projectnessie.cel.common.types.MapT;
+import org.projectnessie.cel.common.types.OptionalT;
 import org.projectnessie.cel.common.types.Overloads;
 import org.projectnessie.cel.common.types.StringT;
+import org.projectnessie.cel.common.types.TimestampT;
 import org.projectnessie.cel.common.types.ref.FieldType;
 import org.projectnessie.cel.common.types.ref.TypeAdapter;
+import org.projectnessie.cel.common.types.ref.TypeEnum;
 import org.projectnessie.cel.common.types.ref.TypeProvider;
 import org.projectnessie.cel.common.types.ref.Val;
 import org.projectnessie.cel.common.types.traits.Container;
 import org.projectnessie.cel.common.types.traits.FieldTester;
+import org.projectnessie.cel.common.types.traits.Indexer;
 import org.projectnessie.cel.common.types.traits.Lister;
 import org.projectnessie.cel.common.types.traits.Mapper;
 import org.projectnessie.cel.common.types.traits.Negater;
@@ -162,12 +174,11 @@ public interface Interpretable {
     /** Eval implements the Interpretable interface method. */
     @Override
     public Val eval(Activation ctx) {
-      if (ctx instanceof PartialActivation) {
-        for (AttributePattern pattern : ((PartialActivation) ctx).unknownAttributePatterns()) {
-          if (pattern.variableMatches(name)) {
-            return unknownOf(id);
-          }
-        }
+      if (ctx instanceof PartialActivation
+          && AttributePatternTrie.unknownAttributeTrie((PartialActivation) ctx)
+                  .matchingVariable(name)
+              != null) {
+        return unknownOf(id, newAttributeTrail(name));
       }
 
       ResolvedValue value = ctx.resolveName(name);
@@ -254,6 +265,183 @@ public interface Interpretable {
     }
   }
 
+  /**
+   * EvalOptSelect implements the optional field selection {@code operand.?field} and, for {@code
+   * optional == false}, a plain field selection on an optional value like {@code a.?b.field}.
+   *
+   * <p>Optional selections test the presence of the field and resolve it at most once, an absent
+   * field yields {@link OptionalT#OptionalNone} without creating an error value. Selections on an
+   * empty optional yield the empty optional.
+   */
+  final class EvalOptSelect extends AbstractEval implements InterpretableCall, Coster {
+    private final Interpretable op;
+    private final Interpretable fieldArg;
+    private final StringT field;
+    private final boolean optional;
+
+    EvalOptSelect(
+        long id, Interpretable op, Interpretable fieldArg, StringT field, boolean optional) {
+      super(id);
+      this.op = Objects.requireNonNull(op);
+      this.fieldArg = Objects.requireNonNull(fieldArg);
+      this.field = Objects.requireNonNull(field);
+      this.optional = optional;
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      return optionalGet(op.eval(ctx), field, optional);
+    }
+
+    /** Function implements the InterpretableCall interface method. */
+    @Override
+    public String function() {
+      return optional ? Operator.OptSelect.id : "_._";
+    }
+
+    /** OverloadID implements the InterpretableCall interface method. */
+    @Override
+    public String overloadID() {
+      return optional ? Overloads.OptionalSelect : Overloads.OptionalSelectField;
+    }
+
+    /** Args implements the InterpretableCall interface method. */
+    @Override
+    public Interpretable[] args() {
+      return new Interpretable[] {op, fieldArg};
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(op).add(OneOne);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalOptSelect{"
+          + "id="
+          + id
+          + ", op="
+          + op
+          + ", field="
+          + field
+          + ", optional="
+          + optional
+          + '}';
+    }
+  }
+
+  /**
+   * EvalOptIndex implements the optional index operation {@code operand[?index]} and, for {@code
+   * optional == false}, a plain index operation on an optional value like {@code a.?b[index]}.
+   */
+  final class EvalOptIndex extends AbstractEvalLhsRhs implements InterpretableCall {
+    private final boolean optional;
+
+    EvalOptIndex(long id, Interpretable op, Interpretable index, boolean optional) {
+      super(id, op, index);
+      this.optional = optional;
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      Val target = lhs.eval(ctx);
+      if (isUnknownOrError(target)) {
+        return target;
+      }
+      Val index = rhs.eval(ctx);
+      if (isUnknownOrError(index)) {
+        return index;
+      }
+      return optionalGet(target, index, optional);
+    }
+
+    /** Function implements the InterpretableCall interface method. */
+    @Override
+    public String function() {
+      return optional ? Operator.OptIndex.id : Operator.Index.id;
+    }
+
+    /** OverloadID implements the InterpretableCall interface method. */
+    @Override
+    public String overloadID() {
+      return optional ? Overloads.OptionalIndex : Overloads.OptionalIndexValue;
+    }
+
+    /** Args implements the InterpretableCall interface method. */
+    @Override
+    public Interpretable[] args() {
+      return new Interpretable[] {lhs, rhs};
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(lhs).add(estimateCost(rhs)).add(OneOne);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalOptIndex{"
+          + "id="
+          + id
+          + ", lhs="
+          + lhs
+          + ", rhs="
+          + rhs
+          + ", optional="
+          + optional
+          + '}';
+    }
+  }
+
+  /**
+   * OptionalGet resolves the given key of the given target, unwrapping an optional target first.
+   * For {@code optional == true} an absent key yields {@link OptionalT#OptionalNone}, otherwise the
+   * plain index operation is applied and its result is wrapped into an optional value.
+   */
+  static Val optionalGet(Val target, Val key, boolean optional) {
+    if (target instanceof OptionalT) {
+      OptionalT opt = (OptionalT) target;
+      if (!opt.hasValue()) {
+        return opt;
+      }
+      target = opt.getValue();
+    }
+    if (isUnknownOrError(target)) {
+      return target;
+    }
+    if (optional) {
+      if (target instanceof Mapper) {
+        Val v = ((Mapper) target).find(key);
+        if (v == null) {
+          return OptionalNone;
+        }
+        return isUnknownOrError(v) ? v : optionalOf(v);
+      }
+      if (target instanceof Lister) {
+        if (key.type().typeEnum() == TypeEnum.Int) {
+          long i = key.intValue();
+          if (i < 0 || i >= ((Lister) target).size().intValue()) {
+            return OptionalNone;
+          }
+        }
+      } else if (target instanceof FieldTester) {
+        if (((FieldTester) target).isSet(key) != True) {
+          return OptionalNone;
+        }
+      }
+    }
+    if (!(target instanceof Indexer)) {
+      return noSuchOverload(target, optional ? Operator.OptIndex.id : Operator.Index.id, key);
+    }
+    Val v = ((Indexer) target).get(key);
+    return isUnknownOrError(v) ? v : optionalOf(v);
+  }
+
   /** NewConstValue creates a new constant valued Interpretable. */
   static InterpretableConst newConstValue(long id, Val val) {
     return new EvalConst(id, val);
@@ -340,8 +528,15 @@ public interface Interpretable {
       if (lVal == True) {
         return True;
       }
+      return apply(lVal, rhs.eval(ctx));
+    }
+
+    /**
+     * Apply combines the values of both operands, of which the left-hand side did not
+     * short-circuit.
+     */
+    static Val apply(Val lVal, Val rVal) {
       // short-circuit on rhs.
-      Val rVal = rhs.eval(ctx);
       if (rVal == True) {
         return True;
       }
@@ -349,10 +544,9 @@ public interface Interpretable {
       if (lVal == False && rVal == False) {
         return False;
       }
-      // TODO: return both values as a set if both are unknown or error.
-      // prefer left unknown to right unknown.
+      // prefer left unknown to right unknown, merge both if both are unknown.
       if (isUnknown(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknown(rVal)) {
         return rVal;
@@ -393,8 +587,15 @@ public interface Interpretable {
       if (lVal == False) {
         return False;
       }
+      return apply(lVal, rhs.eval(ctx));
+    }
+
+    /**
+     * Apply combines the values of both operands, of which the left-hand side did not
+     * short-circuit.
+     */
+    static Val apply(Val lVal, Val rVal) {
       // short-circuit on rhs.
-      Val rVal = rhs.eval(ctx);
       if (rVal == False) {
         return False;
       }
@@ -402,10 +603,9 @@ public interface Interpretable {
       if (lVal == True && rVal == True) {
         return True;
       }
-      // TODO: return both values as a set if both are unknown or error.
-      // prefer left unknown to right unknown.
+      // prefer left unknown to right unknown, merge both if both are unknown.
       if (isUnknown(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknown(rVal)) {
         return rVal;
@@ -438,6 +638,359 @@ public interface Interpretable {
     return costOf(l.min, l.max + r.max + 1);
   }
 
+  /**
+   * evalReorderedLogical evaluates a logical and / or with the operand first, whose rank is lower,
+   * where the rank of an operand is its estimated cost divided by the probability that it
+   * short-circuits the operation. Since the logical operators are commutative, evaluating the
+   * operands in either order yields the same result. If no operand short-circuits, the values of
+   * both operands are combined in the planned order, so errors and unknowns are reported as for
+   * {@link EvalAnd} and {@link EvalOr}.
+   *
+   * <p>Without adaptation, both operands are assumed to short-circuit with the same probability
+   * and the operand with the lower estimated cost is evaluated first. With adaptation, the
+   * probabilities are observed during the evaluations and the order is revised every {@link
+   * #AdaptInterval} evaluations. The counters are deliberately not synchronized, a lost update only
+   * affects the order of the evaluations, not their result.
+   */
+  final class EvalReorderedLogical extends AbstractEvalLhsRhs {
+    static final int AdaptInterval = 256;
+    static final long DecayThreshold = 1L << 20;
+
+    final boolean and;
+    private final boolean adaptive;
+    private final double lhsCost;
+    private final double rhsCost;
+    private volatile boolean swapped;
+    private long lhsEvals;
+    private long lhsHits;
+    private long rhsEvals;
+    private long rhsHits;
+    private int untilAdapt = AdaptInterval;
+
+    EvalReorderedLogical(
+        long id, boolean and, Interpretable lhs, Interpretable rhs, boolean adaptive) {
+      super(id, lhs, rhs);
+      this.and = and;
+      this.adaptive = adaptive;
+      this.lhsCost = meanCost(lhs);
+      this.rhsCost = meanCost(rhs);
+      this.swapped = rhsCost < lhsCost;
+    }
+
+    /** Swapped returns whether the right-hand side is currently evaluated first. */
+    boolean swapped() {
+      return swapped;
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      Val shortCircuit = and ? False : True;
+      boolean sw = swapped;
+      Val first = (sw ? rhs : lhs).eval(ctx);
+      if (first == shortCircuit) {
+        observe(sw, true, false);
+        return shortCircuit;
+      }
+      Val second = (sw ? lhs : rhs).eval(ctx);
+      observe(sw, false, second == shortCircuit);
+      Val lVal = sw ? second : first;
+      Val rVal = sw ? first : second;
+      // The left-hand side may still short-circuit, if it has been evaluated second.
+      if (lVal == shortCircuit) {
+        return shortCircuit;
+      }
+      return and ? EvalAnd.apply(lVal, rVal) : EvalOr.apply(lVal, rVal);
+    }
+
+    private void observe(boolean sw, boolean firstHit, boolean secondHit) {
+      if (!adaptive) {
+        return;
+      }
+      if (sw) {
+        rhsEvals++;
+        if (firstHit) {
+          rhsHits++;
+        } else {
+          lhsEvals++;
+          if (secondHit) {
+            lhsHits++;
+          }
+        }
+      } else {
+        lhsEvals++;
+        if (firstHit) {
+          lhsHits++;
+        } else {
+          rhsEvals++;
+          if (secondHit) {
+            rhsHits++;
+          }
+        }
+      }
+      if (--untilAdapt <= 0) {
+        adapt();
+      }
+    }
+
+    private void adapt() {
+      untilAdapt = AdaptInterval;
+      // Laplace smoothing, so that an operand, which has not been evaluated yet, is assumed to
+      // short-circuit half of the time.
+      double lhsRank = lhsCost * (lhsEvals + 2) / (lhsHits + 1);
+      double rhsRank = rhsCost * (rhsEvals + 2) / (rhsHits + 1);
+      if (rhsRank < lhsRank) {
+        swapped = true;
+      } else if (lhsRank < rhsRank) {
+        swapped = false;
+      }
+      // Decay the observations, so that the order follows changes in the inputs.
+      if (lhsEvals > DecayThreshold || rhsEvals > DecayThreshold) {
+        lhsEvals >>= 1;
+        lhsHits >>= 1;
+        rhsEvals >>= 1;
+        rhsHits >>= 1;
+      }
+    }
+
+    static double meanCost(Interpretable i) {
+      Cost c = estimateCost(i);
+      return 1d + c.min / 2d + c.max / 2d;
+    }
+
+    /**
+     * Cost implements the Coster interface method. The minimum possible cost incurs when either
+     * operand is sufficient in determining the evaluation result.
+     */
+    @Override
+    public Cost cost() {
+      Cost l = estimateCost(lhs);
+      Cost r = estimateCost(rhs);
+      return costOf(Math.min(l.min, r.min), l.max + r.max + 1);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalReorderedLogical{"
+          + "id="
+          + id
+          + ", and="
+          + and
+          + ", adaptive="
+          + adaptive
+          + ", swapped="
+          + swapped
+          + ", lhs="
+          + lhs
+          + ", rhs="
+          + rhs
+          + '}';
+    }
+  }
+
+  /**
+   * evalLogicalChain evaluates nested logical and / or operations of the same operator, such as
+   * {@code a && b && c}, as a single node over an array of operands instead of recursing through
+   * the nested binary nodes.
+   *
+   * <p>The result is the same as the one of the nested nodes: an operand, which short-circuits the
+   * operation, determines the result. Otherwise, the values of the operands are combined in the
+   * shape of the original tree of binary operations as by {@link EvalAnd} and {@link EvalOr}, so
+   * errors and unknowns are reported the same way. The shape is kept as the number of binary
+   * operations, which complete after each operand in a post-order traversal of the tree.
+   *
+   * <p>The operands may be evaluated in a different order than planned, see {@link
+   * #reordered(boolean)} and {@link EvalReorderedLogical}.
+   */
+  final class EvalLogicalChain extends AbstractEval implements Coster {
+    final boolean and;
+    final Interpretable[] operands;
+    private final int[] reduceAfter;
+    private final boolean adaptive;
+    private final double[] costs;
+    private final long[] evals;
+    private final long[] hits;
+    private volatile int[] order;
+    private int untilAdapt = EvalReorderedLogical.AdaptInterval;
+
+    private EvalLogicalChain(
+        long id,
+        boolean and,
+        Interpretable[] operands,
+        int[] reduceAfter,
+        boolean reorder,
+        boolean adaptive) {
+      super(id);
+      this.and = and;
+      this.operands = operands;
+      this.reduceAfter = reduceAfter;
+      this.adaptive = adaptive;
+      if (reorder) {
+        costs = new double[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+          costs[i] = EvalReorderedLogical.meanCost(operands[i]);
+        }
+        order = rankedOrder(null, null);
+      } else {
+        costs = null;
+      }
+      evals = adaptive ? new long[operands.length] : null;
+      hits = adaptive ? new long[operands.length] : null;
+    }
+
+    /**
+     * NewLogical returns the node for a logical and / or operation over the given operands, where
+     * reduceAfter holds the number of binary operations, which complete after each operand in a
+     * post-order traversal of the original tree.
+     */
+    static Interpretable newLogical(
+        long id, boolean and, Interpretable[] operands, int[] reduceAfter) {
+      if (operands.length == 2) {
+        return and
+            ? new EvalAnd(id, operands[0], operands[1])
+            : new EvalOr(id, operands[0], operands[1]);
+      }
+      return new EvalLogicalChain(id, and, operands, reduceAfter, false, false);
+    }
+
+    /**
+     * Reordered returns a copy of this node, which evaluates the operands with the lower rank
+     * first, where the rank of an operand is its estimated cost divided by the probability that it
+     * short-circuits the operation. If adaptive, the probabilities are observed during the
+     * evaluations and the order is revised periodically.
+     */
+    EvalLogicalChain reordered(boolean adaptive) {
+      return new EvalLogicalChain(id, and, operands, reduceAfter, true, adaptive);
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      Val shortCircuit = and ? False : True;
+      Val identity = and ? True : False;
+      int[] ord = order;
+      // Values of the operands in the planned order, only allocated if an operand is not the
+      // identity of the operation.
+      Val[] values = null;
+      for (int k = 0; k < operands.length; k++) {
+        int i = ord != null ? ord[k] : k;
+        Val v = operands[i].eval(ctx);
+        if (v == shortCircuit) {
+          observe(i, true);
+          return shortCircuit;
+        }
+        observe(i, false);
+        if (v != identity) {
+          if (values == null) {
+            values = new Val[operands.length];
+          }
+          values[i] = v;
+        }
+      }
+      if (values == null) {
+        return identity;
+      }
+      return combine(values, identity);
+    }
+
+    /** combine applies the binary operations in the shape of the original tree. */
+    private Val combine(Val[] values, Val identity) {
+      Val[] stack = new Val[values.length];
+      int sp = 0;
+      for (int i = 0; i < values.length; i++) {
+        stack[sp++] = values[i] != null ? values[i] : identity;
+        for (int n = reduceAfter[i]; n > 0; n--) {
+          Val rVal = stack[--sp];
+          Val lVal = stack[--sp];
+          stack[sp++] = and ? EvalAnd.apply(lVal, rVal) : EvalOr.apply(lVal, rVal);
+        }
+      }
+      return stack[0];
+    }
+
+    private void observe(int i, boolean hit) {
+      if (!adaptive) {
+        return;
+      }
+      evals[i]++;
+      if (hit) {
+        hits[i]++;
+      }
+      if (hit || i == order[order.length - 1]) {
+        if (--untilAdapt <= 0) {
+          untilAdapt = EvalReorderedLogical.AdaptInterval;
+          order = rankedOrder(evals, hits);
+          // Decay the observations, so that the order follows changes in the inputs.
+          for (int j = 0; j < operands.length; j++) {
+            if (evals[j] > EvalReorderedLogical.DecayThreshold) {
+              for (int d = 0; d < operands.length; d++) {
+                evals[d] >>= 1;
+                hits[d] >>= 1;
+              }
+              break;
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * rankedOrder returns the indexes of the operands sorted by their rank, keeping the planned
+     * order of operands with the same rank.
+     */
+    private int[] rankedOrder(long[] evals, long[] hits) {
+      int n = operands.length;
+      double[] ranks = new double[n];
+      int[] ord = new int[n];
+      for (int i = 0; i < n; i++) {
+        // Laplace smoothing, so that an operand, which has not been evaluated yet, is assumed to
+        // short-circuit half of the time.
+        ranks[i] = evals != null ? costs[i] * (evals[i] + 2) / (hits[i] + 1) : costs[i];
+        ord[i] = i;
+      }
+      for (int i = 1; i < n; i++) {
+        int o = ord[i];
+        int j = i - 1;
+        while (j >= 0 && ranks[ord[j]] > ranks[o]) {
+          ord[j + 1] = ord[j];
+          j--;
+        }
+        ord[j + 1] = o;
+      }
+      return ord;
+    }
+
+    /**
+     * Cost implements the Coster interface method. The minimum possible cost incurs when the
+     * operand evaluated first is sufficient in determining the evaluation result, the maximum cost
+     * includes the cost of each binary operation.
+     */
+    @Override
+    public Cost cost() {
+      int[] ord = order;
+      long min = estimateCost(operands[ord != null ? ord[0] : 0]).min;
+      long max = operands.length - 1;
+      for (Interpretable operand : operands) {
+        max += estimateCost(operand).max;
+      }
+      return costOf(min, max);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalLogicalChain{"
+          + "id="
+          + id
+          + ", and="
+          + and
+          + ", order="
+          + Arrays.toString(order)
+          + ", operands="
+          + Arrays.toString(operands)
+          + '}';
+    }
+  }
+
   final class EvalEq extends AbstractEvalLhsRhs implements InterpretableCall {
     EvalEq(long id, Interpretable lhs, Interpretable rhs) {
       super(id, lhs, rhs);
@@ -446,11 +999,14 @@ public interface Interpretable {
     /** Eval implements the Interpretable interface method. */
     @Override
     public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
-      Val lVal = lhs.eval(ctx);
-      Val rVal = rhs.eval(ctx);
+      return apply(lhs.eval(ctx), rhs.eval(ctx));
+    }
+
+    /** Apply compares the evaluated operands for equality. */
+    static Val apply(Val lVal, Val rVal) {
       // Early return if any argument to the function is unknown or error.
       if (isUnknownOrError(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknownOrError(rVal)) {
         return rVal;
@@ -496,11 +1052,14 @@ public interface Interpretable {
     /** Eval implements the Interpretable interface method. */
     @Override
     public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
-      Val lVal = lhs.eval(ctx);
-      Val rVal = rhs.eval(ctx);
+      return apply(lhs.eval(ctx), rhs.eval(ctx));
+    }
+
+    /** Apply compares the evaluated operands for inequality. */
+    static Val apply(Val lVal, Val rVal) {
       // Early return if any argument to the function is unknown or error.
       if (isUnknownOrError(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknownOrError(rVal)) {
         return rVal;
@@ -712,11 +1271,14 @@ public interface Interpretable {
     /** Eval implements the Interpretable interface method. */
     @Override
     public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
-      Val lVal = lhs.eval(ctx);
-      Val rVal = rhs.eval(ctx);
+      return apply(lhs.eval(ctx), rhs.eval(ctx));
+    }
+
+    /** Apply invokes the function with the evaluated operands. */
+    Val apply(Val lVal, Val rVal) {
       // Early return if any argument to the function is unknown or error.
       if (isUnknownOrError(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknownOrError(rVal)) {
         return rVal;
@@ -781,26 +1343,252 @@ public interface Interpretable {
     }
   }
 
-  final class EvalVarArgs extends AbstractEval implements Coster, InterpretableCall {
-    private final String function;
+  /**
+   * AbstractEvalTypedBinary is the base of the binary operators, which are specialized for operands
+   * the type-checker proved to be of the same int, double, string or timestamp type.
+   *
+   * <p>The specialized operators invoke the operation on the final value class directly instead of
+   * checking the operand traits and dispatching through the overload. Operands of any other class,
+   * including unknowns and errors, are passed to the generic implementation of the operator.
+   */
+  abstract class AbstractEvalTypedBinary extends AbstractEvalLhsRhs implements InterpretableCall {
+    protected final Operator operator;
     private final String overload;
-    private final Interpretable[] args;
-    private final Trait trait;
-    private final FunctionOp impl;
+    private final BinaryOp generic;
 
-    public EvalVarArgs(
+    AbstractEvalTypedBinary(
         long id,
-        String function,
+        Operator operator,
         String overload,
-        Interpretable[] args,
-        Trait trait,
-        FunctionOp impl) {
-      super(id);
-      this.function = Objects.requireNonNull(function);
+        Interpretable lhs,
+        Interpretable rhs,
+        BinaryOp generic) {
+      super(id, lhs, rhs);
+      this.operator = Objects.requireNonNull(operator);
       this.overload = Objects.requireNonNull(overload);
-      this.args = Objects.requireNonNull(args);
-      this.trait = trait;
-      this.impl = impl;
+      this.generic = Objects.requireNonNull(generic);
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      return apply(lhs.eval(ctx), rhs.eval(ctx));
+    }
+
+    /** Apply evaluates the operator for the values of both operands. */
+    abstract Val apply(Val lVal, Val rVal);
+
+    /** Generic evaluates the operator via its generic implementation. */
+    final Val generic(Val lVal, Val rVal) {
+      return generic.invoke(lVal, rVal);
+    }
+
+    /** Compared maps the result of a three-way comparison to the result of the operator. */
+    final Val compared(int cmp) {
+      switch (operator) {
+        case Less:
+          return boolOf(cmp < 0);
+        case LessEquals:
+          return boolOf(cmp <= 0);
+        case Greater:
+          return boolOf(cmp > 0);
+        case GreaterEquals:
+          return boolOf(cmp >= 0);
+        case Equals:
+          return boolOf(cmp == 0);
+        case NotEquals:
+          return boolOf(cmp != 0);
+        default:
+          throw new IllegalStateException("not a comparison: " + operator);
+      }
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return calExhaustiveBinaryOpsCost(lhs, rhs);
+    }
+
+    /** Function implements the InterpretableCall interface method. */
+    @Override
+    public String function() {
+      return operator.id;
+    }
+
+    /** OverloadID implements the InterpretableCall interface method. */
+    @Override
+    public String overloadID() {
+      return overload;
+    }
+
+    /** Args implements the InterpretableCall interface method. */
+    @Override
+    public Interpretable[] args() {
+      return new Interpretable[] {lhs, rhs};
+    }
+
+    @Override
+    public String toString() {
+      return getClass().getSimpleName()
+          + "{"
+          + "id="
+          + id
+          + ", operator="
+          + operator
+          + ", lhs="
+          + lhs
+          + ", rhs="
+          + rhs
+          + '}';
+    }
+  }
+
+  /** EvalIntBinary implements the arithmetic, comparison and equality operators over ints. */
+  final class EvalIntBinary extends AbstractEvalTypedBinary {
+    EvalIntBinary(
+        long id,
+        Operator operator,
+        String overload,
+        Interpretable lhs,
+        Interpretable rhs,
+        BinaryOp generic) {
+      super(id, operator, overload, lhs, rhs, generic);
+    }
+
+    /** Apply implements the AbstractEvalTypedBinary method. */
+    @Override
+    Val apply(Val lVal, Val rVal) {
+      if (!(lVal instanceof IntT l) || !(rVal instanceof IntT)) {
+        return generic(lVal, rVal);
+      }
+      switch (operator) {
+        case Add:
+          return l.add(rVal);
+        case Subtract:
+          return l.subtract(rVal);
+        case Multiply:
+          return l.multiply(rVal);
+        case Divide:
+          return l.divide(rVal);
+        case Modulo:
+          return l.modulo(rVal);
+        default:
+          return compared(Long.compare(l.intValue(), rVal.intValue()));
+      }
+    }
+  }
+
+  /** EvalDoubleBinary implements the arithmetic and comparison operators over doubles. */
+  final class EvalDoubleBinary extends AbstractEvalTypedBinary {
+    EvalDoubleBinary(
+        long id,
+        Operator operator,
+        String overload,
+        Interpretable lhs,
+        Interpretable rhs,
+        BinaryOp generic) {
+      super(id, operator, overload, lhs, rhs, generic);
+    }
+
+    /** Apply implements the AbstractEvalTypedBinary method. */
+    @Override
+    Val apply(Val lVal, Val rVal) {
+      if (!(lVal instanceof DoubleT l) || !(rVal instanceof DoubleT)) {
+        return generic(lVal, rVal);
+      }
+      switch (operator) {
+        case Add:
+          return l.add(rVal);
+        case Subtract:
+          return l.subtract(rVal);
+        case Multiply:
+          return l.multiply(rVal);
+        case Divide:
+          return l.divide(rVal);
+        default:
+          double ld = l.doubleValue();
+          double rd = rVal.doubleValue();
+          // Same as DoubleT.compare(), which treats -0.0d and 0.0d as equal.
+          return compared(ld == rd ? 0 : Double.compare(ld, rd));
+      }
+    }
+  }
+
+  /** EvalStringBinary implements the concatenation, comparison and equality operators. */
+  final class EvalStringBinary extends AbstractEvalTypedBinary {
+    EvalStringBinary(
+        long id,
+        Operator operator,
+        String overload,
+        Interpretable lhs,
+        Interpretable rhs,
+        BinaryOp generic) {
+      super(id, operator, overload, lhs, rhs, generic);
+    }
+
+    /** Apply implements the AbstractEvalTypedBinary method. */
+    @Override
+    Val apply(Val lVal, Val rVal) {
+      if (!(lVal instanceof StringT l) || !(rVal instanceof StringT)) {
+        return generic(lVal, rVal);
+      }
+      String ls = (String) l.value();
+      String rs = (String) rVal.value();
+      switch (operator) {
+        case Add:
+          return l.add(rVal);
+        case Equals:
+          return boolOf(ls.equals(rs));
+        case NotEquals:
+          return boolOf(!ls.equals(rs));
+        default:
+          return compared(ls.compareTo(rs));
+      }
+    }
+  }
+
+  /** EvalTimestampBinary implements the comparison operators over timestamps. */
+  final class EvalTimestampBinary extends AbstractEvalTypedBinary {
+    EvalTimestampBinary(
+        long id,
+        Operator operator,
+        String overload,
+        Interpretable lhs,
+        Interpretable rhs,
+        BinaryOp generic) {
+      super(id, operator, overload, lhs, rhs, generic);
+    }
+
+    /** Apply implements the AbstractEvalTypedBinary method. */
+    @Override
+    Val apply(Val lVal, Val rVal) {
+      if (!(lVal instanceof TimestampT l) || !(rVal instanceof TimestampT)) {
+        return generic(lVal, rVal);
+      }
+      return compared((int) l.compare(rVal).intValue());
+    }
+  }
+
+  final class EvalVarArgs extends AbstractEval implements Coster, InterpretableCall {
+    private final String function;
+    private final String overload;
+    private final Interpretable[] args;
+    private final Trait trait;
+    private final FunctionOp impl;
+
+    public EvalVarArgs(
+        long id,
+        String function,
+        String overload,
+        Interpretable[] args,
+        Trait trait,
+        FunctionOp impl) {
+      super(id);
+      this.function = Objects.requireNonNull(function);
+      this.overload = Objects.requireNonNull(overload);
+      this.args = Objects.requireNonNull(args);
+      this.trait = trait;
+      this.impl = impl;
     }
 
     /** Eval implements the Interpretable interface method. */
@@ -1093,8 +1881,12 @@ public interface Interpretable {
         iterCtx2.name = iterVar2;
       }
       IteratorT it = ((IterableT) foldRange).iterator();
+      CancellationScope cancellation = CancellationScope.current();
       long index = 0L;
       while (it.hasNext() == True) {
+        if (cancellation != null && (index & CancellationScope.CheckIntervalMask) == 0L) {
+          cancellation.check();
+        }
         // Modify the iter var in the fold activation.
         Val next = it.next();
         Activation loopCtx = iterCtx;
@@ -1232,8 +2024,12 @@ public interface Interpretable {
       }
       List<Val> values = new ArrayList<>(listCapacity(foldRange));
       IteratorT it = ((IterableT) foldRange).iterator();
+      CancellationScope cancellation = CancellationScope.current();
       long index = 0L;
       while (it.hasNext() == True) {
+        if (cancellation != null && (index & CancellationScope.CheckIntervalMask) == 0L) {
+          cancellation.check();
+        }
         Val next = it.next();
         Activation loopCtx = iterCtx;
         if (iterCtx2 != null) {
@@ -1367,8 +2163,12 @@ public interface Interpretable {
       }
       Map<Val, Val> values = new HashMap<>(mapCapacity(foldRange));
       IteratorT it = ((IterableT) foldRange).iterator();
+      CancellationScope cancellation = CancellationScope.current();
       long index = 0L;
       while (it.hasNext() == True) {
+        if (cancellation != null && (index & CancellationScope.CheckIntervalMask) == 0L) {
+          cancellation.check();
+        }
         Val next = it.next();
         Val key;
         Activation loopCtx = iterCtx;
@@ -1917,6 +2717,339 @@ public interface Interpretable {
     }
   }
 
+  /** evalProfile records the evaluation statistics of the wrapped Interpretable. */
+  final class EvalProfile implements Interpretable, Coster {
+    private final Interpretable i;
+    private final EvalProfiler profiler;
+    private final EvalProfiler.NodeProfile node;
+
+    EvalProfile(Interpretable i, EvalProfiler profiler, SourceInfo info) {
+      this.i = Objects.requireNonNull(i);
+      this.profiler = Objects.requireNonNull(profiler);
+      this.node = profiler.node(info, i);
+    }
+
+    @Override
+    public long id() {
+      return i.id();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      return profiler.eval(node, i, ctx);
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(i);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalProfile{" + i + '}';
+    }
+  }
+
+  /** evalMemo returns the memoized value of an Interpretable, see EvalMemo. */
+  final class EvalMemoize implements Interpretable, Coster {
+    private final Interpretable i;
+    private final EvalMemo memo;
+
+    EvalMemoize(Interpretable i, EvalMemo memo) {
+      this.i = Objects.requireNonNull(i);
+      this.memo = Objects.requireNonNull(memo);
+    }
+
+    @Override
+    public long id() {
+      return i.id();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      return memo.eval(i, ctx);
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(i);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalMemoize{" + i + '}';
+    }
+  }
+
+  /**
+   * evalMemoRoot evaluates the root Interpretable of a program with an activation, which records
+   * the names read by the memoized nodes.
+   */
+  final class EvalMemoRoot implements Interpretable, Coster {
+    private final Interpretable i;
+    private final EvalMemo memo;
+
+    EvalMemoRoot(Interpretable i, EvalMemo memo) {
+      this.i = Objects.requireNonNull(i);
+      this.memo = Objects.requireNonNull(memo);
+    }
+
+    @Override
+    public long id() {
+      return i.id();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      return memo.evalRoot(i, ctx);
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(i);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalMemoRoot{" + i + '}';
+    }
+  }
+
+  /**
+   * evalProfileAttr records the evaluation statistics of an instAttr Interpretable.
+   *
+   * <p>Like evalWatchAttr, qualifiers may be added at a later stage in program planning, so the
+   * wrapper implements the instAttr interface by proxy.
+   */
+  final class EvalProfileAttr implements Coster, InterpretableAttribute, Attribute {
+    private final InterpretableAttribute attr;
+    private final EvalProfiler profiler;
+    private final EvalProfiler.NodeProfile node;
+
+    EvalProfileAttr(InterpretableAttribute attr, EvalProfiler profiler, SourceInfo info) {
+      this.attr = Objects.requireNonNull(attr);
+      this.profiler = Objects.requireNonNull(profiler);
+      this.node = profiler.node(info, attr);
+    }
+
+    @Override
+    public long id() {
+      return attr.id();
+    }
+
+    /** AddQualifier proxies the Attribute.AddQualifier method. */
+    @Override
+    public Attribute addQualifier(AttributeFactory.Qualifier q) {
+      attr.addQualifier(q);
+      return this;
+    }
+
+    @Override
+    public Attribute attr() {
+      return attr.attr();
+    }
+
+    @Override
+    public TypeAdapter adapter() {
+      return attr.adapter();
+    }
+
+    @Override
+    public Object qualify(Activation vars, Object obj) {
+      return attr.qualify(vars, obj);
+    }
+
+    @Override
+    public Object resolve(Activation act) {
+      return attr.resolve(act);
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(attr);
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      return profiler.eval(node, attr, ctx);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalProfileAttr{" + attr + '}';
+    }
+  }
+
+  /** evalCost charges a static cost for each evaluation of the wrapped Interpretable. */
+  final class EvalCost implements Interpretable, Coster {
+    private final Interpretable i;
+    private final CostTracker tracker;
+    private final long cost;
+
+    EvalCost(Interpretable i, CostTracker tracker, long cost) {
+      this.i = Objects.requireNonNull(i);
+      this.tracker = Objects.requireNonNull(tracker);
+      this.cost = cost;
+    }
+
+    @Override
+    public long id() {
+      return i.id();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      Val val = i.eval(ctx);
+      tracker.add(cost);
+      return val;
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(i);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalCost{" + i + ", cost=" + cost + '}';
+    }
+  }
+
+  /**
+   * evalCostCall charges the cost of a function call, which may depend on the result of the call,
+   * for each evaluation of the wrapped InterpretableCall.
+   */
+  final class EvalCostCall implements InterpretableCall, Coster {
+    private final InterpretableCall call;
+    private final CostTracker tracker;
+
+    EvalCostCall(InterpretableCall call, CostTracker tracker) {
+      this.call = Objects.requireNonNull(call);
+      this.tracker = Objects.requireNonNull(tracker);
+    }
+
+    @Override
+    public long id() {
+      return call.id();
+    }
+
+    @Override
+    public String function() {
+      return call.function();
+    }
+
+    @Override
+    public String overloadID() {
+      return call.overloadID();
+    }
+
+    @Override
+    public Interpretable[] args() {
+      return call.args();
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      Val val = call.eval(ctx);
+      tracker.add(tracker.callCost(call, val));
+      return val;
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(call);
+    }
+
+    @Override
+    public String toString() {
+      return "EvalCostCall{" + call + '}';
+    }
+  }
+
+  /**
+   * evalCostAttr charges the cost of resolving an attribute, one for the attribute itself plus one
+   * for each of its qualifiers, for each evaluation of the wrapped InterpretableAttribute.
+   *
+   * <p>Like evalWatchAttr, qualifiers may be added at a later stage in program planning, so the
+   * wrapper implements the instAttr interface by proxy.
+   */
+  final class EvalCostAttr implements Coster, InterpretableAttribute, Attribute {
+    private final InterpretableAttribute attr;
+    private final CostTracker tracker;
+    private long cost;
+
+    EvalCostAttr(InterpretableAttribute attr, CostTracker tracker) {
+      this.attr = Objects.requireNonNull(attr);
+      this.tracker = Objects.requireNonNull(tracker);
+      // Conditionals have no direct cost, only the condition and the chosen branch are charged.
+      this.cost = attr.attr() instanceof ConditionalAttribute ? 0L : 1L;
+    }
+
+    @Override
+    public long id() {
+      return attr.id();
+    }
+
+    /** AddQualifier proxies the Attribute.AddQualifier method and charges the qualification. */
+    @Override
+    public Attribute addQualifier(AttributeFactory.Qualifier q) {
+      attr.addQualifier(q);
+      cost++;
+      return this;
+    }
+
+    @Override
+    public Attribute attr() {
+      return attr.attr();
+    }
+
+    @Override
+    public TypeAdapter adapter() {
+      return attr.adapter();
+    }
+
+    @Override
+    public Object qualify(Activation vars, Object obj) {
+      return attr.qualify(vars, obj);
+    }
+
+    @Override
+    public Object resolve(Activation act) {
+      return attr.resolve(act);
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(attr);
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(org.projectnessie.cel.interpreter.Activation ctx) {
+      Val val = attr.eval(ctx);
+      tracker.add(cost);
+      return val;
+    }
+
+    @Override
+    public String toString() {
+      return "EvalCostAttr{" + attr + '}';
+    }
+  }
+
   /** evalExhaustiveOr is just like evalOr, but does not short-circuit argument evaluation. */
   final class EvalExhaustiveOr extends AbstractEvalLhsRhs {
     // TODO combine with EvalOr
@@ -1936,7 +3069,7 @@ public interface Interpretable {
         return False;
       }
       if (isUnknown(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknown(rVal)) {
         return rVal;
@@ -1980,7 +3113,7 @@ public interface Interpretable {
         return True;
       }
       if (isUnknown(lVal)) {
-        return lVal;
+        return mergeUnknowns(lVal, rVal);
       }
       if (isUnknown(rVal)) {
         return rVal;
@@ -2107,8 +3240,12 @@ public interface Interpretable {
         iterCtx2.name = iterVar2;
       }
       IteratorT it = ((IterableT) foldRange).iterator();
+      CancellationScope cancellation = CancellationScope.current();
       long index = 0L;
       while (it.hasNext() == True) {
+        if (cancellation != null && (index & CancellationScope.CheckIntervalMask) == 0L) {
+          cancellation.check();
+        }
         // Modify the iter var in the fold activation.
         Val next = it.next();
         Activation loopCtx = iterCtx;
@@ -2225,8 +3362,12 @@ public interface Interpretable {
       List<Val> values = new ArrayList<>(fold.listCapacity(foldRange));
       Val result = null;
       IteratorT it = ((IterableT) foldRange).iterator();
+      CancellationScope cancellation = CancellationScope.current();
       long index = 0L;
       while (it.hasNext() == True) {
+        if (cancellation != null && (index & CancellationScope.CheckIntervalMask) == 0L) {
+          cancellation.check();
+        }
         Val next = it.next();
         Activation loopCtx = iterCtx;
         if (iterCtx2 != null) {
@@ -2308,8 +3449,12 @@ public interface Interpretable {
       Map<Val, Val> values = new HashMap<>(fold.mapCapacity(foldRange));
       Val result = null;
       IteratorT it = ((IterableT) foldRange).iterator();
+      CancellationScope cancellation = CancellationScope.current();
       long index = 0L;
       while (it.hasNext() == True) {
+        if (cancellation != null && (index & CancellationScope.CheckIntervalMask) == 0L) {
+          cancellation.check();
+        }
         Val next = it.next();
         Val key;
         Activation loopCtx = iterCtx;
@@ -0,0 +1,478 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.common.types.DoubleT.doubleOf;
+import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.Types.boolOf;
+import static org.projectnessie.cel.interpreter.Coster.Cost.estimateCost;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+import org.projectnessie.cel.common.operators.Operator;
+import org.projectnessie.cel.common.types.BoolT;
+import org.projectnessie.cel.common.types.DoubleT;
+import org.projectnessie.cel.common.types.IntT;
+import org.projectnessie.cel.common.types.Overflow;
+import org.projectnessie.cel.common.types.Overflow.OverflowException;
+import org.projectnessie.cel.common.types.ref.Val;
+import org.projectnessie.cel.interpreter.Interpretable.AbstractEvalLhsRhs;
+import org.projectnessie.cel.interpreter.Interpretable.AbstractEvalTypedBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalAnd;
+import org.projectnessie.cel.interpreter.Interpretable.EvalDoubleBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalIntBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalOr;
+import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
+
+/**
+ * InterpretableCompiler compiles the int and double arithmetic, the comparisons and the logical
+ * operators of a checked program plan into trees of primitive evaluators.
+ *
+ * <p>The compiled code passes intermediate results as primitive {@code long}, {@code double} and
+ * {@code boolean} values instead of {@link Val} instances. Only the operators, which the planner
+ * specialized for the checked operand types, see {@link AbstractEvalTypedBinary}, and the logical
+ * operators combining them are compiled. All other nodes are evaluated as before and their values
+ * are unboxed by the compiled code.
+ *
+ * <p>Whenever the compiled code cannot produce the result of a node, for example for values of an
+ * unexpected type, unknowns, errors, overflows or divisions by zero, the operator of that node is
+ * applied to the values of its operands, which have already been evaluated. The resulting {@link
+ * Val} is passed on to the enclosing nodes via a {@link FallbackException}, which in turn apply
+ * their operators to it. This yields the exact same result as an uncompiled program and evaluates
+ * every operand only once.
+ *
+ * <p>A logical operator is only compiled if both of its operands are compiled, because evaluating
+ * two primitive comparisons is cheap in either order. Logical operators with other operands are
+ * left as they are, so that {@link InterpretableDecorator#decReorderLogical(boolean)}, which runs
+ * after the compiler, can still order their operands by cost.
+ */
+final class InterpretableCompiler {
+  private InterpretableCompiler() {}
+
+  /** IntCode evaluates an int expression to a primitive long. */
+  @FunctionalInterface
+  interface IntCode {
+    long eval(Activation activation);
+  }
+
+  /** DoubleCode evaluates a double expression to a primitive double. */
+  @FunctionalInterface
+  interface DoubleCode {
+    double eval(Activation activation);
+  }
+
+  /** BoolCode evaluates a bool expression to a primitive boolean. */
+  @FunctionalInterface
+  interface BoolCode {
+    boolean eval(Activation activation);
+  }
+
+  /**
+   * FallbackException carries the value of a node, for which the compiled code cannot produce a
+   * primitive result.
+   */
+  static final class FallbackException extends RuntimeException {
+    final Val value;
+
+    FallbackException(Val value) {
+      super("fallback", null, false, false);
+      this.value = value;
+    }
+  }
+
+  /**
+   * Compile replaces the given node with its compiled form, if it is a typed int or double operator
+   * or a logical operator over compiled nodes. Other nodes are returned as they are.
+   */
+  static Interpretable compile(Interpretable i) {
+    if (i instanceof EvalIntBinary) {
+      AbstractEvalTypedBinary op = (AbstractEvalTypedBinary) i;
+      if (isComparison(op)) {
+        return new EvalCompiledBool(i, compareInt(op));
+      }
+      return new EvalCompiledInt(i, intArithmetic(op));
+    }
+    if (i instanceof EvalDoubleBinary) {
+      AbstractEvalTypedBinary op = (AbstractEvalTypedBinary) i;
+      if (isComparison(op)) {
+        return new EvalCompiledBool(i, compareDouble(op));
+      }
+      return new EvalCompiledDouble(i, doubleArithmetic(op));
+    }
+    if (i instanceof EvalAnd || i instanceof EvalOr) {
+      AbstractEvalLhsRhs op = (AbstractEvalLhsRhs) i;
+      if (!(op.lhs instanceof EvalCompiledBool) || !(op.rhs instanceof EvalCompiledBool)) {
+        return i;
+      }
+      BoolCode lhs = ((EvalCompiledBool) op.lhs).code;
+      BoolCode rhs = ((EvalCompiledBool) op.rhs).code;
+      return new EvalCompiledBool(i, i instanceof EvalAnd ? and(op, lhs, rhs) : or(op, lhs, rhs));
+    }
+    return i;
+  }
+
+  private static boolean isComparison(AbstractEvalTypedBinary op) {
+    switch (op.operator) {
+      case Less:
+      case LessEquals:
+      case Greater:
+      case GreaterEquals:
+      case Equals:
+      case NotEquals:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /** Comparison maps the result of a three-way comparison to the result of the operator. */
+  private static IntPredicate comparison(Operator operator) {
+    switch (operator) {
+      case Less:
+        return cmp -> cmp < 0;
+      case LessEquals:
+        return cmp -> cmp <= 0;
+      case Greater:
+        return cmp -> cmp > 0;
+      case GreaterEquals:
+        return cmp -> cmp >= 0;
+      case Equals:
+        return cmp -> cmp == 0;
+      case NotEquals:
+        return cmp -> cmp != 0;
+      default:
+        throw new IllegalStateException("not a comparison: " + operator);
+    }
+  }
+
+  private static IntCode intArithmetic(AbstractEvalTypedBinary op) {
+    IntCode lhs = intCode(op.lhs);
+    IntCode rhs = intCode(op.rhs);
+    LongBinaryOperator f = intOperator(op.operator);
+    return a -> {
+      long l = intLhs(op, lhs, a);
+      long r = intRhs(op, l, rhs, a);
+      try {
+        return f.applyAsLong(l, r);
+      } catch (OverflowException | ArithmeticException e) {
+        // overflows and divisions by zero
+        throw fallback(op, intOf(l), intOf(r));
+      }
+    };
+  }
+
+  private static LongBinaryOperator intOperator(Operator operator) {
+    switch (operator) {
+      case Add:
+        return Overflow::addInt64Checked;
+      case Subtract:
+        return Overflow::subtractInt64Checked;
+      case Multiply:
+        return Overflow::multiplyInt64Checked;
+      case Divide:
+        return Overflow::divideInt64Checked;
+      case Modulo:
+        return Overflow::moduloInt64Checked;
+      default:
+        throw new IllegalStateException("not an int operator: " + operator);
+    }
+  }
+
+  private static BoolCode compareInt(AbstractEvalTypedBinary op) {
+    IntCode lhs = intCode(op.lhs);
+    IntCode rhs = intCode(op.rhs);
+    IntPredicate test = comparison(op.operator);
+    return a -> {
+      long l = intLhs(op, lhs, a);
+      return test.test(Long.compare(l, intRhs(op, l, rhs, a)));
+    };
+  }
+
+  private static DoubleCode doubleArithmetic(AbstractEvalTypedBinary op) {
+    DoubleCode lhs = doubleCode(op.lhs);
+    DoubleCode rhs = doubleCode(op.rhs);
+    DoubleBinaryOperator f = doubleOperator(op.operator);
+    return a -> {
+      double l = doubleLhs(op, lhs, a);
+      return f.applyAsDouble(l, doubleRhs(op, l, rhs, a));
+    };
+  }
+
+  private static DoubleBinaryOperator doubleOperator(Operator operator) {
+    switch (operator) {
+      case Add:
+        return (l, r) -> l + r;
+      case Subtract:
+        return (l, r) -> l - r;
+      case Multiply:
+        return (l, r) -> l * r;
+      case Divide:
+        return (l, r) -> l / r;
+      default:
+        throw new IllegalStateException("not a double operator: " + operator);
+    }
+  }
+
+  private static BoolCode compareDouble(AbstractEvalTypedBinary op) {
+    DoubleCode lhs = doubleCode(op.lhs);
+    DoubleCode rhs = doubleCode(op.rhs);
+    IntPredicate test = comparison(op.operator);
+    return a -> {
+      double l = doubleLhs(op, lhs, a);
+      return test.test(compareDoubles(l, doubleRhs(op, l, rhs, a)));
+    };
+  }
+
+  private static int compareDoubles(double l, double r) {
+    // Same as DoubleT.compare(), which treats -0.0d and 0.0d as equal and NaN as the greatest
+    // value.
+    return l == r ? 0 : Double.compare(l, r);
+  }
+
+  private static BoolCode and(AbstractEvalLhsRhs op, BoolCode lhs, BoolCode rhs) {
+    return a -> {
+      boolean l;
+      try {
+        l = lhs.eval(a);
+      } catch (FallbackException e) {
+        if (!(e.value instanceof BoolT)) {
+          throw new FallbackException(EvalAnd.apply(e.value, op.rhs.eval(a)));
+        }
+        l = e.value.booleanValue();
+      }
+      if (!l) {
+        return false;
+      }
+      try {
+        return rhs.eval(a);
+      } catch (FallbackException e) {
+        throw new FallbackException(EvalAnd.apply(True, e.value));
+      }
+    };
+  }
+
+  private static BoolCode or(AbstractEvalLhsRhs op, BoolCode lhs, BoolCode rhs) {
+    return a -> {
+      boolean l;
+      try {
+        l = lhs.eval(a);
+      } catch (FallbackException e) {
+        if (!(e.value instanceof BoolT)) {
+          throw new FallbackException(EvalOr.apply(e.value, op.rhs.eval(a)));
+        }
+        l = e.value.booleanValue();
+      }
+      if (l) {
+        return true;
+      }
+      try {
+        return rhs.eval(a);
+      } catch (FallbackException e) {
+        throw new FallbackException(EvalOr.apply(False, e.value));
+      }
+    };
+  }
+
+  /**
+   * IntLhs evaluates the left-hand side of the given operator. If it has no int value, the operator
+   * is applied to that value and the value of the right-hand side.
+   */
+  private static long intLhs(AbstractEvalTypedBinary op, IntCode lhs, Activation a) {
+    try {
+      return lhs.eval(a);
+    } catch (FallbackException e) {
+      if (e.value instanceof IntT) {
+        return e.value.intValue();
+      }
+      throw fallback(op, e.value, op.rhs.eval(a));
+    }
+  }
+
+  /**
+   * IntRhs evaluates the right-hand side of the given operator. If it has no int value, the
+   * operator is applied to the value of the left-hand side and that value.
+   */
+  private static long intRhs(AbstractEvalTypedBinary op, long l, IntCode rhs, Activation a) {
+    try {
+      return rhs.eval(a);
+    } catch (FallbackException e) {
+      if (e.value instanceof IntT) {
+        return e.value.intValue();
+      }
+      throw fallback(op, intOf(l), e.value);
+    }
+  }
+
+  /** DoubleLhs is the double variant of {@link #intLhs}. */
+  private static double doubleLhs(AbstractEvalTypedBinary op, DoubleCode lhs, Activation a) {
+    try {
+      return lhs.eval(a);
+    } catch (FallbackException e) {
+      if (e.value instanceof DoubleT) {
+        return e.value.doubleValue();
+      }
+      throw fallback(op, e.value, op.rhs.eval(a));
+    }
+  }
+
+  /** DoubleRhs is the double variant of {@link #intRhs}. */
+  private static double doubleRhs(
+      AbstractEvalTypedBinary op, double l, DoubleCode rhs, Activation a) {
+    try {
+      return rhs.eval(a);
+    } catch (FallbackException e) {
+      if (e.value instanceof DoubleT) {
+        return e.value.doubleValue();
+      }
+      throw fallback(op, doubleOf(l), e.value);
+    }
+  }
+
+  private static FallbackException fallback(AbstractEvalTypedBinary op, Val lVal, Val rVal) {
+    return new FallbackException(op.apply(lVal, rVal));
+  }
+
+  /** IntCode returns the code evaluating the given int operand. */
+  private static IntCode intCode(Interpretable i) {
+    if (i instanceof EvalCompiledInt) {
+      return ((EvalCompiledInt) i).code;
+    }
+    if (i instanceof InterpretableConst) {
+      Val v = ((InterpretableConst) i).value();
+      if (v instanceof IntT) {
+        long l = v.intValue();
+        return a -> l;
+      }
+    }
+    return a -> {
+      Val v = i.eval(a);
+      if (v instanceof IntT) {
+        return v.intValue();
+      }
+      throw new FallbackException(v);
+    };
+  }
+
+  /** DoubleCode returns the code evaluating the given double operand. */
+  private static DoubleCode doubleCode(Interpretable i) {
+    if (i instanceof EvalCompiledDouble) {
+      return ((EvalCompiledDouble) i).code;
+    }
+    if (i instanceof InterpretableConst) {
+      Val v = ((InterpretableConst) i).value();
+      if (v instanceof DoubleT) {
+        double d = v.doubleValue();
+        return a -> d;
+      }
+    }
+    return a -> {
+      Val v = i.eval(a);
+      if (v instanceof DoubleT) {
+        return v.doubleValue();
+      }
+      throw new FallbackException(v);
+    };
+  }
+
+  /**
+   * AbstractEvalCompiled evaluates compiled code and returns the value of a {@link
+   * FallbackException} raised by it.
+   */
+  abstract static class AbstractEvalCompiled implements Interpretable, Coster {
+    final Interpretable original;
+
+    AbstractEvalCompiled(Interpretable original) {
+      this.original = original;
+    }
+
+    /** ID implements the Interpretable interface method. */
+    @Override
+    public long id() {
+      return original.id();
+    }
+
+    /** Cost implements the Coster interface method. */
+    @Override
+    public Cost cost() {
+      return estimateCost(original);
+    }
+
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + "{" + "original=" + original + '}';
+    }
+  }
+
+  static final class EvalCompiledInt extends AbstractEvalCompiled {
+    final IntCode code;
+
+    EvalCompiledInt(Interpretable original, IntCode code) {
+      super(original);
+      this.code = code;
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(Activation activation) {
+      try {
+        return intOf(code.eval(activation));
+      } catch (FallbackException e) {
+        return e.value;
+      }
+    }
+  }
+
+  static final class EvalCompiledDouble extends AbstractEvalCompiled {
+    final DoubleCode code;
+
+    EvalCompiledDouble(Interpretable original, DoubleCode code) {
+      super(original);
+      this.code = code;
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(Activation activation) {
+      try {
+        return doubleOf(code.eval(activation));
+      } catch (FallbackException e) {
+        return e.value;
+      }
+    }
+  }
+
+  static final class EvalCompiledBool extends AbstractEvalCompiled {
+    final BoolCode code;
+
+    EvalCompiledBool(Interpretable original, BoolCode code) {
+      super(original);
+      this.code = code;
+    }
+
+    /** Eval implements the Interpretable interface method. */
+    @Override
+    public Val eval(Activation activation) {
+      try {
+        return boolOf(code.eval(activation));
+      } catch (FallbackException e) {
+        return e.value;
+      }
+    }
+  }
+}
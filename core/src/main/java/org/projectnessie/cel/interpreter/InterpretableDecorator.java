@@ -22,6 +22,7 @@ import static org.projectnessie.cel.common.types.IntT.IntZero;
 import static org.projectnessie.cel.interpreter.Activation.emptyActivation;
 import static org.projectnessie.cel.interpreter.Interpretable.newConstValue;
 
+import com.google.api.expr.v1alpha1.SourceInfo;
 import java.util.HashSet;
 import java.util.Set;
 import org.projectnessie.cel.common.types.IteratorT;
@@ -31,7 +32,12 @@ import org.projectnessie.cel.common.types.ref.Type;
 import org.projectnessie.cel.common.types.ref.Val;
 import org.projectnessie.cel.common.types.traits.Lister;
 import org.projectnessie.cel.interpreter.AttributeFactory.ConditionalAttribute;
+import org.projectnessie.cel.interpreter.Interpretable.AbstractEvalTypedBinary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalAnd;
+import org.projectnessie.cel.interpreter.Interpretable.EvalCost;
+import org.projectnessie.cel.interpreter.Interpretable.EvalCostAttr;
+import org.projectnessie.cel.interpreter.Interpretable.EvalCostCall;
+import org.projectnessie.cel.interpreter.Interpretable.EvalEq;
 import org.projectnessie.cel.interpreter.Interpretable.EvalExhaustiveAnd;
 import org.projectnessie.cel.interpreter.Interpretable.EvalExhaustiveConditional;
 import org.projectnessie.cel.interpreter.Interpretable.EvalExhaustiveFold;
@@ -41,10 +47,17 @@ import org.projectnessie.cel.interpreter.Interpretable.EvalExhaustiveOr;
 import org.projectnessie.cel.interpreter.Interpretable.EvalFold;
 import org.projectnessie.cel.interpreter.Interpretable.EvalList;
 import org.projectnessie.cel.interpreter.Interpretable.EvalListFold;
+import org.projectnessie.cel.interpreter.Interpretable.EvalLogicalChain;
 import org.projectnessie.cel.interpreter.Interpretable.EvalMap;
 import org.projectnessie.cel.interpreter.Interpretable.EvalMapFold;
+import org.projectnessie.cel.interpreter.Interpretable.EvalMemoize;
+import org.projectnessie.cel.interpreter.Interpretable.EvalNe;
 import org.projectnessie.cel.interpreter.Interpretable.EvalOr;
+import org.projectnessie.cel.interpreter.Interpretable.EvalProfile;
+import org.projectnessie.cel.interpreter.Interpretable.EvalProfileAttr;
+import org.projectnessie.cel.interpreter.Interpretable.EvalReorderedLogical;
 import org.projectnessie.cel.interpreter.Interpretable.EvalSetMembership;
+import org.projectnessie.cel.interpreter.Interpretable.EvalTestOnly;
 import org.projectnessie.cel.interpreter.Interpretable.EvalWatch;
 import org.projectnessie.cel.interpreter.Interpretable.EvalWatchAttr;
 import org.projectnessie.cel.interpreter.Interpretable.EvalWatchConst;
@@ -60,6 +73,14 @@ import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
 public interface InterpretableDecorator {
   Interpretable decorate(Interpretable i);
 
+  /**
+   * LogicalChainSafe marks the built-in decorators, which do not need to see the nested operations
+   * of a chain of logical and / or operations. If all decorators are LogicalChainSafe, the planner
+   * collapses such chains into a single evalLogicalChain and only decorates the chain.
+   */
+  @FunctionalInterface
+  interface LogicalChainSafe extends InterpretableDecorator {}
+
   /** evalObserver is a functional interface that accepts an expression id and an observed value. */
   @FunctionalInterface
   interface EvalObserver {
@@ -71,7 +92,8 @@ public interface InterpretableDecorator {
     return i -> {
       if ((i instanceof EvalWatch)
           || (i instanceof EvalWatchAttr)
-          || (i instanceof EvalWatchConst)) {
+          || (i instanceof EvalWatchConst)
+          || (i instanceof EvalProfileAttr)) {
         // these instruction are already watching, return straight-away.
         return i;
       }
@@ -85,6 +107,110 @@ public interface InterpretableDecorator {
     };
   }
 
+  /**
+   * decCostTracking charges the actual cost of each evaluated expression node to the given
+   * CostTracker.
+   *
+   * <p>Attributes that are decorated again after a qualifier has been added are already wrapped,
+   * either directly or by a subsequent {@link #decObserveEval(EvalObserver)} or {@link
+   * #decProfile(EvalProfiler)}.
+   */
+  static InterpretableDecorator decCostTracking(CostTracker tracker) {
+    return i -> {
+      if ((i instanceof EvalCost)
+          || (i instanceof EvalCostCall)
+          || (i instanceof EvalCostAttr)
+          || (i instanceof EvalWatch)
+          || (i instanceof EvalWatchAttr)
+          || (i instanceof EvalProfileAttr)
+          || (i instanceof InterpretableConst)) {
+        // already tracked or constant, return straight-away.
+        return i;
+      }
+      if (i instanceof InterpretableAttribute) {
+        return new EvalCostAttr((InterpretableAttribute) i, tracker);
+      }
+      if (i instanceof InterpretableCall) {
+        return new EvalCostCall((InterpretableCall) i, tracker);
+      }
+      long cost = CostTracker.nodeCost(i);
+      if (cost == 0L) {
+        return i;
+      }
+      return new EvalCost(i, tracker, cost);
+    };
+  }
+
+  /**
+   * decMemoize memoizes the values of function calls, optional selects, presence tests and
+   * comprehensions across evaluations in an EvalMemo.
+   *
+   * <p>Other nodes are cheaper to evaluate than to look up and are left as they are, so that the
+   * other decorators and the planner still recognize them, for example the logical operators and
+   * the typed binary operators. Attributes are not memoized either, since qualifiers may be added
+   * to them at a later stage in program planning. The reads of the nodes, which are not memoized,
+   * are accounted to the enclosing memoized nodes.
+   */
+  static LogicalChainSafe decMemoize(EvalMemo memo) {
+    return i -> {
+      if ((i instanceof InterpretableCall
+              && !(i instanceof AbstractEvalTypedBinary)
+              && !(i instanceof EvalEq)
+              && !(i instanceof EvalNe))
+          || (i instanceof EvalTestOnly)
+          || (i instanceof EvalFold)
+          || (i instanceof EvalListFold)
+          || (i instanceof EvalMapFold)) {
+        return new EvalMemoize(i, memo);
+      }
+      return i;
+    };
+  }
+
+  /**
+   * decProfile records the number of evaluations, the time and the allocations of each expression
+   * node of the Ast with the given source info into an EvalProfiler.
+   *
+   * <p>The profiling decorator must be the last decorator, so that the time spent in the nodes
+   * produced by other decorators is accounted to the profiled expression.
+   */
+  static InterpretableDecorator decProfile(EvalProfiler profiler, SourceInfo info) {
+    return i -> {
+      if ((i instanceof EvalProfile)
+          || (i instanceof EvalProfileAttr)
+          || (i instanceof InterpretableConst)) {
+        // already profiled or constant, return straight-away.
+        return i;
+      }
+      if (i instanceof InterpretableAttribute) {
+        return new EvalProfileAttr((InterpretableAttribute) i, profiler, info);
+      }
+      return new EvalProfile(i, profiler, info);
+    };
+  }
+
+  /**
+   * decReorderLogical replaces logical and / or operations with nodes, which evaluate the operand
+   * with the lower rank first, see {@link EvalReorderedLogical} and {@link
+   * EvalLogicalChain#reordered(boolean)}.
+   */
+  static LogicalChainSafe decReorderLogical(boolean adaptive) {
+    return i -> {
+      if (i instanceof EvalLogicalChain) {
+        return ((EvalLogicalChain) i).reordered(adaptive);
+      }
+      if (i instanceof EvalOr) {
+        EvalOr expr = (EvalOr) i;
+        return new EvalReorderedLogical(expr.id, false, expr.lhs, expr.rhs, adaptive);
+      }
+      if (i instanceof EvalAnd) {
+        EvalAnd expr = (EvalAnd) i;
+        return new EvalReorderedLogical(expr.id, true, expr.lhs, expr.rhs, adaptive);
+      }
+      return i;
+    };
+  }
+
   /**
    * decDisableShortcircuits ensures that all branches of an expression will be evaluated, no
    * short-circuiting.
@@ -138,7 +264,7 @@ public interface InterpretableDecorator {
    *   <li>convert 'in' operations to set membership tests if possible.
    * </ul>
    */
-  static InterpretableDecorator decOptimize() {
+  static LogicalChainSafe decOptimize() {
     return i -> {
       if (i instanceof EvalList) {
         return maybeBuildListLiteral(i, (EvalList) i);
@@ -159,6 +285,14 @@ public interface InterpretableDecorator {
     };
   }
 
+  /**
+   * decPrimitiveArithmetic compiles the int and double arithmetic and comparison operators of the
+   * program plan into primitive evaluators, see {@link InterpretableCompiler}.
+   */
+  static InterpretableDecorator decPrimitiveArithmetic() {
+    return InterpretableCompiler::compile;
+  }
+
   static Interpretable maybeOptimizeConstUnary(Interpretable i, InterpretableCall call) {
     Interpretable[] args = call.args();
     if (args.length != 1) {
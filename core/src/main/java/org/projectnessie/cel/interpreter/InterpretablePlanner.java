@@ -23,6 +23,7 @@ import static org.projectnessie.cel.common.types.StringT.stringOf;
 import static org.projectnessie.cel.common.types.TimestampT.timestampOf;
 import static org.projectnessie.cel.common.types.Types.boolOf;
 import static org.projectnessie.cel.common.types.UintT.uintOf;
+import static org.projectnessie.cel.interpreter.Interpretable.EvalLogicalChain.newLogical;
 import static org.projectnessie.cel.interpreter.Interpretable.newConstValue;
 
 import com.google.api.expr.v1alpha1.CheckedExpr;
@@ -37,12 +38,18 @@ import com.google.api.expr.v1alpha1.Expr.Ident;
 import com.google.api.expr.v1alpha1.Expr.Select;
 import com.google.api.expr.v1alpha1.Reference;
 import com.google.api.expr.v1alpha1.Type;
+import com.google.api.expr.v1alpha1.Type.WellKnownType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.projectnessie.cel.common.containers.Container;
 import org.projectnessie.cel.common.operators.Operator;
 import org.projectnessie.cel.common.types.NullT;
+import org.projectnessie.cel.common.types.StringT;
 import org.projectnessie.cel.common.types.ref.FieldType;
 import org.projectnessie.cel.common.types.ref.TypeAdapter;
 import org.projectnessie.cel.common.types.ref.TypeProvider;
@@ -53,23 +60,30 @@ import org.projectnessie.cel.interpreter.AttributeFactory.Qualifier;
 import org.projectnessie.cel.interpreter.Interpretable.EvalAnd;
 import org.projectnessie.cel.interpreter.Interpretable.EvalAttr;
 import org.projectnessie.cel.interpreter.Interpretable.EvalBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalDoubleBinary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalEq;
 import org.projectnessie.cel.interpreter.Interpretable.EvalFold;
 import org.projectnessie.cel.interpreter.Interpretable.EvalIdent;
+import org.projectnessie.cel.interpreter.Interpretable.EvalIntBinary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalList;
 import org.projectnessie.cel.interpreter.Interpretable.EvalListFold;
 import org.projectnessie.cel.interpreter.Interpretable.EvalMap;
 import org.projectnessie.cel.interpreter.Interpretable.EvalMapFold;
 import org.projectnessie.cel.interpreter.Interpretable.EvalNe;
 import org.projectnessie.cel.interpreter.Interpretable.EvalObj;
+import org.projectnessie.cel.interpreter.Interpretable.EvalOptIndex;
+import org.projectnessie.cel.interpreter.Interpretable.EvalOptSelect;
 import org.projectnessie.cel.interpreter.Interpretable.EvalOr;
 import org.projectnessie.cel.interpreter.Interpretable.EvalReceiverVarArgs;
+import org.projectnessie.cel.interpreter.Interpretable.EvalStringBinary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalTestOnly;
+import org.projectnessie.cel.interpreter.Interpretable.EvalTimestampBinary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalUnary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalVarArgs;
 import org.projectnessie.cel.interpreter.Interpretable.EvalZeroArity;
 import org.projectnessie.cel.interpreter.Interpretable.InterpretableAttribute;
 import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
+import org.projectnessie.cel.interpreter.InterpretableDecorator.LogicalChainSafe;
 import org.projectnessie.cel.interpreter.functions.BinaryOp;
 import org.projectnessie.cel.interpreter.functions.FunctionOp;
 import org.projectnessie.cel.interpreter.functions.Overload;
@@ -148,6 +162,7 @@ public interface InterpretablePlanner {
     private final Map<Long, Type> typeMap;
     private final Map<String, FieldType> fieldTypes = new HashMap<>();
     private final InterpretableDecorator[] decorators;
+    private final boolean collapseLogical;
 
     Planner(
         Dispatcher disp,
@@ -166,6 +181,11 @@ public interface InterpretablePlanner {
       this.refMap = refMap;
       this.typeMap = typeMap;
       this.decorators = decorators;
+      boolean collapse = true;
+      for (InterpretableDecorator dec : decorators) {
+        collapse &= dec instanceof LogicalChainSafe;
+      }
+      this.collapseLogical = collapse;
     }
 
     /**
@@ -269,6 +289,13 @@ public interface InterpretablePlanner {
       }
 
       Select sel = expr.getSelectExpr();
+      // Field selections on optional values propagate the optionality, e.g. a.?b.c
+      if (!sel.getTestOnly() && isOptionalChain(sel.getOperand())) {
+        Interpretable op = plan(sel.getOperand());
+        StringT field = stringOf(sel.getField());
+        return new EvalOptSelect(
+            expr.getId(), op, newConstValue(expr.getId(), field), field, false);
+      }
       // Plan the operand evaluation.
       Interpretable op =
           decorators.length == 0 ? planSelectOperand(sel.getOperand()) : plan(sel.getOperand());
@@ -364,6 +391,9 @@ public interface InterpretablePlanner {
     Interpretable planCall(Expr expr) {
       Call call = expr.getCallExpr();
       ResolvedFunction resolvedFunc = resolveFunction(expr);
+      if (isLogicalCall(expr, resolvedFunc.fnName)) {
+        return planLogical(expr, resolvedFunc.fnName);
+      }
       // target, fnName, oName := p.resolveFunction(expr)
       int argCount = call.getArgsCount();
       int offset = 0;
@@ -391,9 +421,23 @@ public interface InterpretablePlanner {
       if (resolvedFunc.fnName.equals(Operator.LogicalOr.id)) return planCallLogicalOr(expr, args);
       if (resolvedFunc.fnName.equals(Operator.Conditional.id))
         return planCallConditional(expr, args);
+      if (argCount == 2 && resolvedFunc.target == null) {
+        Interpretable typed = planCallTyped(expr, resolvedFunc, args);
+        if (typed != null) {
+          return typed;
+        }
+      }
       if (resolvedFunc.fnName.equals(Operator.Equals.id)) return planCallEqual(expr, args);
       if (resolvedFunc.fnName.equals(Operator.NotEquals.id)) return planCallNotEqual(expr, args);
-      if (resolvedFunc.fnName.equals(Operator.Index.id)) return planCallIndex(expr, args);
+      if (resolvedFunc.fnName.equals(Operator.Index.id)) {
+        if (call.getArgsCount() == 2 && isOptionalChain(call.getArgs(0))) {
+          return new EvalOptIndex(expr.getId(), args[0], args[1], false);
+        }
+        return planCallIndex(expr, args);
+      }
+      if (resolvedFunc.fnName.equals(Operator.OptSelect.id)) return planCallOptSelect(expr, args);
+      if (resolvedFunc.fnName.equals(Operator.OptIndex.id))
+        return new EvalOptIndex(expr.getId(), args[0], args[1], true);
 
       // Otherwise, generate Interpretable calls specialized by argument count.
       // Try to find the specific function by overload id.
@@ -472,6 +516,103 @@ public interface InterpretablePlanner {
       return new EvalVarArgs(expr.getId(), function, overload, args, trait, fn);
     }
 
+    /**
+     * planCallTyped generates an operator specialized for the operand type, if the type-checker
+     * proved both operands to be of the same int, double, string or timestamp type and the operator
+     * is implemented by the standard overloads. Returns null, if the call cannot be specialized.
+     */
+    Interpretable planCallTyped(Expr expr, ResolvedFunction fn, Interpretable[] args) {
+      Operator operator = Operator.byId(fn.fnName);
+      if (operator == null) {
+        return null;
+      }
+      Call call = expr.getCallExpr();
+      Type lType = typeMap.get(call.getArgs(0).getId());
+      Type rType = typeMap.get(call.getArgs(1).getId());
+      if (lType == null || !lType.equals(rType)) {
+        return null;
+      }
+
+      BinaryOp generic;
+      switch (operator) {
+        case Equals:
+          generic = EvalEq::apply;
+          break;
+        case NotEquals:
+          generic = EvalNe::apply;
+          break;
+        case Less:
+        case LessEquals:
+        case Greater:
+        case GreaterEquals:
+        case Add:
+        case Subtract:
+        case Multiply:
+        case Divide:
+        case Modulo:
+          // Only the built-in implementations are replaced, not the ones provided by the
+          // environment for the specific overload or function.
+          if (!fn.overloadId.isEmpty() && disp.findOverload(fn.overloadId) != null) {
+            return null;
+          }
+          Overload impl = disp.findOverload(fn.fnName);
+          if (!Overload.isStandard(impl)) {
+            return null;
+          }
+          generic =
+              new EvalBinary(
+                      expr.getId(),
+                      fn.fnName,
+                      fn.overloadId,
+                      args[0],
+                      args[1],
+                      impl.operandTrait,
+                      impl.binary)
+                  ::apply;
+          break;
+        default:
+          return null;
+      }
+
+      long id = expr.getId();
+      String overload = fn.overloadId;
+      if (lType.getWellKnown() == WellKnownType.TIMESTAMP) {
+        switch (operator) {
+          case Less:
+          case LessEquals:
+          case Greater:
+          case GreaterEquals:
+            return new EvalTimestampBinary(id, operator, overload, args[0], args[1], generic);
+          default:
+            return null;
+        }
+      }
+      switch (lType.getPrimitive()) {
+        case INT64:
+          return new EvalIntBinary(id, operator, overload, args[0], args[1], generic);
+        case DOUBLE:
+          // Equality of doubles is left to DoubleT.equal().
+          if (operator == Operator.Modulo
+              || operator == Operator.Equals
+              || operator == Operator.NotEquals) {
+            return null;
+          }
+          return new EvalDoubleBinary(id, operator, overload, args[0], args[1], generic);
+        case STRING:
+          switch (operator) {
+            case Subtract:
+            case Multiply:
+            case Divide:
+            case Modulo:
+              return null;
+            default:
+              return new EvalStringBinary(id, operator, overload, args[0], args[1], generic);
+          }
+        default:
+          return null;
+      }
+    }
+
     /** planCallEqual generates an equals (==) Interpretable. */
     static Interpretable planCallEqual(Expr expr, Interpretable... args) {
       return new EvalEq(expr.getId(), args[0], args[1]);
@@ -492,6 +633,86 @@ public interface InterpretablePlanner {
       return new EvalOr(expr.getId(), args[0], args[1]);
     }
 
+    /**
+     * isLogicalCall returns whether the expression is a binary logical and / or operation of the
+     * given function.
+     */
+    static boolean isLogicalCall(Expr expr, String function) {
+      if (!function.equals(Operator.LogicalAnd.id) && !function.equals(Operator.LogicalOr.id)) {
+        return false;
+      }
+      if (expr.getExprKindCase() != Expr.ExprKindCase.CALL_EXPR) {
+        return false;
+      }
+      Call call = expr.getCallExpr();
+      return !call.hasTarget()
+          && call.getArgsCount() == 2
+          && call.getFunction().equals(function);
+    }
+
+    /**
+     * planLogical generates the Interpretable for a tree of nested logical and / or operations of
+     * the same function without recursing into the nested operations, so that long chains such as
+     * {@code a && b && c && ...} do not exhaust the stack.
+     *
+     * <p>If all decorators are {@link LogicalChainSafe}, the operands are collected in planned
+     * order together with the number of nested operations, which complete after each of them, and
+     * combined into a single evalLogicalChain at the root. Otherwise, every nested operation is
+     * planned as a binary node and passed to the decorators.
+     */
+    Interpretable planLogical(Expr expr, String function) {
+      boolean and = function.equals(Operator.LogicalAnd.id);
+      Deque<Expr> exprs = new ArrayDeque<>();
+      Deque<Boolean> visited = new ArrayDeque<>();
+      // The planned operands, or the stack of planned binary nodes, if these are not collapsed.
+      List<Interpretable> operands = new ArrayList<>();
+      int[] reduceAfter = new int[16];
+      exprs.push(expr);
+      visited.push(false);
+      while (true) {
+        Expr e = exprs.pop();
+        boolean v = visited.pop();
+        if (e != expr && !isLogicalCall(e, function)) {
+          if (operands.size() == reduceAfter.length) {
+            reduceAfter = Arrays.copyOf(reduceAfter, reduceAfter.length * 2);
+          }
+          operands.add(plan(e));
+          continue;
+        }
+        if (!v) {
+          // Plan both operands, then combine them.
+          Call call = e.getCallExpr();
+          exprs.push(e);
+          visited.push(true);
+          exprs.push(call.getArgs(1));
+          visited.push(false);
+          exprs.push(call.getArgs(0));
+          visited.push(false);
+          continue;
+        }
+        int n = operands.size();
+        if (collapseLogical) {
+          reduceAfter[n - 1]++;
+          if (e == expr) {
+            return newLogical(
+                e.getId(),
+                and,
+                operands.toArray(new Interpretable[0]),
+                Arrays.copyOf(reduceAfter, n));
+          }
+          continue;
+        }
+        Interpretable rhs = operands.remove(n - 1);
+        Interpretable lhs = operands.remove(n - 2);
+        Interpretable i = and ? new EvalAnd(e.getId(), lhs, rhs) : new EvalOr(e.getId(), lhs, rhs);
+        if (e == expr) {
+          // The root is decorated by plan().
+          return i;
+        }
+        operands.add(decorate(i));
+      }
+    }
+
     /** planCallConditional generates a conditional / ternary (c ? t : f) Interpretable. */
     Interpretable planCallConditional(Expr expr, Interpretable... args) {
       Interpretable cond = args[0];
@@ -556,6 +777,44 @@ public interface InterpretablePlanner {
       return opAttr;
     }
 
+    /** planCallOptSelect generates an optional field selection, e.g. {@code a.?b}. */
+    static Interpretable planCallOptSelect(Expr expr, Interpretable... args) {
+      if (args.length != 2
+          || !(args[1] instanceof InterpretableConst)
+          || !(((InterpretableConst) args[1]).value() instanceof StringT)) {
+        throw new IllegalStateException(
+            String.format("invalid optional field selection: %s", expr));
+      }
+      StringT field = (StringT) ((InterpretableConst) args[1]).value();
+      return new EvalOptSelect(expr.getId(), args[0], args[1], field, true);
+    }
+
+    /**
+     * isOptionalChain returns whether the expression yields an optional value, because it is an
+     * optional selection or index operation or a selection or index operation on one.
+     */
+    static boolean isOptionalChain(Expr expr) {
+      switch (expr.getExprKindCase()) {
+        case SELECT_EXPR:
+          Select sel = expr.getSelectExpr();
+          return !sel.getTestOnly() && isOptionalChain(sel.getOperand());
+        case CALL_EXPR:
+          Call call = expr.getCallExpr();
+          if (call.hasTarget()) {
+            return false;
+          }
+          String fn = call.getFunction();
+          if (fn.equals(Operator.OptSelect.id) || fn.equals(Operator.OptIndex.id)) {
+            return true;
+          }
+          return fn.equals(Operator.Index.id)
+              && call.getArgsCount() == 2
+              && isOptionalChain(call.getArgs(0));
+        default:
+          return false;
+      }
+    }
+
     /** planCreateList generates a list construction Interpretable. */
     Interpretable planCreateList(Expr expr) {
       CreateList list = expr.getListExpr();
@@ -16,15 +16,21 @@
 package org.projectnessie.cel.interpreter;
 
 import static org.projectnessie.cel.interpreter.Dispatcher.newDispatcher;
+import static org.projectnessie.cel.interpreter.InterpretableDecorator.decCostTracking;
 import static org.projectnessie.cel.interpreter.InterpretableDecorator.decDisableShortcircuits;
+import static org.projectnessie.cel.interpreter.InterpretableDecorator.decMemoize;
 import static org.projectnessie.cel.interpreter.InterpretableDecorator.decObserveEval;
 import static org.projectnessie.cel.interpreter.InterpretableDecorator.decOptimize;
+import static org.projectnessie.cel.interpreter.InterpretableDecorator.decPrimitiveArithmetic;
+import static org.projectnessie.cel.interpreter.InterpretableDecorator.decProfile;
+import static org.projectnessie.cel.interpreter.InterpretableDecorator.decReorderLogical;
 import static org.projectnessie.cel.interpreter.InterpretablePlanner.newPlanner;
 import static org.projectnessie.cel.interpreter.InterpretablePlanner.newUncheckedPlanner;
 
 import com.google.api.expr.v1alpha1.CheckedExpr;
 import com.google.api.expr.v1alpha1.Expr;
 import com.google.api.expr.v1alpha1.Reference;
+import com.google.api.expr.v1alpha1.SourceInfo;
 import com.google.api.expr.v1alpha1.Type;
 import java.util.Map;
 import org.projectnessie.cel.common.containers.Container;
@@ -82,6 +88,34 @@ public interface Interpreter {
     };
   }
 
+  /**
+   * CostTracking decorates each expression node with a tracker which accumulates the actual cost of
+   * the evaluation and aborts the evaluation once the cost limit of the CostTracker is exceeded.
+   * This decorator is not thread-safe, and a new CostTracker must be used for each Eval() call.
+   */
+  static InterpretableDecorator costTracking(CostTracker tracker) {
+    return decCostTracking(tracker);
+  }
+
+  /**
+   * Profile decorates each expression node with a recorder of the evaluation count, time and
+   * allocations of the node. The EvalProfiler is thread-safe and may be shared by many programs and
+   * Eval() calls, the statistics are kept per source info of the profiled Ast.
+   */
+  static InterpretableDecorator profile(EvalProfiler profiler, SourceInfo info) {
+    return decProfile(profiler, info);
+  }
+
+  /**
+   * Memoize decorates the function calls, presence tests and comprehensions with a lookup of their
+   * values in the given EvalMemo, which holds the values of the previous evaluations. The root of
+   * the program must be wrapped with {@link EvalMemo#root(Interpretable)}. This decorator is not
+   * thread-safe.
+   */
+  static InterpretableDecorator memoize(EvalMemo memo) {
+    return decMemoize(memo);
+  }
+
   /**
    * Optimize will pre-compute operations such as list and map construction and optimize call
    * arguments to set membership tests. The set of optimizations will increase over time.
@@ -90,6 +124,27 @@ public interface Interpreter {
     return decOptimize();
   }
 
+  /**
+   * PrimitiveArithmetic replaces the arithmetic and comparison operators over operands of checked
+   * int and double types, and logical operators over two such comparisons, with code which passes
+   * intermediate results as primitive values. Values the primitive code cannot handle, such as
+   * unknowns or errors, are passed to the regular implementation of the operators. The compiled
+   * nodes are opaque to other decorators, which observe or alter the evaluation of individual
+   * nodes.
+   */
+  static InterpretableDecorator primitiveArithmetic() {
+    return decPrimitiveArithmetic();
+  }
+
+  /**
+   * ReorderLogical evaluates the operand of a logical and / or first, which is cheaper according to
+   * the cost estimates. If adaptive, the order also considers how often each operand
+   * short-circuits the operation during the evaluations.
+   */
+  static InterpretableDecorator reorderLogical(boolean adaptive) {
+    return decReorderLogical(adaptive);
+  }
+
   /**
    * NewInterpreter builds an Interpreter from a Dispatcher and TypeProvider which will be used
    * throughout the Eval of all Interpretable instances gerenated from it.
@@ -31,6 +31,7 @@ import static org.projectnessie.cel.common.types.TimestampT.TimestampType;
 import static org.projectnessie.cel.common.types.TypeT.TypeType;
 import static org.projectnessie.cel.common.types.UintT.UintType;
 
+import java.util.Set;
 import org.projectnessie.cel.common.operators.Operator;
 import org.projectnessie.cel.common.types.IterableT;
 import org.projectnessie.cel.common.types.IteratorT;
@@ -150,8 +151,24 @@ public final class Overload {
     return sb.toString();
   }
 
+  private static final Overload[] Standard = newStandardOverloads();
+  private static final Set<Overload> StandardSet = Set.of(Standard);
+
   /** StandardOverloads returns the definitions of the built-in overloads. */
   public static Overload[] standardOverloads() {
+    return Standard.clone();
+  }
+
+  /**
+   * IsStandard returns whether the given overload is one of the built-in overloads returned by
+   * {@link #standardOverloads()}, which lets the planner replace calls to it with operators
+   * specialized for the checked operand types.
+   */
+  public static boolean isStandard(Overload overload) {
+    return overload != null && StandardSet.contains(overload);
+  }
+
+  private static Overload[] newStandardOverloads() {
     return new Overload[] {
       // Logical not (!a)
       unary(
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import org.projectnessie.cel.Ast;
+import org.projectnessie.cel.common.Source;
+
+/**
+ * CelEvent is the base of the Java Flight Recorder events emitted for the phases of a CEL
+ * expression: parse, check, program creation and evaluation.
+ *
+ * <p>All events identify the expression by a hash and the size of its source text, which is
+ * sufficient to correlate the events of one expression without recording the expression itself.
+ * If an Ast has no source text, for example when it has been created from a protobuf message, the
+ * hash and the serialized size of the expression are used instead.
+ *
+ * <p>The thresholds of the events can be configured like for any other JFR event, for example
+ * {@code jfr configure org.projectnessie.cel.Eval#threshold=10ms} or via {@code
+ * Recording.enable("org.projectnessie.cel.Eval").withThreshold(Duration.ofMillis(10))}, so that
+ * only slow evaluations are recorded.
+ */
+@Category("CEL")
+public abstract class CelEvent extends jdk.jfr.Event {
+  public static final String OutcomeOk = "ok";
+  public static final String OutcomeIssues = "issues";
+  public static final String OutcomeFailure = "failure";
+
+  @Label("Expression Hash")
+  @Description("Hash of the expression source text")
+  int expressionHash;
+
+  @Label("Expression Size")
+  @Description("Length of the expression source text")
+  int expressionSize;
+
+  @Label("Outcome")
+  String outcome;
+
+  /** SetExpression identifies the expression of the event by its Ast. */
+  public final void setExpression(Ast ast) {
+    setExpression(expressionHash(ast), expressionSize(ast));
+  }
+
+  /** SetExpression identifies the expression of the event by its source. */
+  public final void setExpression(Source source) {
+    String content = source.content();
+    setExpression(content.hashCode(), content.length());
+  }
+
+  /** SetExpression identifies the expression of the event by a precomputed hash and size. */
+  public final void setExpression(int hash, int size) {
+    this.expressionHash = hash;
+    this.expressionSize = size;
+  }
+
+  public final void setOutcome(String outcome) {
+    this.outcome = outcome;
+  }
+
+  /** ExpressionHash returns the hash of the source text of the Ast. */
+  public static int expressionHash(Ast ast) {
+    String content = ast.getSource().content();
+    return content.isEmpty() ? ast.getExpr().hashCode() : content.hashCode();
+  }
+
+  /** ExpressionSize returns the length of the source text of the Ast. */
+  public static int expressionSize(Ast ast) {
+    String content = ast.getSource().content();
+    return content.isEmpty() ? ast.getExpr().getSerializedSize() : content.length();
+  }
+}
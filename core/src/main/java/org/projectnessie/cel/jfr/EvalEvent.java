@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * EvalEvent is emitted for evaluations of a CEL program that take longer than the threshold, which
+ * defaults to 1 ms. The outcome is one of {@link #OutcomeValue}, {@link #OutcomeError} or {@link
+ * #OutcomeUnknown}.
+ */
+@Name("org.projectnessie.cel.Eval")
+@Label("CEL Eval")
+@Description("Evaluation of a CEL program, the outcome is value, error or unknown.")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class EvalEvent extends CelEvent {
+  public static final String OutcomeValue = "value";
+  public static final String OutcomeError = "error";
+  public static final String OutcomeUnknown = "unknown";
+
+  @Label("Eval Options")
+  String evalOptions;
+
+  public void setEvalOptions(String evalOptions) {
+    this.evalOptions = evalOptions;
+  }
+}
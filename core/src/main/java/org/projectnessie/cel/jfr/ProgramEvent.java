@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** ProgramEvent is emitted for each creation of a Program from an Ast. */
+@Name("org.projectnessie.cel.Program")
+@Label("CEL Program")
+@Description("Planning of a CEL program, the outcome is ok or failure.")
+@Threshold("0 ms")
+public final class ProgramEvent extends CelEvent {
+  @Label("Eval Options")
+  String evalOptions;
+
+  public void setEvalOptions(String evalOptions) {
+    this.evalOptions = evalOptions;
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** ScriptBuildEvent is emitted for each Script built via the ScriptHost. */
+@Name("org.projectnessie.cel.ScriptBuild")
+@Label("CEL Script Build")
+@Description("Creation of a Script via a ScriptBuilder, the outcome is ok, issues or failure.")
+@Threshold("0 ms")
+public final class ScriptBuildEvent extends CelEvent {}
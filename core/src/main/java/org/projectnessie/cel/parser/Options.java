@@ -26,16 +26,19 @@ public final class Options {
   private final int errorRecoveryLimit;
   private final int expressionSizeCodePointLimit;
   private final Map<String, Macro> macros;
+  private final boolean enableOptionalSyntax;
 
   private Options(
       int maxRecursionDepth,
       int errorRecoveryLimit,
       int expressionSizeCodePointLimit,
-      Map<String, Macro> macros) {
+      Map<String, Macro> macros,
+      boolean enableOptionalSyntax) {
     this.maxRecursionDepth = maxRecursionDepth;
     this.errorRecoveryLimit = errorRecoveryLimit;
     this.expressionSizeCodePointLimit = expressionSizeCodePointLimit;
     this.macros = macros;
+    this.enableOptionalSyntax = enableOptionalSyntax;
   }
 
   public int getMaxRecursionDepth() {
@@ -60,6 +63,14 @@ public final class Options {
     return macros.get(name);
   }
 
+  /**
+   * Returns whether the optional field selection {@code a.?b} and optional index {@code a[?b]}
+   * syntax is enabled.
+   */
+  public boolean isEnableOptionalSyntax() {
+    return enableOptionalSyntax;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -69,6 +80,7 @@ public final class Options {
     private int maxRecursionDepth = 250;
     private int errorRecoveryLimit = 30;
     private int expressionSizeCodePointLimit = 100_000;
+    private boolean enableOptionalSyntax;
 
     private Builder() {}
 
@@ -127,9 +139,21 @@ public final class Options {
       return this;
     }
 
+    /**
+     * Enables the optional field selection {@code a.?b} and optional index {@code a[?b]} syntax.
+     */
+    public Builder enableOptionalSyntax(boolean enableOptionalSyntax) {
+      this.enableOptionalSyntax = enableOptionalSyntax;
+      return this;
+    }
+
     public Options build() {
       return new Options(
-          maxRecursionDepth, errorRecoveryLimit, expressionSizeCodePointLimit, Map.copyOf(macros));
+          maxRecursionDepth,
+          errorRecoveryLimit,
+          expressionSizeCodePointLimit,
+          Map.copyOf(macros),
+          enableOptionalSyntax);
     }
   }
 }
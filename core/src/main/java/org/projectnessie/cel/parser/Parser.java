@@ -374,11 +374,26 @@ public final class Parser {
       while (i < children.size()) {
         Node op = children.get(i++);
         if (isToken(op, DOT)) {
+          boolean optional = i < children.size() && isToken(children.get(i), QUESTIONMARK);
+          if (optional) {
+            if (!options.isEnableOptionalSyntax()) {
+              return reportError(children.get(i), "unsupported syntax '.?'");
+            }
+            i++;
+          }
           if (i >= children.size()) {
             return helper.newExpr(node);
           }
-          String id = fieldName(children.get(i++));
-          if (i < children.size() && isToken(children.get(i), LPAREN)) {
+          Node field = children.get(i++);
+          String id = fieldName(field);
+          if (optional) {
+            if (i < children.size() && isToken(children.get(i), LPAREN)) {
+              return reportError(children.get(i), "unsupported syntax '.?' on function call");
+            }
+            long opID = helper.id(op);
+            Expr fieldLiteral = helper.newLiteralString(field, id);
+            operand = globalCallOrMacro(opID, Operator.OptSelect.id, operand, fieldLiteral);
+          } else if (i < children.size() && isToken(children.get(i), LPAREN)) {
             Node open = children.get(i++);
             long openID = helper.id(open);
             List<Expr> args = expressionsBetween(children, i, RPAREN);
@@ -394,11 +409,20 @@ public final class Parser {
           }
         } else if (isToken(op, LBRACKET)) {
           long opID = helper.id(op);
+          boolean optional = i < children.size() && isToken(children.get(i), QUESTIONMARK);
+          if (optional) {
+            if (!options.isEnableOptionalSyntax()) {
+              return reportError(children.get(i), "unsupported syntax '[?'");
+            }
+            i++;
+          }
           Expr index = exprVisit(children.get(i++));
           if (i < children.size() && isToken(children.get(i), RBRACKET)) {
             i++;
           }
-          operand = globalCallOrMacro(opID, Operator.Index.id, operand, index);
+          operand =
+              globalCallOrMacro(
+                  opID, optional ? Operator.OptIndex.id : Operator.Index.id, operand, index);
         } else if (isToken(op, LBRACE)) {
           String messageName = extractQualifiedName(operand);
           FieldInitializerList fields =
@@ -98,8 +98,13 @@ public final class Unparser {
           return;
         // index operator
         case Index:
+        case OptIndex:
           visitCallIndex(expr);
           return;
+        // optional field selection
+        case OptSelect:
+          visitCallOptSelect(expr);
+          return;
         // unary operators
         case LogicalNot:
         case Negate:
@@ -198,11 +203,19 @@ public final class Unparser {
     List<Expr> args = expr.getArgsList();
     boolean nested = isBinaryOrTernaryOperator(args.get(0));
     visitMaybeNested(args.get(0), nested);
-    str.append("[");
+    str.append(expr.getFunction().equals(Operator.OptIndex.id) ? "[?" : "[");
     visit(args.get(1));
     str.append("]");
   }
 
+  void visitCallOptSelect(Call expr) {
+    List<Expr> args = expr.getArgsList();
+    boolean nested = isBinaryOrTernaryOperator(args.get(0));
+    visitMaybeNested(args.get(0), nested);
+    str.append(".?");
+    str.append(args.get(1).getConstExpr().getStringValue());
+  }
+
   void visitCallUnary(Call expr) {
     String fun = expr.getFunction();
     List<Expr> args = expr.getArgsList();
@@ -18,6 +18,7 @@ package org.projectnessie.cel;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -44,10 +45,14 @@ import static org.projectnessie.cel.EvalOption.OptExhaustiveEval;
 import static org.projectnessie.cel.EvalOption.OptPartialEval;
 import static org.projectnessie.cel.EvalOption.OptTrackState;
 import static org.projectnessie.cel.Library.StdLib;
+import static org.projectnessie.cel.ProgramOption.costLimit;
+import static org.projectnessie.cel.ProgramOption.costTracking;
 import static org.projectnessie.cel.ProgramOption.customDecorator;
 import static org.projectnessie.cel.ProgramOption.evalOptions;
 import static org.projectnessie.cel.ProgramOption.functions;
 import static org.projectnessie.cel.ProgramOption.globals;
+import static org.projectnessie.cel.ProgramOption.primitiveArithmetic;
+import static org.projectnessie.cel.ProgramOption.reorderLogical;
 import static org.projectnessie.cel.Util.mapOf;
 import static org.projectnessie.cel.common.types.BoolT.False;
 import static org.projectnessie.cel.common.types.BoolT.True;
@@ -59,6 +64,7 @@ import static org.projectnessie.cel.common.types.StringT.stringOf;
 import static org.projectnessie.cel.common.types.Types.boolOf;
 import static org.projectnessie.cel.common.types.pb.ProtoTypeRegistry.newEmptyRegistry;
 import static org.projectnessie.cel.interpreter.Activation.emptyActivation;
+import static org.projectnessie.cel.interpreter.Cancellation.deadline;
 import static org.projectnessie.cel.interpreter.Interpretable.newConstValue;
 import static org.projectnessie.cel.parser.Macro.newReceiverMacro;
 
@@ -68,12 +74,17 @@ import com.google.api.expr.v1alpha1.Expr.Call;
 import com.google.api.expr.v1alpha1.Expr.Ident;
 import com.google.api.expr.v1alpha1.ParsedExpr;
 import com.google.api.expr.v1alpha1.Type;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -988,6 +999,118 @@ public class CELTest {
     assertThat(c).isEqualTo(wantedCost);
   }
 
+  @Test
+  void ActualCost() {
+    Env e = newEnv(declarations(Decls.newVar("x", Decls.Int)));
+    AstIssuesTuple astIss = e.compile("x > 1 && x < 10");
+    assertThat(astIss.hasIssues()).isFalse();
+
+    // Two attributes, two comparisons and the logical and.
+    Program prg = e.program(astIss.getAst(), costTracking(null));
+    EvalResult out = prg.eval(mapOf("x", 5));
+    assertThat(out.getVal()).isSameAs(True);
+    assertThat(out.getEvalDetails().getActualCost()).isEqualTo(5L);
+
+    // The right-hand side is not evaluated.
+    out = prg.eval(mapOf("x", 0));
+    assertThat(out.getVal()).isSameAs(False);
+    assertThat(out.getEvalDetails().getActualCost()).isEqualTo(3L);
+
+    // Each Eval() call starts with a fresh tracker, state tracking still works.
+    prg = e.program(astIss.getAst(), costTracking(null), evalOptions(OptExhaustiveEval));
+    out = prg.eval(mapOf("x", 0));
+    assertThat(out.getVal()).isSameAs(False);
+    assertThat(out.getEvalDetails().getActualCost()).isEqualTo(5L);
+    long rhsId = astIss.getAst().getExpr().getCallExpr().getArgs(1).getId();
+    assertThat(out.getEvalDetails().getState().value(rhsId)).isSameAs(True);
+
+    // Custom call costs.
+    prg = e.program(astIss.getAst(), costTracking((function, overloadId, result) -> 10L));
+    out = prg.eval(mapOf("x", 5));
+    assertThat(out.getEvalDetails().getActualCost()).isEqualTo(23L);
+
+    // No cost is tracked by default.
+    prg = e.program(astIss.getAst());
+    assertThat(prg.eval(mapOf("x", 5)).getEvalDetails().getActualCost()).isNull();
+  }
+
+  @Test
+  void CostLimit() {
+    Env e = newEnv(declarations(Decls.newVar("ints", Decls.newListType(Decls.Int))));
+    AstIssuesTuple astIss = e.compile("ints.all(i, i >= 0) || true");
+    assertThat(astIss.hasIssues()).isFalse();
+    Object vars = mapOf("ints", IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+
+    Program prg = e.program(astIss.getAst(), costLimit(100_000L));
+    EvalResult out = prg.eval(vars);
+    assertThat(out.getVal()).isSameAs(True);
+    assertThat(out.getEvalDetails().getActualCost()).isBetween(1000L, 100_000L);
+
+    // The error must not be absorbed by the logical or.
+    prg = e.program(astIss.getAst(), costLimit(100L));
+    out = prg.eval(vars);
+    assertThat(isError(out.getVal())).isTrue();
+    assertThat(out.getVal().toString()).contains("actual cost limit exceeded");
+    assertThat(out.getEvalDetails().getActualCost()).isGreaterThan(100L);
+
+    assertThatThrownBy(() -> costLimit(-1L)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void Cancellation() {
+    Env e = newEnv(declarations(Decls.newVar("ints", Decls.newListType(Decls.Int))));
+    AstIssuesTuple astIss = e.compile("ints.all(i, i >= 0) || true");
+    assertThat(astIss.hasIssues()).isFalse();
+    Object vars = mapOf("ints", IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+
+    Program prg = e.program(astIss.getAst());
+    assertThat(prg.eval(vars, null).getVal()).isSameAs(True);
+    assertThat(prg.eval(vars, deadline(Duration.ofHours(1))).getVal()).isSameAs(True);
+
+    // The loop is stopped after some iterations, the error must not be absorbed by the
+    // logical or.
+    AtomicInteger polls = new AtomicInteger();
+    EvalResult out = prg.eval(vars, () -> polls.incrementAndGet() > 2);
+    assertThat(isError(out.getVal())).isTrue();
+    assertThat(out.getVal().toString()).isEqualTo("operation interrupted");
+    assertThat(polls.get()).isEqualTo(3);
+
+    // Factory-based programs honor the cancellation as well.
+    Program prgState = e.program(astIss.getAst(), evalOptions(OptExhaustiveEval));
+    assertThat(isError(prgState.eval(vars, deadline(Duration.ZERO)).getVal())).isTrue();
+  }
+
+  @Test
+  void Predicate() {
+    Env e = newEnv(declarations(Decls.newVar("x", Decls.Int), Decls.newVar("y", Decls.Int)));
+    AstIssuesTuple astIss = e.compile("x / y > 1");
+    assertThat(astIss.hasIssues()).isFalse();
+
+    for (Program prg :
+        asList(
+            e.program(astIss.getAst()),
+            e.program(astIss.getAst(), evalOptions(OptExhaustiveEval)),
+            e.program(astIss.getAst(), costLimit(100L)))) {
+      assertThat(prg.test(mapOf("x", 4, "y", 2), false)).isTrue();
+      assertThat(prg.test(mapOf("x", 2, "y", 2), true)).isFalse();
+      // Errors yield the given default.
+      assertThat(prg.test(mapOf("x", 4, "y", 0), false)).isFalse();
+      assertThat(prg.test(mapOf("x", 4, "y", 0), true)).isTrue();
+    }
+
+    // Unknowns yield the given default as well.
+    Program prg = e.program(astIss.getAst(), evalOptions(OptPartialEval));
+    PartialActivation unkVars = partialVars(mapOf("x", 4), attributePattern("y"));
+    assertThat(prg.test(unkVars, false)).isFalse();
+    assertThat(prg.test(unkVars, true)).isTrue();
+
+    // Results that are not a bool yield the given default.
+    astIss = e.compile("x / y");
+    assertThat(astIss.hasIssues()).isFalse();
+    prg = e.program(astIss.getAst());
+    assertThat(prg.test(mapOf("x", 4, "y", 2), true)).isTrue();
+  }
+
   @Test
   void ResidualAst_AttributeQualifiers() {
     Env e =
@@ -1019,6 +1142,238 @@ public class CELTest {
             "123 == u && 123 == u && 123 == u && 123 == u && 123 == u && 123 == u && 123 == u");
   }
 
+  @Test
+  void UnknownAttributeTrails() {
+    Env e =
+        newEnv(
+            declarations(
+                Decls.newVar("request", Decls.newMapType(Decls.String, Decls.Dyn)),
+                Decls.newVar("resource", Decls.newMapType(Decls.String, Decls.Dyn))));
+    PartialActivation vars =
+        partialVars(
+            mapOf("request", mapOf("size", 10), "resource", mapOf("name", "x")),
+            attributePattern("request").qualString("auth"),
+            attributePattern("request").qualString("limit"),
+            attributePattern("resource").qualString("labels").wildcard());
+
+    // Both unknown operands of the logical operator are reported.
+    AstIssuesTuple astIss =
+        e.compile(
+            "request.auth.claims.email == 'a@b.c' && resource.labels['env'] == 'prod'"
+                + " && resource.name == 'x'");
+    assertThat(astIss.hasIssues()).isFalse();
+    Program prg = e.program(astIss.getAst(), evalOptions(OptPartialEval));
+    Val out = prg.eval(vars).getVal();
+    assertThat(out).isInstanceOf(UnknownT.class);
+    UnknownT unk = (UnknownT) out;
+    assertThat(unk.ids()).hasSize(2);
+    assertThat(unk.attributeTrails())
+        .extracting(Object::toString)
+        .containsExactly("request['auth']", "resource['labels']['env']");
+
+    // The same unknown of each iteration is reported once.
+    astIss = e.compile("[1, 2, 3].all(i, i < request.limit) || request.size > 100");
+    assertThat(astIss.hasIssues()).isFalse();
+    prg = e.program(astIss.getAst(), evalOptions(OptPartialEval));
+    out = prg.eval(vars).getVal();
+    assertThat(out).isInstanceOf(UnknownT.class);
+    unk = (UnknownT) out;
+    assertThat(unk.ids()).hasSize(1);
+    assertThat(unk.attributeTrails())
+        .extracting(Object::toString)
+        .containsExactly("request['limit']");
+  }
+
+  @Test
+  void Specialize() {
+    Env e =
+        newEnv(
+            declarations(
+                Decls.newVar("tenant", Decls.newMapType(Decls.String, Decls.Dyn)),
+                Decls.newVar("request", Decls.newMapType(Decls.String, Decls.Dyn))));
+    Map<String, Object> bindings = mapOf("tenant", mapOf("tier", "premium", "limit", 10));
+
+    AstIssuesTuple astIss =
+        e.compile(
+            "tenant.tier == 'premium'"
+                + " ? request.size < tenant.limit * 2"
+                + " : request.size < tenant.limit");
+    assertThat(astIss.hasIssues()).isFalse();
+    Ast residual = e.specializeAst(astIss.getAst(), bindings);
+    assertThat(astToString(residual)).isEqualTo("request.size < 20");
+
+    Program prg = e.specialize(astIss.getAst(), bindings);
+    assertThat(prg.eval(mapOf("request", mapOf("size", 15))).getVal()).isSameAs(True);
+    assertThat(prg.eval(mapOf("request", mapOf("size", 25))).getVal()).isSameAs(False);
+
+    // Subexpressions, which are not evaluated during the specialization, refer to the bindings.
+    astIss = e.compile("request.items.exists(i, i == tenant.tier)");
+    assertThat(astIss.hasIssues()).isFalse();
+    prg = e.specialize(astIss.getAst(), bindings);
+    assertThat(prg.eval(mapOf("request", mapOf("items", asList("basic", "premium")))).getVal())
+        .isSameAs(True);
+    assertThat(prg.eval(mapOf("request", mapOf("items", asList("basic")))).getVal())
+        .isSameAs(False);
+  }
+
+  @Test
+  void EvalSession() {
+    Env e =
+        newEnv(
+            declarations(
+                Decls.newVar("a", Decls.Int),
+                Decls.newVar("b", Decls.Int),
+                Decls.newFunction(
+                    "slow", Decls.newOverload("slow_int", singletonList(Decls.Int), Decls.Int))));
+    AtomicInteger calls = new AtomicInteger();
+    ProgramOption slow =
+        functions(
+            Overload.unary(
+                "slow_int",
+                value -> {
+                  calls.incrementAndGet();
+                  return IntT.intOf(((Number) value.value()).longValue() * 10);
+                }));
+
+    AstIssuesTuple astIss = e.compile("slow(a) + b");
+    assertThat(astIss.hasIssues()).isFalse();
+    EvalSession session = e.session(astIss.getAst(), slow);
+
+    assertThat(session.eval(mapOf("a", 1L, "b", 2L)).getVal()).isEqualTo(IntT.intOf(12));
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(session.memoized()).isGreaterThan(0);
+
+    // Only 'b' has changed, slow(a) is not evaluated again.
+    assertThat(session.eval(mapOf("a", 1L, "b", 3L), Set.of("b")).getVal())
+        .isEqualTo(IntT.intOf(13));
+    assertThat(calls.get()).isEqualTo(1);
+
+    assertThat(session.eval(mapOf("a", 2L, "b", 3L), Set.of("a")).getVal())
+        .isEqualTo(IntT.intOf(23));
+    assertThat(calls.get()).isEqualTo(2);
+
+    assertThat(session.eval(mapOf("a", 2L, "b", 3L), emptySet()).getVal())
+        .isEqualTo(IntT.intOf(23));
+    assertThat(calls.get()).isEqualTo(2);
+
+    // Evaluating without changed names evaluates all subexpressions.
+    assertThat(session.eval(mapOf("a", 2L, "b", 3L)).getVal()).isEqualTo(IntT.intOf(23));
+    assertThat(calls.get()).isEqualTo(3);
+
+    // Subexpressions within comprehensions depend on the iteration variables and are not memoized.
+    astIss = e.compile("[1, 2, 3].exists(x, x == b) && slow(a) > 0");
+    assertThat(astIss.hasIssues()).isFalse();
+    session = e.session(astIss.getAst(), slow);
+    calls.set(0);
+    assertThat(session.eval(mapOf("a", 1L, "b", 2L)).getVal()).isSameAs(True);
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(session.eval(mapOf("a", 1L, "b", 5L), Set.of("b")).getVal()).isSameAs(False);
+    assertThat(session.eval(mapOf("a", 1L, "b", 3L), Set.of("b")).getVal()).isSameAs(True);
+    assertThat(calls.get()).isEqualTo(1);
+
+    Ast ast = astIss.getAst();
+    assertThatThrownBy(() -> e.session(ast, evalOptions(OptTrackState)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void EvalSessionLogicalChain() {
+    Env e =
+        newEnv(
+            declarations(
+                Decls.newVar("a", Decls.Int),
+                Decls.newVar("b", Decls.Int),
+                Decls.newFunction(
+                    "slow", Decls.newOverload("slow_int", singletonList(Decls.Int), Decls.Int))));
+    AtomicInteger calls = new AtomicInteger();
+    ProgramOption slow =
+        functions(
+            Overload.unary(
+                "slow_int",
+                value -> {
+                  calls.incrementAndGet();
+                  return IntT.intOf(((Number) value.value()).longValue() * 10);
+                }));
+
+    String expr =
+        IntStream.range(0, 1000).mapToObj(i -> "b + 1 != " + i).collect(Collectors.joining(" && "))
+            + " && slow(a) > 0";
+    AstIssuesTuple astIss = e.compile(expr);
+    assertThat(astIss.hasIssues()).isFalse();
+    EvalSession session = e.session(astIss.getAst(), slow, primitiveArithmetic());
+
+    assertThat(session.eval(mapOf("a", 1L, "b", 1000L)).getVal()).isSameAs(True);
+    assertThat(calls.get()).isEqualTo(1);
+    // Only the call is memoized, the operators and the logical chain are evaluated directly.
+    assertThat(session.memoized()).isEqualTo(1);
+
+    assertThat(session.eval(mapOf("a", 1L, "b", 998L), Set.of("b")).getVal()).isSameAs(False);
+    assertThat(session.eval(mapOf("a", 1L, "b", 2000L), Set.of("b")).getVal()).isSameAs(True);
+    assertThat(calls.get()).isEqualTo(1);
+
+    assertThat(session.eval(mapOf("a", -1L, "b", 2000L), Set.of("a")).getVal()).isSameAs(False);
+    assertThat(calls.get()).isEqualTo(2);
+
+    // Without primitive arithmetic all decorators are chain-safe and the chain is collapsed.
+    session = e.session(astIss.getAst(), slow);
+    calls.set(0);
+    assertThat(session.eval(mapOf("a", 1L, "b", 1000L)).getVal()).isSameAs(True);
+    assertThat(session.memoized()).isEqualTo(1);
+    assertThat(session.eval(mapOf("a", 1L, "b", 2000L), Set.of("b")).getVal()).isSameAs(True);
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void ReorderLogical() {
+    Env e =
+        newEnv(
+            declarations(
+                Decls.newVar("a", Decls.Int),
+                Decls.newVar("b", Decls.Int),
+                Decls.newVar("flag", Decls.Bool),
+                Decls.newFunction(
+                    "check",
+                    Decls.newOverload("check_int", singletonList(Decls.Int), Decls.Bool))));
+    AtomicInteger calls = new AtomicInteger();
+    ProgramOption check =
+        functions(
+            Overload.unary(
+                "check_int",
+                value -> {
+                  calls.incrementAndGet();
+                  long v = ((Number) value.value()).longValue();
+                  return v < 0 ? newErr("negative") : boolOf(v > 0);
+                }));
+
+    AstIssuesTuple astIss = e.compile("check(a) && flag");
+    assertThat(astIss.hasIssues()).isFalse();
+    Program planned = e.program(astIss.getAst(), check);
+    Program reordered = e.program(astIss.getAst(), check, reorderLogical(false));
+
+    // The cheaper operand is evaluated first.
+    assertThat(reordered.eval(mapOf("a", 1L, "flag", false)).getVal()).isSameAs(False);
+    assertThat(calls.get()).isEqualTo(0);
+
+    for (long a = -1L; a <= 1L; a++) {
+      for (boolean flag : new boolean[] {false, true}) {
+        Map<String, Object> vars = mapOf("a", a, "flag", flag);
+        assertThat(reordered.eval(vars).getVal())
+            .hasToString(planned.eval(vars).getVal().toString());
+      }
+    }
+
+    // Both operands have the same estimated cost, the adaptive order evaluates the operand first,
+    // which short-circuits the evaluation.
+    astIss = e.compile("check(a) && check(b)");
+    assertThat(astIss.hasIssues()).isFalse();
+    Program adaptive = e.program(astIss.getAst(), check, reorderLogical(true));
+    calls.set(0);
+    for (int n = 0; n < 1000; n++) {
+      assertThat(adaptive.eval(mapOf("a", 1L, "b", 0L)).getVal()).isSameAs(False);
+    }
+    assertThat(calls.get()).isLessThan(1500);
+  }
+
   @Test
   void residualAst_Modified() {
     Env e =
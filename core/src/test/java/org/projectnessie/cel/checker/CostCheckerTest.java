@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.checker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.checker.CostEstimator.costOf;
+import static org.projectnessie.cel.checker.CostEstimator.sizeHints;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.projectnessie.cel.Ast;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.checker.CostEstimator.AstNode;
+import org.projectnessie.cel.checker.CostEstimator.CostEstimate;
+
+class CostCheckerTest {
+
+  private final Env env =
+      newEnv(
+          declarations(
+              Decls.newVar("name", Decls.String),
+              Decls.newVar("ints", Decls.newListType(Decls.Int)),
+              Decls.newVar("strs", Decls.newListType(Decls.String))));
+
+  @Test
+  void constantIsFree() {
+    assertThat(estimate("'Hello, World!'", CostEstimator.NoHints)).isEqualTo(CostEstimate.None);
+  }
+
+  @Test
+  void comprehensionOverInputIsUnboundedWithoutHints() {
+    CostEstimate cost = estimate("ints.exists(i, i > 1)", CostEstimator.NoHints);
+    assertThat(cost.min).isEqualTo(2);
+    assertThat(cost.isUnbounded()).isTrue();
+  }
+
+  @Test
+  void comprehensionOverInputUsesSizeHint() {
+    assertThat(estimate("ints.exists(i, i > 1)", sizeHints(Map.of("ints", 100L))))
+        .isEqualTo(costOf(2, 602));
+  }
+
+  @Test
+  void stringTraversalUsesSizeHint() {
+    assertThat(estimate("name.startsWith('abc')", sizeHints(Map.of("name", 1000L))))
+        .isEqualTo(costOf(2, 102));
+  }
+
+  @Test
+  void elementSizeHints() {
+    assertThat(
+            estimate(
+                "strs.exists(s, s.startsWith('a'))",
+                sizeHints(Map.of("strs", 10L, "strs.@items", 50L))))
+        .isEqualTo(costOf(2, 112));
+  }
+
+  @Test
+  void customCallCost() {
+    CostEstimator estimator =
+        new CostEstimator() {
+          @Override
+          public CostEstimate estimateCallCost(
+              String function, String overloadId, AstNode target, List<AstNode> args) {
+            return function.equals("size") ? costOf(7, 7) : null;
+          }
+        };
+    assertThat(estimate("size(name) > 3", estimator)).isEqualTo(costOf(9, 9));
+  }
+
+  @Test
+  void uncheckedAstIsRejected() {
+    Ast parsed = env.parse("name == 'a'").getAst();
+    assertThatThrownBy(() -> env.estimateCost(parsed, CostEstimator.NoHints))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private CostEstimate estimate(String expr, CostEstimator estimator) {
+    AstIssuesTuple astIss = env.compile(expr);
+    assertThat(astIss.hasIssues()).isFalse();
+    return env.estimateCost(astIss.getAst(), estimator);
+  }
+}
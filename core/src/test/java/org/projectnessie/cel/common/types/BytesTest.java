@@ -146,6 +146,31 @@ public class BytesTest {
     assertThat(bytesOf("1234567890").size().equal(intOf(10))).isSameAs(True);
   }
 
+  @Test
+  void bytesOfByteBufferSlice() {
+    ByteBuffer buffer = ByteBuffer.wrap("xx123yy".getBytes(StandardCharsets.UTF_8));
+    buffer.position(2).limit(5);
+    BytesT bytes = bytesOf(buffer);
+
+    assertThat(buffer.position()).isEqualTo(2);
+    assertThat(bytes.size().equal(intOf(3))).isSameAs(True);
+    assertThat(bytes.equal(bytesOf("123"))).isSameAs(True);
+    assertThat(bytes).isEqualTo(bytesOf("123")).hasSameHashCodeAs(bytesOf("123"));
+    assertThat(bytes.compare(bytesOf("12"))).isSameAs(IntOne);
+    assertThat(bytes.compare(bytesOf("124"))).isSameAs(IntNegOne);
+    assertThat(bytes.convertToType(StringType).equal(stringOf("123"))).isSameAs(True);
+    assertThat(bytes.convertToNative(byte[].class)).containsExactly(49, 50, 51);
+    assertThat(bytes.convertToNative(ByteString.class)).isEqualTo(ByteString.copyFromUtf8("123"));
+    assertThat(bytes.convertToNative(Value.class).getStringValue()).isEqualTo("MTIz");
+    assertThat(bytes.convertToNative(Value.class).getStringValue()).isEqualTo("MTIz");
+  }
+
+  @Test
+  void bytesCompareUnsigned() {
+    assertThat(bytesOf(new byte[] {(byte) 0xff}).compare(bytesOf(new byte[] {1})))
+        .isSameAs(IntOne);
+  }
+
   @Test
   void bytesContains() {
     Val bar1 = bytesOf(ByteString.copyFromUtf8("bar"));
@@ -239,4 +239,52 @@ public class StringTest {
     assertThat(stringOf("").size()).isSameAs(IntZero);
     assertThat(stringOf("\uD83D\uDE05\uD83D\uDE04\uD83D\uDC7E").size()).isEqualTo(intOf(3));
   }
+
+  @Test
+  void stringCodePointIndex() {
+    StringT ascii = stringOf("hello");
+    assertThat(ascii.charIndex(3)).isEqualTo(3);
+    assertThat(ascii.charIndex(6)).isEqualTo(-1);
+    assertThat(ascii.codePointIndex(5)).isEqualTo(5);
+    assertThat(ascii.codePointCount()).isEqualTo(5);
+    assertThat(ascii.charIndex(5)).isEqualTo(5);
+    assertThat(ascii.charIndex(-1)).isEqualTo(-1);
+
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      sb.append(i % 3 == 0 ? "\uD83D\uDE05" : "x");
+    }
+    String s = sb.toString();
+    // prefix scans for small indexes, the index of the string for larger ones
+    for (int cp = 0; cp <= 500; cp++) {
+      int charIndex = s.offsetByCodePoints(0, cp);
+      assertThat(stringOf(s).charIndex(cp)).isEqualTo(charIndex);
+      assertThat(stringOf(s).codePointIndex(charIndex)).isEqualTo(cp);
+    }
+    assertThat(stringOf(s).charIndex(501)).isEqualTo(-1);
+
+    StringT str = stringOf(s);
+    assertThat(str.codePointCount()).isEqualTo(500);
+    for (int cp = 0; cp <= 500; cp++) {
+      int charIndex = s.offsetByCodePoints(0, cp);
+      assertThat(str.charIndex(cp)).isEqualTo(charIndex);
+      assertThat(str.codePointIndex(charIndex)).isEqualTo(cp);
+    }
+    assertThat(str.charIndex(501)).isEqualTo(-1);
+
+    // new StringT instances of the same string and of an equal copy
+    for (String string : new String[] {s, new String(s)}) {
+      for (int cp = 0; cp <= 500; cp += 7) {
+        int charIndex = s.offsetByCodePoints(0, cp);
+        assertThat(stringOf(string).charIndex(cp)).isEqualTo(charIndex);
+        assertThat(stringOf(string).codePointIndex(charIndex)).isEqualTo(cp);
+      }
+      assertThat(stringOf(string).codePointCount()).isEqualTo(500);
+    }
+
+    String ascii64k = "x".repeat(65536);
+    assertThat(stringOf(ascii64k).charIndex(60000)).isEqualTo(60000);
+    assertThat(stringOf(ascii64k).codePointIndex(60000)).isEqualTo(60000);
+    assertThat(stringOf(ascii64k).codePointCount()).isEqualTo(65536);
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.common.types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.common.types.AttributeTrail.newAttributeTrail;
+import static org.projectnessie.cel.common.types.IntT.IntOne;
+import static org.projectnessie.cel.common.types.UnknownT.mergeUnknowns;
+import static org.projectnessie.cel.common.types.UnknownT.unknownOf;
+
+import org.junit.jupiter.api.Test;
+
+public class UnknownTest {
+
+  @Test
+  void unknownMerge() {
+    AttributeTrail a = newAttributeTrail("a", "b", 0L);
+    AttributeTrail c = newAttributeTrail("c");
+    UnknownT unkA = unknownOf(5, a);
+    UnknownT unkC = unknownOf(3, c);
+
+    UnknownT merged = unkA.merge(unkC);
+    assertThat(merged.ids()).containsExactly(3L, 5L);
+    assertThat(merged.containsId(3)).isTrue();
+    assertThat(merged.containsId(4)).isFalse();
+    assertThat(merged.attributeTrails()).containsExactly(a, c);
+    // The first id of the left-hand side stays the primary id.
+    assertThat(merged.intValue()).isEqualTo(5L);
+    assertThat(unkC.merge(unkA).intValue()).isEqualTo(3L);
+
+    // Merging values, which are already contained, does not allocate new values.
+    assertThat(merged.merge(unkA)).isSameAs(merged);
+    assertThat(merged.merge(unknownOf(3))).isSameAs(merged);
+    assertThat(merged.merge(merged)).isSameAs(merged);
+    assertThat(unknownOf(3).merge(unkC)).isNotSameAs(unkC).isEqualTo(unkC);
+  }
+
+  @Test
+  void unknownMergeUnknowns() {
+    UnknownT unk1 = unknownOf(1);
+    UnknownT unk2 = unknownOf(2);
+    assertThat(mergeUnknowns(unk1, unk2)).isEqualTo(unk1.merge(unk2));
+    assertThat(mergeUnknowns(unk1, IntOne)).isSameAs(unk1);
+    assertThat(mergeUnknowns(IntOne, unk1)).isSameAs(IntOne);
+  }
+
+  @Test
+  void unknownEquals() {
+    // Equality only considers the expression ids.
+    assertThat(unknownOf(1, newAttributeTrail("a"))).isEqualTo(unknownOf(1));
+    assertThat(unknownOf(1).merge(unknownOf(2))).isEqualTo(unknownOf(2).merge(unknownOf(1)));
+    assertThat(unknownOf(1).merge(unknownOf(2))).isNotEqualTo(unknownOf(1));
+    assertThat(unknownOf(1).merge(unknownOf(2)).hashCode())
+        .isEqualTo(unknownOf(2).merge(unknownOf(1)).hashCode());
+  }
+
+  @Test
+  void attributeTrailToString() {
+    assertThat(newAttributeTrail("a.b", "c", 0L, true)).hasToString("a.b['c'][0][true]");
+  }
+}
@@ -17,15 +17,22 @@ package org.projectnessie.cel.extension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.common.types.BoolT.True;
 import static org.projectnessie.cel.common.types.BytesT.bytesOf;
+import static org.projectnessie.cel.common.types.IntT.intOf;
 import static org.projectnessie.cel.common.types.StringT.stringOf;
 import static org.projectnessie.cel.extension.EncodersLib.encoders;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.projectnessie.cel.Env;
 import org.projectnessie.cel.Program;
 import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.BytesT;
 import org.projectnessie.cel.common.types.Err;
 
 class EncodersLibTest {
@@ -35,6 +42,22 @@ class EncodersLibTest {
     assertEvaluates("base64.encode(b'hello')", stringOf("aGVsbG8="));
   }
 
+  @Test
+  void encodesBase64ByteBufferSlice() {
+    ByteBuffer buffer = ByteBuffer.wrap("xxhelloyy".getBytes(StandardCharsets.UTF_8));
+    buffer.position(2).limit(7);
+    BytesT bytes = bytesOf(buffer);
+
+    Env env = newEnv(encoders(), declarations(Decls.newVar("b", Decls.Bytes)));
+    Env.AstIssuesTuple checked = env.compile("base64.encode(b)");
+    assertThat(checked.hasIssues()).isFalse();
+
+    Program program = env.program(checked.getAst());
+    assertThat(program.eval(Map.of("b", bytes)).getVal()).isEqualTo(stringOf("aGVsbG8="));
+    assertThat(program.eval(Map.of("b", bytes)).getVal()).isEqualTo(stringOf("aGVsbG8="));
+    assertThat(buffer.position()).isEqualTo(2);
+  }
+
   @Test
   void decodesBase64String() {
     assertEvaluates("base64.decode('aGVsbG8=')", bytesOf("hello"));
@@ -45,6 +68,14 @@ class EncodersLibTest {
     assertEvaluates("base64.decode('aGVsbG8')", bytesOf("hello"));
   }
 
+  @Test
+  void roundTripsBase64() {
+    assertEvaluates(
+        "string(base64.decode(base64.encode(b'{\"sub\":\"1\"}')))", stringOf("{\"sub\":\"1\"}"));
+    assertEvaluates("size(base64.decode('aGVsbG8='))", intOf(5));
+    assertEvaluates("base64.decode('aGVsbG8=') == b'hello'", True);
+  }
+
   @Test
   void rejectsInvalidBase64String() {
     EvalResult result = evaluate("base64.decode('not valid base64')");
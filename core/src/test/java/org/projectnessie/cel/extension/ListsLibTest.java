@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.extension.ListsLib.lists;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.Err;
+import org.projectnessie.cel.common.types.ref.Val;
+
+class ListsLibTest {
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "lists.range(4) == [0, 1, 2, 3]",
+        "lists.range(0) == []",
+        "[1, 2, 3, 4].slice(1, 3) == [2, 3]",
+        "[1, 2, 3, 4].slice(4, 4) == []",
+        "[[1, 2], [3], []].flatten() == [1, 2, 3]",
+        "[1, [2, [3, [4]]]].flatten(2) == [1, 2, 3, [4]]",
+        "[1, [2]].flatten(0) == [1, [2]]",
+        "[3, 1, 3, 2, 1].distinct() == [3, 1, 2]",
+        "[1, 1.0, 1u, 'a', 'a'].distinct() == [1, 'a']",
+        "[[1], [1], [2]].distinct() == [[1], [2]]",
+        "[3, 1, 2].sort() == [1, 2, 3]",
+        "[2.5, -1.0, 0.0].sort() == [-1.0, 0.0, 2.5]",
+        "['b', 'c', 'a'].sort() == ['a', 'b', 'c']",
+        "[3u, 1u, 2u].sort() == [1u, 2u, 3u]",
+        "[1, 2, 3].reverse() == [3, 2, 1]",
+        "['ab', 'c', 'def'].sortBy(s, size(s)) == ['c', 'ab', 'def']",
+        "[{'n': 2}, {'n': 1}].sortBy(m, m.n) == [{'n': 1}, {'n': 2}]",
+        "lists.range(5).reverse().sort() == lists.range(5)",
+        "ints.sort() == [1, 2, 3]",
+        "ints.reverse() == [2, 1, 3]",
+        "ints.slice(1, 2) == [1]",
+        "longs.distinct() == [5, 4]",
+        "doubles.distinct() == [1.0, 0.0]",
+      })
+  void evaluates(String expression) {
+    assertThat(evaluate(expression)).isSameAs(True);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "[1, 2].slice(-1, 1)",
+        "[1, 2].slice(2, 1)",
+        "[1, 2].slice(0, 3)",
+        "[1, [2]].flatten(-1)",
+        "dyn([1, 'a']).sort()",
+      })
+  void rejectsInvalidArguments(String expression) {
+    assertThat(evaluate(expression)).isInstanceOf(Err.class);
+  }
+
+  @Test
+  void sortByIsStable() {
+    assertThat(evaluate("[[2, 1], [1, 2], [2, 3], [1, 4]].sortBy(p, p[0]).map(p, p[1])"))
+        .isEqualTo(evaluate("[2, 4, 1, 3]"));
+  }
+
+  private static Val evaluate(String expression) {
+    Env env =
+        newEnv(
+            lists(),
+            declarations(
+                Decls.newVar("ints", Decls.newListType(Decls.Int)),
+                Decls.newVar("longs", Decls.newListType(Decls.Int)),
+                Decls.newVar("doubles", Decls.newListType(Decls.Double))));
+    Env.AstIssuesTuple checked = env.compile(expression);
+    assertThat(checked.hasIssues()).isFalse();
+
+    Program program = env.program(checked.getAst());
+    return program
+        .eval(
+            Map.of(
+                "ints", new int[] {3, 1, 2},
+                "longs", new long[] {5, 4, 5, 4},
+                "doubles", new double[] {1.0, 0.0, -0.0, 1.0}))
+        .getVal();
+  }
+}
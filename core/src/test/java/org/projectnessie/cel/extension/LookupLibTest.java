@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.extension.LookupBatch.newLookupBatch;
+import static org.projectnessie.cel.extension.LookupLib.Lookup.newLookup;
+import static org.projectnessie.cel.extension.LookupLib.lookups;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.Err;
+import org.projectnessie.cel.extension.LookupLib.Lookup;
+
+class LookupLibTest {
+
+  private final List<Set<Object>> loads = new ArrayList<>();
+
+  private Map<?, ?> loadGroups(Set<Object> keys) {
+    loads.add(Set.copyOf(keys));
+    Map<Object, Object> groups = new HashMap<>();
+    for (Object key : keys) {
+      String user = (String) key;
+      if (!user.equals("unknown")) {
+        groups.put(user, user.startsWith("admin") ? List.of("admins", "users") : List.of("users"));
+      }
+    }
+    return groups;
+  }
+
+  private Map<?, ?> loadManagers(Set<Object> keys) {
+    loads.add(Set.copyOf(keys));
+    Map<Object, Object> managers = new HashMap<>();
+    for (Object key : keys) {
+      managers.put(key, "admin-of-" + key);
+    }
+    return managers;
+  }
+
+  private Program program(String expression, Lookup... lookups) {
+    Env env = newEnv(lookups(lookups), declarations(Decls.newVar("user", Decls.String)));
+    Env.AstIssuesTuple checked = env.compile(expression);
+    assertThat(checked.hasIssues()).isFalse();
+    return env.program(checked.getAst());
+  }
+
+  private Lookup groups() {
+    return newLookup(
+        "directory.groups", Decls.String, Decls.newListType(Decls.String), this::loadGroups);
+  }
+
+  @Test
+  void resolvesBatchWithSingleLoad() {
+    Program program = program("'admins' in directory.groups(user)", groups());
+
+    List<Map<String, Object>> inputs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      inputs.add(Map.of("user", (i % 10 == 0 ? "admin" : "user") + (i % 20)));
+    }
+    LookupBatch batch = newLookupBatch();
+    List<EvalResult> results = batch.evalAll(program, inputs);
+
+    assertThat(results).hasSize(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(results.get(i).getVal()).isSameAs(i % 10 == 0 ? True : False);
+    }
+    assertThat(batch.bulkLoads()).isEqualTo(1);
+    assertThat(loads).hasSize(1);
+    assertThat(loads.get(0)).hasSize(20);
+  }
+
+  @Test
+  void resolvesDependentLookupsInRounds() {
+    Lookup managers =
+        newLookup("directory.manager", Decls.String, Decls.String, this::loadManagers);
+    Program program =
+        program("'admins' in directory.groups(directory.manager(user))", groups(), managers);
+
+    LookupBatch batch = newLookupBatch();
+    List<EvalResult> results =
+        batch.evalAll(program, List.of(Map.of("user", "a"), Map.of("user", "b")));
+
+    assertThat(results).extracting(EvalResult::getVal).containsExactly(True, True);
+    assertThat(batch.bulkLoads()).isEqualTo(2);
+    assertThat(loads).containsExactly(Set.of("a", "b"), Set.of("admin-of-a", "admin-of-b"));
+  }
+
+  @Test
+  void reportsMissingKeys() {
+    Program program = program("directory.groups(user)", groups());
+
+    EvalResult result = newLookupBatch().eval(program, Map.of("user", "unknown"));
+
+    assertThat(result.getVal()).isInstanceOf(Err.class);
+    assertThat(result.getVal().toString()).contains("no value for key 'unknown'");
+  }
+
+  @Test
+  void resolvesWithoutBatch() {
+    Program program = program("'users' in directory.groups(user)", groups());
+
+    assertThat(program.eval(Map.of("user", "x")).getVal()).isSameAs(True);
+    assertThat(program.eval(Map.of("user", "x")).getVal()).isSameAs(True);
+    assertThat(loads).containsExactly(Set.of("x"), Set.of("x"));
+  }
+
+  @Test
+  void cachesValuesForTtl() {
+    AtomicLong clock = new AtomicLong();
+    Lookup cached = groups().withCache(Duration.ofNanos(100), 10, clock::get);
+    Program program = program("'users' in directory.groups(user)", cached);
+
+    assertThat(newLookupBatch().eval(program, Map.of("user", "x")).getVal()).isSameAs(True);
+    assertThat(program.eval(Map.of("user", "x")).getVal()).isSameAs(True);
+    assertThat(newLookupBatch().eval(program, Map.of("user", "x")).getVal()).isSameAs(True);
+    assertThat(loads).hasSize(1);
+
+    clock.set(100);
+    assertThat(newLookupBatch().eval(program, Map.of("user", "x")).getVal()).isSameAs(True);
+    assertThat(loads).hasSize(2);
+  }
+
+  @Test
+  void cacheEvictsWhenFull() {
+    AtomicLong clock = new AtomicLong();
+    LookupCache cache = new LookupCache(100, 2, clock::get);
+    cache.put("a", True);
+    cache.put("b", True);
+    cache.put("c", True);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get("c")).isSameAs(True);
+
+    clock.set(100);
+    assertThat(cache.get("c")).isNull();
+  }
+}
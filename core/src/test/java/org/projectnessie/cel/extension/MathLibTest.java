@@ -17,6 +17,7 @@ package org.projectnessie.cel.extension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
 import static org.projectnessie.cel.common.types.DoubleT.doubleOf;
 import static org.projectnessie.cel.common.types.IntT.intOf;
 import static org.projectnessie.cel.common.types.UintT.uintOf;
@@ -27,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import org.projectnessie.cel.Env;
 import org.projectnessie.cel.Program;
 import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.checker.Decls;
 import org.projectnessie.cel.common.types.Err;
 
 class MathLibTest {
@@ -59,12 +61,50 @@ class MathLibTest {
     assertThat(result.getVal().toString()).contains("negative offset");
   }
 
+  @Test
+  void aggregatesPrimitiveLists() {
+    assertEvaluates("math.sum(ints)", intOf(6));
+    assertEvaluates("math.sum(longs)", intOf(-2));
+    assertEvaluates("math.sum(doubles)", doubleOf(4.0));
+    assertEvaluates("math.avg(ints)", doubleOf(2.0));
+    assertEvaluates("math.avg(doubles)", doubleOf(1.0));
+    assertEvaluates("math.greatest(ints)", intOf(3));
+    assertEvaluates("math.least(longs)", intOf(-9));
+    assertEvaluates("math.greatest(doubles)", doubleOf(2.5));
+  }
+
+  @Test
+  void aggregatesGenericLists() {
+    assertEvaluates("math.sum([])", intOf(0));
+    assertEvaluates("math.sum([1, 2, 3])", intOf(6));
+    assertEvaluates("math.sum([1u, 2u])", uintOf(3));
+    assertEvaluates("math.sum([1.5, 2.5])", doubleOf(4.0));
+    assertEvaluates("math.avg([1, 2])", doubleOf(1.5));
+    assertEvaluates("math.avg([1u, 2u, 6u])", doubleOf(3.0));
+  }
+
+  @Test
+  void rejectsInvalidAggregates() {
+    assertThat(evaluate("math.sum([9223372036854775807, 1])").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("math.sum(longs + [9223372036854775807, 9])").getVal())
+        .isInstanceOf(Err.class);
+    assertThat(evaluate("math.sum([1, 2.0])").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("math.avg([])").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("math.avg(['a'])").getVal()).isInstanceOf(Err.class);
+  }
+
   private static void assertEvaluates(String expression, Object expectedValue) {
     assertThat(evaluate(expression).getVal()).isEqualTo(expectedValue);
   }
 
   private static EvalResult evaluate(String expression) {
-    Env env = newEnv(math());
+    Env env =
+        newEnv(
+            math(),
+            declarations(
+                Decls.newVar("ints", Decls.newListType(Decls.Int)),
+                Decls.newVar("longs", Decls.newListType(Decls.Int)),
+                Decls.newVar("doubles", Decls.newListType(Decls.Double))));
     Env.AstIssuesTuple parsed = env.parse(expression);
     assertThat(parsed.hasIssues()).isFalse();
 
@@ -72,6 +112,10 @@ class MathLibTest {
     assertThat(checked.hasIssues()).isFalse();
 
     Program program = env.program(checked.getAst());
-    return program.eval(Map.of());
+    return program.eval(
+        Map.of(
+            "ints", new int[] {1, 2, 3},
+            "longs", new long[] {7, -9, 0},
+            "doubles", new double[] {-0.5, 2.5, 0.0, 2.0}));
   }
 }
@@ -16,19 +16,26 @@
 package org.projectnessie.cel.extension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.ProgramOption.costTracking;
+import static org.projectnessie.cel.ProgramOption.globals;
 import static org.projectnessie.cel.common.types.BoolT.False;
 import static org.projectnessie.cel.common.types.BoolT.True;
 import static org.projectnessie.cel.common.types.IntT.intOf;
 import static org.projectnessie.cel.common.types.StringT.stringOf;
 import static org.projectnessie.cel.extension.NetworkLib.network;
 
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.projectnessie.cel.Env;
 import org.projectnessie.cel.Program;
 import org.projectnessie.cel.Program.EvalResult;
+import org.projectnessie.cel.checker.Decls;
 import org.projectnessie.cel.common.types.Err;
+import org.projectnessie.cel.common.types.ref.Val;
 
 class NetworkLibTest {
 
@@ -49,12 +56,117 @@ class NetworkLibTest {
     assertEvaluates("cidr('192.168.0.0/24').containsCIDR('192.168.0.0/23')", False);
   }
 
+  @Test
+  void canonicalizesIpv6Ellipsis() {
+    assertEvaluates("string(ip('::'))", stringOf("::"));
+    assertEvaluates("string(ip('::1'))", stringOf("::1"));
+    assertEvaluates("string(ip('2001:0db8:0:0:1:0:0:1'))", stringOf("2001:db8::1:0:0:1"));
+  }
+
+  @Test
+  void checksIpv6CidrContainment() {
+    assertEvaluates("cidr('2001:db8::/32').containsIP('2001:db8:ffff::1')", True);
+    assertEvaluates("cidr('2001:db8::/32').containsIP('2001:db9::1')", False);
+    assertEvaluates("cidr('2001:db8::/65').containsIP('2001:db8::7fff:0:0:1')", True);
+    assertEvaluates("cidr('2001:db8::/65').containsIP('2001:db8::8000:0:0:1')", False);
+    assertEvaluates("cidr('::/0').containsIP(ip('::1'))", True);
+    assertEvaluates("cidr('0.0.0.0/0').containsIP('::1')", False);
+    assertEvaluates("cidr('10.0.0.0/8').containsCIDR('10.1.0.0/16')", True);
+  }
+
+  @Test
+  void masksCidrs() {
+    assertEvaluates("string(cidr('192.168.17.5/20').masked())", stringOf("192.168.16.0/20"));
+    assertEvaluates("string(cidr('2001:db8::1/64').masked())", stringOf("2001:db8::/64"));
+    assertEvaluates("cidr('10.0.0.0/8').masked() == cidr('10.0.0.0/8')", True);
+    assertEvaluates("cidr('10.0.0.1/32').masked().ip() == ip('10.0.0.1')", True);
+  }
+
+  @Test
+  void foldsConstantCalls() {
+    Env env = newEnv(network(), declarations(Decls.newVar("addr", Decls.String)));
+    Env.AstIssuesTuple checked = env.compile("cidr('10.0.0.0/8').containsIP('10.1.2.3')");
+    assertThat(checked.hasIssues()).isFalse();
+    EvalResult result = env.program(checked.getAst(), costTracking(null)).eval(Map.of());
+    assertThat(result.getVal()).isSameAs(True);
+    assertThat(result.getEvalDetails().getActualCost()).isEqualTo(0L);
+
+    checked = env.compile("cidr('10.0.0.0/8').containsIP(addr)");
+    assertThat(checked.hasIssues()).isFalse();
+    result = env.program(checked.getAst(), costTracking(null)).eval(Map.of("addr", "11.0.0.1"));
+    assertThat(result.getVal()).isSameAs(False);
+    // the attribute and the containsIP call, the cidr() literal has been folded
+    assertThat(result.getEvalDetails().getActualCost()).isEqualTo(2L);
+  }
+
+  @Test
+  void matchesCidrSets() {
+    String set = "cidrSet(['10.0.0.0/8', '10.1.0.0/16', '192.168.0.0/24', '2001:db8::/32'])";
+    assertEvaluates(set + ".containsIP('10.200.0.1')", True);
+    assertEvaluates(set + ".containsIP(ip('192.168.1.1'))", False);
+    assertEvaluates(set + ".containsIP('2001:db8::1')", True);
+    assertEvaluates(set + ".containsIP('::1')", False);
+    assertEvaluates("string(" + set + ".lookup('10.1.2.3'))", stringOf("10.1.0.0/16"));
+    assertEvaluates("string(" + set + ".lookup('10.2.2.3'))", stringOf("10.0.0.0/8"));
+    assertEvaluates("cidrSet([cidr('0.0.0.0/0')]).containsIP('1.2.3.4')", True);
+    assertThat(evaluate(set + ".lookup('11.0.0.1')").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("cidrSet(['10.0.0.0/8', 'foo'])").getVal()).isInstanceOf(Err.class);
+  }
+
+  @Test
+  void comparesCidrSetsByValue() {
+    assertEvaluates("cidrSet(['10.0.0.0/8', '::/0']) == cidrSet(['::/0', '10.0.0.0/8'])", True);
+    assertEvaluates("cidrSet(['10.0.0.0/8']) == cidrSet(['10.0.0.0/8', '10.0.0.0/8'])", True);
+    assertEvaluates("cidrSet(['10.0.0.0/8']) == cidrSet(['10.0.0.0/16'])", False);
+    assertEvaluates("cidrSet(['10.0.0.0/8']) == cidrSet(['11.0.0.0/8'])", False);
+    assertEvaluates("cidrSet(['10.0.0.0/8']) == cidrSet(['10.0.0.0/8', '10.1.0.0/16'])", False);
+    assertEvaluates(
+        "cidrSet(['10.0.0.1/8', '10.0.0.2/8']) == cidrSet(['10.0.0.2/8', '10.0.0.1/8'])", True);
+    assertEvaluates("string(cidrSet(['10.0.0.1/8']).lookup('10.1.2.3'))", stringOf("10.0.0.0/8"));
+
+    Val set = NetworkLib.newCidrSet(List.of("10.0.0.1/8", "2001:db8::1/32", "10.0.0.2/8"));
+    Val reversed = NetworkLib.newCidrSet(List.of("10.0.0.2/8", "2001:db8::1/32", "10.0.0.1/8"));
+    assertThat(set).isEqualTo(reversed);
+    assertThat(set.hashCode()).isEqualTo(reversed.hashCode());
+    assertThat(set.convertToNative(List.class))
+        .isEqualTo(reversed.convertToNative(List.class))
+        .isEqualTo(List.of("10.0.0.0/8", "2001:db8::/32"));
+  }
+
+  @Test
+  void sharesCidrSetGlobals() {
+    Env env =
+        newEnv(
+            network(),
+            declarations(
+                Decls.newVar("blocked", Decls.newObjectType("net.CIDRSet")),
+                Decls.newVar("addr", Decls.String)));
+    Env.AstIssuesTuple checked = env.compile("blocked.containsIP(addr)");
+    assertThat(checked.hasIssues()).isFalse();
+    Program program =
+        env.program(
+            checked.getAst(),
+            globals(
+                Map.of("blocked", NetworkLib.newCidrSet(List.of("203.0.113.0/24", "fd00::/8")))));
+
+    assertThat(program.eval(Map.of("addr", "203.0.113.77")).getVal()).isSameAs(True);
+    assertThat(program.eval(Map.of("addr", "fd12::1")).getVal()).isSameAs(True);
+    assertThat(program.eval(Map.of("addr", "198.51.100.1")).getVal()).isSameAs(False);
+    assertThatThrownBy(() -> NetworkLib.newCidrSet(List.of("10.0.0.0/40")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void rejectsInvalidIpLiterals() {
     EvalResult result = evaluate("ip('192.168.0.1.0')");
 
     assertThat(result.getVal()).isInstanceOf(Err.class);
     assertThat(result.getVal().toString()).contains("parse error");
+
+    assertThat(evaluate("ip('1:2:3:4:5:6:7:8::')").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("ip('1::2::3')").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("ip('01.2.3.4')").getVal()).isInstanceOf(Err.class);
+    assertThat(evaluate("cidr('10.0.0.0/33')").getVal()).isInstanceOf(Err.class);
   }
 
   @Test
@@ -18,14 +18,25 @@ package org.projectnessie.cel.extension;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.common.types.IntT.intOf;
+import static org.projectnessie.cel.common.types.OptionalT.OptionalNone;
+import static org.projectnessie.cel.common.types.OptionalT.optionalOf;
 import static org.projectnessie.cel.extension.OptionalLib.optionals;
 
 import com.google.api.expr.v1alpha1.Type;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.projectnessie.cel.Env;
 import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.common.types.Err;
+import org.projectnessie.cel.common.types.ref.Val;
 
 class OptionalLibTest {
+  private static final Type NESTED_MAP =
+      Decls.newMapType(Decls.String, Decls.newMapType(Decls.String, Decls.Int));
 
   @Test
   void declaresOptionalNone() {
@@ -48,8 +59,61 @@ class OptionalLibTest {
     assertCheckedType("[optional.of(1), null][0]", optional(Decls.Int));
   }
 
+  @Test
+  void optionalSelectionWithDefault() {
+    Map<String, Object> m = Map.of("a", Map.of("b", 42L));
+    assertThat(evaluate("m.?a.?b.orValue(1)", m)).isEqualTo(intOf(42));
+    assertThat(evaluate("m.?x.?b.orValue(1)", m)).isEqualTo(intOf(1));
+    assertThat(evaluate("m.?a.?x.orValue(1)", m)).isEqualTo(intOf(1));
+    assertThat(evaluate("m.?a.b.orValue(1)", m)).isEqualTo(intOf(42));
+    assertThat(evaluate("m.?x.b.hasValue()", m)).isSameAs(False);
+  }
+
+  @Test
+  void optionalIndex() {
+    Map<String, Object> m = Map.of("a", Map.of("b", 42L));
+    assertThat(evaluate("m[?'a'].hasValue()", m)).isSameAs(True);
+    assertThat(evaluate("m[?'x']", m)).isSameAs(OptionalNone);
+    assertThat(evaluate("m[?'a'][?'b'].value()", m)).isEqualTo(intOf(42));
+    assertThat(evaluate("m[?'a']['b']", m)).isEqualTo(optionalOf(intOf(42)));
+    assertThat(evaluate("[1, 2][?1]", m)).isEqualTo(optionalOf(intOf(2)));
+    assertThat(evaluate("[1, 2][?5]", m)).isSameAs(OptionalNone);
+  }
+
+  @Test
+  void optionalFunctions() {
+    Map<String, Object> m = Map.of();
+    assertThat(evaluate("optional.none().or(optional.of(2)).value()", m)).isEqualTo(intOf(2));
+    assertThat(evaluate("optional.of(1).or(optional.of(2)).value()", m)).isEqualTo(intOf(1));
+    assertThat(evaluate("optional.ofNonZeroValue('').hasValue()", m)).isSameAs(False);
+    assertThat(evaluate("optional.ofNonZeroValue([1]).hasValue()", m)).isSameAs(True);
+    assertThat(evaluate("optional.none().value()", m)).isInstanceOf(Err.class);
+  }
+
+  @Test
+  void checksOptionalSelection() {
+    assertCheckedType("m.?a", optional(Decls.newMapType(Decls.String, Decls.Int)));
+    assertCheckedType("m.?a.?b", optional(Decls.Int));
+    assertCheckedType("m.?a.b", optional(Decls.Int));
+    assertCheckedType("m[?'a']['b']", optional(Decls.Int));
+    assertCheckedType("m.?a.?b.orValue(1)", Decls.Int);
+  }
+
+  @Test
+  void rejectsOptionalSyntaxWithoutLibrary() {
+    assertThat(newEnv().parse("m.?a").hasIssues()).isTrue();
+    assertThat(newEnv().parse("m[?'a']").hasIssues()).isTrue();
+  }
+
+  private static Val evaluate(String expression, Map<String, Object> m) {
+    Env env = newEnv(optionals(), declarations(Decls.newVar("m", NESTED_MAP)));
+    Env.AstIssuesTuple checked = env.compile(expression);
+    assertThat(checked.hasIssues()).isFalse();
+    return env.program(checked.getAst()).eval(Map.of("m", m)).getVal();
+  }
+
   private static void assertCheckedType(String expression, Type expectedType) {
-    Env env = newEnv(optionals());
+    Env env = newEnv(optionals(), declarations(Decls.newVar("m", NESTED_MAP)));
     Env.AstIssuesTuple parsed = env.parse(expression);
     assertThat(parsed.hasIssues()).isFalse();
 
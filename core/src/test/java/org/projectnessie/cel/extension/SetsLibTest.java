@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.common.types.BoolT.False;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.extension.SetsLib.sets;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.ProgramOption;
+import org.projectnessie.cel.checker.Decls;
+
+class SetsLibTest {
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ';',
+      value = {
+        "sets.contains([], []); true",
+        "sets.contains([1], []); true",
+        "sets.contains([], [1]); false",
+        "sets.contains([1, 2, 3], [2, 2, 3]); true",
+        "sets.contains([1, 2], [2, 3]); false",
+        "sets.contains([1, 2, 3, 4], [4]); true",
+        "sets.contains([4], [1, 2, 3, 4]); false",
+        "sets.contains([1], [1.0, 1u]); true",
+        "sets.contains([[1], [2]], [[2]]); true",
+        "sets.intersects([], []); false",
+        "sets.intersects([1, 2], [3, 2]); true",
+        "sets.intersects([1, 2], [3, 4]); false",
+        "sets.intersects([1.0], [1u]); true",
+        "sets.equivalent([], []); true",
+        "sets.equivalent([1, 2], [2, 1, 1]); true",
+        "sets.equivalent([1, 2, 2], [1]); false",
+        "sets.equivalent([1], [1, 2]); false",
+        "sets.equivalent(['a', 'b'], ['b', 'a']); true",
+      })
+  void evaluates(String expression, boolean expected) {
+    Env env = newEnv(sets());
+    Env.AstIssuesTuple checked = env.compile(expression);
+    assertThat(checked.hasIssues()).isFalse();
+
+    Program program = env.program(checked.getAst());
+    assertThat(program.eval(Map.of()).getVal()).isSameAs(expected ? True : False);
+  }
+
+  @Test
+  void cachesGlobalList() {
+    Env env =
+        newEnv(
+            sets(),
+            declarations(
+                Decls.newVar("required", Decls.newListType(Decls.String)),
+                Decls.newVar("roles", Decls.newListType(Decls.String))));
+    Env.AstIssuesTuple checked = env.compile("sets.intersects(roles, required)");
+    assertThat(checked.hasIssues()).isFalse();
+
+    List<String> required = List.of("admin", "ops", "dev");
+    Program program =
+        env.program(checked.getAst(), ProgramOption.globals(Map.of("required", required)));
+
+    assertThat(program.eval(Map.of("roles", List.of("guest", "ops"))).getVal()).isSameAs(True);
+    assertThat(program.eval(Map.of("roles", List.of("guest"))).getVal()).isSameAs(False);
+    assertThat(program.eval(Map.of("roles", List.of("admin"))).getVal()).isSameAs(True);
+    // Variables bound per evaluation take precedence over the cached global.
+    assertThat(program.eval(Map.of("roles", List.of("admin"), "required", List.of("x"))).getVal())
+        .isSameAs(False);
+  }
+
+  @Test
+  void reusesIndexOfGlobalList() {
+    Env env =
+        newEnv(
+            sets(),
+            declarations(
+                Decls.newVar("required", Decls.newListType(Decls.String)),
+                Decls.newVar("roles", Decls.newListType(Decls.String))));
+    Env.AstIssuesTuple checked = env.compile("sets.intersects(roles, required)");
+    assertThat(checked.hasIssues()).isFalse();
+
+    AtomicInteger reads = new AtomicInteger();
+    List<String> required =
+        new AbstractList<>() {
+          private final String[] elems = {"admin", "ops", "dev"};
+
+          @Override
+          public String get(int index) {
+            reads.incrementAndGet();
+            return elems[index];
+          }
+
+          @Override
+          public int size() {
+            return elems.length;
+          }
+        };
+    Program program =
+        env.program(checked.getAst(), ProgramOption.globals(Map.of("required", required)));
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(program.eval(Map.of("roles", List.of("guest", "ops"))).getVal()).isSameAs(True);
+    }
+    // The global has been indexed by the first evaluation only.
+    assertThat(reads).hasValue(required.size());
+  }
+
+  @Test
+  void doesNotCacheMutableVariables() {
+    Env env =
+        newEnv(
+            sets(),
+            declarations(
+                Decls.newVar("allowed", Decls.newListType(Decls.String)),
+                Decls.newVar("roles", Decls.newListType(Decls.String))));
+    Env.AstIssuesTuple checked = env.compile("sets.contains(allowed, roles)");
+    assertThat(checked.hasIssues()).isFalse();
+    Program program = env.program(checked.getAst());
+
+    List<String> allowed = new ArrayList<>(List.of("admin", "dev"));
+    Map<String, Object> vars = Map.of("allowed", allowed, "roles", List.of("dev"));
+    assertThat(program.eval(vars).getVal()).isSameAs(True);
+    // The same list instance with the same size, but different elements.
+    allowed.set(1, "ops");
+    assertThat(program.eval(vars).getVal()).isSameAs(False);
+    allowed.set(0, "dev");
+    assertThat(program.eval(vars).getVal()).isSameAs(True);
+  }
+}
@@ -23,10 +23,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.projectnessie.cel.Env;
+import org.projectnessie.cel.EnvOption;
 import org.projectnessie.cel.Library;
 import org.projectnessie.cel.Program;
+import org.projectnessie.cel.checker.Decls;
 import org.projectnessie.cel.common.types.BoolT;
 import org.projectnessie.cel.common.types.Err;
+import org.projectnessie.cel.common.types.StringT;
 import org.projectnessie.cel.common.types.pb.ProtoTypeRegistry;
 import org.projectnessie.cel.common.types.ref.Val;
 
@@ -79,7 +82,8 @@ public class StringsTest {
         new TestData("\"12 days 12 hours\".replace(\"{0}\", \"2\") == \"12 days 12 hours\""),
         new TestData("\"{0} days {0} hours\".replace(\"{0}\", \"2\") == \"2 days 2 hours\""),
         new TestData(
-            "\"{0} days {0} hours\".replace(\"{0}\", \"2\", 1).replace(\"{0}\", \"23\") == \"2 days 23 hours\""),
+            "\"{0} days {0} hours\".replace(\"{0}\", \"2\", 1).replace(\"{0}\", \"23\")"
+                + " == \"2 days 23 hours\""),
         new TestData("\"1 ©αT taco\".replace(\"αT\", \"o©α\") == \"1 ©o©α taco\""),
         new TestData("'hello hello hello'.split(' ') == ['hello', 'hello', 'hello']"),
         new TestData("\"hello world\".split(\" \") == [\"hello\", \"world\"]"),
@@ -93,16 +97,32 @@ public class StringsTest {
         new TestData("\"tacocat\".substring(4, 4) == \"\""),
         new TestData("'ta©o©αT'.substring(2, 6) == \"©o©α\""),
         new TestData("'ta©o©αT'.substring(7, 7) == \"\""),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.charAt(1) == 'a'"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.charAt(2) == '\uD83D\uDE05'"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.indexOf('b') == 3"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.indexOf('\uD83D\uDE05', 1) == 2"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.lastIndexOf('\uD83D\uDE05') == 2"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.lastIndexOf('a', 2) == 1"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.substring(1, 3) == 'a\uD83D\uDE05'"),
+        new TestData("'\uD83D\uDE05a\uD83D\uDE05b'.substring(3) == 'b'"),
+        new TestData("'\uD83D\uDE05a'.charAt(3) == ''", "String index out of range: 3"),
+        new TestData("'\uD83D\uDE05a'.substring(3) == ''", "String index out of range: 3"),
+        new TestData(
+            "'\uD83D\uDE05a\uD83D\uDE05'.split('') == ['\uD83D\uDE05', 'a', '\uD83D\uDE05']"),
+        new TestData("'a,b,,'.split(',') == ['a', 'b']"),
+        new TestData("',a'.split(',') == ['', 'a']"),
         new TestData("'TacoCat'.upperAscii() == 'TACOCAT'"),
         new TestData("'TacoCÆt Xii'.upperAscii() == 'TACOCÆT XII'"),
         new TestData("\" \\f\\n\\r\\t\\vtext  \".trim() == \"text\""),
         new TestData("\"\u0085\u00a0\u1680text\".trim() == \"text\""),
         new TestData(
-            "\"text\u2000\u2001\u2002\u2003\u2004\u2004\u2006\u2007\u2008\u2009\".trim() == \"text\""),
+            "\"text\u2000\u2001\u2002\u2003\u2004\u2004\u2006\u2007\u2008\u2009\".trim()"
+                + " == \"text\""),
         new TestData("\"\u200atext\u2028\u2029\u202F\u205F\u3000\".trim() == \"text\""),
         // Trim test with whitespace-like characters not included.
         new TestData(
-            "\"\u180etext\u200b\u200c\u200d\u2060\ufeff\".trim() == \"\u180etext\u200b\u200c\u200d\u2060\ufeff\""),
+            "\"\u180etext\u200b\u200c\u200d\u2060\ufeff\".trim()"
+                + " == \"\u180etext\u200b\u200c\u200d\u2060\ufeff\""),
 
         // Join tests
         new TestData("['x', 'y'].join() == 'xy'"),
@@ -117,6 +137,9 @@ public class StringsTest {
         new TestData("\"%d %s %.0f\".format([1, \"two\", 2.5]) == \"1 two 2\""),
         new TestData("\"%x\".format([\"Hello world!\"]) == \"48656c6c6f20776f726c6421\""),
         new TestData("\"%s\".format([[\"abc\", 3.14, null]]) == \"[abc, 3.14, null]\""),
+        new TestData("'%% %s=%d%%'.format(['a', 1]) == '% a=1%'"),
+        new TestData("'%.2f'.format([3.14159]) == '3.14'"),
+        new TestData("'no clauses'.format([]) == 'no clauses'"),
 
         // Error test cases based on checked expression usage.
         new TestData("'tacocat'.indexOf('a', 30) == -1", "String index out of range: 30"),
@@ -184,7 +207,12 @@ public class StringsTest {
         new TestData("\"tacocat\".substring(0, false) == \"\"", "no matching overload", true),
         new TestData(
             "\"%a\".format([1])",
-            "could not parse formatting clause: unrecognized formatting clause \"a\""));
+            "could not parse formatting clause: unrecognized formatting clause \"a\""),
+        new TestData("'%s and %s'.format(['a'])", "index 1 out of range"),
+        new TestData(
+            "'%d %a'.format(['x'])",
+            "error during formatting: decimal clause can only be used on integers, was given"
+                + " string"));
   }
 
   @Test
@@ -233,6 +261,43 @@ public class StringsTest {
         .isEqualTo(new String[] {"A", " ", "B", " ", "C"});
   }
 
+  @Test
+  public void testCancellation() {
+    Env env =
+        Env.newCustomEnv(
+            ProtoTypeRegistry.newRegistry(), Arrays.asList(Library.StdLib(), StringsLib.strings()));
+    Env.AstIssuesTuple astIssue = env.compile("'ABC'.lowerAscii() == 'abc'");
+    assertThat(astIssue.hasIssues()).isFalse();
+    Program program = env.program(astIssue.getAst());
+
+    assertThat(program.eval(new HashMap<>(), () -> false).getVal()).isEqualTo(BoolT.True);
+
+    Val cancelled = program.eval(new HashMap<>(), () -> true).getVal();
+    assertThat(cancelled).isInstanceOf(Err.class);
+    assertThat(cancelled.toString()).isEqualTo("operation interrupted");
+  }
+
+  @Test
+  public void testPrecompiledFormat() {
+    Env env =
+        Env.newCustomEnv(
+            ProtoTypeRegistry.newRegistry(),
+            Arrays.asList(
+                Library.StdLib(),
+                StringsLib.strings(),
+                EnvOption.declarations(
+                    Decls.newVar("path", Decls.String), Decls.newVar("code", Decls.Int))));
+    Env.AstIssuesTuple astIssue = env.compile("'%s -> %d'.format([path, code])");
+    assertThat(astIssue.hasIssues()).isFalse();
+    Program program = env.program(astIssue.getAst());
+
+    assertThat(program.eval(Map.of("path", "/a", "code", 200L)).getVal())
+        .isEqualTo(StringT.stringOf("/a -> 200"));
+    assertThat(program.eval(Map.of("path", "/b/c", "code", 404L)).getVal())
+        .isEqualTo(StringT.stringOf("/b/c -> 404"));
+    assertThat(program.eval(Map.of("path", "/d")).getVal()).isInstanceOf(Err.class);
+  }
+
   private static void testExpression(TestData testData) {
     Env env =
         Env.newCustomEnv(
@@ -284,6 +284,63 @@ class AttributePatternsTest {
     assertThat(val).isEqualTo(unknownOf(3));
   }
 
+  @Test
+  void manyPatterns() {
+    TypeRegistry reg = newRegistry();
+    AttributeFactory fac = newPartialAttributeFactory(Container.defaultContainer, reg, reg);
+
+    AttributePattern[] patterns = new AttributePattern[10_001];
+    for (int i = 0; i < 10_000; i++) {
+      patterns[i] = newAttributePattern("tenants").qualString("tenant-" + i).qualString("secret");
+    }
+    patterns[10_000] = newAttributePattern("tenants").wildcard().qualInt(42);
+    PartialActivation partVars = newPartialActivation(emptyActivation(), patterns);
+
+    // tenants['tenant-123'].secret matches on the last qualifier.
+    Attribute attr = genAttr(fac, new Attr("tenants").quals("tenant-123", "secret"));
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(2));
+
+    // tenants['tenant-123'] matches the prefix of a pattern.
+    attr = genAttr(fac, new Attr("tenants").quals("tenant-123"));
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(1));
+
+    // tenants['tenant-123'].secret.value is covered by the shorter pattern.
+    attr = genAttr(fac, new Attr("tenants").quals("tenant-123", "secret", "value"));
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(2));
+
+    // tenants['other'][42] matches the wildcard pattern, also for double qualifiers.
+    attr = genAttr(fac, new Attr("tenants").quals("other", 42L));
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(2));
+    attr = genAttr(fac, new Attr("tenants").quals("other", 42d));
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(2));
+
+    // tenants['tenant-123'].public does not match any pattern and is resolved from the
+    // activation.
+    Attribute miss = genAttr(fac, new Attr("tenants").quals("tenant-123", "public"));
+    assertThatThrownBy(() -> miss.resolve(partVars));
+  }
+
+  @Test
+  void firstMatchingPatternWins() {
+    TypeRegistry reg = newRegistry();
+    AttributeFactory fac = newPartialAttributeFactory(Container.defaultContainer, reg, reg);
+    Attribute attr = genAttr(fac, new Attr("a").quals("b", "c"));
+
+    PartialActivation partVars =
+        newPartialActivation(
+            emptyActivation(),
+            newAttributePattern("a").qualString("b").qualString("c"),
+            newAttributePattern("a").wildcard());
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(2));
+
+    partVars =
+        newPartialActivation(
+            emptyActivation(),
+            newAttributePattern("a").wildcard(),
+            newAttributePattern("a").qualString("b").qualString("c"));
+    assertThat(attr.resolve(partVars)).isEqualTo(unknownOf(1));
+  }
+
   static Attribute genAttr(AttributeFactory fac, Attr a) {
     long id = 1L;
     Attribute attr;
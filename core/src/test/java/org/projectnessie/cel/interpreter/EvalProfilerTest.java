@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.EvalOption.OptExhaustiveEval;
+import static org.projectnessie.cel.EvalOption.OptOptimize;
+import static org.projectnessie.cel.ProgramOption.evalOptions;
+import static org.projectnessie.cel.ProgramOption.profiler;
+import static org.projectnessie.cel.Util.mapOf;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.interpreter.EvalProfiler.newEvalProfiler;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.projectnessie.cel.Ast;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.checker.Decls;
+import org.projectnessie.cel.interpreter.EvalProfiler.NodeProfile;
+
+class EvalProfilerTest {
+
+  private final Env env =
+      newEnv(
+          declarations(
+              Decls.newVar("ints", Decls.newListType(Decls.Int)),
+              Decls.newVar("name", Decls.String)));
+
+  @Test
+  void countsEvaluationsPerNode() {
+    Ast ast = compile("ints.exists(i, i == 3) &&\nname.startsWith('a')");
+    EvalProfiler prof = newEvalProfiler();
+    Program prg = env.program(ast, profiler(prof), evalOptions(OptOptimize));
+
+    for (int n = 0; n < 10; n++) {
+      assertThat(prg.eval(mapOf("ints", Arrays.asList(1, 2, 3), "name", "abc")).getVal())
+          .isSameAs(True);
+    }
+
+    NodeProfile root = prof.profile(ast.getSourceInfo(), ast.getExpr().getId());
+    assertThat(root.count()).isEqualTo(10);
+    assertThat(root.description()).isEqualTo("And");
+
+    // The comparison within the comprehension is evaluated three times per evaluation.
+    NodeProfile eq =
+        prof.profiles().stream().filter(p -> p.description().equals("_==_")).findFirst().get();
+    assertThat(eq.count()).isEqualTo(30);
+
+    for (NodeProfile p : prof.profiles()) {
+      assertThat(p.selfNanos()).isBetween(0L, p.totalNanos());
+    }
+    assertThat(root.totalNanos())
+        .isGreaterThanOrEqualTo(prof.profiles().stream().mapToLong(NodeProfile::selfNanos).sum());
+
+    String report = prof.report(ast.getSource(), ast.getSourceInfo(), 100);
+    assertThat(report).contains("startsWith", "<input>:2:", "name.startsWith('a')");
+
+    prof.reset();
+    assertThat(prof.profiles()).isEmpty();
+  }
+
+  @Test
+  void sharedAcrossProgramsAndDecorators() {
+    Ast ast = compile("name.size() > 1 && name.size() < 10");
+    EvalProfiler prof = newEvalProfiler(true);
+    Program prg = env.program(ast, profiler(prof), evalOptions(OptExhaustiveEval));
+    Program prg2 = env.program(ast, profiler(prof));
+    prg.eval(mapOf("name", "abc"));
+    prg2.eval(mapOf("name", "abc"));
+
+    // Attributes are profiled once per evaluation, also with state tracking.
+    List<NodeProfile> attrs = prof.profiles();
+    attrs.removeIf(p -> !p.description().equals("attribute"));
+    assertThat(attrs).hasSize(2).allMatch(p -> p.count() == 2L);
+    assertThat(prof.hotSpots(1)).hasSize(1);
+  }
+
+  @Test
+  void keepsExpressionsApart() {
+    // Both expressions use the same expression ids for different nodes.
+    Ast size = compile("name.size()");
+    Ast upper = compile("name.startsWith('a')");
+    EvalProfiler prof = newEvalProfiler();
+    Program sizePrg = env.program(size, profiler(prof));
+    Program upperPrg = env.program(upper, profiler(prof));
+    for (int n = 0; n < 3; n++) {
+      sizePrg.eval(mapOf("name", "abc"));
+    }
+    upperPrg.eval(mapOf("name", "abc"));
+
+    NodeProfile sizeRoot = prof.profile(size.getSourceInfo(), size.getExpr().getId());
+    NodeProfile upperRoot = prof.profile(upper.getSourceInfo(), upper.getExpr().getId());
+    assertThat(size.getExpr().getId()).isEqualTo(upper.getExpr().getId());
+    assertThat(sizeRoot).isNotSameAs(upperRoot);
+    assertThat(sizeRoot.description()).isEqualTo("size");
+    assertThat(sizeRoot.count()).isEqualTo(3);
+    assertThat(upperRoot.description()).isEqualTo("startsWith");
+    assertThat(upperRoot.count()).isEqualTo(1);
+
+    assertThat(prof.report(size.getSource(), size.getSourceInfo(), 100))
+        .contains("size")
+        .doesNotContain("startsWith");
+  }
+
+  private Ast compile(String expr) {
+    AstIssuesTuple astIss = env.compile(expr);
+    assertThat(astIss.hasIssues()).isFalse();
+    return astIss.getAst();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.interpreter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.common.types.BoolT.True;
+import static org.projectnessie.cel.common.types.IntT.IntOne;
+import static org.projectnessie.cel.common.types.IntT.IntZero;
+import static org.projectnessie.cel.interpreter.EvalState.newEvalState;
+
+import org.junit.jupiter.api.Test;
+
+class EvalStateTest {
+
+  @Test
+  void valuesAndIds() {
+    EvalState state = newEvalState(4);
+    assertThat(state.ids()).isEmpty();
+    assertThat(state.value(1)).isNull();
+
+    state.setValue(1, IntOne);
+    state.setValue(3, IntZero);
+    assertThat(state.value(1)).isSameAs(IntOne);
+    assertThat(state.value(2)).isNull();
+    assertThat(state.value(3)).isSameAs(IntZero);
+    assertThat(state.ids()).containsExactly(1L, 3L);
+
+    state.setValue(1, True);
+    assertThat(state.value(1)).isSameAs(True);
+    assertThat(state.ids()).containsExactly(1L, 3L);
+  }
+
+  @Test
+  void grow() {
+    EvalState state = newEvalState(2);
+    state.setValue(1, IntOne);
+    state.setValue(100, IntZero);
+    assertThat(state.value(1)).isSameAs(IntOne);
+    assertThat(state.value(100)).isSameAs(IntZero);
+    assertThat(state.value(1000)).isNull();
+    assertThat(state.ids()).containsExactly(1L, 100L);
+  }
+
+  @Test
+  void sparseIds() {
+    EvalState state = newEvalState();
+    state.setValue(-1, IntOne);
+    state.setValue(Long.MAX_VALUE, IntZero);
+    state.setValue(2, True);
+    assertThat(state.value(-1)).isSameAs(IntOne);
+    assertThat(state.value(Long.MAX_VALUE)).isSameAs(IntZero);
+    assertThat(state.ids()).containsExactlyInAnyOrder(-1L, 2L, Long.MAX_VALUE);
+
+    state.reset();
+    assertThat(state.value(-1)).isNull();
+    assertThat(state.value(Long.MAX_VALUE)).isNull();
+    assertThat(state.ids()).isEmpty();
+  }
+
+  @Test
+  void reset() {
+    EvalState state = newEvalState(8);
+    state.setValue(1, IntOne);
+    state.setValue(2, IntZero);
+    state.reset();
+    assertThat(state.value(1)).isNull();
+    assertThat(state.value(2)).isNull();
+    assertThat(state.ids()).isEmpty();
+
+    state.setValue(2, True);
+    assertThat(state.value(1)).isNull();
+    assertThat(state.value(2)).isSameAs(True);
+    assertThat(state.ids()).containsExactly(2L);
+  }
+}
@@ -30,6 +30,7 @@ import static org.projectnessie.cel.common.types.BoolT.True;
 import static org.projectnessie.cel.common.types.BytesT.bytesOf;
 import static org.projectnessie.cel.common.types.DoubleT.doubleOf;
 import static org.projectnessie.cel.common.types.Err.isError;
+import static org.projectnessie.cel.common.types.Err.newErr;
 import static org.projectnessie.cel.common.types.Err.noSuchOverload;
 import static org.projectnessie.cel.common.types.IntT.IntNegOne;
 import static org.projectnessie.cel.common.types.IntT.IntZero;
@@ -40,6 +41,7 @@ import static org.projectnessie.cel.common.types.StringT.StringType;
 import static org.projectnessie.cel.common.types.StringT.stringOf;
 import static org.projectnessie.cel.common.types.Types.boolOf;
 import static org.projectnessie.cel.common.types.UintT.uintOf;
+import static org.projectnessie.cel.common.types.UnknownT.unknownOf;
 import static org.projectnessie.cel.common.types.pb.ProtoTypeRegistry.newEmptyRegistry;
 import static org.projectnessie.cel.common.types.pb.ProtoTypeRegistry.newRegistry;
 import static org.projectnessie.cel.common.types.traits.Trait.AdderType;
@@ -58,6 +60,8 @@ import static org.projectnessie.cel.interpreter.Interpreter.exhaustiveEval;
 import static org.projectnessie.cel.interpreter.Interpreter.newInterpreter;
 import static org.projectnessie.cel.interpreter.Interpreter.newStandardInterpreter;
 import static org.projectnessie.cel.interpreter.Interpreter.optimize;
+import static org.projectnessie.cel.interpreter.Interpreter.primitiveArithmetic;
+import static org.projectnessie.cel.interpreter.Interpreter.reorderLogical;
 import static org.projectnessie.cel.interpreter.Interpreter.trackState;
 import static org.projectnessie.cel.interpreter.functions.Overload.standardOverloads;
 
@@ -85,6 +89,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -96,6 +102,7 @@ import org.projectnessie.cel.checker.Decls;
 import org.projectnessie.cel.common.Source;
 import org.projectnessie.cel.common.ULong;
 import org.projectnessie.cel.common.containers.Container;
+import org.projectnessie.cel.common.operators.Operator;
 import org.projectnessie.cel.common.types.DurationT;
 import org.projectnessie.cel.common.types.Err;
 import org.projectnessie.cel.common.types.ListT;
@@ -118,7 +125,15 @@ import org.projectnessie.cel.interpreter.AttributeFactory.NamespacedAttribute;
 import org.projectnessie.cel.interpreter.AttributeFactory.Qualifier;
 import org.projectnessie.cel.interpreter.AttributesTest.CustAttrFactory;
 import org.projectnessie.cel.interpreter.Coster.Cost;
+import org.projectnessie.cel.interpreter.Interpretable.EvalBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalDoubleBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalEq;
+import org.projectnessie.cel.interpreter.Interpretable.EvalIntBinary;
 import org.projectnessie.cel.interpreter.Interpretable.EvalListFold;
+import org.projectnessie.cel.interpreter.Interpretable.EvalLogicalChain;
+import org.projectnessie.cel.interpreter.Interpretable.EvalOr;
+import org.projectnessie.cel.interpreter.Interpretable.EvalStringBinary;
+import org.projectnessie.cel.interpreter.Interpretable.EvalTimestampBinary;
 import org.projectnessie.cel.interpreter.Interpretable.InterpretableAttribute;
 import org.projectnessie.cel.interpreter.Interpretable.InterpretableConst;
 import org.projectnessie.cel.interpreter.functions.Overload;
@@ -549,6 +564,22 @@ class InterpreterTest {
           .cost(costOf(0, 3))
           .exhaustiveCost(costOf(3, 3))
           .err("divide by zero"),
+      new TestCase(InterpreterTestCase.and_chain_100)
+          .expr(
+              IntStream.rangeClosed(1, 100)
+                  .mapToObj(i -> "x != " + i)
+                  .collect(Collectors.joining(" && ")))
+          .env(Decls.newVar("x", Decls.Int))
+          .in("x", 0L)
+          .out(True),
+      new TestCase(InterpreterTestCase.or_chain_1000)
+          .expr(
+              IntStream.rangeClosed(1, 1000)
+                  .mapToObj(i -> "x == " + i)
+                  .collect(Collectors.joining(" || ")))
+          .env(Decls.newVar("x", Decls.Int))
+          .in("x", 1000L)
+          .out(True),
       new TestCase(InterpreterTestCase.call_no_args)
           .expr("zero()")
           .cost(costOf(1, 1))
@@ -797,6 +828,38 @@ class InterpreterTest {
           .expr("timestamp(2) >= timestamp(2)")
           .cost(costOf(3, 3))
           .optimizedCost(costOf(1, 1)),
+      new TestCase(InterpreterTestCase.typed_int_arithmetic)
+          .expr("a * b + a / b - a % b == 32 && a - b > 0 && b <= a")
+          .env(Decls.newVar("a", Decls.Int), Decls.newVar("b", Decls.Int))
+          .in("a", 10L, "b", 3L),
+      new TestCase(InterpreterTestCase.untyped_int_arithmetic)
+          .expr("a * b + a / b - a % b == 32 && a - b > 0 && b <= a")
+          .unchecked()
+          .in("a", 10L, "b", 3L),
+      new TestCase(InterpreterTestCase.typed_int_overflow)
+          .expr("a + 1 > a")
+          .env(Decls.newVar("a", Decls.Int))
+          .in("a", Long.MAX_VALUE)
+          .err("integer overflow"),
+      new TestCase(InterpreterTestCase.typed_double_compare)
+          .expr("x + y > x - y && y * 2.0 < x / 0.5 && z >= -z && !(z < -z)")
+          .env(
+              Decls.newVar("x", Decls.Double),
+              Decls.newVar("y", Decls.Double),
+              Decls.newVar("z", Decls.Double))
+          .in("x", 2.5d, "y", 0.5d, "z", 0.0d),
+      new TestCase(InterpreterTestCase.typed_string_compare)
+          .expr("s + t == 'ab' && s < t && t >= s && s != t")
+          .env(Decls.newVar("s", Decls.String), Decls.newVar("t", Decls.String))
+          .in("s", "a", "t", "b"),
+      new TestCase(InterpreterTestCase.untyped_string_compare)
+          .expr("s + t == 'ab' && s < t && t >= s && s != t")
+          .unchecked()
+          .in("s", "a", "t", "b"),
+      new TestCase(InterpreterTestCase.typed_timestamp_compare)
+          .expr("timestamp(1) < ts && ts <= timestamp(2) && !(ts > timestamp(2))")
+          .env(Decls.newVar("ts", Decls.Timestamp))
+          .in("ts", Timestamp.newBuilder().setSeconds(2).build()),
       new TestCase(InterpreterTestCase.string_to_timestamp)
           .expr("timestamp('1986-04-26T01:23:40Z')")
           .cost(costOf(1, 1))
@@ -1313,6 +1376,7 @@ class InterpreterTest {
     opts.put("optimize", optimize());
     opts.put("exhaustive", exhaustiveEval(state));
     opts.put("track", trackState(state));
+    opts.put("primitiveArithmetic", primitiveArithmetic());
     for (Entry<String, InterpretableDecorator> en : opts.entrySet()) {
       String mode = en.getKey();
       InterpretableDecorator opt = en.getValue();
@@ -1406,6 +1470,109 @@ class InterpreterTest {
         .hasMessage("unknown type: TestProto");
   }
 
+  @Test
+  void logicalChainLeftDeep() {
+    // Chains of generated expressions may not be balanced by the parser.
+    int terms = 10000;
+    long id = 1L;
+    Expr expr = boolConstExpr(id++);
+    for (int i = 1; i < terms; i++) {
+      Expr rhs =
+          i < terms - 1
+              ? boolConstExpr(id++)
+              : Expr.newBuilder()
+                  .setId(id++)
+                  .setIdentExpr(Expr.Ident.newBuilder().setName("x"))
+                  .build();
+      expr =
+          Expr.newBuilder()
+              .setId(id++)
+              .setCallExpr(
+                  Expr.Call.newBuilder()
+                      .setFunction(Operator.LogicalAnd.id)
+                      .addArgs(expr)
+                      .addArgs(rhs))
+              .build();
+    }
+
+    TypeRegistry reg = newRegistry();
+    Container cont = Container.defaultContainer;
+    AttributeFactory attrs = newAttributeFactory(cont, reg, reg);
+    Interpreter intr = newStandardInterpreter(cont, reg, reg, attrs);
+    Interpretable interpretable = intr.newUncheckedInterpretable(expr);
+    assertThat(interpretable).isInstanceOf(EvalLogicalChain.class);
+    assertThat(((EvalLogicalChain) interpretable).operands).hasSize(terms);
+    assertThat(interpretable.eval(newActivation(mapOf("x", true)))).isSameAs(True);
+    assertThat(interpretable.eval(newActivation(mapOf("x", false)))).isSameAs(False);
+
+    // Only the root is reordered, the nested operations are collapsed without being decorated.
+    Interpretable reordered = intr.newUncheckedInterpretable(expr, reorderLogical(true));
+    assertThat(reordered).isInstanceOf(EvalLogicalChain.class);
+    assertThat(((EvalLogicalChain) reordered).operands).hasSize(terms);
+    assertThat(reordered.eval(newActivation(mapOf("x", false)))).isSameAs(False);
+  }
+
+  @Test
+  void logicalChainKeepsNestedOperationsForCustomDecorators() {
+    String expr =
+        IntStream.range(0, 100).mapToObj(i -> "x == " + i).collect(Collectors.joining(" || "));
+    TestCase tc =
+        new TestCase(InterpreterTestCase.logical_chain_nested)
+            .expr(expr)
+            .unchecked()
+            .in("x", 99L);
+    assertThat(program(tc, optimize(), reorderLogical(false)).interpretable)
+        .isInstanceOf(EvalLogicalChain.class);
+
+    // A decorator, which only observes the nodes, sees every nested operation.
+    AtomicInteger logical = new AtomicInteger();
+    InterpretableDecorator observer =
+        i -> {
+          if (i instanceof EvalOr) {
+            logical.incrementAndGet();
+          }
+          return i;
+        };
+    Program program = program(tc, observer);
+    assertThat(logical).hasValue(99);
+    assertThat(program.interpretable).isInstanceOf(EvalOr.class);
+    assertThat(program.interpretable.eval(program.activation)).isSameAs(True);
+  }
+
+  private static Expr boolConstExpr(long id) {
+    return Expr.newBuilder()
+        .setId(id)
+        .setConstExpr(Constant.newBuilder().setBoolValue(true))
+        .build();
+  }
+
+  @Test
+  void logicalChainCombinesLikeNestedOperations() {
+    Val[] values = {True, False, intOf(1), newErr("first"), newErr("second"), unknownOf(42)};
+    for (String expr :
+        new String[] {"a && b && c && d", "a || (b || c) || d", "(a && b) && (c && d)"}) {
+      for (Val a : values) {
+        for (Val b : values) {
+          for (Val c : values) {
+            for (Val d : values) {
+              TestCase tc =
+                  new TestCase(InterpreterTestCase.logical_chain_nested)
+                      .expr(expr)
+                      .unchecked()
+                      .in("a", a, "b", b, "c", c, "d", d);
+              Program chain = program(tc);
+              assertThat(chain.interpretable).isInstanceOf(EvalLogicalChain.class);
+              // Tracking the state keeps the nested binary operations.
+              Program nested = program(tc, trackState(newEvalState()));
+              assertThat(chain.interpretable.eval(chain.activation))
+                  .hasToString(nested.interpretable.eval(nested.activation).toString());
+            }
+          }
+        }
+      }
+    }
+  }
+
   @Test
   void exhaustiveConditionalExpr() {
     Source src = newTextSource("a ? b < 1.0 : c == ['hello']");
@@ -1497,6 +1664,136 @@ class InterpreterTest {
     assertThat(result.equal(expected)).isSameAs(True);
   }
 
+  @Test
+  void checkedOperandTypesSelectTypedOperators() {
+    Decl[] env = {
+      Decls.newVar("a", Decls.Int),
+      Decls.newVar("x", Decls.Double),
+      Decls.newVar("s", Decls.String),
+      Decls.newVar("ts", Decls.Timestamp),
+      Decls.newVar("d", Decls.Dyn)
+    };
+    Map<String, Class<?>> plans = new HashMap<>();
+    plans.put("a < 2", EvalIntBinary.class);
+    plans.put("a % 2 == 0", EvalIntBinary.class);
+    plans.put("x * 2.0", EvalDoubleBinary.class);
+    plans.put("x == 2.0", EvalEq.class);
+    plans.put("s + 'x'", EvalStringBinary.class);
+    plans.put("s != 'x'", EvalStringBinary.class);
+    plans.put("ts > timestamp(0)", EvalTimestampBinary.class);
+    plans.put("ts == timestamp(0)", EvalEq.class);
+    plans.put("d + 1", EvalBinary.class);
+    plans.put("a == d", EvalEq.class);
+    for (Entry<String, Class<?>> plan : plans.entrySet()) {
+      Program program =
+          program(
+              new TestCase(InterpreterTestCase.typed_int_arithmetic).expr(plan.getKey()).env(env));
+      assertThat(program.interpretable).as(plan.getKey()).isInstanceOf(plan.getValue());
+    }
+
+    Program unchecked =
+        program(
+            new TestCase(InterpreterTestCase.untyped_int_arithmetic).expr("a < 2").unchecked());
+    assertThat(unchecked.interpretable).isInstanceOf(EvalBinary.class);
+  }
+
+  @Test
+  void typedOperatorsFallBackForUnexpectedValues() {
+    // The checked type of 'a' does not match the bound value, which is then handled by the
+    // generic implementation of the operator.
+    Program program =
+        program(
+            new TestCase(InterpreterTestCase.typed_int_arithmetic)
+                .expr("a + 1")
+                .env(Decls.newVar("a", Decls.Int))
+                .in("a", "one"));
+    assertThat(program.interpretable).isInstanceOf(EvalIntBinary.class);
+    assertThat(program.interpretable.eval(program.activation))
+        .isInstanceOf(Err.class)
+        .extracting(Object::toString)
+        .asString()
+        .startsWith("no such overload");
+
+    program =
+        program(
+            new TestCase(InterpreterTestCase.typed_int_arithmetic)
+                .expr("a / 0 < 1")
+                .env(Decls.newVar("a", Decls.Int))
+                .in("a", 1L));
+    assertThat(program.interpretable.eval(program.activation))
+        .isInstanceOf(Err.class)
+        .extracting(Object::toString)
+        .isEqualTo("divide by zero");
+  }
+
+  @Test
+  void compiledOperatorsFallBackToPlan() {
+    Decl[] env = {Decls.newVar("a", Decls.Int), Decls.newVar("x", Decls.Double)};
+    Program program =
+        program(
+            new TestCase(InterpreterTestCase.typed_int_arithmetic)
+                .expr("a * 2 + 1 > 10 && x / 2.0 < 1.0")
+                .env(env)
+                .in("a", 5L, "x", 1.5d),
+            primitiveArithmetic());
+    assertThat(program.interpretable).isInstanceOf(InterpretableCompiler.EvalCompiledBool.class);
+    assertThat(program.interpretable.eval(program.activation)).isSameAs(True);
+
+    // Overflows, errors and values of unexpected types are passed to the regular operators.
+    program =
+        program(
+            new TestCase(InterpreterTestCase.typed_int_arithmetic)
+                .expr("a * 2 + 1 > 10 && x / 2.0 < 1.0")
+                .env(env)
+                .in("a", Long.MAX_VALUE, "x", 1.5d),
+            primitiveArithmetic());
+    assertThat(program.interpretable.eval(program.activation))
+        .isInstanceOf(Err.class)
+        .extracting(Object::toString)
+        .isEqualTo("integer overflow");
+    program =
+        program(
+            new TestCase(InterpreterTestCase.typed_int_arithmetic)
+                .expr("a * 2 + 1 > 10 && x / 2.0 < 1.0")
+                .env(env)
+                .in("a", Long.MAX_VALUE, "x", 4.0d),
+            primitiveArithmetic());
+    assertThat(program.interpretable.eval(program.activation)).isSameAs(False);
+
+    // The operands are not evaluated again when falling back.
+    AtomicInteger reads = new AtomicInteger();
+    Activation vars = program.activation;
+    Activation counting =
+        new Activation() {
+          @Override
+          public ResolvedValue resolveName(String name) {
+            reads.incrementAndGet();
+            return vars.resolveName(name);
+          }
+
+          @Override
+          public Activation parent() {
+            return vars.parent();
+          }
+        };
+    assertThat(program.interpretable.eval(counting)).isSameAs(False);
+    assertThat(reads).hasValue(2);
+
+    program =
+        program(
+            new TestCase(InterpreterTestCase.typed_int_arithmetic)
+                .expr("a / 2")
+                .env(env)
+                .in("a", "one"),
+            primitiveArithmetic());
+    assertThat(program.interpretable).isInstanceOf(InterpretableCompiler.EvalCompiledInt.class);
+    assertThat(program.interpretable.eval(program.activation))
+        .isInstanceOf(Err.class)
+        .extracting(Object::toString)
+        .asString()
+        .startsWith("no such overload");
+  }
+
   @Test
   void exhaustiveLogicalOrEquals() {
     // a || b == "b"
@@ -26,6 +26,9 @@ public enum InterpreterTestCase {
   and_error_2nd_false,
   and_error_1st_error,
   and_error_2nd_error,
+  and_chain_100,
+  or_chain_1000,
+  logical_chain_nested,
   call_no_args,
   call_one_arg,
   call_two_arg,
@@ -85,6 +88,13 @@ public enum InterpreterTestCase {
   timestamp_le_timestamp,
   timestamp_gt_timestamp,
   timestamp_ge_timestamp,
+  typed_int_arithmetic,
+  untyped_int_arithmetic,
+  typed_int_overflow,
+  typed_double_compare,
+  typed_string_compare,
+  untyped_string_compare,
+  typed_timestamp_compare,
   timestamp_get_hours_tz,
   string_to_timestamp,
   macro_all_non_strict,
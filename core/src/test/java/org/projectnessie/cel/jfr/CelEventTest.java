@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 The Authors of CEL-Java
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.cel.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.projectnessie.cel.Env.newEnv;
+import static org.projectnessie.cel.EnvOption.declarations;
+import static org.projectnessie.cel.EvalOption.OptOptimize;
+import static org.projectnessie.cel.ProgramOption.evalOptions;
+import static org.projectnessie.cel.Util.mapOf;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.projectnessie.cel.Env;
+import org.projectnessie.cel.Env.AstIssuesTuple;
+import org.projectnessie.cel.Program;
+import org.projectnessie.cel.checker.Decls;
+
+class CelEventTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void phasesAreRecorded() throws Exception {
+    String expr = "x > 1 && y";
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      for (String name : new String[] {"Parse", "Check", "Program", "Eval"}) {
+        recording.enable("org.projectnessie.cel." + name).withThreshold(Duration.ZERO);
+      }
+      recording.start();
+
+      Env env = newEnv(declarations(Decls.newVar("x", Decls.Int), Decls.newVar("y", Decls.Bool)));
+      AstIssuesTuple astIss = env.compile(expr);
+      Program prg = env.program(astIss.getAst(), evalOptions(OptOptimize));
+      prg.eval(mapOf("x", 2, "y", true));
+      prg.eval(mapOf("x", 2));
+      env.parse("x >");
+
+      recording.stop();
+      Path file = tempDir.resolve("cel.jfr");
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+      Files.delete(file);
+    }
+
+    List<String> parse = outcomes(events, "Parse");
+    assertThat(parse).containsExactly(CelEvent.OutcomeOk, CelEvent.OutcomeIssues);
+    assertThat(outcomes(events, "Check")).containsExactly(CelEvent.OutcomeOk);
+    assertThat(outcomes(events, "Program")).containsExactly(CelEvent.OutcomeOk);
+    assertThat(outcomes(events, "Eval"))
+        .containsExactly(EvalEvent.OutcomeValue, EvalEvent.OutcomeError);
+
+    RecordedEvent eval = ofType(events, "Eval").get(0);
+    assertThat(eval.getInt("expressionHash")).isEqualTo(expr.hashCode());
+    assertThat(eval.getInt("expressionSize")).isEqualTo(expr.length());
+    assertThat(eval.getString("evalOptions")).contains("OptOptimize");
+    assertThat(ofType(events, "Program").get(0).getString("evalOptions")).contains("OptOptimize");
+  }
+
+  private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals("org.projectnessie.cel." + name))
+        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> outcomes(List<RecordedEvent> events, String name) {
+    return ofType(events, name).stream()
+        .map(e -> e.getString("outcome"))
+        .collect(Collectors.toList());
+  }
+}
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import com.google.api.expr.v1alpha1.Expr;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.projectnessie.cel.common.Source;
 import org.projectnessie.cel.parser.Parser.ParseResult;
 
@@ -120,6 +121,19 @@ class UnparserTest {
     assertThat(before).isEqualTo(after);
   }
 
+  @ParameterizedTest
+  @ValueSource(strings = {"a.?b", "a.?b.c", "m[?k]", "a.?b[?0].orValue(1)"})
+  void unparseOptionalSyntax(String in) {
+    Parser parser = new Parser(Options.builder().enableOptionalSyntax(true).build());
+
+    ParseResult p = parser.parse(Source.newTextSource(in));
+    if (p.hasErrors()) {
+      fail(p.getErrors().toDisplayString());
+    }
+
+    assertThat(Unparser.unparse(p.getExpr(), p.getSourceInfo())).isEqualTo(in);
+  }
+
   @SuppressWarnings("unused")
   static Object[] unparseEquivalentSource() {
     return new Object[][] {
@@ -45,6 +45,23 @@ public final class Script {
     return evaluate(resultType, arguments);
   }
 
+  /**
+   * Test evaluates a script with the result type {@code bool} and returns its result. If the script
+   * does not evaluate to a bool value, for example because the evaluation failed or resulted in an
+   * unknown, {@code orElse} is returned. Unlike {@link #execute(Class, Function)}, this method does
+   * not throw a {@link ScriptException} and does not convert the result.
+   */
+  public boolean test(Function<String, Object> arguments, boolean orElse) {
+    Objects.requireNonNull(arguments, "arguments missing");
+    return prg.test(arguments, orElse);
+  }
+
+  /** Test is like {@link #test(Function, boolean)}, taking the arguments from a map. */
+  public boolean test(Map<String, Object> arguments, boolean orElse) {
+    Objects.requireNonNull(arguments, "arguments missing");
+    return prg.test(arguments, orElse);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T evaluate(Class<T> resultType, Object arguments) throws ScriptExecutionException {
     Objects.requireNonNull(resultType, "resultType missing");
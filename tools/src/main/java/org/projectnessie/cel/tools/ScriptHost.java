@@ -38,6 +38,8 @@ import org.projectnessie.cel.Program;
 import org.projectnessie.cel.ProgramOption;
 import org.projectnessie.cel.common.types.pb.ProtoTypeRegistry;
 import org.projectnessie.cel.common.types.ref.TypeRegistry;
+import org.projectnessie.cel.jfr.CelEvent;
+import org.projectnessie.cel.jfr.ScriptBuildEvent;
 
 /**
  * Manages {@link Script} instances, works like a factory to generate reusable scripts.
@@ -113,6 +115,27 @@ public final class ScriptHost {
     }
 
     public Script build() throws ScriptCreateException {
+      ScriptBuildEvent event = new ScriptBuildEvent();
+      event.begin();
+      String outcome = CelEvent.OutcomeFailure;
+      try {
+        Script script = createScript();
+        outcome = CelEvent.OutcomeOk;
+        return script;
+      } catch (ScriptCreateException e) {
+        outcome = CelEvent.OutcomeIssues;
+        throw e;
+      } finally {
+        event.end();
+        if (event.shouldCommit()) {
+          event.setExpression(sourceText.hashCode(), sourceText.length());
+          event.setOutcome(outcome);
+          event.commit();
+        }
+      }
+    }
+
+    private Script createScript() throws ScriptCreateException {
       List<EnvOption> envOptions = new ArrayList<>();
       envOptions.add(StdLib());
       envOptions.add(declarations(declarations));
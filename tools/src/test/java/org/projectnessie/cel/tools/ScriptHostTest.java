@@ -96,6 +96,25 @@ class ScriptHostTest {
     assertThat(result).isEqualTo("hello world");
   }
 
+  @Test
+  void test() throws Exception {
+    ScriptHost scriptHost = ScriptHost.newBuilder().build();
+
+    Script script =
+        scriptHost
+            .buildScript("10 / x > 1")
+            .withDeclarations(Decls.newVar("x", Decls.Int))
+            .build();
+
+    assertThat(script.test(singletonMap("x", 2), false)).isTrue();
+    assertThat(script.test(singletonMap("x", 20), true)).isFalse();
+    assertThat(script.test(arg -> "x".equals(arg) ? 5 : null, false)).isTrue();
+
+    // division by zero
+    assertThat(script.test(singletonMap("x", 0), false)).isFalse();
+    assertThat(script.test(singletonMap("x", 0), true)).isTrue();
+  }
+
   @Test
   void executeValReturnsCelNativeResult() throws Exception {
     ScriptHost scriptHost = ScriptHost.newBuilder().build();